@@ -0,0 +1,117 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.api;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A point in time by which a request or multi step operation (like commit and reveal, or retrieving all entries of a chain) has to complete.
+ * <p>
+ * Calls made within {@link #call(Supplier)} pick up the deadline: every request they send, and every step of the operations they start,
+ * share the remaining budget. When the deadline passes the returned promise completes exceptionally with a
+ * {@link org.blockchain_innovation.factom.client.api.errors.FactomException.DeadlineExceededException} and the work in flight is cancelled.
+ * Cancelling the promise has the same effect.
+ * </p>
+ * <pre>{@code
+ * Deadline.after(2, TimeUnit.MINUTES).call(() -> entryApi.commitAndRevealEntry(entry, address, true));
+ * }</pre>
+ */
+public final class Deadline {
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long nanoTime;
+
+    private Deadline(long nanoTime) {
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Creates a deadline relative to now.
+     *
+     * @param duration The time budget.
+     * @param unit     The unit of the duration.
+     * @return The deadline.
+     */
+    public static Deadline after(long duration, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(duration));
+    }
+
+    /**
+     * Gets the deadline of the calls made by the current thread.
+     *
+     * @return The deadline, or null when there is none.
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Makes the calls of the supplier, on the current thread, subject to this deadline. Within an enclosing deadline the earliest of both applies.
+     *
+     * @param supplier The calls to make, typically returning a promise.
+     * @param <T>      The type of the result of the supplier.
+     * @return The result of the supplier.
+     */
+    public <T> T call(Supplier<T> supplier) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(earliest(previous));
+        try {
+            return supplier.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Whether the deadline has passed.
+     *
+     * @return true when no time is left.
+     */
+    public boolean isExpired() {
+        return nanoTime - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Gets the time left until the deadline.
+     *
+     * @param unit The unit of the result.
+     * @return The time left, 0 when the deadline has passed.
+     */
+    public long timeRemaining(TimeUnit unit) {
+        return unit.convert(Math.max(0, nanoTime - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the earliest of this and another deadline.
+     *
+     * @param other The other deadline, may be null.
+     * @return The earliest deadline.
+     */
+    public Deadline earliest(Deadline other) {
+        return other == null || nanoTime - other.nanoTime <= 0 ? this : other;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining=" + timeRemaining(TimeUnit.MILLISECONDS) + " ms}";
+    }
+}
@@ -8,12 +8,14 @@ import org.blockchain_innovation.factom.client.api.model.Chain;
 import org.blockchain_innovation.factom.client.api.model.Entry;
 import org.blockchain_innovation.factom.client.api.model.response.CommitAndRevealChainResponse;
 import org.blockchain_innovation.factom.client.api.model.response.CommitAndRevealEntryResponse;
+import org.blockchain_innovation.factom.client.api.model.response.EntriesSinceResponse;
 import org.blockchain_innovation.factom.client.api.model.response.factomd.EntryBlockResponse;
 import org.blockchain_innovation.factom.client.api.model.response.factomd.EntryResponse;
 import org.blockchain_innovation.factom.client.api.ops.Encoding;
 
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 
 @SuppressWarnings({"PMD.TooManyMethods"})
@@ -65,6 +67,73 @@ public interface EntryApi {
 
     CompletableFuture<List<EntryResponse>> allEntries(String chainId, Encoding encoding);
 
+    /**
+     * Streams the latest entries of a chain, newest first. Only the entry blocks containing these entries are walked, and only these entries
+     * are retrieved, so the work does not depend on the length of the chain.
+     *
+     * @param chainId The chain id.
+     * @param count   The maximum number of entries.
+     * @return The lazily retrieved entries, hex encoded. Errors are thrown while consuming the stream.
+     */
+    Stream<EntryResponse> latestEntries(String chainId, int count);
+
+    /**
+     * Streams the latest entry blocks of a chain, newest first, walking back no further than needed.
+     *
+     * @param chainId The chain id.
+     * @param count   The maximum number of entry blocks.
+     * @return The lazily retrieved entry blocks. Errors are thrown while consuming the stream.
+     */
+    Stream<EntryBlockResponse> latestEntryBlocks(String chainId, int count);
+
+    /**
+     * Gets the entries added to a chain since a checkpoint, walking back from the chain head only until the checkpoint. Without new entry blocks
+     * this takes a single chain head request.
+     *
+     * @param chainId    The chain id.
+     * @param checkpoint The checkpoint returned by the previous call, or the key merkle root of the last entry block that has been read,
+     *                   optionally followed by a slash and the last entry hash read from that block. Null to get all entries.
+     * @return The entries since the checkpoint in chain order, and the new checkpoint. Fails when the checkpoint is not part of the chain.
+     */
+    CompletableFuture<EntriesSinceResponse> entriesSince(String chainId, String checkpoint);
+
+    /**
+     * Streams the entry blocks of a chain, newest first. Blocks are retrieved while the stream is consumed, a limited number ahead, so the
+     * chain is never held in memory as a whole. Close the stream to stop retrieving blocks when not consuming it completely.
+     *
+     * @param chainId The chain id.
+     * @return The lazily retrieved entry blocks. Errors are thrown while consuming the stream.
+     */
+    Stream<EntryBlockResponse> streamAllEntryBlocks(String chainId);
+
+    /**
+     * Streams the entry hashes and timestamps of a chain, newest block first, see {@link #streamAllEntryBlocks(String)}.
+     *
+     * @param chainId The chain id.
+     * @return The lazily retrieved entry block entries.
+     */
+    Stream<EntryBlockResponse.Entry> streamAllEntryBlocksEntries(String chainId);
+
+    /**
+     * Streams the entries of a chain, newest block first, see {@link #streamAllEntries(String, Encoding, boolean)}.
+     *
+     * @param chainId The chain id.
+     * @return The lazily retrieved entries, hex encoded.
+     */
+    Stream<EntryResponse> streamAllEntries(String chainId);
+
+    /**
+     * Streams the entries of a chain. The entries of a limited number of blocks are retrieved ahead of the consumer, so a chain of any size is
+     * read in constant memory. Oldest first first walks back the chain to find the blocks, keeping only their key merkle roots.
+     * Close the stream to stop retrieving entries when not consuming it completely.
+     *
+     * @param chainId     The chain id.
+     * @param encoding    The encoding of the content and external ids, UTF-8 or HEX.
+     * @param oldestFirst Whether to return the entries in chain order, from the first block on, instead of newest block first.
+     * @return The lazily retrieved entries. Errors are thrown while consuming the stream.
+     */
+    Stream<EntryResponse> streamAllEntries(String chainId, Encoding encoding, boolean oldestFirst);
+
     CompletableFuture<List<EntryResponse>> entriesUpTilKeyMR(String keyMR);
 
     CompletableFuture<List<EntryBlockResponse>> entryBlocksUpTilKeyMR(String keyMR);
@@ -29,6 +29,7 @@ import org.blockchain_innovation.factom.client.api.model.response.factomd.Reveal
 import org.blockchain_innovation.factom.client.api.model.response.factomd.SendRawMessageResponse;
 import org.blockchain_innovation.factom.client.api.model.response.factomd.TransactionResponse;
 
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -112,6 +113,18 @@ public interface FactomdClient {
      */
     <T> CompletableFuture<FactomResponse<T>> ackTransactions(String hash, String chainId, Class<T> rpcResultClass);
 
+    /**
+     * Retrieve the status of multiple transactions in one batch request.
+     *
+     * @param hashes         txids for factoid trans, entryhashes in other cases.
+     * @param chainId        f for factoid trans, c for entry credit trans, chain Id for reveal entry/chain.
+     * @param rpcResultClass The result class depending on the transactiontype.
+     * @param <T>            The result class type.
+     * @return The Transaction response promises, in the order of the hashes.
+     * @see #ackTransactions(String, String, Class)
+     */
+    <T> List<CompletableFuture<FactomResponse<T>>> ackTransactions(List<String> hashes, String chainId, Class<T> rpcResultClass);
+
     /**
      * The hash field for a factoid transaction is equivalent to txid.
      * The response will look different than entry related ack calls.
@@ -251,6 +264,14 @@ public interface FactomdClient {
      */
     CompletableFuture<FactomResponse<EntryResponse>> entry(String entryHash);
 
+    /**
+     * Get multiple Entries from factomd in one batch request.
+     *
+     * @param entryHashes The entry Hashes.
+     * @return The Entry response promises, in the order of the entry hashes.
+     */
+    List<CompletableFuture<FactomResponse<EntryResponse>>> entries(List<String> entryHashes);
+
     /**
      * Retrieve a specified entry block given its merkle root key. The entry block contains 0 to many entries.
      *
@@ -1,9 +1,13 @@
 package org.blockchain_innovation.factom.client.api;
 
+import org.blockchain_innovation.factom.client.api.interceptors.RpcInterceptor;
 import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
 import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.api.transport.Transport;
 
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
 
@@ -78,6 +82,31 @@ public interface LowLevelClient {
 
     <RpcResult> CompletableFuture<FactomResponse<RpcResult>> exchange(RpcRequest rpcRequest, Class<RpcResult> rpcResultClass, boolean logErrors);
 
+    /**
+     * Performs the exchange without binding the result to the model classes, for relaying or storing the json as is. This returns a promise.
+     * The result of the response is a read only buffer with the UTF-8 encoded json of the result member, located in the response body
+     * without deserializing it. Error responses are deserialized as usual.
+     *
+     * @param rpcRequest The Rpc request to send.
+     * @return The promise for the response with the raw json result.
+     */
+    CompletableFuture<FactomResponse<ByteBuffer>> exchangeRaw(RpcRequest rpcRequest);
+
+    CompletableFuture<FactomResponse<ByteBuffer>> exchangeRaw(RpcRequest rpcRequest, boolean logErrors);
+
+    /**
+     * Performs a JSON-RPC batch exchange: the requests are sent to factomd/walletd in a single HTTP request and every request gets its own promise for the response.
+     * The ids of the requests are overwritten to correlate the responses. When the server does not support batches the requests are exchanged individually.
+     *
+     * @param rpcRequests    The Rpc requests to send.
+     * @param rpcResultClass The result class of the responses.
+     * @param <RpcResult>    The type of result to expect (response).
+     * @return The promises for the responses, in the order of the requests.
+     */
+    <RpcResult> List<CompletableFuture<FactomResponse<RpcResult>>> exchangeBatch(List<RpcRequest> rpcRequests, Class<RpcResult> rpcResultClass);
+
+    <RpcResult> List<CompletableFuture<FactomResponse<RpcResult>>> exchangeBatch(List<RpcRequest> rpcRequests, Class<RpcResult> rpcResultClass, boolean logErrors);
+
     /**
      * Set the executor service for the async parts. Allows you to use your own executor services, or use managed executor services in a JEE environment. If not provided a default executor service will be provided.
      *
@@ -92,4 +121,42 @@ public interface LowLevelClient {
      * @return The executor service being used.
      */
     ExecutorService getExecutorService();
+
+    /**
+     * Set the transport that sends requests to factomd/walletd. If not provided the transport configured in the server settings will be used.
+     *
+     * @param transport The transport.
+     * @return This client.
+     */
+    LowLevelClient setTransport(Transport transport);
+
+    /**
+     * Get the transport that sends requests to factomd/walletd. If not provided the transport configured in the server settings will be created.
+     *
+     * @return The transport being used.
+     */
+    Transport getTransport();
+
+    /**
+     * Adds an interceptor that is called around every exchange of this client, after the interceptors added before it.
+     *
+     * @param interceptor The interceptor.
+     * @return This client.
+     */
+    LowLevelClient addInterceptor(RpcInterceptor interceptor);
+
+    /**
+     * Removes an interceptor.
+     *
+     * @param interceptor The interceptor.
+     * @return This client.
+     */
+    LowLevelClient removeInterceptor(RpcInterceptor interceptor);
+
+    /**
+     * Gets the interceptors of this client.
+     *
+     * @return The interceptors in the order they are called before sending.
+     */
+    List<RpcInterceptor> getInterceptors();
 }
@@ -46,6 +46,34 @@ public class FactomException extends Exception {
         }
     }
 
+    /**
+     * Thrown without contacting the server, when the circuit breaker of the server is open because of consecutive failures.
+     */
+    public static class CircuitOpenException extends ClientException {
+        public CircuitOpenException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Thrown without contacting the server, when the concurrency limit of the server is reached and the request could not be queued or
+     * waited too long.
+     */
+    public static class ConcurrencyLimitException extends ClientException {
+        public ConcurrencyLimitException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Thrown when a request or multi step operation did not complete before its deadline. The request in flight has been cancelled.
+     */
+    public static class DeadlineExceededException extends ClientException {
+        public DeadlineExceededException(String message) {
+            super(message);
+        }
+    }
+
     public static class RpcErrorException extends ClientException {
 
         private final FactomResponse<?> factomErrorResponse;
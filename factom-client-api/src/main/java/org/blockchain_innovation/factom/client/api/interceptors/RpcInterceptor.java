@@ -0,0 +1,145 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.api.interceptors;
+
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.rpc.RpcErrorResponse;
+import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
+
+import java.net.URL;
+
+/**
+ * Intercepts the exchanges of a {@link org.blockchain_innovation.factom.client.api.LowLevelClient} with factomd/walletd, for instance to add tracing
+ * or authentication headers, audit or inspect payloads, inject faults, or answer requests from a cache or a mock without touching the network.
+ * <p>
+ * Interceptors are called in the order they were added before the request is sent, and in reverse order once the response or error is received.
+ * An interceptor answering a request in {@link #beforeSend(Invocation)} short-circuits the chain: the interceptors after it and the network are skipped,
+ * and only the interceptors before it see the response. Interceptors are called on the threads of the client, so they should not block.
+ * </p>
+ * <p>
+ * Interceptors see the requests as they are sent: identical reads that are coalesced are intercepted once and batch requests are sent individually.
+ * </p>
+ */
+public interface RpcInterceptor {
+
+    /**
+     * Called before the request is sent. Headers set on the invocation are added to the HTTP request.
+     *
+     * @param invocation The intercepted exchange.
+     * @param <Result>   The type of the result.
+     * @return A response to answer the request without sending it, or null to continue.
+     */
+    default <Result> FactomResponse<Result> beforeSend(Invocation<Result> invocation) {
+        return null;
+    }
+
+    /**
+     * Called when the response has been received, including responses with an Rpc error.
+     *
+     * @param invocation The intercepted exchange.
+     * @param response   The response.
+     * @param <Result>   The type of the result.
+     * @return The response to hand to the caller, normally the same response.
+     */
+    default <Result> FactomResponse<Result> afterReceive(Invocation<Result> invocation, FactomResponse<Result> response) {
+        return response;
+    }
+
+    /**
+     * Called when the exchange failed, like when the server could not be reached or answered with an HTTP error.
+     *
+     * @param invocation The intercepted exchange.
+     * @param error      The error.
+     * @param <Result>   The type of the result.
+     * @return A response to recover with, or null to keep the error.
+     */
+    default <Result> FactomResponse<Result> onError(Invocation<Result> invocation, Throwable error) {
+        return null;
+    }
+
+    /**
+     * A single intercepted exchange.
+     *
+     * @param <Result> The type of the result.
+     */
+    interface Invocation<Result> {
+
+        /**
+         * Gets the Rpc request.
+         *
+         * @return The request.
+         */
+        RpcRequest getRpcRequest();
+
+        /**
+         * Gets the class of the expected result.
+         *
+         * @return The result class.
+         */
+        Class<Result> getResultClass();
+
+        /**
+         * Gets the URL of the endpoint the request is sent to. Until the request is routed to a node this is the URL of the server.
+         *
+         * @return The URL.
+         */
+        URL getUrl();
+
+        /**
+         * Sets a header of the HTTP request, replacing the value set by the client.
+         *
+         * @param name  The header name.
+         * @param value The header value.
+         * @return This invocation.
+         */
+        Invocation<Result> setHeader(String name, String value);
+
+        /**
+         * Stores a value for the duration of the exchange, to pass state from before sending to after receiving.
+         *
+         * @param name  The name of the attribute.
+         * @param value The value.
+         * @return This invocation.
+         */
+        Invocation<Result> setAttribute(String name, Object value);
+
+        /**
+         * Gets a value stored for the duration of the exchange.
+         *
+         * @param name The name of the attribute.
+         * @param <T>  The type of the value.
+         * @return The value or null.
+         */
+        <T> T getAttribute(String name);
+
+        /**
+         * Creates a successful response for this exchange, to answer the request without sending it.
+         *
+         * @param result The result.
+         * @return The response.
+         */
+        FactomResponse<Result> respond(Result result);
+
+        /**
+         * Creates an Rpc error response for this exchange, to answer the request without sending it.
+         *
+         * @param errorResponse The error response.
+         * @return The response.
+         */
+        FactomResponse<Result> respondWithError(RpcErrorResponse errorResponse);
+    }
+}
@@ -20,10 +20,34 @@ import org.blockchain_innovation.factom.client.api.errors.FactomRuntimeException
 import org.blockchain_innovation.factom.client.api.rpc.RpcErrorResponse;
 import org.blockchain_innovation.factom.client.api.rpc.RpcResponse;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
 import java.util.Properties;
 import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
 
+/**
+ * Converts between json and the Rpc requests, responses and results.
+ * <p>
+ * Next to the String based methods there are streaming variants taking a {@link Reader}/{@link Writer} or {@link InputStream}/{@link OutputStream},
+ * so large responses like entry blocks do not have to be buffered as a String first. Streams are always UTF-8 encoded json.
+ * The default implementations of the {@link Reader}/{@link Writer} methods buffer the json, converters should override them to really stream.
+ * Closing the readers, writers and streams is up to the caller.
+ * </p>
+ */
 public interface JsonConverter {
 
     void addAdapter(Type type, Object adapter);
@@ -44,6 +68,26 @@ public interface JsonConverter {
      */
     RpcErrorResponse errorFromJson(String json);
 
+    /**
+     * Deserializes an RPC error in json format from a factomd or walletd RPC server, reading it from a character stream.
+     *
+     * @param reader The reader of the error json.
+     * @return The RPC Error response.
+     */
+    default RpcErrorResponse errorFromJson(Reader reader) {
+        return errorFromJson(read(reader));
+    }
+
+    /**
+     * Deserializes an RPC error in json format from a factomd or walletd RPC server, reading it from an UTF-8 byte stream.
+     *
+     * @param in The stream of the error json.
+     * @return The RPC Error response.
+     */
+    default RpcErrorResponse errorFromJson(InputStream in) {
+        return errorFromJson(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
     /**
      * Deserializes a response from factomd or walletd into a proper RCP Response object with an appropriate result
      * object as POJO.
@@ -55,6 +99,57 @@ public interface JsonConverter {
      */
     <Result> RpcResponse<Result> responseFromJson(String json, Class<Result> resultClass);
 
+    /**
+     * Deserializes a response from factomd or walletd, reading it from a character stream. The response contains either the result or the error.
+     *
+     * @param reader      The reader of the json response.
+     * @param resultClass The target result class for the response.
+     * @param <Result>    The target result type.
+     * @return The Rpc Response.
+     */
+    default <Result> RpcResponse<Result> responseFromJson(Reader reader, Class<Result> resultClass) {
+        return responseFromJson(read(reader), resultClass);
+    }
+
+    /**
+     * Deserializes a response from factomd or walletd, reading it from an UTF-8 byte stream. The response contains either the result or the error.
+     *
+     * @param in          The stream of the json response.
+     * @param resultClass The target result class for the response.
+     * @param <Result>    The target result type.
+     * @return The Rpc Response.
+     */
+    default <Result> RpcResponse<Result> responseFromJson(InputStream in, Class<Result> resultClass) {
+        return responseFromJson(new InputStreamReader(in, StandardCharsets.UTF_8), resultClass);
+    }
+
+    /**
+     * Splits a JSON-RPC batch response, which is a json array of responses, into the json of the individual responses.
+     * The individual responses can be deserialized using {@link #responseFromJson(String, Class)} and {@link #errorFromJson(String)}.
+     * The default implementation throws, converters that predate batch requests keep working for all other requests.
+     *
+     * @param json The json array response as String from factomd or walletd.
+     * @return The json of the individual responses in the order of the array.
+     * @throws FactomRuntimeException When the converter does not support batch responses.
+     */
+    default List<String> batchFromJson(String json) {
+        throw new FactomRuntimeException(String.format("Json converter %s does not support batch responses", getName()));
+    }
+
+    /**
+     * Deserializes a JSON-RPC batch response, which is a json array of responses, reading it from a character stream.
+     *
+     * @param reader      The reader of the json array response.
+     * @param resultClass The target result class for the responses.
+     * @param <Result>    The target result type.
+     * @return The Rpc Responses in the order of the array.
+     */
+    default <Result> List<RpcResponse<Result>> batchFromJson(Reader reader, Class<Result> resultClass) {
+        return batchFromJson(read(reader)).stream()
+                .map(json -> responseFromJson(json, resultClass))
+                .collect(Collectors.toList());
+    }
+
     /**
      * Deserialized a json
      * object as POJO.
@@ -82,6 +177,31 @@ public interface JsonConverter {
      */
     String toRpcJson(Object source);
 
+    /**
+     * Serializes the input object as json to a character stream. The writer is flushed but not closed.
+     *
+     * @param source The source object.
+     * @param writer The writer to write the json to.
+     */
+    default void toRpcJson(Object source, Writer writer) {
+        try {
+            writer.write(toRpcJson(source));
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Serializes the input object as UTF-8 encoded json to a byte stream. The stream is flushed but not closed.
+     *
+     * @param source The source object.
+     * @param out    The stream to write the json to.
+     */
+    default void toRpcJson(Object source, OutputStream out) {
+        toRpcJson(source, new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
     String toGenericJson(Object object, Type runtimeType);
 
     /**
@@ -91,10 +211,53 @@ public interface JsonConverter {
      */
     String getName();
 
+    /**
+     * Reads all json from the reader, for converters that do not support streaming.
+     *
+     * @param reader The reader.
+     * @return The json.
+     */
+    static String read(Reader reader) {
+        // Json does not allow line breaks in strings, so joining the lines retains the content
+        return new BufferedReader(reader).lines().collect(Collectors.joining("\n"));
+    }
+
     /**
      * SPI specific details are contained in this class.
+     * <p>
+     * Use {@link #getInstance()} for the shared, configured converter. Service loading and building the underlying json library only
+     * happens once per converter, so this is the preferred way on hot paths. {@link #newInstance()} creates a new, unconfigured converter every time.
+     * </p>
      */
     class Provider {
+        private static final String DEFAULT_CONVERTER = "";
+        private static final ConcurrentMap<String, JsonConverter> INSTANCES = new ConcurrentHashMap<>();
+
+        /**
+         * Gets the shared JsonConverter instance. It is configured with default properties and must not be reconfigured.
+         *
+         * @return The shared Json Converter.
+         */
+        public static JsonConverter getInstance() {
+            return INSTANCES.computeIfAbsent(DEFAULT_CONVERTER, key -> newInstance().configure(new Properties()));
+        }
+
+        /**
+         * Gets the shared JsonConverter instance by name. It is configured with default properties and must not be reconfigured.
+         *
+         * @param converterName The name of the converter.
+         * @return The shared converter belonging to the supplied name.
+         */
+        public static JsonConverter getInstance(String converterName) {
+            return INSTANCES.computeIfAbsent(converterName.toUpperCase(Locale.ROOT), key -> newInstance(converterName).configure(new Properties()));
+        }
+
+        /**
+         * Forgets the shared instances, so the converters are looked up again. Useful when the classpath changes, like in OSGi environments.
+         */
+        public static void clearInstances() {
+            INSTANCES.clear();
+        }
 
         /**
          * Create a new JsonConverter instance.
@@ -1,7 +1,13 @@
 package org.blockchain_innovation.factom.client.api.log;
 
+import java.util.function.Supplier;
+
 /**
  * The logger interface is used to support different logging frameworks as SPIs.
+ * <p>
+ * Implementations only format the message when the level is enabled. Messages that are expensive to build, like pretty printed json, should use
+ * the supplier overloads, or a level guard on hot paths, so a disabled level costs nothing.
+ * </p>
  */
 public interface Logger {
 
@@ -30,6 +36,29 @@ public interface Logger {
      */
     boolean isDebugEnabled();
 
+    /**
+     * Log a debug message that is only built when the level is enabled.
+     *
+     * @param message The supplier of the message.
+     */
+    default void debug(Supplier<String> message) {
+        if (isDebugEnabled()) {
+            debug("%s", message.get());
+        }
+    }
+
+    /**
+     * Log a debug message that is only built when the level is enabled, together with a throwable.
+     *
+     * @param message   The supplier of the message.
+     * @param throwable The throwable
+     */
+    default void debug(Supplier<String> message, Throwable throwable) {
+        if (isDebugEnabled()) {
+            debug("%s", throwable, message.get());
+        }
+    }
+
 
     /**
      * Log an info message.
@@ -56,6 +85,29 @@ public interface Logger {
      */
     boolean isInfoEnabled();
 
+    /**
+     * Log an info message that is only built when the level is enabled.
+     *
+     * @param message The supplier of the message.
+     */
+    default void info(Supplier<String> message) {
+        if (isInfoEnabled()) {
+            info("%s", message.get());
+        }
+    }
+
+    /**
+     * Log an info message that is only built when the level is enabled, together with a throwable.
+     *
+     * @param message   The supplier of the message.
+     * @param throwable The throwable
+     */
+    default void info(Supplier<String> message, Throwable throwable) {
+        if (isInfoEnabled()) {
+            info("%s", throwable, message.get());
+        }
+    }
+
 
     /**
      * Log a warning message.
@@ -82,6 +134,29 @@ public interface Logger {
      */
     boolean isWarnEnabled();
 
+    /**
+     * Log a warning message that is only built when the level is enabled.
+     *
+     * @param message The supplier of the message.
+     */
+    default void warn(Supplier<String> message) {
+        if (isWarnEnabled()) {
+            warn("%s", message.get());
+        }
+    }
+
+    /**
+     * Log a warning message that is only built when the level is enabled, together with a throwable.
+     *
+     * @param message   The supplier of the message.
+     * @param throwable The throwable
+     */
+    default void warn(Supplier<String> message, Throwable throwable) {
+        if (isWarnEnabled()) {
+            warn("%s", throwable, message.get());
+        }
+    }
+
 
     /**
      * Log an error message.
@@ -107,4 +182,27 @@ public interface Logger {
      * @return error logging is enabled or not.
      */
     boolean isErrorEnabled();
+
+    /**
+     * Log an error message that is only built when the level is enabled.
+     *
+     * @param message The supplier of the message.
+     */
+    default void error(Supplier<String> message) {
+        if (isErrorEnabled()) {
+            error("%s", message.get());
+        }
+    }
+
+    /**
+     * Log an error message that is only built when the level is enabled, together with a throwable.
+     *
+     * @param message   The supplier of the message.
+     * @param throwable The throwable
+     */
+    default void error(Supplier<String> message, Throwable throwable) {
+        if (isErrorEnabled()) {
+            error("%s", throwable, message.get());
+        }
+    }
 }
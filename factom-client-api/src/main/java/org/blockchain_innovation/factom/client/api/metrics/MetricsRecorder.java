@@ -0,0 +1,130 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.api.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ServiceLoader;
+
+/**
+ * A metrics abstraction (Service Provider Interface), to allow plugging in different metrics libraries without this library pulling them in.
+ * The client hands every finished exchange to the recorder, with the request count, errors, payload sizes and the latency of every phase.
+ * <p>
+ * Recording happens on the threads completing the exchanges, so implementations need to be thread safe and fast.
+ * </p>
+ */
+public interface MetricsRecorder {
+
+    /**
+     * A recorder that discards everything.
+     */
+    MetricsRecorder NOOP = new MetricsRecorder() {
+        @Override
+        public String getName() {
+            return "noop";
+        }
+
+        @Override
+        public void record(RequestMetrics metrics) {
+            // Metrics are disabled
+        }
+    };
+
+    /**
+     * The name of the recorder implementation.
+     *
+     * @return The name.
+     */
+    String getName();
+
+    /**
+     * Records a finished exchange.
+     *
+     * @param metrics The measurements of the exchange.
+     */
+    void record(RequestMetrics metrics);
+
+    /**
+     * The SPI work is being done in this provider class.
+     */
+    class Provider {
+        private static final MetricsRecorder recorder = load();
+
+        /**
+         * Gets the recorder that records to all registered recorders, like the in memory recorder of the client and the Micrometer binding when on the classpath.
+         *
+         * @return The recorder, or the no-op recorder when none is registered.
+         */
+        public static MetricsRecorder getInstance() {
+            return recorder;
+        }
+
+        /**
+         * Gets a registered recorder by name.
+         *
+         * @param name The name of the recorder. eg: in-memory.
+         * @param <T>  The type of the recorder.
+         * @return The recorder or null when no recorder by that name is registered.
+         */
+        @SuppressWarnings("unchecked")
+        public static <T extends MetricsRecorder> T getInstance(String name) {
+            for (MetricsRecorder registered : getRecorders()) {
+                if (registered.getName().equalsIgnoreCase(name)) {
+                    return (T) registered;
+                }
+            }
+            return null;
+        }
+
+        private static List<MetricsRecorder> getRecorders() {
+            return recorder instanceof Composite ? ((Composite) recorder).recorders : Collections.singletonList(recorder);
+        }
+
+        private static MetricsRecorder load() {
+            List<MetricsRecorder> recorders = new ArrayList<>();
+            ServiceLoader.load(MetricsRecorder.class).forEach(recorders::add);
+            if (recorders.isEmpty()) {
+                return NOOP;
+            }
+            return recorders.size() == 1 ? recorders.get(0) : new Composite(recorders);
+        }
+    }
+
+    /**
+     * Records to multiple recorders.
+     */
+    final class Composite implements MetricsRecorder {
+        private final List<MetricsRecorder> recorders;
+
+        Composite(List<MetricsRecorder> recorders) {
+            this.recorders = Collections.unmodifiableList(new ArrayList<>(recorders));
+        }
+
+        @Override
+        public String getName() {
+            return "composite";
+        }
+
+        @Override
+        public void record(RequestMetrics metrics) {
+            for (MetricsRecorder recorder : recorders) {
+                recorder.record(metrics);
+            }
+        }
+    }
+}
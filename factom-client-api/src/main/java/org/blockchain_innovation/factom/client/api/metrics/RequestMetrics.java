@@ -0,0 +1,221 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.api.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The measurements of a single exchange with factomd/walletd, from the moment it was submitted until the response has been decoded.
+ * The client and the {@link org.blockchain_innovation.factom.client.api.transport.Transport} mark the phases while the request progresses,
+ * after which the measurements are handed to the {@link MetricsRecorder}.
+ * <p>
+ * When a request is retried, the connect, server and decode phases are those of the last attempt. The queue phase then includes the
+ * earlier attempts and the backoff in between. Phases that a transport cannot observe are not recorded.
+ * </p>
+ */
+public class RequestMetrics {
+
+    /**
+     * The phases of an exchange.
+     */
+    public enum Phase {
+        /**
+         * Waiting for a concurrency permit and an executor thread, until the transport starts sending.
+         */
+        QUEUE,
+        /**
+         * Leasing or opening the connection.
+         */
+        CONNECT,
+        /**
+         * Writing the request and waiting for the status line and headers of the response.
+         */
+        SERVER,
+        /**
+         * Reading and deserializing the response body.
+         */
+        DECODE,
+        /**
+         * The whole exchange.
+         */
+        TOTAL
+    }
+
+    private static final long NOT_SET = -1;
+
+    private final long submitted = System.nanoTime();
+    private volatile long sending = NOT_SET;
+    private volatile long connected = NOT_SET;
+    private volatile long responded = NOT_SET;
+    private volatile long completed = NOT_SET;
+    private volatile long requestBytes;
+    private volatile long responseBytes;
+    private volatile String method;
+    private volatile String server;
+    private volatile int statusCode = -1;
+    private volatile Class<? extends Throwable> errorType;
+
+    /**
+     * Marks that the transport starts sending the request, ending the queue phase.
+     */
+    public void sending() {
+        this.sending = System.nanoTime();
+    }
+
+    /**
+     * Marks that the transport obtained a connection to the server, ending the connect phase.
+     */
+    public void connected() {
+        this.connected = System.nanoTime();
+    }
+
+    /**
+     * Marks that the status line and headers of the response have been received, ending the server phase.
+     */
+    public void responded() {
+        this.responded = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of the exchange.
+     *
+     * @param method     The Rpc method, or batch for a batch request.
+     * @param server     The URL of the node the request was sent to.
+     * @param statusCode The HTTP status code, or -1 when there was no response.
+     * @param errorType  The type of the error the exchange ended with, or null when it succeeded.
+     */
+    public void completed(String method, String server, int statusCode, Class<? extends Throwable> errorType) {
+        this.method = method;
+        this.server = server;
+        this.statusCode = statusCode;
+        this.errorType = errorType;
+        this.completed = System.nanoTime();
+    }
+
+    /**
+     * Sets the size of the request body as sent.
+     *
+     * @param requestBytes The number of bytes.
+     */
+    public void setRequestBytes(long requestBytes) {
+        this.requestBytes = requestBytes;
+    }
+
+    /**
+     * Adds to the size of the response body as received.
+     *
+     * @param bytes The number of bytes read.
+     */
+    public void addResponseBytes(long bytes) {
+        this.responseBytes += bytes;
+    }
+
+    /**
+     * Gets the duration of a phase.
+     *
+     * @param phase The phase.
+     * @param unit  The unit of the duration.
+     * @return The duration, or -1 when the phase has not been observed.
+     */
+    public long getDuration(Phase phase, TimeUnit unit) {
+        long nanos;
+        switch (phase) {
+            case QUEUE:
+                nanos = between(submitted, sending);
+                break;
+            case CONNECT:
+                nanos = between(sending, connected);
+                break;
+            case SERVER:
+                nanos = between(connected != NOT_SET ? connected : sending, responded);
+                break;
+            case DECODE:
+                nanos = between(responded, completed);
+                break;
+            default:
+                nanos = between(submitted, completed);
+        }
+        return nanos < 0 ? NOT_SET : unit.convert(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the size of the request body as sent, after compression.
+     *
+     * @return The number of bytes.
+     */
+    public long getRequestBytes() {
+        return requestBytes;
+    }
+
+    /**
+     * Gets the size of the response body as received, before decompression.
+     *
+     * @return The number of bytes.
+     */
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+
+    /**
+     * Gets the Rpc method of the exchange.
+     *
+     * @return The json name of the method, batch for batch requests or unknown.
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Gets the URL of the node the request was sent to.
+     *
+     * @return The URL.
+     */
+    public String getServer() {
+        return server;
+    }
+
+    /**
+     * Gets the HTTP status code of the response.
+     *
+     * @return The status code, or -1 when there was no response.
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Gets the type of error the exchange ended with, like {@link org.blockchain_innovation.factom.client.api.errors.FactomException.RpcErrorException}.
+     *
+     * @return The error type or null when the exchange succeeded.
+     */
+    public Class<? extends Throwable> getErrorType() {
+        return errorType;
+    }
+
+    /**
+     * Whether the exchange succeeded.
+     *
+     * @return true when there was no error.
+     */
+    public boolean isSuccess() {
+        return errorType == null;
+    }
+
+    private static long between(long start, long end) {
+        return start == NOT_SET || end == NOT_SET ? NOT_SET : end - start;
+    }
+}
@@ -0,0 +1,38 @@
+package org.blockchain_innovation.factom.client.api.model.response;
+
+import org.blockchain_innovation.factom.client.api.model.response.factomd.EntryResponse;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The entries added to a chain since a checkpoint, in chain order, and the checkpoint to use for the next read.
+ */
+public class EntriesSinceResponse implements Serializable {
+    private List<EntryResponse> entries = new ArrayList<>();
+    private String checkpoint;
+
+    public List<EntryResponse> getEntries() {
+        return entries;
+    }
+
+    public EntriesSinceResponse setEntries(List<EntryResponse> entries) {
+        this.entries = entries;
+        return this;
+    }
+
+    /**
+     * The checkpoint after the returned entries: the key merkle root of the newest entry block, or null when the chain has no entry blocks yet.
+     *
+     * @return The checkpoint token.
+     */
+    public String getCheckpoint() {
+        return checkpoint;
+    }
+
+    public EntriesSinceResponse setCheckpoint(String checkpoint) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+}
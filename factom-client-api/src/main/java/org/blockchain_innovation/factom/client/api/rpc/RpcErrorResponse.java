@@ -23,6 +23,16 @@ public class RpcErrorResponse implements Serializable {
     private int id;
     private String jsonrpc;
 
+    public RpcErrorResponse() {
+        // This constructor is intentionally empty. Nothing special is needed here, since we leave it up to deserializers
+    }
+
+    public RpcErrorResponse(int id, String jsonrpc, Error error) {
+        this.id = id;
+        this.jsonrpc = jsonrpc;
+        this.error = error;
+    }
+
     public int getId() {
         return id;
     }
@@ -19,7 +19,10 @@ package org.blockchain_innovation.factom.client.api.rpc;
 import org.blockchain_innovation.factom.client.api.errors.FactomRuntimeException;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Locale;
+import java.util.Set;
 
 /**
  * This represents all RpcMethods accepted by factomd and walletd. Please note that the enum names used here sometimes differ slightly
@@ -83,6 +86,21 @@ public enum RpcMethod {
     TRANSACTIONS("transactions"),
     WALLET_BACKUP("wallet-backup");
 
+    /**
+     * Methods that change state on the node, like submitting entries and transactions or changing the wallet.
+     */
+    private static final Set<RpcMethod> STATE_CHANGING = Collections.unmodifiableSet(EnumSet.of(
+            COMMIT_CHAIN, COMMIT_ENTRY, FACTOID_SUBMIT, REVEAL_CHAIN, REVEAL_ENTRY, SEND_RAW_MESSAGE,
+            ADD_ENTRY_CREDIT_OUTPUT, ADD_FEE, ADD_INPUT, ADD_OUTPUT, DELETE_TRANSACTION, GENERATE_ENTRY_CREDIT_ADDRESS,
+            GENERATE_FACTOID_ADDRESS, IMPORT_ADDRESSES, IMPORT_KOINIFY, NEW_TRANSACTION, SIGN_TRANSACTION, SUB_FEE));
+
+    /**
+     * Methods returning data that never changes once the node returned it: blocks by key merkle root or height, and entries and raw data by hash.
+     */
+    private static final Set<RpcMethod> IMMUTABLE = Collections.unmodifiableSet(EnumSet.of(
+            ADMIN_BLOCK_BY_HEIGHT, ADMIN_BLOCK_BY_KEYMR, DIRECTORY_BLOCK_BY_HEIGHT, DIRECTORY_BLOCK_BY_KEYMR, ENTRY, ENTRY_BLOCK_BY_KEYMR,
+            ENTRY_CREDIT_BLOCK_BY_HEIGH, ENTRY_CREDIT_BLOCK, FACTOID_BLOCK, FACTOID_BLOCK_BY_HEIGHT, RAW_DATA, RECEIPT));
+
     private final String method;
 
     /**
@@ -164,5 +182,24 @@ public enum RpcMethod {
         return method;
     }
 
+    /**
+     * Whether this method only reads data, so any node of the network can answer it.
+     *
+     * @return false for methods that submit data to the node or change the wallet.
+     */
+    public boolean isReadOnly() {
+        return !STATE_CHANGING.contains(this);
+    }
+
+    /**
+     * Whether the result of this method never changes once the node returned it, so it can be cached. Receipts only become final once the
+     * entry is anchored.
+     *
+     * @return true for blocks, entries and raw data looked up by hash, key merkle root or height.
+     */
+    public boolean isImmutable() {
+        return IMMUTABLE.contains(this);
+    }
+
 
 }
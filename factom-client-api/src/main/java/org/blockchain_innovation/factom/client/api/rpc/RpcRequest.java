@@ -107,6 +107,18 @@ public class RpcRequest implements Serializable {
         return this;
     }
 
+    /**
+     * Creates a copy of this request with another id, leaving this request unchanged. The parameter values are shared with this request.
+     *
+     * @param id The id of the copy.
+     * @return The copy.
+     */
+    public RpcRequest copy(int id) {
+        RpcRequest copy = new RpcRequest(method).setId(id);
+        copy.params = params == null ? null : new HashMap<>(params);
+        return copy;
+    }
+
     /**
      * The json rpc version ("2.0").
      *
@@ -26,6 +26,7 @@ public class RpcResponse<Result> {
     private int id;
     private String jsonrpc;
     private Result result;
+    private RpcErrorResponse.Error error;
 
     /**
      * The Rpc Response.
@@ -71,4 +72,22 @@ public class RpcResponse<Result> {
         return result;
     }
 
+    /**
+     * Gets the error of the factomd or walletd node, when the call did not result in a result.
+     *
+     * @return The error or null when the call succeeded
+     */
+    public RpcErrorResponse.Error getError() {
+        return error;
+    }
+
+    /**
+     * Converts this response into an error response, for responses that contain an error instead of a result.
+     *
+     * @return The error response
+     */
+    public RpcErrorResponse toErrorResponse() {
+        return new RpcErrorResponse(id, jsonrpc, error);
+    }
+
 }
@@ -18,8 +18,11 @@ package org.blockchain_innovation.factom.client.api.settings;
 
 import org.blockchain_innovation.factom.client.api.SigningMode;
 import org.blockchain_innovation.factom.client.api.model.Address;
+import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
 
 import java.net.URL;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.Optional;
 
@@ -68,16 +71,248 @@ public interface RpcSettings {
     Proxy getProxy();
 
     /**
-     * Represents the server settings for the factomd/walletd clients.
+     * Represents the server settings for the factomd/walletd clients. The default methods return the defaults of the client, so implementations
+     * only have to provide the settings they support.
      */
     interface Server {
         /**
-         * Gets the URL of factomd/walletd V2 API the clients needs to connect to.
+         * Gets the URL of factomd/walletd V2 API the clients needs to connect to. When multiple endpoints are configured this is the first one.
          *
          * @return The URL of factomd/walletd V2 API.
          */
         URL getURL();
 
+        /**
+         * Gets the endpoints (nodes) of this server. Read requests are balanced over the healthy endpoints, requests that change state go to the
+         * first healthy endpoint. When only a single URL is configured this contains that URL.
+         *
+         * @return The endpoints in configured order.
+         */
+        default List<Endpoint> getEndpoints() {
+            URL url = getURL();
+            return url == null ? Collections.emptyList() : Collections.singletonList(() -> url);
+        }
+
+        /**
+         * Gets the interval in seconds at which the heights of the endpoints are checked, so endpoints that lag behind can be avoided.
+         * Only applies when there are multiple endpoints. A value of 0 disables the health checks.
+         *
+         * @return The health check interval in seconds.
+         */
+        default int getHealthCheckInterval() {
+            return 30;
+        }
+
+        /**
+         * Gets the number of blocks an endpoint may be behind the highest endpoint, before read requests avoid it.
+         *
+         * @return The maximum height lag in blocks.
+         */
+        default int getMaxHeightLag() {
+            return 2;
+        }
+
+        /**
+         * Gets the number of consecutive failures after which an endpoint is ejected, meaning it gets no requests for the ejection time.
+         *
+         * @return The number of failures.
+         */
+        default int getEjectAfterFailures() {
+            return 3;
+        }
+
+        /**
+         * Gets the time in seconds an ejected endpoint does not receive requests, unless no other endpoint is available.
+         *
+         * @return The ejection time in seconds.
+         */
+        default int getEjectionTime() {
+            return 30;
+        }
+
+        /**
+         * Gets the maximum number of retries of a request that failed because the server could not be reached or was unavailable.
+         * Only requests of retryable methods are retried, which are the read only methods and the {@link #getRetrySafeMethods() safe methods}.
+         *
+         * @return The maximum number of retries. 0 disables retries.
+         */
+        default int getMaxRetries() {
+            return 2;
+        }
+
+        /**
+         * Gets the backoff in milliseconds before the first retry. The backoff doubles for every next retry, and a random part of it is used as delay.
+         *
+         * @return The initial backoff in milliseconds.
+         */
+        default int getRetryBackoff() {
+            return 100;
+        }
+
+        /**
+         * Gets the maximum backoff in milliseconds between retries.
+         *
+         * @return The maximum backoff in milliseconds.
+         */
+        default int getRetryMaxBackoff() {
+            return 2000;
+        }
+
+        /**
+         * Gets the methods that change state, but are explicitly marked as safe to retry, like reveals that can be repeated without effect.
+         *
+         * @return The additional retryable methods.
+         */
+        default List<RpcMethod> getRetrySafeMethods() {
+            return Collections.emptyList();
+        }
+
+        /**
+         * Gets the number of consecutive failures after which the circuit breaker of the server opens. While open, requests fail fast without
+         * contacting the server.
+         *
+         * @return The number of failures. 0 disables the circuit breaker.
+         */
+        default int getCircuitBreakerFailures() {
+            return 5;
+        }
+
+        /**
+         * Gets the time in seconds the circuit breaker stays open, before a single trial request is allowed.
+         *
+         * @return The open time in seconds.
+         */
+        default int getCircuitBreakerOpenTime() {
+            return 10;
+        }
+
+        /**
+         * Gets the initial limit of concurrent requests to the server. The limit adapts to the round trip times and failures of the requests.
+         *
+         * @return The initial concurrency limit. 0 disables the limit.
+         */
+        default int getConcurrencyLimit() {
+            return 0;
+        }
+
+        /**
+         * Gets the maximum the adaptive concurrency limit can grow to.
+         *
+         * @return The maximum concurrency limit.
+         */
+        default int getMaxConcurrencyLimit() {
+            return 100;
+        }
+
+        /**
+         * Gets the maximum number of requests waiting for the concurrency limit. Requests beyond it fail fast.
+         *
+         * @return The maximum queue size. 0 fails requests beyond the limit immediately.
+         */
+        default int getConcurrencyQueueSize() {
+            return 100;
+        }
+
+        /**
+         * Gets the maximum time in milliseconds a request waits for the concurrency limit, before it fails.
+         *
+         * @return The maximum wait in milliseconds.
+         */
+        default int getConcurrencyMaxWait() {
+            return 5000;
+        }
+
+        /**
+         * Gets the maximum number of threads of the default executor of the client.
+         *
+         * @return The maximum number of threads.
+         */
+        default int getExecutorThreads() {
+            return 10;
+        }
+
+        /**
+         * Gets the capacity of the work queue of the default executor of the client.
+         *
+         * @return The queue capacity.
+         */
+        default int getExecutorQueueSize() {
+            return 1000;
+        }
+
+        /**
+         * Gets what the default executor does when all threads are busy and the queue is full: caller-runs, block or fail-fast.
+         *
+         * @return The saturation policy.
+         */
+        default String getExecutorSaturationPolicy() {
+            return "caller-runs";
+        }
+
+        /**
+         * Gets the maximum time in milliseconds to wait for room in the queue of the default executor, when using the block policy.
+         *
+         * @return The block timeout in milliseconds.
+         */
+        default int getExecutorBlockTimeout() {
+            return 5000;
+        }
+
+        /**
+         * Whether the client runs its blocking work on a new virtual thread per task instead of the default executor. Only has effect on Java 21+,
+         * older JVMs keep using the default executor.
+         *
+         * @return true to use virtual threads when available.
+         */
+        default boolean isVirtualThreads() {
+            return false;
+        }
+
+        /**
+         * Whether the exchanges with the server are recorded by the registered metrics recorders.
+         *
+         * @return true to record metrics.
+         */
+        default boolean isMetrics() {
+            return true;
+        }
+
+        /**
+         * Whether identical read only requests that are in flight at the same time are sent once, with all callers getting the same response.
+         *
+         * @return true to coalesce identical reads.
+         */
+        default boolean isCoalesceReads() {
+            return true;
+        }
+
+        /**
+         * Gets the maximum size in bytes of the cache of immutable responses, like blocks and entries. The default of 0 disables the cache.
+         *
+         * @return The maximum size of the cache in bytes.
+         */
+        default long getCacheMaxBytes() {
+            return 0;
+        }
+
+        /**
+         * Gets the directory of the persistent store of immutable responses, which survives restarts. The store is disabled when not set.
+         *
+         * @return The directory of the store or null.
+         */
+        default String getStoreDir() {
+            return null;
+        }
+
+        /**
+         * Gets the maximum size in bytes of the persistent store. The default is 1 GiB.
+         *
+         * @return The maximum size of the store in bytes.
+         */
+        default long getStoreMaxBytes() {
+            return 1L << 30;
+        }
+
         /**
          * Gets the username for Basic Auth to the API.
          *
@@ -100,6 +335,104 @@ public interface RpcSettings {
         int getTimeout();
 
         Optional<String> getNetworkName();
+
+        /**
+         * Gets the name of the transport used to talk to factomd/walletd, like "pooled" (default) or "legacy" (HttpURLConnection).
+         *
+         * @return The transport name.
+         */
+        default String getTransport() {
+            return "pooled";
+        }
+
+        /**
+         * Gets the maximum number of persistent connections the pooled transport keeps open to this server.
+         *
+         * @return The maximum number of connections.
+         */
+        default int getMaxConnections() {
+            return 10;
+        }
+
+        /**
+         * Gets the time in seconds after which an unused pooled connection is closed.
+         *
+         * @return The idle timeout in seconds.
+         */
+        default int getIdleTimeout() {
+            return 60;
+        }
+
+        /**
+         * Gets the time in seconds a pooled connection may be idle before it is checked for being closed by the server prior to reuse.
+         * A value of 0 checks the connection every time it is reused.
+         *
+         * @return The inactivity period in seconds.
+         */
+        default int getValidateAfterInactivity() {
+            return 2;
+        }
+
+        /**
+         * Gets the content encoding used to compress the traffic with factomd/walletd, "gzip" or "deflate". The default "none" disables compression.
+         * Responses are only compressed when the server or a proxy in between supports it.
+         *
+         * @return The content encoding.
+         */
+        default String getCompression() {
+            return "none";
+        }
+
+        /**
+         * Gets the size in bytes from which request bodies are compressed as well, when compression is enabled.
+         * factomd and walletd themselves do not accept compressed requests, so the default of -1 only compresses responses.
+         *
+         * @return The minimum size of compressed requests in bytes, or -1 to never compress requests.
+         */
+        default int getRequestCompressionThreshold() {
+            return -1;
+        }
+
+        /**
+         * Gets the HTTP version used to talk to factomd/walletd: "http/1.1" (default), "h2" to negotiate HTTP/2 with https endpoints,
+         * or "h2c" to also upgrade plain http endpoints to HTTP/2. Only the httpclient transport supports HTTP/2.
+         *
+         * @return The HTTP version.
+         */
+        default String getHttpVersion() {
+            return "http/1.1";
+        }
+
+        /**
+         * Gets the maximum number of requests in flight over HTTP/2 at the same time, since these share a single connection per node.
+         * Requests beyond this limit wait for a stream to become available.
+         *
+         * @return The maximum number of concurrent streams.
+         */
+        default int getMaxConcurrentStreams() {
+            return 100;
+        }
+    }
+
+    /**
+     * A single node of a server.
+     */
+    interface Endpoint {
+        /**
+         * Gets the URL of the factomd/walletd V2 API of the node.
+         *
+         * @return The URL.
+         */
+        URL getURL();
+
+        /**
+         * Gets the relative share of the read requests this node should handle compared to the other nodes.
+         *
+         * @return The weight, 1 by default.
+         */
+        default int getWeight() {
+            return 1;
+        }
     }
 
     /**
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.api.transport;
+
+import org.blockchain_innovation.factom.client.api.errors.FactomRuntimeException;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ServiceLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * The transport (Service Provider Interface) is responsible for moving the JSON-RPC request and response bodies between the client and factomd/walletd.
+ * An instance is bound to a single client, so implementations are free to keep state like pooled connections between exchanges.
+ */
+public interface Transport extends Closeable {
+
+    /**
+     * Configures the transport using the settings of the client it belongs to. Called once before the first request is sent.
+     *
+     * @param settings The Rpc settings of the client.
+     * @return This transport.
+     */
+    Transport configure(RpcSettings settings);
+
+    /**
+     * Sends the request and waits for the status line and headers of the response. The response body is streamed and needs to be closed by the caller.
+     * A response with an HTTP error status is returned normally, so the caller can read the error body.
+     *
+     * @param request The request to send.
+     * @return The response.
+     * @throws IOException When the server could not be reached or the connection broke.
+     */
+    TransportResponse send(TransportRequest request) throws IOException;
+
+    /**
+     * Sends the request asynchronously. The returned promise completes on a thread of the supplied executor once the response is available,
+     * or exceptionally with an {@link IOException} when the server could not be reached. Cancelling the promise aborts the request.
+     * <p>
+     * The default implementation runs the blocking {@link #send(TransportRequest)} on the executor, and {@link TransportRequest#abort() aborts}
+     * the request when the promise is cancelled, so implementations of send should register an abort handler while blocking and mark the
+     * {@link TransportRequest#getMetrics() connected and responded phases}. A request that is
+     * cancelled before it started does not occupy a thread at all. Non-blocking transports override this, so no thread is occupied while
+     * waiting for the server.
+     * </p>
+     *
+     * @param request  The request to send.
+     * @param executor The executor to complete the promise on.
+     * @return The response promise.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    default CompletableFuture<TransportResponse> sendAsync(TransportRequest request, Executor executor) {
+        CompletableFuture<TransportResponse> result = new CompletableFuture<>();
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                request.abort();
+            }
+        });
+        executor.execute(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            try {
+                request.getMetrics().sending();
+                TransportResponse response = send(request);
+                if (!result.complete(response)) {
+                    response.close();
+                }
+            } catch (IOException | RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * The name of the transport implementation, as used in the transport server setting.
+     *
+     * @return The name of the implementation.
+     */
+    String getName();
+
+    /**
+     * Releases all resources (connections) held by this transport.
+     */
+    @Override
+    void close();
+
+    /**
+     * SPI specific details are contained in this class.
+     */
+    class Provider {
+
+        /**
+         * Create a new instance of the first registered transport.
+         *
+         * @return The transport.
+         */
+        public static Transport newInstance() {
+            assertRegistered();
+            return serviceLoader().iterator().next();
+        }
+
+        /**
+         * Create a new transport instance by name.
+         *
+         * @param transportName The name of the transport.
+         * @return The transport belonging to the supplied name.
+         */
+        public static Transport newInstance(String transportName) {
+            assertRegistered();
+            for (Transport transport : serviceLoader()) {
+                if (transport.getName().equalsIgnoreCase(transportName)) {
+                    return transport;
+                }
+            }
+            throw new FactomRuntimeException(String.format("Could not find transport named %s. Please make sure the jar providing it is on the classpath.", transportName));
+        }
+
+        /**
+         * Checks whether there is at least one registered transport.
+         */
+        private static void assertRegistered() {
+            if (!serviceLoader().iterator().hasNext()) {
+                throw new FactomRuntimeException("No Factom transport class has been registered. Please make sure the factom-client-impl jar is on the classpath.");
+            }
+        }
+
+        /**
+         * Create transport service loader.
+         *
+         * @return The transport service loader.
+         */
+        private static ServiceLoader<Transport> serviceLoader() {
+            return ServiceLoader.load(Transport.class);
+        }
+    }
+}
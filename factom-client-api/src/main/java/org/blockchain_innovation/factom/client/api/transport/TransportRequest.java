@@ -0,0 +1,180 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.api.transport;
+
+import org.blockchain_innovation.factom.client.api.metrics.RequestMetrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A JSON-RPC HTTP POST request as handed to a {@link Transport}.
+ */
+public class TransportRequest {
+    private final URL url;
+    private final byte[] body;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+    private Closeable abortHandler;
+    private boolean aborted;
+    private boolean idempotent;
+    private RequestMetrics metrics = new RequestMetrics();
+
+    /**
+     * Create a request.
+     *
+     * @param url  The url of factomd/walletd.
+     * @param body The serialized request body.
+     */
+    public TransportRequest(URL url, byte[] body) {
+        this.url = url;
+        this.body = body;
+    }
+
+    /**
+     * Gets the url to post the request to.
+     *
+     * @return The url.
+     */
+    public URL getUrl() {
+        return url;
+    }
+
+    /**
+     * Gets the serialized request body.
+     *
+     * @return The body.
+     */
+    public byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * Sets a request header, replacing any previous value.
+     *
+     * @param name  The header name.
+     * @param value The header value.
+     * @return This request.
+     */
+    public TransportRequest setHeader(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    /**
+     * Gets the request headers.
+     *
+     * @return The headers in insertion order.
+     */
+    public Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * Gets the measurements of the exchange this request belongs to. Transports mark the phases they observe.
+     *
+     * @return The metrics.
+     */
+    public RequestMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Sets the measurements of the exchange this request belongs to, so retried requests share them.
+     *
+     * @param metrics The metrics.
+     * @return This request.
+     */
+    public TransportRequest setMetrics(RequestMetrics metrics) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * Whether the request only reads, so a transport may send it again once it has been written. Transports never resend a request that
+     * is not idempotent after writing it, since the server could have processed it already.
+     *
+     * @return true when the request can safely be sent again.
+     */
+    public boolean isIdempotent() {
+        return idempotent;
+    }
+
+    /**
+     * Marks the request as only reading, so a transport may send it again once it has been written.
+     *
+     * @param idempotent Whether the request can safely be sent again.
+     * @return This request.
+     */
+    public TransportRequest setIdempotent(boolean idempotent) {
+        this.idempotent = idempotent;
+        return this;
+    }
+
+    /**
+     * Registers what to close to abort the request while a blocking transport is sending it, typically the connection. Closing it
+     * makes the blocked send fail. When the request has been aborted already, the handler is closed immediately.
+     *
+     * @param abortHandler The resource to close on abort, or null when the request can no longer be aborted.
+     * @return This request.
+     */
+    public TransportRequest setAbortHandler(Closeable abortHandler) {
+        boolean closeNow;
+        synchronized (this) {
+            this.abortHandler = abortHandler;
+            closeNow = aborted && abortHandler != null;
+        }
+        if (closeNow) {
+            closeQuietly(abortHandler);
+        }
+        return this;
+    }
+
+    /**
+     * Aborts the request, closing the registered abort handler. Called when the caller cancelled the request or its deadline passed.
+     */
+    public void abort() {
+        Closeable handler;
+        synchronized (this) {
+            this.aborted = true;
+            handler = abortHandler;
+        }
+        if (handler != null) {
+            closeQuietly(handler);
+        }
+    }
+
+    /**
+     * Whether the request has been aborted.
+     *
+     * @return true when aborted.
+     */
+    public synchronized boolean isAborted() {
+        return aborted;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // The request is abandoned, so there is nobody to report to
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.api.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * The HTTP response as returned by a {@link Transport}. Closing the response hands the underlying connection back to the transport.
+ */
+public interface TransportResponse extends Closeable {
+
+    /**
+     * Gets the HTTP status code.
+     *
+     * @return The status code, or -1 when the response was not valid HTTP.
+     */
+    int getStatusCode();
+
+    /**
+     * Gets the HTTP reason phrase, like "OK" or "Bad Request".
+     *
+     * @return The status message, or {@code null}.
+     */
+    String getStatusMessage();
+
+    /**
+     * Gets the value of a response header.
+     *
+     * @param name The case insensitive header name.
+     * @return The header value or {@code null} when not present.
+     */
+    String getHeader(String name);
+
+    /**
+     * The response body, both for successful and error responses.
+     *
+     * @return The body stream.
+     * @throws IOException When the body can not be read.
+     */
+    InputStream getBody() throws IOException;
+}
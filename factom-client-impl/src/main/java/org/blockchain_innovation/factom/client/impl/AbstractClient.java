@@ -16,29 +16,62 @@
 
 package org.blockchain_innovation.factom.client.impl;
 
+import org.blockchain_innovation.factom.client.api.Deadline;
 import org.blockchain_innovation.factom.client.api.FactomRequest;
 import org.blockchain_innovation.factom.client.api.FactomResponse;
 import org.blockchain_innovation.factom.client.api.LowLevelClient;
 import org.blockchain_innovation.factom.client.api.errors.FactomException;
+import org.blockchain_innovation.factom.client.api.interceptors.RpcInterceptor;
+import org.blockchain_innovation.factom.client.api.metrics.MetricsRecorder;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.HeightsResponse;
+import org.blockchain_innovation.factom.client.api.model.response.walletd.GetHeightResponse;
 import org.blockchain_innovation.factom.client.api.ops.EncodeOperations;
+import org.blockchain_innovation.factom.client.api.ops.StringUtils;
+import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
 import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
 import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.api.transport.Transport;
+import org.blockchain_innovation.factom.client.impl.routing.ClientTimer;
+import org.blockchain_innovation.factom.client.impl.routing.EndpointGroup;
+import org.blockchain_innovation.factom.client.impl.routing.RetryPolicy;
+import org.blockchain_innovation.factom.client.impl.store.SegmentStore;
 
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 @SuppressWarnings("PMD.DoNotUseThreads")
 public abstract class AbstractClient implements LowLevelClient {
 
+    /**
+     * How long requests are sent individually after the server answered a batch request with an error, before batches are tried again.
+     */
+    public static final long BATCH_PROBE_INTERVAL_MILLIS = 5 * 60 * 1000L;
+
     protected EncodeOperations encodeOperations = new EncodeOperations();
     private URL url;
     private RpcSettings settings;
     private ExecutorService executorService;
+    private boolean executorServiceShared;
+    private volatile Transport transport;
+    private boolean transportCreated;
+    private volatile EndpointGroup endpointGroup;
+    private volatile RetryPolicy retryPolicy;
+    private boolean retryPolicyCreated;
+    private final RequestCoalescer requestCoalescer = new RequestCoalescer();
+    private volatile ResponseCache responseCache;
+    private boolean responseCacheCreated;
+    private volatile MetricsRecorder metricsRecorder;
+    private volatile RpcInterceptor[] interceptors = new RpcInterceptor[0];
+    private volatile long batchProbeAt;
+    private int maxBatchSize = 100;
 
     protected static ThreadFactory threadFactory(final String name, final boolean daemon) {
         return runnable -> {
@@ -67,6 +100,21 @@ public abstract class AbstractClient implements LowLevelClient {
             throw new FactomException.ClientException("Please provide Factom settings");
         }
         setUrl(settings.getServer().getURL());
+        if (transportCreated) {
+            // The transport we created is configured for the previous settings
+            closeTransport();
+        }
+        closeEndpointGroup();
+        // The new server gets to show whether it supports batches
+        setBatchSupported(true);
+        synchronized (this) {
+            if (retryPolicyCreated) {
+                this.retryPolicy = null;
+            }
+            closeResponseCache();
+            // Pick the shared executor of the new settings
+            resetExecutorService();
+        }
         return this;
     }
 
@@ -106,32 +154,386 @@ public abstract class AbstractClient implements LowLevelClient {
         return exchange(rpcRequest, rpcResultClass, true);
     }
 
+    /**
+     * Exchanges the request with the server. When called within {@link Deadline#call(java.util.function.Supplier)}, the returned promise
+     * completes exceptionally once the deadline passes. Cancelling the promise, or the deadline passing, cancels the request in flight.
+     * Cached responses are answered by the exchange, so the interceptors see them as well.
+     */
     @Override
     public <RpcResult> CompletableFuture<FactomResponse<RpcResult>> exchange(RpcRequest rpcRequest, Class<RpcResult> rpcResultClass, boolean logErrors) {
-        Exchange<RpcResult> exchange = new Exchange<>(this, rpcRequest, rpcResultClass, logErrors);
-        return exchange.execute();
+        ResponseCache cache = getResponseCache();
+        Deadline deadline = Deadline.current();
+        if (deadline != null && deadline.isExpired()) {
+            return ClientTimer.expireAt(new CompletableFuture<>(), deadline, describe(rpcRequest));
+        }
+        CompletableFuture<FactomResponse<RpcResult>> result;
+        if (rpcRequest != null && rpcRequest.getMethod() != null && rpcRequest.getMethod().isReadOnly() && getSettings().getServer().isCoalesceReads()) {
+            result = requestCoalescer.execute(rpcRequest, rpcResultClass,
+                    () -> new Exchange<>(this, rpcRequest, rpcResultClass, logErrors).setResponseCache(cache).execute());
+        } else {
+            result = new Exchange<>(this, rpcRequest, rpcResultClass, logErrors).setResponseCache(cache).execute();
+        }
+        return ClientTimer.expireAt(result, deadline, describe(rpcRequest));
+    }
+
+    @Override
+    public CompletableFuture<FactomResponse<ByteBuffer>> exchangeRaw(RpcRequest rpcRequest) {
+        return exchangeRaw(rpcRequest, true);
+    }
 
+    /**
+     * Exchanges the request with the server, without binding the result to the model classes. Raw exchanges are never coalesced, since callers
+     * would share the position of the result buffer.
+     */
+    @Override
+    public CompletableFuture<FactomResponse<ByteBuffer>> exchangeRaw(RpcRequest rpcRequest, boolean logErrors) {
+        Deadline deadline = Deadline.current();
+        if (deadline != null && deadline.isExpired()) {
+            return ClientTimer.expireAt(new CompletableFuture<>(), deadline, describe(rpcRequest));
+        }
+        return ClientTimer.expireAt(new RawExchange(this, rpcRequest, logErrors).execute(), deadline, describe(rpcRequest));
     }
 
     @Override
-    public LowLevelClient setExecutorService(ExecutorService executorService) {
+    public <RpcResult> List<CompletableFuture<FactomResponse<RpcResult>>> exchangeBatch(List<RpcRequest> rpcRequests, Class<RpcResult> rpcResultClass) {
+        return exchangeBatch(rpcRequests, rpcResultClass, true);
+    }
+
+    @Override
+    public <RpcResult> List<CompletableFuture<FactomResponse<RpcResult>>> exchangeBatch(List<RpcRequest> rpcRequests, Class<RpcResult> rpcResultClass, boolean logErrors) {
+        List<CompletableFuture<FactomResponse<RpcResult>>> futures = new ArrayList<>(rpcRequests.size());
+        // Interceptors see every request, so requests are not batched when there are interceptors
+        if (!isBatchSupported() || rpcRequests.size() == 1 || interceptors.length > 0) {
+            rpcRequests.forEach(rpcRequest -> futures.add(exchange(rpcRequest, rpcResultClass, logErrors)));
+            return futures;
+        }
+        // Only the requests that are not cached are sent
+        ResponseCache cache = getResponseCache();
+        List<RpcRequest> toSend = new ArrayList<>(rpcRequests.size());
+        for (RpcRequest rpcRequest : rpcRequests) {
+            FactomResponse<RpcResult> cached = cache.get(rpcRequest, rpcResultClass);
+            futures.add(cached == null ? null : CompletableFuture.completedFuture(cached));
+            if (cached == null) {
+                toSend.add(rpcRequest);
+            }
+        }
+        List<CompletableFuture<FactomResponse<RpcResult>>> sent = new ArrayList<>(toSend.size());
+        for (int from = 0; from < toSend.size(); from += maxBatchSize) {
+            List<RpcRequest> batch = toSend.subList(from, Math.min(from + maxBatchSize, toSend.size()));
+            sent.addAll(new BatchExchange<>(this, batch, rpcResultClass, logErrors).execute());
+        }
+        Deadline deadline = Deadline.current();
+        for (int i = 0, next = 0; i < futures.size(); i++) {
+            if (futures.get(i) == null) {
+                CompletableFuture<FactomResponse<RpcResult>> future = cache.putOnCompletion(rpcRequests.get(i), rpcResultClass, sent.get(next++));
+                futures.set(i, ClientTimer.expireAt(future, deadline, "the batch request"));
+            }
+        }
+        return futures;
+    }
+
+    /**
+     * Gets the coalescer of identical read only requests in flight.
+     *
+     * @return The request coalescer.
+     */
+    public RequestCoalescer getRequestCoalescer() {
+        return requestCoalescer;
+    }
+
+    /**
+     * Whether the server accepts JSON-RPC batch requests. Set to false once the server answered a batch with a single JSON-RPC error object.
+     * Batches are tried again after {@link #BATCH_PROBE_INTERVAL_MILLIS}, so a server that was upgraded or a proxy that recovered is
+     * noticed.
+     *
+     * @return true when batches are sent as a single request.
+     */
+    public boolean isBatchSupported() {
+        long probeAt = batchProbeAt;
+        return probeAt == 0 || System.currentTimeMillis() >= probeAt;
+    }
+
+    /**
+     * Sets whether the server accepts JSON-RPC batch requests. When false, requests are sent individually until the probe interval passed.
+     *
+     * @param batchSupported Whether batches are sent as a single request.
+     * @return This client.
+     */
+    public AbstractClient setBatchSupported(boolean batchSupported) {
+        this.batchProbeAt = batchSupported ? 0 : System.currentTimeMillis() + BATCH_PROBE_INTERVAL_MILLIS;
+        return this;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public AbstractClient setMaxBatchSize(int maxBatchSize) {
+        if (maxBatchSize < 1) {
+            throw new FactomException.ClientException("The maximum batch size should be at least 1");
+        }
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    @Override
+    public synchronized LowLevelClient setExecutorService(ExecutorService executorService) {
         this.executorService = executorService;
+        this.executorServiceShared = false;
         return this;
     }
 
+    /**
+     * Gets the executor of the client. Unless set explicitly, this is the {@link #defaultExecutorService(RpcSettings.Server) default executor}.
+     *
+     * @return The executor.
+     */
     @Override
-    public ExecutorService getExecutorService() {
+    public synchronized ExecutorService getExecutorService() {
         if (executorService == null) {
-            this.executorService = LazyExecutorServiceHolder.INSTANCE;
+            this.executorService = defaultExecutorService(settings == null ? null : settings.getServer());
+            this.executorServiceShared = true;
         }
         return executorService;
     }
 
     /**
-     * Initialization-on-demand holder idiom to lazy-load a singleton.
+     * Gets the executor to use when none has been set explicitly: the shared virtual thread executor when the settings enable virtual threads
+     * and the JVM supports them, otherwise the {@link DispatchExecutor} shared by all clients with the same executor settings.
+     *
+     * @param server The server settings, or null when the client has no settings.
+     * @return The default executor.
+     */
+    protected ExecutorService defaultExecutorService(RpcSettings.Server server) {
+        if (server == null) {
+            return DispatchExecutor.shared();
+        } else if (server.isVirtualThreads() && VirtualThreads.isAvailable()) {
+            return VirtualThreads.getExecutor();
+        }
+        return DispatchExecutor.shared(server);
+    }
+
+    /**
+     * Forgets the default executor, so the next call to {@link #getExecutorService()} picks it again. An executor set explicitly is kept.
+     */
+    protected synchronized void resetExecutorService() {
+        if (executorServiceShared) {
+            this.executorService = null;
+        }
+    }
+
+    @Override
+    public synchronized LowLevelClient setTransport(Transport transport) {
+        this.transport = transport;
+        this.transportCreated = false;
+        return this;
+    }
+
+    @Override
+    public Transport getTransport() {
+        Transport current = transport;
+        if (current == null) {
+            synchronized (this) {
+                current = transport;
+                if (current == null) {
+                    String transportName = getSettings().getServer().getTransport();
+                    current = StringUtils.isEmpty(transportName) ? Transport.Provider.newInstance() : Transport.Provider.newInstance(transportName);
+                    current.configure(getSettings());
+                    this.transport = current;
+                    this.transportCreated = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Gets the routing over the endpoints of the server. Starts the health checks of the endpoints on first use.
+     *
+     * @return The endpoint group of the current settings.
      */
-    private static class LazyExecutorServiceHolder {
-        static final ExecutorService INSTANCE = new ThreadPoolExecutor(2, 10, 5, TimeUnit.MINUTES,
-                new SynchronousQueue<>(), threadFactory("Factom Client Dispatcher", false));
+    public EndpointGroup getEndpointGroup() {
+        EndpointGroup current = endpointGroup;
+        if (current == null) {
+            synchronized (this) {
+                current = endpointGroup;
+                if (current == null) {
+                    current = new EndpointGroup(getSettings().getServer()).startHealthChecks(this::nodeHeight);
+                    this.endpointGroup = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Gets the cache of immutable responses. Unless set explicitly, the cache follows the server settings and is disabled by default.
+     * The persistent store of the cache is shared by all clients using the same store directory. It is closed once the settings of every
+     * client using it changed.
+     *
+     * @return The response cache.
+     */
+    public ResponseCache getResponseCache() {
+        ResponseCache current = responseCache;
+        if (current == null) {
+            synchronized (this) {
+                current = responseCache;
+                if (current == null) {
+                    RpcSettings.Server server = getSettings().getServer();
+                    current = new ResponseCache(server.getCacheMaxBytes());
+                    if (StringUtils.isNotEmpty(server.getStoreDir())) {
+                        current.setStore(SegmentStore.open(Paths.get(server.getStoreDir()), server.getStoreMaxBytes()));
+                    }
+                    this.responseCache = current;
+                    this.responseCacheCreated = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Sets the cache of immutable responses, for instance to share it between clients of the same network.
+     *
+     * @param responseCache The response cache.
+     * @return This client.
+     */
+    public synchronized AbstractClient setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+        this.responseCacheCreated = false;
+        return this;
+    }
+
+    /**
+     * Gets the policy that decides which failed requests are retried. Unless set explicitly, the policy follows the server settings.
+     *
+     * @return The retry policy.
+     */
+    public RetryPolicy getRetryPolicy() {
+        RetryPolicy current = retryPolicy;
+        if (current == null) {
+            synchronized (this) {
+                current = retryPolicy;
+                if (current == null) {
+                    current = new RetryPolicy(getSettings().getServer());
+                    this.retryPolicy = current;
+                    this.retryPolicyCreated = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    public synchronized AbstractClient setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        this.retryPolicyCreated = false;
+        return this;
+    }
+
+    @Override
+    public synchronized LowLevelClient addInterceptor(RpcInterceptor interceptor) {
+        if (interceptor == null) {
+            throw new FactomException.ClientException("Please provide an interceptor");
+        }
+        RpcInterceptor[] current = interceptors;
+        RpcInterceptor[] updated = Arrays.copyOf(current, current.length + 1);
+        updated[current.length] = interceptor;
+        this.interceptors = updated;
+        return this;
+    }
+
+    @Override
+    public synchronized LowLevelClient removeInterceptor(RpcInterceptor interceptor) {
+        List<RpcInterceptor> updated = new ArrayList<>(Arrays.asList(interceptors));
+        updated.remove(interceptor);
+        this.interceptors = updated.toArray(new RpcInterceptor[0]);
+        return this;
+    }
+
+    @Override
+    public List<RpcInterceptor> getInterceptors() {
+        return Collections.unmodifiableList(Arrays.asList(interceptors));
+    }
+
+    /**
+     * Gets the interceptors without copying, for the exchanges. The array is replaced, never modified.
+     *
+     * @return The interceptors in order.
+     */
+    RpcInterceptor[] interceptors() {
+        return interceptors;
+    }
+
+    /**
+     * Gets the recorder of the metrics of the exchanges. Unless set explicitly, these are the registered recorders, or none when metrics are disabled for the server.
+     *
+     * @return The metrics recorder.
+     */
+    public MetricsRecorder getMetricsRecorder() {
+        MetricsRecorder current = metricsRecorder;
+        if (current != null) {
+            return current;
+        }
+        return getSettings().getServer().isMetrics() ? MetricsRecorder.Provider.getInstance() : MetricsRecorder.NOOP;
+    }
+
+    public AbstractClient setMetricsRecorder(MetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder;
+        return this;
+    }
+
+    /**
+     * Retrieves the height of a single endpoint of the server. Factomd reports its directory block height, walletd the height it synced to.
+     *
+     * @param url The URL of the endpoint.
+     * @return The promise of the height, completing exceptionally when the endpoint did not return it.
+     */
+    protected CompletableFuture<Long> nodeHeight(URL url) {
+        if (getSettings().getSubSystem() == RpcSettings.SubSystem.WALLETD) {
+            return new Exchange<>(this, new RpcRequest(RpcMethod.GET_HEIGHT), GetHeightResponse.class, false, url).execute()
+                    .thenApply(response -> (long) result(url, response).getHeight());
+        }
+        return new Exchange<>(this, new RpcRequest(RpcMethod.HEIGHTS), HeightsResponse.class, false, url).execute()
+                .thenApply(response -> result(url, response).getDirectoryBlockHeight());
+    }
+
+    private static String describe(RpcRequest rpcRequest) {
+        return rpcRequest == null || rpcRequest.getMethod() == null ? "the request" : "the " + rpcRequest.getMethod().toJsonValue() + " request";
+    }
+
+    private static <Result> Result result(URL url, FactomResponse<Result> response) {
+        if (response == null || response.hasErrors() || response.getResult() == null) {
+            throw new FactomException.ClientException(String.format("No height returned by %s", url));
+        }
+        return response.getResult();
+    }
+
+    private synchronized void closeEndpointGroup() {
+        if (endpointGroup != null) {
+            endpointGroup.close();
+            this.endpointGroup = null;
+        }
+    }
+
+    /**
+     * Closes the store of the response cache this client created, so the segments are written to disk and the directory is unlocked
+     * once no other client uses it.
+     */
+    private synchronized void closeResponseCache() {
+        if (responseCacheCreated && responseCache != null) {
+            SegmentStore store = responseCache.getStore();
+            if (store != null) {
+                store.close();
+            }
+            this.responseCache = null;
+        }
+    }
+
+    private synchronized void closeTransport() {
+        if (transport != null) {
+            transport.close();
+            this.transport = null;
+            this.transportCreated = false;
+        }
     }
 }
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.errors.FactomException;
+import org.blockchain_innovation.factom.client.api.json.JsonConverter;
+import org.blockchain_innovation.factom.client.api.log.LogFactory;
+import org.blockchain_innovation.factom.client.api.log.Logger;
+import org.blockchain_innovation.factom.client.api.metrics.RequestMetrics;
+import org.blockchain_innovation.factom.client.api.rpc.RpcErrorResponse;
+import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
+import org.blockchain_innovation.factom.client.api.rpc.RpcResponse;
+import org.blockchain_innovation.factom.client.api.transport.TransportRequest;
+import org.blockchain_innovation.factom.client.api.transport.TransportResponse;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Sends multiple Rpc requests as a single JSON-RPC 2.0 batch (one HTTP POST with a json array) and hands every request its own response.
+ * The requests are sent as copies numbered by their position to correlate the responses, since the server may answer a batch in any order.
+ * The ids of the requests of the caller are left unchanged.
+ * <p>
+ * Servers that do not support batches answer with a single JSON-RPC error object instead of an array, like factomd and walletd do with
+ * HTTP 400. In that case the requests are sent as individual exchanges, and the client is told to not try batches for a while. Other HTTP
+ * errors, like those of proxies and gateways, fail the requests of the batch.
+ * </p>
+ *
+ * @param <Result> The result type of all requests in the batch.
+ */
+public class BatchExchange<Result> {
+
+    private static final Logger logger = LogFactory.getLogger(BatchExchange.class);
+    private final AbstractClient client;
+    private URL url;
+    private final Class<Result> rpcResultClass;
+    private final boolean logErrors;
+    private final List<RpcRequest> rpcRequests;
+    private final List<CompletableFuture<FactomResponse<Result>>> futures;
+    private final RequestMetrics metrics = new RequestMetrics();
+    private volatile int statusCode = -1;
+    private volatile Throwable error;
+
+    protected BatchExchange(AbstractClient client, List<RpcRequest> rpcRequests, Class<Result> rpcResultClass, boolean logErrors) {
+        this.client = client;
+        this.url = client.getSettings().getServer().getURL();
+        this.rpcRequests = new ArrayList<>(rpcRequests);
+        this.rpcResultClass = rpcResultClass;
+        this.logErrors = logErrors;
+        this.futures = new ArrayList<>(rpcRequests.size());
+        rpcRequests.forEach(rpcRequest -> futures.add(new CompletableFuture<>()));
+    }
+
+    /**
+     * Executes the batch asynchronously.
+     *
+     * @return The promises of the responses, in the order of the requests. A promise completes exceptionally when the server could not be reached or did not answer that request.
+     * The batch request is cancelled once all promises are cancelled.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public List<CompletableFuture<FactomResponse<Result>>> execute() {
+        Map<Integer, Exchange<Result>> exchanges = new HashMap<>();
+        List<RpcRequest> batch = new ArrayList<>(rpcRequests.size());
+        byte[] json;
+        boolean readOnly = true;
+        boolean retryable = true;
+        try {
+            for (int i = 0; i < rpcRequests.size(); i++) {
+                RpcRequest rpcRequest = rpcRequests.get(i).copy(i + 1);
+                batch.add(rpcRequest);
+                exchanges.put(rpcRequest.getId(), new Exchange<>(client, rpcRequest, rpcResultClass, logErrors));
+                readOnly &= rpcRequest.getMethod() == null || rpcRequest.getMethod().isReadOnly();
+                retryable &= client.getRetryPolicy().isRetryable(rpcRequest.getMethod());
+            }
+            ByteArrayOutputStream body = new ByteArrayOutputStream(rpcRequests.size() * 128);
+            JsonConverter.Provider.getInstance().toRpcJson(batch, body);
+            json = body.toByteArray();
+            if (logger.isDebugEnabled()) {
+                logger.debug("batch request(%d): %s ", rpcRequests.size(), new String(json, StandardCharsets.UTF_8));
+            }
+        } catch (RuntimeException e) {
+            fail(e);
+            return futures;
+        }
+
+        boolean idempotent = rpcRequests.stream().allMatch(rpcRequest -> rpcRequest.getMethod() != null && rpcRequest.getMethod().isReadOnly());
+        CompletableFuture<TransportResponse> sent = new RequestDispatcher(client, readOnly, retryable, endpointUrl -> {
+            this.url = endpointUrl;
+            TransportRequest request = Exchange.jsonRequest(client.getSettings().getServer(), endpointUrl, json).setMetrics(metrics)
+                    .setIdempotent(idempotent);
+            metrics.setRequestBytes(request.getBody().length);
+            return request;
+        }).dispatch();
+        // Once every caller cancelled its request (or its deadline passed), the batch request itself is cancelled
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).whenComplete((ignored, throwable) -> sent.cancel(true));
+        sent.thenAccept(response -> retrieveResponses(response, exchanges))
+                .exceptionally(throwable -> {
+                    Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+                    this.error = cause;
+                    fail(cause instanceof IOException ? new FactomException.ClientException(String.format("Error while talking to %s: %s", url, cause.getMessage()), cause) : cause);
+                    return null;
+                })
+                .whenComplete((ignored, throwable) -> recordMetrics());
+        return futures;
+    }
+
+    @SuppressWarnings({"PMD.PreserveStackTrace", "PMD.AvoidCatchingGenericException"})
+    protected void retrieveResponses(TransportResponse response, Map<Integer, Exchange<Result>> exchanges) {
+        this.statusCode = response.getStatusCode();
+        try (TransportResponse transportResponse = response;
+             BufferedReader reader = Exchange.jsonReader(transportResponse, metrics)) {
+            int status = transportResponse.getStatusCode();
+            // factomd and walletd answer requests they do not understand, like batches, with HTTP 400 and a JSON-RPC error
+            boolean clientError = status >= 400 && status < 500;
+            if ((status < 200 || status >= 300) && !clientError) {
+                // A proxy or gateway error says nothing about batch support, so nothing is resent
+                throw httpError(status);
+            }
+            JsonConverter converter = JsonConverter.Provider.getInstance();
+            int first = firstCharacter(reader);
+            if (first == '{') {
+                String body = JsonConverter.read(reader);
+                if (!isErrorObject(converter, body)) {
+                    throw clientError ? httpError(status) : new FactomException.ClientException(
+                            String.format("%s answered the batch request with a single object that is not a JSON-RPC error", url));
+                }
+                logger.info("%s answered the batch request with an error (HTTP %d): %s. Sending the %d requests individually", url, status, body, rpcRequests.size());
+                client.setBatchSupported(false);
+                sendIndividually();
+                return;
+            } else if (clientError) {
+                // Not a JSON-RPC error, so an authentication failure or an error of something in between
+                throw httpError(status);
+            } else if (first != '[') {
+                throw new FactomException.ClientException(String.format("%s did not answer the batch request with json (HTTP %d)", url, status));
+            }
+
+            List<RpcResponse<Result>> rpcResponses;
+            if (logger.isDebugEnabled()) {
+                String body = JsonConverter.read(reader);
+                logger.debug("batch response(%d): %s", rpcRequests.size(), body);
+                rpcResponses = converter.batchFromJson(new StringReader(body), rpcResultClass);
+            } else {
+                rpcResponses = converter.batchFromJson(reader, rpcResultClass);
+            }
+            // Every response gets an equal share of the batch size, which the response cache uses as weight
+            long share = rpcResponses.isEmpty() ? 0 : metrics.getResponseBytes() / rpcResponses.size();
+            for (RpcResponse<Result> rpcResponse : rpcResponses) {
+                int id = rpcResponse.getId();
+                Exchange<Result> exchange = exchanges.remove(id);
+                if (exchange == null) {
+                    logger.warn("Ignoring batch response with unknown id %d from %s", id, url);
+                    continue;
+                }
+                exchange.getMetrics().addResponseBytes(share);
+                futures.get(id - 1).complete(exchange.handleRpcResponse(rpcResponse, transportResponse.getStatusCode(), transportResponse.getStatusMessage()));
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new FactomException.ClientException(String.format("Error while reading the batch response from %s: %s", url, e.getMessage()), e);
+        }
+        exchanges.keySet().forEach(id -> futures.get(id - 1).completeExceptionally(
+                new FactomException.ClientException(String.format("%s did not return a response for batch request %d", url, id))));
+    }
+
+    private FactomException.ClientException httpError(int status) {
+        return new FactomException.ClientException(String.format("Server returned HTTP response code: %d for URL: %s", status, url));
+    }
+
+    /**
+     * Peeks at the first non whitespace character, leaving the reader positioned at it.
+     */
+    private static int firstCharacter(BufferedReader reader) throws IOException {
+        int c;
+        do {
+            reader.mark(1);
+            c = reader.read();
+        } while (c != -1 && Character.isWhitespace(c));
+        reader.reset();
+        return c;
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private static boolean isErrorObject(JsonConverter converter, String json) {
+        try {
+            RpcErrorResponse errorResponse = converter.errorFromJson(json);
+            return errorResponse != null && errorResponse.getError() != null;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Records the batch request as a whole, using batch as the method.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private void recordMetrics() {
+        metrics.completed("batch", String.valueOf(url), statusCode, error == null ? null : error.getClass());
+        try {
+            client.getMetricsRecorder().record(metrics);
+        } catch (RuntimeException e) {
+            logger.debug("Could not record the metrics of %s: %s", url, e.getMessage());
+        }
+    }
+
+    private void fail(Throwable cause) {
+        if (logErrors) {
+            logger.error(cause.getMessage(), cause);
+        }
+        futures.forEach(future -> future.completeExceptionally(cause));
+    }
+
+    private void sendIndividually() {
+        for (int i = 0; i < rpcRequests.size(); i++) {
+            CompletableFuture<FactomResponse<Result>> future = futures.get(i);
+            client.exchange(rpcRequests.get(i), rpcResultClass, logErrors).whenComplete((response, throwable) -> {
+                if (throwable == null) {
+                    future.complete(response);
+                } else {
+                    future.completeExceptionally(throwable);
+                }
+            });
+        }
+    }
+}
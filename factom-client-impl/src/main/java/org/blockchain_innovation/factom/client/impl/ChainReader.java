@@ -0,0 +1,292 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.FactomdClient;
+import org.blockchain_innovation.factom.client.api.errors.FactomException;
+import org.blockchain_innovation.factom.client.api.errors.FactomRuntimeException;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.EntryBlockResponse;
+import org.blockchain_innovation.factom.client.api.ops.StringUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads a chain block by block while it is consumed, instead of retrieving the whole chain first. At most prefetch depth blocks are retrieved
+ * ahead of the consumer, together with what every block expands to (like its entries), so memory use does not depend on the length of the chain.
+ * <p>
+ * Newest first, the blocks are walked back from the chain head and available as they arrive. Oldest first, the key merkle roots of the blocks are
+ * walked first, since every block only names its predecessor, after which the blocks are retrieved from the oldest on.
+ * Nothing is requested until the first item is consumed. Closing the reader (or its stream) cancels the requests in flight.
+ * </p>
+ * <p>
+ * Newest first, the number of items can be {@link #limit(long, ToIntFunction) limited}. Every block then claims the items it contributes while
+ * walking, and the walk stops once the limit is claimed, so reading the tail of a chain does not depend on the length of the chain.
+ * </p>
+ *
+ * @param <T> The type of the items a block expands to.
+ */
+class ChainReader<T> implements Iterator<T>, AutoCloseable {
+    private final FactomdClient factomdClient;
+    private final Executor executor;
+    private final int prefetchDepth;
+    private final boolean oldestFirst;
+    private final Supplier<CompletableFuture<String>> chainHead;
+    private final Expansion<T> expand;
+    private final Deque<CompletableFuture<List<T>>> window = new ArrayDeque<>();
+    private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+    private CompletableFuture<Block> lastBlock;
+    private CompletableFuture<List<String>> keyMRs;
+    private int nextBlock;
+    private ToIntFunction<EntryBlockResponse> itemCount = block -> Integer.MAX_VALUE;
+    // Only changed by the walk, which requests one block after the other
+    private long remaining = Long.MAX_VALUE;
+    private Iterator<T> current = Collections.emptyIterator();
+    private boolean started;
+    private volatile boolean closed;
+
+    /**
+     * Creates a reader.
+     *
+     * @param factomdClient The client to request the blocks.
+     * @param executor      The executor of the callbacks.
+     * @param prefetchDepth The maximum number of blocks retrieved ahead of the consumer.
+     * @param oldestFirst   Whether to read the chain from the first block on, instead of from the chain head.
+     * @param chainHead     Requests the key merkle root of the newest block.
+     * @param expand        Expands a block to the items to return.
+     */
+    ChainReader(FactomdClient factomdClient, Executor executor, int prefetchDepth, boolean oldestFirst,
+                Supplier<CompletableFuture<String>> chainHead, Expansion<T> expand) {
+        this.factomdClient = factomdClient;
+        this.executor = executor;
+        this.prefetchDepth = Math.max(1, prefetchDepth);
+        this.oldestFirst = oldestFirst;
+        this.chainHead = chainHead;
+        this.expand = expand;
+    }
+
+    /**
+     * Limits the number of items when reading newest first.
+     *
+     * @param maxItems  The maximum number of items.
+     * @param itemCount The number of items of a block.
+     * @return This reader.
+     */
+    ChainReader<T> limit(long maxItems, ToIntFunction<EntryBlockResponse> itemCount) {
+        this.remaining = maxItems;
+        this.itemCount = itemCount;
+        return this;
+    }
+
+    /**
+     * Gets a sequential stream of the items, which closes the reader when closed.
+     *
+     * @return The stream.
+     */
+    Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(this::close);
+    }
+
+    /**
+     * Tracks a request, so it is cancelled when the reader is closed.
+     *
+     * @param future The promise of the request.
+     * @param <R>    The type of the result.
+     * @return The promise.
+     */
+    <R> CompletableFuture<R> track(CompletableFuture<R> future) {
+        inFlight.add(future);
+        future.whenComplete((value, throwable) -> inFlight.remove(future));
+        if (closed) {
+            future.cancel(true);
+        }
+        return future;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!current.hasNext()) {
+            if (closed) {
+                return false;
+            }
+            if (!started) {
+                started = true;
+                while (window.size() < prefetchDepth) {
+                    window.add(nextItems());
+                }
+            }
+            List<T> items = await(window.poll());
+            if (items == null) {
+                close();
+                return false;
+            }
+            window.add(nextItems());
+            current = items.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        window.forEach(future -> future.cancel(true));
+        window.clear();
+        inFlight.forEach(future -> future.cancel(true));
+    }
+
+    /**
+     * The items of the next block, or null after the last block.
+     */
+    private CompletableFuture<List<T>> nextItems() {
+        return nextBlock().thenComposeAsync(block -> block == null ? CompletableFuture.completedFuture(null) : expand.expand(this, block.keyMR, block.block, block.limit), executor);
+    }
+
+    private CompletableFuture<Block> nextBlock() {
+        if (oldestFirst) {
+            if (keyMRs == null) {
+                keyMRs = chainHead.get().thenComposeAsync(keyMR -> walkKeyMRs(keyMR, new ArrayList<>()), executor);
+            }
+            int index = nextBlock++;
+            return keyMRs.thenComposeAsync(walked -> index < walked.size() ? requestBlock(walked.get(walked.size() - 1 - index)) : CompletableFuture.completedFuture(null), executor);
+        }
+        CompletableFuture<String> keyMR = lastBlock == null ? chainHead.get()
+                : lastBlock.thenApply(block -> block == null || remaining <= 0 ? null : block.block.getHeader().getPreviousKeyMR());
+        lastBlock = keyMR.thenComposeAsync(this::requestBlock, executor).thenApply(this::claim);
+        return lastBlock;
+    }
+
+    /**
+     * Claims the items of the block that fit within the limit.
+     */
+    private Block claim(Block block) {
+        if (block != null) {
+            block.limit = (int) Math.min(remaining, itemCount.applyAsInt(block.block));
+            remaining -= block.limit;
+        }
+        return block;
+    }
+
+    /**
+     * Walks back to the first block, keeping only the key merkle roots.
+     */
+    private CompletableFuture<List<String>> walkKeyMRs(String keyMR, List<String> walked) {
+        return requestBlock(keyMR).thenComposeAsync(block -> {
+            if (block == null) {
+                return CompletableFuture.completedFuture(walked);
+            }
+            walked.add(block.keyMR);
+            return walkKeyMRs(block.block.getHeader().getPreviousKeyMR(), walked);
+        }, executor);
+    }
+
+    private CompletableFuture<Block> requestBlock(String keyMR) {
+        if (StringUtils.isEmpty(keyMR) || EntryApiImpl.NO_PREVIOUS_KEY_MERKLE_ROOT.equals(keyMR)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return track(factomdClient.entryBlockByKeyMerkleRoot(keyMR)).thenApply(response -> {
+            errorHandling(response, "Could not get entry block for keyMr " + keyMR);
+            return new Block(keyMR, response.getResult());
+        });
+    }
+
+    /**
+     * Waits for the items of a block, throwing the cause of a failure.
+     */
+    private List<T> await(CompletableFuture<List<T>> items) {
+        try {
+            return items.join();
+        } catch (CompletionException e) {
+            close();
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } catch (CancellationException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private static void errorHandling(FactomResponse<?> response, String message) {
+        if (response == null) {
+            throw new FactomRuntimeException.AssertionException("Response was null, which was not expected");
+        }
+        if (response.hasErrors()) {
+            throw new FactomException.RpcErrorException(message, response);
+        }
+    }
+
+    /**
+     * Expands a block to the items to return.
+     *
+     * @param <T> The type of the items.
+     */
+    @FunctionalInterface
+    interface Expansion<T> {
+        /**
+         * Expands a block.
+         *
+         * @param reader The reader, to {@link #track(CompletableFuture) track} the requests.
+         * @param keyMR  The key merkle root of the block.
+         * @param block  The block.
+         * @param limit  The maximum number of items of the block, the newest ones.
+         * @return The promise of the items of the block.
+         */
+        CompletableFuture<List<T>> expand(ChainReader<T> reader, String keyMR, EntryBlockResponse block, int limit);
+    }
+
+    private static final class Block {
+        private final String keyMR;
+        private final EntryBlockResponse block;
+        private int limit = Integer.MAX_VALUE;
+
+        Block(String keyMR, EntryBlockResponse block) {
+            this.keyMR = keyMR;
+            this.block = block;
+        }
+    }
+}
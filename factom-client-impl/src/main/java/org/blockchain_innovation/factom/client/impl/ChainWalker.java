@@ -0,0 +1,249 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.FactomdClient;
+import org.blockchain_innovation.factom.client.api.errors.FactomException;
+import org.blockchain_innovation.factom.client.api.errors.FactomRuntimeException;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.EntryBlockResponse;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.EntryResponse;
+import org.blockchain_innovation.factom.client.api.ops.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+/**
+ * Walks the entry blocks of a chain back from a key merkle root and retrieves their entries, overlapping both: while the previous entry block
+ * is requested, the entries of the blocks already received are retrieved.
+ * <p>
+ * The walk runs at most prefetch depth blocks ahead of the blocks of which the entries are retrieved, and the entries of at most entry
+ * concurrency blocks are retrieved at the same time, so a long chain is limited by bandwidth instead of the round trips per block. The entries are
+ * returned in the same order as walking block by block: the newest block first, and the entries of a block in the order of the block.
+ * Callbacks run on the executor, so the walker never blocks the caller and a chain served from cache does not grow the stack.
+ * </p>
+ * <p>
+ * The walk can stop at a checkpoint: an entry block that has been read before, optionally up to and including one of its entries.
+ * </p>
+ */
+class ChainWalker {
+    private final Operation<?> operation;
+    private final FactomdClient factomdClient;
+    private final Executor executor;
+    private final int prefetchDepth;
+    private final int entryConcurrency;
+    private final CompletableFuture<List<List<EntryResponse>>> result = new CompletableFuture<>();
+    private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final List<EntryBlockResponse> blocks = new ArrayList<>();
+    private final List<String> keyMRs = new ArrayList<>();
+    private final List<List<EntryResponse>> blockEntries = new ArrayList<>();
+    private String nextKeyMR;
+    private String stopKeyMR;
+    private String stopEntryHash;
+    private boolean stopReached;
+    private boolean walking;
+    private int nextToRetrieve;
+    private int retrieving;
+    private int retrieved;
+
+    /**
+     * Creates a walker.
+     *
+     * @param operation        The operation the requests are steps of.
+     * @param factomdClient    The client to request the blocks and entries.
+     * @param executor         The executor of the callbacks.
+     * @param prefetchDepth    The maximum number of blocks of which the entries are not retrieved yet.
+     * @param entryConcurrency The maximum number of blocks of which the entries are retrieved at the same time.
+     */
+    ChainWalker(Operation<?> operation, FactomdClient factomdClient, Executor executor, int prefetchDepth, int entryConcurrency) {
+        this.operation = operation;
+        this.factomdClient = factomdClient;
+        this.executor = executor;
+        this.prefetchDepth = Math.max(1, prefetchDepth);
+        this.entryConcurrency = Math.max(1, entryConcurrency);
+        result.whenComplete((entries, throwable) -> inFlight.forEach(future -> future.cancel(true)));
+    }
+
+    /**
+     * Walks the chain.
+     *
+     * @param keyMR The key merkle root of the newest entry block.
+     * @return The promise of the entries. Cancelling it cancels the requests in flight.
+     */
+    CompletableFuture<List<EntryResponse>> walk(String keyMR) {
+        return walkBlocks(keyMR, null, null).thenApply(blocks -> blocks.stream().flatMap(List::stream).collect(Collectors.toList()));
+    }
+
+    /**
+     * Walks the chain back to a checkpoint.
+     *
+     * @param keyMR         The key merkle root of the newest entry block.
+     * @param stopKeyMR     The key merkle root of the entry block to stop at, or null to walk to the first block.
+     * @param stopEntryHash The last entry hash of the stop block that has been read, or null when the whole stop block has been read.
+     * @return The promise of the entries per block, newest block first. Fails when the stop block or entry is not part of the chain.
+     */
+    CompletableFuture<List<List<EntryResponse>>> walkBlocks(String keyMR, String stopKeyMR, String stopEntryHash) {
+        synchronized (this) {
+            this.nextKeyMR = keyMR;
+            this.stopKeyMR = stopKeyMR;
+            this.stopEntryHash = stopEntryHash;
+        }
+        advance();
+        return result;
+    }
+
+    /**
+     * Starts the requests that fit within the prefetch depth and entry concurrency, and completes the walk when everything is retrieved.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private void advance() {
+        List<Runnable> requests = new ArrayList<>();
+        synchronized (this) {
+            if (result.isDone()) {
+                return;
+            }
+            while (retrieving < entryConcurrency && nextToRetrieve < blocks.size()) {
+                int index = nextToRetrieve++;
+                EntryBlockResponse block = blocks.get(index);
+                String keyMR = keyMRs.get(index);
+                retrieving++;
+                requests.add(() -> retrieveEntries(index, keyMR, block));
+            }
+            if (nextKeyMR != null && nextKeyMR.equals(stopKeyMR) && stopEntryHash == null) {
+                // The whole stop block has been read before
+                stopReached = true;
+                nextKeyMR = null;
+            }
+            boolean endOfChain = StringUtils.isEmpty(nextKeyMR) || EntryApiImpl.NO_PREVIOUS_KEY_MERKLE_ROOT.equals(nextKeyMR);
+            if (!walking && !endOfChain && blocks.size() - retrieved < prefetchDepth) {
+                walking = true;
+                String keyMR = nextKeyMR;
+                requests.add(() -> requestBlock(keyMR));
+            }
+            if (!walking && endOfChain && retrieved == blocks.size()) {
+                if (stopKeyMR != null && !stopReached) {
+                    result.completeExceptionally(new FactomException.ClientException(String.format("Entry block %s is not part of the chain", stopKeyMR)));
+                } else {
+                    result.complete(new ArrayList<>(blockEntries));
+                }
+                return;
+            }
+        }
+        try {
+            requests.forEach(Runnable::run);
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+    }
+
+    private void requestBlock(String keyMR) {
+        track(operation.step(() -> factomdClient.entryBlockByKeyMerkleRoot(keyMR)))
+                .thenAcceptAsync(response -> {
+                    errorHandling(response, "Could not get entry block for keyMr " + keyMR);
+                    synchronized (this) {
+                        blocks.add(response.getResult());
+                        keyMRs.add(keyMR);
+                        blockEntries.add(null);
+                        if (keyMR.equals(stopKeyMR)) {
+                            stopReached = true;
+                            nextKeyMR = null;
+                        } else {
+                            nextKeyMR = response.getResult().getHeader().getPreviousKeyMR();
+                        }
+                        walking = false;
+                    }
+                    advance();
+                }, executor)
+                .exceptionally(this::fail);
+    }
+
+    private void retrieveEntries(int index, String keyMR, EntryBlockResponse block) {
+        List<String> entryHashes = entryHashes(keyMR, block);
+        CompletableFuture<List<EntryResponse>> entries;
+        if (entryHashes.isEmpty()) {
+            entries = CompletableFuture.completedFuture(Collections.emptyList());
+        } else {
+            entries = operation.step(() -> {
+                List<CompletableFuture<FactomResponse<EntryResponse>>> responses = factomdClient.entries(entryHashes);
+                responses.forEach(this::track);
+                return CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[0]))
+                        .thenApply(ignored -> responses.stream()
+                                .map(CompletableFuture::join)
+                                .map(response -> {
+                                    errorHandling(response, "Could not get entry of entry block " + keyMR);
+                                    return response.getResult();
+                                })
+                                .collect(Collectors.toList()));
+            });
+        }
+        entries.thenAcceptAsync(entryResponses -> {
+            synchronized (this) {
+                blockEntries.set(index, entryResponses);
+                retrieving--;
+                retrieved++;
+            }
+            advance();
+        }, executor).exceptionally(this::fail);
+    }
+
+    /**
+     * The entry hashes of a block, only the ones after the last one read for the stop block.
+     */
+    private List<String> entryHashes(String keyMR, EntryBlockResponse block) {
+        List<String> entryHashes = block.getEntryList() == null ? Collections.emptyList()
+                : block.getEntryList().stream().map(EntryBlockResponse.Entry::getEntryHash).collect(Collectors.toList());
+        if (!keyMR.equals(stopKeyMR)) {
+            return entryHashes;
+        }
+        int last = entryHashes.indexOf(stopEntryHash);
+        if (last < 0) {
+            throw new FactomException.ClientException(String.format("Entry %s is not part of entry block %s", stopEntryHash, keyMR));
+        }
+        return entryHashes.subList(last + 1, entryHashes.size());
+    }
+
+    private <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+        inFlight.add(future);
+        future.whenComplete((value, throwable) -> inFlight.remove(future));
+        if (result.isDone()) {
+            future.cancel(true);
+        }
+        return future;
+    }
+
+    private Void fail(Throwable throwable) {
+        result.completeExceptionally(throwable);
+        return null;
+    }
+
+    private static void errorHandling(FactomResponse<?> response, String message) {
+        if (response == null) {
+            throw new FactomRuntimeException.AssertionException("Response was null, which was not expected");
+        }
+        if (response.hasErrors()) {
+            throw new FactomException.RpcErrorException(message, response);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.errors.FactomRuntimeException;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.impl.routing.ClientTimer;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The default executor of the clients: a fixed maximum of threads with a bounded work queue. When both are exhausted the
+ * {@link SaturationPolicy} decides between running the task on the submitting thread, waiting for room in the queue or failing fast.
+ * Tasks submitted from the {@link ClientTimer} thread are always rejected then, since running or waiting there would delay every deadline,
+ * retry and queue timeout of the process. Idle threads stop after 5 minutes.
+ * <p>
+ * Clients with the same executor settings share the executor. The saturation counters show whether the sizing fits the load.
+ * </p>
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public class DispatchExecutor extends ThreadPoolExecutor {
+    private static final ConcurrentMap<Config, DispatchExecutor> SHARED = new ConcurrentHashMap<>();
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final SaturationPolicy saturationPolicy;
+    private final int queueCapacity;
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong callerRuns = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicInteger peakQueueSize = new AtomicInteger();
+
+    /**
+     * Creates an executor.
+     *
+     * @param threads          The maximum number of threads.
+     * @param queueCapacity    The capacity of the work queue.
+     * @param saturationPolicy What to do with tasks when all threads are busy and the queue is full.
+     * @param blockTimeout     The maximum time in milliseconds to wait for room in the queue, for the block policy.
+     */
+    public DispatchExecutor(int threads, int queueCapacity, SaturationPolicy saturationPolicy, long blockTimeout) {
+        super(threads, threads, 5, TimeUnit.MINUTES, new LinkedBlockingQueue<>(queueCapacity), threadFactory(),
+                new SaturationHandler(saturationPolicy, blockTimeout));
+        allowCoreThreadTimeOut(true);
+        this.saturationPolicy = saturationPolicy;
+        this.queueCapacity = queueCapacity;
+        ((SaturationHandler) getRejectedExecutionHandler()).executor = this;
+    }
+
+    /**
+     * Gets the shared executor for the executor settings of the server.
+     *
+     * @param server The server settings.
+     * @return The shared executor.
+     */
+    public static DispatchExecutor shared(RpcSettings.Server server) {
+        return shared(new Config(server.getExecutorThreads(), server.getExecutorQueueSize(),
+                SaturationPolicy.fromName(server.getExecutorSaturationPolicy()), server.getExecutorBlockTimeout()));
+    }
+
+    /**
+     * Gets the shared executor with the default settings, for clients without settings.
+     *
+     * @return The shared executor.
+     */
+    public static DispatchExecutor shared() {
+        return shared(new Config(10, 1000, SaturationPolicy.CALLER_RUNS, 5000));
+    }
+
+    private static DispatchExecutor shared(Config config) {
+        return SHARED.computeIfAbsent(config, key -> new DispatchExecutor(key.threads, key.queueCapacity, key.saturationPolicy, key.blockTimeout));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        super.execute(command);
+        peakQueueSize.accumulateAndGet(getQueue().size(), Math::max);
+    }
+
+    public SaturationPolicy getSaturationPolicy() {
+        return saturationPolicy;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Gets the number of tasks that were rejected, because of the fail fast policy, because the block timeout passed or because they were
+     * submitted from the timer thread.
+     *
+     * @return The number of rejected tasks.
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Gets the number of tasks that ran on the submitting thread, because of the caller runs policy.
+     *
+     * @return The number of tasks run by callers.
+     */
+    public long getCallerRunsCount() {
+        return callerRuns.get();
+    }
+
+    /**
+     * Gets the number of submissions that had to wait for room in the queue, because of the block policy.
+     *
+     * @return The number of blocked submissions.
+     */
+    public long getBlockedCount() {
+        return blocked.get();
+    }
+
+    /**
+     * Gets the highest number of queued tasks seen.
+     *
+     * @return The peak queue size.
+     */
+    public int getPeakQueueSize() {
+        return peakQueueSize.get();
+    }
+
+    @Override
+    public String toString() {
+        return "DispatchExecutor{threads=" + getPoolSize() + "/" + getMaximumPoolSize() + ", active=" + getActiveCount() + ", queued=" + getQueue().size()
+                + "/" + queueCapacity + ", peakQueued=" + getPeakQueueSize() + ", policy=" + saturationPolicy + ", rejected=" + getRejectedCount()
+                + ", callerRuns=" + getCallerRunsCount() + ", blocked=" + getBlockedCount() + '}';
+    }
+
+    private static ThreadFactory threadFactory() {
+        return runnable -> new Thread(runnable, "Factom Client Dispatcher-" + THREAD_NUMBER.incrementAndGet());
+    }
+
+
+    /**
+     * What to do with a task when all threads are busy and the queue is full.
+     */
+    public enum SaturationPolicy {
+        /**
+         * Run the task on the submitting thread, which slows down the submitter.
+         */
+        CALLER_RUNS("caller-runs"),
+        /**
+         * Wait for room in the queue, up to the block timeout.
+         */
+        BLOCK("block"),
+        /**
+         * Reject the task immediately.
+         */
+        FAIL_FAST("fail-fast");
+
+        private final String name;
+
+        SaturationPolicy(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public static SaturationPolicy fromName(String name) {
+            if (name == null || "".equals(name.trim())) {
+                return CALLER_RUNS;
+            }
+            for (SaturationPolicy policy : values()) {
+                if (policy.name.equals(name.trim().toLowerCase(Locale.getDefault()))) {
+                    return policy;
+                }
+            }
+            throw new FactomRuntimeException.AssertionException("Unsupported executor saturation policy: " + name);
+        }
+    }
+
+
+    private static class SaturationHandler implements RejectedExecutionHandler {
+        private final SaturationPolicy policy;
+        private final long blockTimeout;
+        private DispatchExecutor executor;
+
+        SaturationHandler(SaturationPolicy policy, long blockTimeout) {
+            this.policy = policy;
+            this.blockTimeout = blockTimeout;
+        }
+
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor pool) {
+            if (pool.isShutdown()) {
+                executor.rejected.incrementAndGet();
+                throw new RejectedExecutionException("Executor has been shut down");
+            }
+            if (ClientTimer.isTimerThread()) {
+                executor.rejected.incrementAndGet();
+                throw new RejectedExecutionException(String.format("All %d threads are busy and the queue of %d tasks is full, not running the task on the timer thread",
+                        pool.getMaximumPoolSize(), executor.queueCapacity));
+            }
+            switch (policy) {
+                case CALLER_RUNS:
+                    executor.callerRuns.incrementAndGet();
+                    runnable.run();
+                    return;
+                case BLOCK:
+                    executor.blocked.incrementAndGet();
+                    try {
+                        if (pool.getQueue().offer(runnable, blockTimeout, TimeUnit.MILLISECONDS)) {
+                            return;
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    executor.rejected.incrementAndGet();
+                    throw new RejectedExecutionException(String.format("No room in the queue of %d tasks within %d ms", executor.queueCapacity, blockTimeout));
+                default:
+                    executor.rejected.incrementAndGet();
+                    throw new RejectedExecutionException(String.format("All %d threads are busy and the queue of %d tasks is full", pool.getMaximumPoolSize(), executor.queueCapacity));
+            }
+        }
+    }
+
+
+    private static class Config {
+        private final int threads;
+        private final int queueCapacity;
+        private final SaturationPolicy saturationPolicy;
+        private final long blockTimeout;
+
+        Config(int threads, int queueCapacity, SaturationPolicy saturationPolicy, long blockTimeout) {
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+            this.saturationPolicy = saturationPolicy;
+            this.blockTimeout = blockTimeout;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Config)) {
+                return false;
+            }
+            Config config = (Config) o;
+            return threads == config.threads && queueCapacity == config.queueCapacity && blockTimeout == config.blockTimeout
+                    && saturationPolicy == config.saturationPolicy;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(threads, queueCapacity, saturationPolicy, blockTimeout);
+        }
+    }
+}
@@ -16,6 +16,7 @@ import org.blockchain_innovation.factom.client.api.model.Chain;
 import org.blockchain_innovation.factom.client.api.model.Entry;
 import org.blockchain_innovation.factom.client.api.model.response.CommitAndRevealChainResponse;
 import org.blockchain_innovation.factom.client.api.model.response.CommitAndRevealEntryResponse;
+import org.blockchain_innovation.factom.client.api.model.response.EntriesSinceResponse;
 import org.blockchain_innovation.factom.client.api.model.response.factomd.CommitChainResponse;
 import org.blockchain_innovation.factom.client.api.model.response.factomd.CommitEntryResponse;
 import org.blockchain_innovation.factom.client.api.model.response.factomd.EntryBlockResponse;
@@ -26,6 +27,7 @@ import org.blockchain_innovation.factom.client.api.model.response.walletd.Compos
 import org.blockchain_innovation.factom.client.api.ops.Encoding;
 import org.blockchain_innovation.factom.client.api.ops.EntryOperations;
 import org.blockchain_innovation.factom.client.api.ops.StringUtils;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
 
 import javax.inject.Named;
 import java.util.ArrayList;
@@ -35,19 +37,22 @@ import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Named
 @SuppressWarnings({"PMD.GodClass", "PMD.TooManyMethods"})
 public class EntryApiImpl extends AbstractClient implements EntryApi {
 
     public static final String NO_PREVIOUS_KEY_MERKLE_ROOT = "0000000000000000000000000000000000000000000000000000000000000000";
+    private static final String CHECKPOINT_SEPARATOR = "/";
     private static final int ENTRY_REVEAL_WAIT = 2000;
     private static final Logger logger = LogFactory.getLogger(EntryApiImpl.class);
     private int transactionAcknowledgeTimeout = 10000; // 10 sec
     private int commitConfirmedTimeout = 15 * 60000; // 15 min
+    private int entryPrefetchDepth = 16;
+    private int entryConcurrency = 4;
 
     private FactomdClient factomdClient;
     private WalletdClient walletdClient;
@@ -83,6 +88,7 @@ public class EntryApiImpl extends AbstractClient implements EntryApi {
     @Override
     public EntryApiImpl setFactomdClient(FactomdClient factomdClient) {
         this.factomdClient = factomdClient;
+        resetExecutorService();
         return this;
     }
 
@@ -118,6 +124,36 @@ public class EntryApiImpl extends AbstractClient implements EntryApi {
         return this;
     }
 
+    public int getEntryPrefetchDepth() {
+        return entryPrefetchDepth;
+    }
+
+    /**
+     * Sets how many entry blocks retrieving entries walks ahead of the blocks of which the entries are retrieved.
+     *
+     * @param entryPrefetchDepth The maximum number of blocks waiting for their entries, 16 by default.
+     * @return This entry api.
+     */
+    public EntryApiImpl setEntryPrefetchDepth(int entryPrefetchDepth) {
+        this.entryPrefetchDepth = entryPrefetchDepth;
+        return this;
+    }
+
+    public int getEntryConcurrency() {
+        return entryConcurrency;
+    }
+
+    /**
+     * Sets of how many entry blocks the entries are retrieved at the same time. The entries of a block are retrieved in batches.
+     *
+     * @param entryConcurrency The maximum number of blocks, 4 by default.
+     * @return This entry api.
+     */
+    public EntryApiImpl setEntryConcurrency(int entryConcurrency) {
+        this.entryConcurrency = entryConcurrency;
+        return this;
+    }
+
 
     public CompletableFuture<Boolean> chainExists(Chain chain) {
         String chainId = Encoding.HEX.encode(entryOperations.calculateChainId(chain.getFirstEntry().getExternalIds()));
@@ -134,17 +170,18 @@ public class EntryApiImpl extends AbstractClient implements EntryApi {
      */
     @Override
     public CompletableFuture<List<EntryBlockResponse>> allEntryBlocks(String chainId) {
-        return factomdClient.chainHead(chainId, false)
+        Operation<List<EntryBlockResponse>> operation = new Operation<>("retrieving the entry blocks of chain " + chainId);
+        return operation.start(() -> operation.step(() -> factomdClient.chainHead(chainId, false))
                 .thenCompose(chainHeadResponse -> {
                     errorHandling(chainHeadResponse, "Could not get entry blocks for chain Id " + chainId);
                     if (StringUtils.isEmpty(chainHeadResponse.getResult().getChainHead())) {
                         // The factom RPC api returns an empty string when the chain has not been anchored yet.
                         // That means there is no entry block yet, so return an empty list
-                        logger.warn("We did not receive a chainhead for the chain, but also no error. Probably chain {} is not anchored yet", chainId);
-                        return CompletableFuture.completedFuture(Collections.EMPTY_LIST);
+                        logger.warn("We did not receive a chainhead for the chain, but also no error. Probably chain %s is not anchored yet", chainId);
+                        return CompletableFuture.completedFuture(Collections.<EntryBlockResponse>emptyList());
                     }
-                    return entryBlocksUpTilKeyMR(chainHeadResponse.getResult().getChainHead());
-                });
+                    return operation.step(() -> entryBlocksUpTilKeyMR(chainHeadResponse.getResult().getChainHead()));
+                }));
     }
 
 
@@ -156,11 +193,12 @@ public class EntryApiImpl extends AbstractClient implements EntryApi {
      */
     @Override
     public CompletableFuture<List<EntryBlockResponse.Entry>> allEntryBlocksEntries(String chainId) {
-        return getFactomdClient().chainHead(chainId)
+        Operation<List<EntryBlockResponse.Entry>> operation = new Operation<>("retrieving the entry block entries of chain " + chainId);
+        return operation.start(() -> operation.step(() -> getFactomdClient().chainHead(chainId))
                 .thenComposeAsync(chainHeadResponse -> {
                     errorHandling(chainHeadResponse, "Could not get entry blocks for chain Id " + chainId);
-                    return entryBlocksEntriesUpTilKeyMR(chainHeadResponse.getResult().getChainHead());
-                }, getExecutorService());
+                    return operation.step(() -> entryBlocksEntriesUpTilKeyMR(chainHeadResponse.getResult().getChainHead()));
+                }, getExecutorService()));
     }
 
 
@@ -174,34 +212,135 @@ public class EntryApiImpl extends AbstractClient implements EntryApi {
         if (encoding != Encoding.HEX && encoding != Encoding.UTF_8) {
             throw new FactomRuntimeException("Encoding needs to be UTF-8 or HEX. Value: " + encoding.name());
         }
-        return getFactomdClient().chainHead(chainId)
+        Operation<List<EntryResponse>> operation = new Operation<>("retrieving the entries of chain " + chainId);
+        return operation.start(() -> operation.step(() -> getFactomdClient().chainHead(chainId))
                 .thenComposeAsync(chainHeadResponse -> {
                     errorHandling(chainHeadResponse, "Could not get chain head for chain Id " + chainId);
-                    return entriesUpTilKeyMR(chainHeadResponse.getResult().getChainHead());
+                    return operation.step(() -> entriesUpTilKeyMR(chainHeadResponse.getResult().getChainHead()));
                 }, getExecutorService())
                 .thenApplyAsync(entryResponses ->
                                 entryResponses.stream().map(
                                         entryResponse -> encoding == Encoding.UTF_8 ? encodeOperations.decodeHex(entryResponse) : entryResponse).collect(Collectors.toList())
-                        , getExecutorService());
+                        , getExecutorService()));
+    }
+
+    @Override
+    public CompletableFuture<EntriesSinceResponse> entriesSince(String chainId, String checkpoint) {
+        String checkpointKeyMR = StringUtils.isEmpty(checkpoint) ? null : checkpoint.split(CHECKPOINT_SEPARATOR, 2)[0];
+        String checkpointEntryHash = checkpointKeyMR == null || !checkpoint.contains(CHECKPOINT_SEPARATOR) ? null : checkpoint.split(CHECKPOINT_SEPARATOR, 2)[1];
+        Operation<EntriesSinceResponse> operation = new Operation<>("retrieving the entries of chain " + chainId + " since " + checkpoint);
+        return operation.start(() -> operation.step(() -> getFactomdClient().chainHead(chainId, false))
+                .thenComposeAsync(chainHeadResponse -> {
+                    errorHandling(chainHeadResponse, "Could not get chain head for chain Id " + chainId);
+                    String chainHead = chainHeadResponse.getResult().getChainHead();
+                    if (StringUtils.isEmpty(chainHead) || chainHead.equals(checkpointKeyMR) && checkpointEntryHash == null) {
+                        // No (new) entry blocks
+                        return CompletableFuture.completedFuture(new EntriesSinceResponse().setCheckpoint(StringUtils.isEmpty(chainHead) ? checkpoint : chainHead));
+                    }
+                    return new ChainWalker(operation, getFactomdClient(), executorService(), entryPrefetchDepth, entryConcurrency)
+                            .walkBlocks(chainHead, checkpointKeyMR, checkpointEntryHash)
+                            .thenApply(blocks -> {
+                                List<EntryResponse> entries = new ArrayList<>();
+                                for (int i = blocks.size() - 1; i >= 0; i--) {
+                                    entries.addAll(blocks.get(i));
+                                }
+                                return new EntriesSinceResponse().setEntries(entries).setCheckpoint(chainHead);
+                            });
+                }, executorService()));
+    }
+
+    @Override
+    public Stream<EntryBlockResponse> streamAllEntryBlocks(String chainId) {
+        return this.<EntryBlockResponse>chainReader(chainId, false, (reader, keyMR, block, limit) -> CompletableFuture.completedFuture(Collections.singletonList(block))).stream();
     }
 
+    @Override
+    public Stream<EntryBlockResponse> latestEntryBlocks(String chainId, int count) {
+        if (count <= 0) {
+            return Stream.empty();
+        }
+        return this.<EntryBlockResponse>chainReader(chainId, false, (reader, keyMR, block, limit) -> CompletableFuture.completedFuture(Collections.singletonList(block)))
+                .limit(count, block -> 1)
+                .stream();
+    }
+
+    @Override
+    public Stream<EntryBlockResponse.Entry> streamAllEntryBlocksEntries(String chainId) {
+        return this.<EntryBlockResponse.Entry>chainReader(chainId, false, (reader, keyMR, block, limit) -> CompletableFuture.completedFuture(
+                block.getEntryList() == null ? Collections.<EntryBlockResponse.Entry>emptyList() : block.getEntryList())).stream();
+    }
+
+    @Override
+    public Stream<EntryResponse> streamAllEntries(String chainId) {
+        return streamAllEntries(chainId, Encoding.HEX, false);
+    }
+
+    @Override
+    public Stream<EntryResponse> streamAllEntries(String chainId, Encoding encoding, boolean oldestFirst) {
+        if (encoding != Encoding.HEX && encoding != Encoding.UTF_8) {
+            throw new FactomRuntimeException("Encoding needs to be UTF-8 or HEX. Value: " + encoding.name());
+        }
+        return this.<EntryResponse>chainReader(chainId, oldestFirst, (reader, keyMR, block, limit) -> blockEntries(reader, keyMR, entryHashes(block), encoding)).stream();
+    }
+
+    /**
+     * The latest entries of a chain, newest first. Only the entry blocks containing these entries are walked, and only these entries are retrieved.
+     */
+    @Override
+    public Stream<EntryResponse> latestEntries(String chainId, int count) {
+        if (count <= 0) {
+            return Stream.empty();
+        }
+        return this.<EntryResponse>chainReader(chainId, false, (reader, keyMR, block, limit) -> {
+            List<String> entryHashes = entryHashes(block);
+            Collections.reverse(entryHashes);
+            return blockEntries(reader, keyMR, entryHashes.subList(0, Math.min(limit, entryHashes.size())), Encoding.HEX);
+        }).limit(count, block -> block.getEntryList() == null ? 0 : block.getEntryList().size()).stream();
+    }
+
+    /**
+     * Reads the chain from its chain head, with the entry prefetch depth as the number of blocks retrieved ahead.
+     */
+    private <T> ChainReader<T> chainReader(String chainId, boolean oldestFirst, ChainReader.Expansion<T> expansion) {
+        FactomdClient client = getFactomdClient();
+        return new ChainReader<>(client, executorService(), entryPrefetchDepth, oldestFirst,
+                () -> client.chainHead(chainId, false).thenApply(chainHeadResponse -> {
+                    errorHandling(chainHeadResponse, "Could not get chain head for chain Id " + chainId);
+                    return chainHeadResponse.getResult().getChainHead();
+                }), expansion);
+    }
+
+    private static List<String> entryHashes(EntryBlockResponse block) {
+        return block.getEntryList() == null ? new ArrayList<>() : block.getEntryList().stream().map(EntryBlockResponse.Entry::getEntryHash).collect(Collectors.toList());
+    }
+
+    private CompletableFuture<List<EntryResponse>> blockEntries(ChainReader<EntryResponse> reader, String keyMR, List<String> entryHashes, Encoding encoding) {
+        if (entryHashes.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        List<CompletableFuture<FactomResponse<EntryResponse>>> entryResponses = getFactomdClient().entries(entryHashes);
+        entryResponses.forEach(reader::track);
+        return CompletableFuture.allOf(entryResponses.toArray(new CompletableFuture<?>[0]))
+                .thenApply(aVoid -> entryResponses.stream()
+                        .map(CompletableFuture::join)
+                        .map(entryResponse -> {
+                            errorHandling(entryResponse, "Could not get entry of entry block " + keyMR);
+                            return encoding == Encoding.UTF_8 ? encodeOperations.decodeHex(entryResponse.getResult()) : entryResponse.getResult();
+                        })
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * The entries up til a key merkle root. The entries of the blocks already received are retrieved while walking back to the previous blocks,
+     * see {@link #setEntryPrefetchDepth(int)} and {@link #setEntryConcurrency(int)}.
+     */
     @Override
     public CompletableFuture<List<EntryResponse>> entriesUpTilKeyMR(String keyMR) {
-        return entryBlocksEntriesUpTilKeyMR(keyMR)
-                .thenComposeAsync(entryBlockResponses -> {
-                    List<CompletableFuture<FactomResponse<EntryResponse>>> entryResponses =
-                            entryBlockResponses.stream()
-                                    .map(entry -> factomdClient.entry(entry.getEntryHash())).collect(Collectors.toList());
-                    return CompletableFuture.allOf(entryResponses.toArray(new CompletableFuture[entryResponses.size()]))
-                            .thenApply(aVoid -> entryResponses.stream()
-                                    .map(CompletableFuture::join)
-                                    .map(entryResponse -> {
-                                        errorHandling(entryResponse, "Could not get entry block for keyMr " + keyMR);
-                                        return entryResponse.getResult();
-                                    })
-                                    .collect(Collectors.toList())
-                            );
-                }, getExecutorService());
+        if (StringUtils.isEmpty(keyMR)) {
+            throw new FactomRuntimeException.AssertionException("Cannot get entries for null or empty keyMR");
+        }
+        Operation<List<EntryResponse>> operation = new Operation<>("retrieving the entries up til " + keyMR);
+        return operation.start(() -> new ChainWalker(operation, getFactomdClient(), executorService(), entryPrefetchDepth, entryConcurrency).walk(keyMR));
     }
 
 
@@ -210,19 +349,23 @@ public class EntryApiImpl extends AbstractClient implements EntryApi {
         if (StringUtils.isEmpty(keyMR)) {
             throw new FactomRuntimeException.AssertionException("Cannot get blocks for null or empty keyMR");
         }
-        List<EntryBlockResponse> entryBlockResponseList = new ArrayList<>();
-
-        String currentKeyMR = keyMR;
+        Operation<List<EntryBlockResponse>> operation = new Operation<>("retrieving the entry blocks up til " + keyMR);
+        return operation.start(() -> entryBlocksUpTilKeyMR(operation, keyMR, new ArrayList<>()));
+    }
 
-        while (StringUtils.isNotEmpty(currentKeyMR) && !NO_PREVIOUS_KEY_MERKLE_ROOT.equals(currentKeyMR)) {
-            FactomResponse<EntryBlockResponse> currentBlock = factomdClient.entryBlockByKeyMerkleRoot(currentKeyMR).join();
-            errorHandling(currentBlock, "Could not get entry block for keyMr " + currentKeyMR);
-            currentKeyMR = currentBlock.getResult().getHeader().getPreviousKeyMR();
-            entryBlockResponseList.add(currentBlock.getResult());
+    /**
+     * Walks the entry blocks back from the key merkle root, without blocking a thread while waiting for a block.
+     */
+    private CompletableFuture<List<EntryBlockResponse>> entryBlocksUpTilKeyMR(Operation<?> operation, String currentKeyMR, List<EntryBlockResponse> entryBlockResponseList) {
+        if (StringUtils.isEmpty(currentKeyMR) || NO_PREVIOUS_KEY_MERKLE_ROOT.equals(currentKeyMR)) {
+            return CompletableFuture.completedFuture(entryBlockResponseList);
         }
-        CompletableFuture<List<EntryBlockResponse>> completableFuture = new CompletableFuture<>();
-        completableFuture.complete(entryBlockResponseList);
-        return completableFuture;
+        return operation.step(() -> factomdClient.entryBlockByKeyMerkleRoot(currentKeyMR))
+                .thenComposeAsync(currentBlock -> {
+                    errorHandling(currentBlock, "Could not get entry block for keyMr " + currentKeyMR);
+                    entryBlockResponseList.add(currentBlock.getResult());
+                    return entryBlocksUpTilKeyMR(operation, currentBlock.getResult().getHeader().getPreviousKeyMR(), entryBlockResponseList);
+                }, executorService());
     }
 
 
@@ -234,12 +377,13 @@ public class EntryApiImpl extends AbstractClient implements EntryApi {
      */
     @Override
     public CompletableFuture<List<EntryBlockResponse.Entry>> entryBlocksEntriesUpTilKeyMR(String keyMR) {
-        List<EntryBlockResponse> entryBlocksUpTilKeyMR = entryBlocksUpTilKeyMR(keyMR).join();
-        List<EntryBlockResponse.Entry> entries = new ArrayList<>();
-        entryBlocksUpTilKeyMR.stream().map(EntryBlockResponse::getEntryList).forEach(entries::addAll);
-        CompletableFuture<List<EntryBlockResponse.Entry>> completableFuture = new CompletableFuture<>();
-        completableFuture.complete(entries);
-        return completableFuture;
+        Operation<List<EntryBlockResponse.Entry>> operation = new Operation<>("retrieving the entry block entries up til " + keyMR);
+        return operation.start(() -> operation.step(() -> entryBlocksUpTilKeyMR(keyMR))
+                .thenApply(entryBlocksUpTilKeyMR -> {
+                    List<EntryBlockResponse.Entry> entries = new ArrayList<>();
+                    entryBlocksUpTilKeyMR.stream().map(EntryBlockResponse::getEntryList).forEach(entries::addAll);
+                    return entries;
+                }));
     }
 
     /**
@@ -304,20 +448,21 @@ public class EntryApiImpl extends AbstractClient implements EntryApi {
      */
     protected CompletableFuture<CommitAndRevealChainResponse> commitAndRevealChainImpl(Chain chain, Address address, SignatureProvider signatureProvider, boolean confirmCommit) {
         // after compose chain combine commit and reveal chain
-        return (address == null ? composeChainFuture(chain, signatureProvider) : composeChainFuture(chain, address))
+        Operation<CommitAndRevealChainResponse> operation = new Operation<>("commit and reveal of the chain");
+        return operation.start(() -> operation.step(() -> address == null ? composeChainFuture(chain, signatureProvider) : composeChainFuture(chain, address))
                 .thenApplyAsync(_composeChainResponse -> notifyCompose(_composeChainResponse), executorService())
                 // commit chain
-                .thenComposeAsync(_composeChainResponse -> commitChainFuture(_composeChainResponse)
+                .thenComposeAsync(_composeChainResponse -> operation.step(() -> commitChainFuture(_composeChainResponse))
                         .thenApplyAsync(_commitChainResponse -> notifyChainCommit(_commitChainResponse), executorService())
                         // wait to transaction is known
-                        .thenComposeAsync(_commitChainResponse -> waitFuture()
+                        .thenComposeAsync(_commitChainResponse -> operation.delay(ENTRY_REVEAL_WAIT)
                                 // reveal chain
-                                .thenComposeAsync(_void -> revealChainFuture(_composeChainResponse)
+                                .thenComposeAsync(_void -> operation.step(() -> revealChainFuture(_composeChainResponse))
                                         .thenApplyAsync(_revealChainResponse -> notifyReveal(_revealChainResponse), executorService())
                                         // wait for transaction acknowledgement
-                                        .thenComposeAsync(_revealChainResponse -> transactionAcknowledgeConfirmation(_revealChainResponse)
+                                        .thenComposeAsync(_revealChainResponse -> transactionAcknowledgeConfirmation(operation, _revealChainResponse)
                                                 .thenApplyAsync(_transactionAcknowledgeResponse -> notifyEntryTransaction(_transactionAcknowledgeResponse), executorService())
-                                                .thenComposeAsync(_transactionAcknowledgeResponse -> transactionCommitConfirmation(confirmCommit, _revealChainResponse)
+                                                .thenComposeAsync(_transactionAcknowledgeResponse -> transactionCommitConfirmation(operation, confirmCommit, _revealChainResponse)
                                                         .thenApplyAsync(_commitConfirmedResponse -> {
                                                             notifyCommitConfirmed(_commitConfirmedResponse);
                                                             // create response
@@ -325,7 +470,7 @@ public class EntryApiImpl extends AbstractClient implements EntryApi {
                                                             response.setCommitChainResponse(_commitChainResponse.getResult());
                                                             response.setRevealResponse(_revealChainResponse.getResult());
                                                             return response;
-                                                        }, executorService()), executorService()), executorService()), executorService()), executorService()), executorService());
+                                                        }, executorService()), executorService()), executorService()), executorService()), executorService()), executorService()));
     }
 
     /**
@@ -387,23 +532,24 @@ public class EntryApiImpl extends AbstractClient implements EntryApi {
     protected CompletableFuture<CommitAndRevealEntryResponse> commitAndRevealEntryImpl(Entry entry, Address address, SignatureProvider signatureProvider, boolean confirmCommit) throws FactomException.ClientException {
         // after compose entry combine commit and reveal entry
 
-        return (address == null ? composeEntryFuture(entry, signatureProvider) : composeEntryFuture(entry, address))
+        Operation<CommitAndRevealEntryResponse> operation = new Operation<>("commit and reveal of the entry");
+        return operation.start(() -> operation.step(() -> address == null ? composeEntryFuture(entry, signatureProvider) : composeEntryFuture(entry, address))
                 .thenApplyAsync(_composeEntryResponse -> notifyCompose(_composeEntryResponse), executorService())
                 // commit chain
-                .thenComposeAsync(_composeEntryResponse -> commitEntryFuture(_composeEntryResponse)
+                .thenComposeAsync(_composeEntryResponse -> operation.step(() -> commitEntryFuture(_composeEntryResponse))
                                 .thenApplyAsync(_commitEntryResponse -> notifyEntryCommit(_commitEntryResponse), executorService())
                                 // wait to transaction is known
-                                .thenComposeAsync(_commitEntryResponse -> waitFuture()
+                                .thenComposeAsync(_commitEntryResponse -> operation.delay(ENTRY_REVEAL_WAIT)
                                                 // reveal chain
-                                                .thenComposeAsync(_void -> revealEntryFuture(_composeEntryResponse)
+                                                .thenComposeAsync(_void -> operation.step(() -> revealEntryFuture(_composeEntryResponse))
                                                                 .thenApplyAsync(_revealEntryResponse -> notifyReveal(_revealEntryResponse), executorService())
                                                                 // wait for transaction acknowledgement
-                                                                .thenComposeAsync(_revealEntryResponse -> transactionAcknowledgeConfirmation(_revealEntryResponse)
+                                                                .thenComposeAsync(_revealEntryResponse -> transactionAcknowledgeConfirmation(operation, _revealEntryResponse)
                                                                                 .thenApplyAsync(_transactionAcknowledgeResponse ->
                                                                                         notifyEntryTransaction(_transactionAcknowledgeResponse), executorService())
                                                                                 // wait for block confirmed
                                                                                 .thenComposeAsync(_transactionAcknowledgeResponse ->
-                                                                                                transactionCommitConfirmation(confirmCommit, _revealEntryResponse)
+                                                                                                transactionCommitConfirmation(operation, confirmCommit, _revealEntryResponse)
                                                                                                         .thenApplyAsync(_commitConfirmedResponse -> {
                                                                                                             notifyCommitConfirmed(_commitConfirmedResponse);
                                                                                                             // create response
@@ -417,7 +563,7 @@ public class EntryApiImpl extends AbstractClient implements EntryApi {
                                                         executorService()),
                                         executorService()),
                         executorService()
-                );
+                ));
     }
 
     private <T> FactomResponse<T> handleResponse(CommitAndRevealListener listener, Consumer<T> listenerCall, FactomResponse<T> response) {
@@ -477,82 +623,91 @@ public class EntryApiImpl extends AbstractClient implements EntryApi {
         return response;
     }
 
-    private CompletableFuture<Void> waitFuture() {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                TimeUnit.MILLISECONDS.sleep(ENTRY_REVEAL_WAIT);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new FactomException.ClientException("interrupted while waiting on confirmation", e);
-            }
-        }, executorService());
-    }
-
     private ExecutorService executorService() {
         return client().getExecutorService();
     }
 
+    /**
+     * Without settings of its own, the entry api runs its pipelines on the executor of the factomd client, which follows the factomd settings
+     * (including virtual threads).
+     */
+    @Override
+    protected ExecutorService defaultExecutorService(RpcSettings.Server server) {
+        if (server == null && factomdClient instanceof LowLevelClient) {
+            return client().getExecutorService();
+        }
+        return super.defaultExecutorService(server);
+    }
+
     private LowLevelClient client() {
         return (LowLevelClient) factomdClient;
     }
 
-    private CompletionStage<FactomResponse<EntryTransactionResponse>> transactionAcknowledgeConfirmation(FactomResponse<RevealResponse> revealChainResponse) {
+    private CompletionStage<FactomResponse<EntryTransactionResponse>> transactionAcknowledgeConfirmation(Operation<?> operation, FactomResponse<RevealResponse> revealChainResponse) {
         if (revealChainResponse == null || revealChainResponse.getResult() == null) {
             throw new FactomRuntimeException.AssertionException("Reveal chain response was null in transaction acknowledge confirmation. " + (revealChainResponse == null ? "<no RPC response>" : revealChainResponse.getHTTPResponseMessage()));
         }
         String entryHash = revealChainResponse.getResult().getEntryHash();
         String chainId = revealChainResponse.getResult().getChainId();
         List<EntryTransactionResponse.Status> desiredStatus = Arrays.asList(EntryTransactionResponse.Status.TransactionACK, EntryTransactionResponse.Status.DBlockConfirmed);
-        return transactionConfirmation(entryHash, chainId, desiredStatus, transactionAcknowledgeTimeout, 1000);
+        return transactionConfirmation(operation, entryHash, chainId, desiredStatus, transactionAcknowledgeTimeout, 1000);
     }
 
-    private CompletableFuture<FactomResponse<EntryTransactionResponse>> transactionCommitConfirmation(boolean waitForConfirmation, FactomResponse<RevealResponse> revealChainResponse) {
+    private CompletableFuture<FactomResponse<EntryTransactionResponse>> transactionCommitConfirmation(Operation<?> operation, boolean waitForConfirmation, FactomResponse<RevealResponse> revealChainResponse) {
         String entryHash = revealChainResponse.getResult().getEntryHash();
         String chainId = revealChainResponse.getResult().getChainId();
         if (waitForConfirmation) {
-            return transactionConfirmation(entryHash, chainId, Arrays.asList(EntryTransactionResponse.Status.DBlockConfirmed), commitConfirmedTimeout, 60000);
+            return transactionConfirmation(operation, entryHash, chainId, Arrays.asList(EntryTransactionResponse.Status.DBlockConfirmed), commitConfirmedTimeout, 60000);
         } else {
-            return getFactomdClient().ackTransactions(entryHash, chainId, EntryTransactionResponse.class);
+            return operation.step(() -> getFactomdClient().ackTransactions(entryHash, chainId, EntryTransactionResponse.class));
         }
     }
 
-    private CompletableFuture<FactomResponse<EntryTransactionResponse>> transactionConfirmation(String entryHash, String chainId,
+    private CompletableFuture<FactomResponse<EntryTransactionResponse>> transactionConfirmation(Operation<?> operation, String entryHash, String chainId,
                                                                                                 List<EntryTransactionResponse.Status> desiredStatus,
                                                                                                 int timeout, int sleepTime) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                FactomResponse<EntryTransactionResponse> transactionsResponse = null;
-                boolean confirmed = false;
-                int maxSeconds = timeout / sleepTime;
-                int seconds = 0;
-                while (!confirmed && seconds < maxSeconds) {
-                    logger.debug("Transaction verification of chain id=%s, entry hash=%s at %d", chainId, entryHash, seconds);
-                    transactionsResponse = getFactomdClient().ackTransactions(entryHash, chainId, EntryTransactionResponse.class).join();
-
-                    if (!transactionsResponse.hasErrors()) {
-                        confirmed = desiredStatus.contains(transactionsResponse.getResult().getCommitData().getStatus());
+        return transactionConfirmation(operation, entryHash, chainId, desiredStatus, timeout / sleepTime, sleepTime, 0);
+    }
+
+    /**
+     * Polls the transaction until it is in a desired status or the attempts ran out. Waits between the polls without occupying a thread,
+     * and stops polling once the operation is stopped.
+     */
+    private CompletableFuture<FactomResponse<EntryTransactionResponse>> transactionConfirmation(Operation<?> operation, String entryHash, String chainId,
+                                                                                                List<EntryTransactionResponse.Status> desiredStatus,
+                                                                                                int maxAttempts, int sleepTime, int attempt) {
+        if (attempt >= maxAttempts) {
+            CompletableFuture<FactomResponse<EntryTransactionResponse>> noResponse = new CompletableFuture<>();
+            noResponse.completeExceptionally(new FactomException.ClientException(String.format("Transaction of chain id=%s, entry hash=%s didn't return a response after %s. " +
+                    "Probably will not succeed! ", chainId, entryHash, attempt)));
+            return noResponse;
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("Transaction verification of chain id=%s, entry hash=%s at %d", chainId, entryHash, attempt);
+        }
+        return operation.step(() -> getFactomdClient().ackTransactions(entryHash, chainId, EntryTransactionResponse.class))
+                .thenComposeAsync(transactionsResponse -> {
+                    boolean confirmed = transactionsResponse != null && !transactionsResponse.hasErrors()
+                            && desiredStatus.contains(transactionsResponse.getResult().getCommitData().getStatus());
+                    int seconds = attempt + 1;
+                    if (!confirmed && seconds < maxAttempts) {
+                        return operation.delay(sleepTime).thenComposeAsync(_void ->
+                                transactionConfirmation(operation, entryHash, chainId, desiredStatus, maxAttempts, sleepTime, seconds), executorService());
+                    }
+
+                    if (transactionsResponse == null) {
+                        throw new FactomException.ClientException(String.format("Transaction of chain id=%s, entry hash=%s didn't return a response after %s. " +
+                                "Probably will not succeed! ", chainId, entryHash, seconds));
+                    } else if (transactionsResponse.hasErrors()) {
+                        logger.error("Transaction of chain id=%s, entry hash=%s received error after %d, errors=%s. Probably will not succeed! ",
+                                chainId, entryHash, seconds, transactionsResponse.getRpcErrorResponse());
+                    } else if (!confirmed) {
+                        EntryTransactionResponse.Status status = transactionsResponse.getResult().getCommitData().getStatus();
+                        logger.error("Transaction of chain id=%s, entry hash=%s still not in desired status after %d, state = %s. Probably will not succeed! ",
+                                chainId, entryHash, seconds, status);
                     }
-                    Thread.sleep(sleepTime);
-                    seconds++;
-                }
-
-                if (transactionsResponse == null) {
-                    throw new FactomException.ClientException(String.format("Transaction of chain id=%s, entry hash=%s didn't return a response after %s. " +
-                            "Probably will not succeed! ", chainId, entryHash, seconds));
-                } else if (transactionsResponse.hasErrors()) {
-                    logger.error("Transaction of chain id=%s, entry hash=%s received error after %d, errors=%s. Probably will not succeed! ",
-                            chainId, entryHash, seconds, transactionsResponse.getRpcErrorResponse());
-                } else if (!confirmed) {
-                    EntryTransactionResponse.Status status = transactionsResponse.getResult().getCommitData().getStatus();
-                    logger.error("Transaction of chain id=%s, entry hash=%s still not in desired status after %d, state = %s. Probably will not succeed! ",
-                            chainId, entryHash, seconds, status);
-                }
-                return transactionsResponse;
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new FactomException.ClientException("interrupted while waiting on confirmation", e);
-            }
-        }, executorService());
+                    return CompletableFuture.completedFuture(transactionsResponse);
+                }, executorService());
     }
 
     private CompletableFuture<FactomResponse<ComposeResponse>> composeChainFuture(Chain chain, SignatureProvider signatureProvider) {
@@ -572,23 +727,23 @@ public class EntryApiImpl extends AbstractClient implements EntryApi {
     }
 
     private CompletableFuture<FactomResponse<ComposeResponse>> composeEntryFuture(Entry entry, SignatureProvider signatureProvider) {
-        logger.info("commitEntryFuture");
+        logger.debug("composeEntryFuture");
         return getWalletdClient().composeEntry(entry, signatureProvider);
     }
 
     private CompletableFuture<FactomResponse<ComposeResponse>> composeEntryFuture(Entry entry, Address address) {
-        logger.info("commitEntryFuture");
+        logger.debug("composeEntryFuture");
         return getWalletdClient().composeEntry(entry, address);
     }
 
 
     private CompletableFuture<FactomResponse<CommitEntryResponse>> commitEntryFuture(FactomResponse<ComposeResponse> composeEntry) {
-        logger.info("commitEntryFuture");
+        logger.debug("commitEntryFuture");
         return getFactomdClient().commitEntry(composeEntry.getResult().getCommit().getParams().getMessage());
     }
 
     private CompletableFuture<FactomResponse<RevealResponse>> revealEntryFuture(FactomResponse<ComposeResponse> composeEntry) {
-        logger.info("revealEntryFuture");
+        logger.debug("revealEntryFuture");
         return getFactomdClient().revealEntry(composeEntry.getResult().getReveal().getParams().getEntry());
     }
 }
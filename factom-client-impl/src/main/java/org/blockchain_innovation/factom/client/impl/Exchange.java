@@ -18,77 +18,180 @@ package org.blockchain_innovation.factom.client.impl;
 
 import org.blockchain_innovation.factom.client.api.FactomRequest;
 import org.blockchain_innovation.factom.client.api.FactomResponse;
-import org.blockchain_innovation.factom.client.api.LowLevelClient;
 import org.blockchain_innovation.factom.client.api.errors.FactomException;
+import org.blockchain_innovation.factom.client.api.interceptors.RpcInterceptor;
 import org.blockchain_innovation.factom.client.api.json.JsonConverter;
 import org.blockchain_innovation.factom.client.api.log.LogFactory;
 import org.blockchain_innovation.factom.client.api.log.Logger;
+import org.blockchain_innovation.factom.client.api.metrics.RequestMetrics;
 import org.blockchain_innovation.factom.client.api.rpc.RpcErrorResponse;
+import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
 import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
 import org.blockchain_innovation.factom.client.api.rpc.RpcResponse;
 import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.api.transport.Transport;
+import org.blockchain_innovation.factom.client.api.transport.TransportRequest;
+import org.blockchain_innovation.factom.client.api.transport.TransportResponse;
+import org.blockchain_innovation.factom.client.impl.transport.ContentEncoding;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.net.HttpURLConnection;
-import java.net.InetSocketAddress;
-import java.net.Proxy;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.net.SocketException;
 import java.net.URL;
-import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 public class Exchange<Result> {
 
-    private final URL url;
+    private static final int REQUEST_BUFFER_SIZE = 512;
+
+    private final AbstractClient client;
+    private final boolean routed;
+    private URL url;
     private final RpcSettings settings;
+    private final Transport transport;
     private final boolean logErrors;
     private final FactomRequest factomRequest;
     private final Class<Result> rpcResultClass;
     private static final Logger logger = LogFactory.getLogger(Exchange.class);
     private final ExecutorService executorService;
-    private HttpURLConnection connection;
+    private TransportResponse transportResponse;
     private FactomResponse<Result> factomResponse;
+    private final RequestMetrics metrics = new RequestMetrics();
+    private final AtomicBoolean recorded = new AtomicBoolean();
+    private final InterceptorChain<Result> interceptorChain;
+    private ResponseCache responseCache;
+
 
+    protected Exchange(AbstractClient client, RpcRequest rpcRequest, Class<Result> rpcResultClass, boolean logErrors) {
+        this(client, rpcRequest, rpcResultClass, logErrors, null);
+    }
 
-    protected Exchange(LowLevelClient client, RpcRequest rpcRequest, Class<Result> rpcResultClass, boolean logErrors) {
+    /**
+     * Creates an exchange with a specific endpoint of the server.
+     *
+     * @param client         The client.
+     * @param rpcRequest     The request.
+     * @param rpcResultClass The result class.
+     * @param logErrors      Whether to log errors.
+     * @param url            The URL of the endpoint, bypassing the routing over the endpoints of the server. When null the endpoint is selected when sending.
+     */
+    protected Exchange(AbstractClient client, RpcRequest rpcRequest, Class<Result> rpcResultClass, boolean logErrors, URL url) {
+        this.client = client;
         this.executorService = client.getExecutorService();
         this.settings = client.getSettings();
+        this.transport = client.getTransport();
         this.logErrors = logErrors;
-        this.url = settings.getServer().getURL();
+        this.routed = url == null;
+        this.url = url == null ? settings.getServer().getURL() : url;
         this.factomRequest = new FactomRequestImpl(rpcRequest);
         this.rpcResultClass = rpcResultClass;
+        RpcInterceptor[] interceptors = client.interceptors();
+        this.interceptorChain = interceptors.length == 0 ? null : new InterceptorChain<>(this, interceptors, rpcResultClass);
     }
 
 
-    public CompletableFuture<FactomResponse<Result>> execute() {
+    /**
+     * Sets the cache to answer the request from, and to cache the response of the server in.
+     *
+     * @param responseCache The response cache, or null to always send the request.
+     * @return This exchange.
+     */
+    protected Exchange<Result> setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+        return this;
+    }
 
-        return CompletableFuture.supplyAsync(() -> {
-            connection();
-            sendRequest();
-            retrieveResponse(rpcResultClass);
-            return getFactomResponse();
-        }, getExecutorService()).exceptionally(throwable -> {
-            if (logErrors) {
-                if (throwable instanceof CompletionException && throwable.getCause() instanceof FactomException.RpcErrorException) {
-                    RpcErrorResponse errorResponse = ((FactomException.RpcErrorException) throwable.getCause()).getRpcErrorResponse();
-                    logger.error(errorResponse.toString());
+    /**
+     * Executes the exchange asynchronously. Errors do not complete the promise exceptionally, but result in the Factom response of the exchange.
+     * Cancelling the promise, or completing it otherwise before the response arrived, cancels the request.
+     * The interceptors of the client are called around the exchange, including cache hits, and can answer it without sending the request.
+     * Only responses of the server are cached, never the responses of interceptors.
+     *
+     * @return The promise of the response.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public CompletableFuture<FactomResponse<Result>> execute() {
+        if (interceptorChain != null || responseCache != null) {
+            try {
+                FactomResponse<Result> shortCircuited = interceptorChain == null ? null : interceptorChain.beforeSend();
+                if (shortCircuited != null) {
+                    this.factomResponse = shortCircuited;
+                    return CompletableFuture.completedFuture(shortCircuited);
                 }
-                logger.error(throwable.getMessage(), throwable);
+                FactomResponse<Result> cached = responseCache == null ? null : responseCache.get(getRpcRequest(), rpcResultClass);
+                if (cached != null) {
+                    this.factomResponse = cached;
+                    return CompletableFuture.completedFuture(interceptorChain == null ? cached : interceptorChain.afterReceive(cached));
+                }
+            } catch (RuntimeException e) {
+                return CompletableFuture.completedFuture(handleError(e));
             }
-
-            return getFactomResponse();
+        }
+        CompletableFuture<TransportResponse> sent = sendRequest();
+        CompletableFuture<FactomResponse<Result>> result = sent.thenApply(response -> {
+            this.transportResponse = response;
+            try {
+                FactomResponse<Result> retrieved = retrieveResponse(rpcResultClass);
+                recordMetrics(null);
+                if (responseCache != null) {
+                    // Cached before the interceptors see it, and before the promise completes so the next request gets the cached response
+                    responseCache.put(getRpcRequest(), rpcResultClass, retrieved);
+                }
+                return interceptorChain == null ? retrieved : interceptorChain.afterReceive(retrieved);
+            } finally {
+                closeResponse();
+            }
+        }).exceptionally(throwable -> {
+            recordMetrics(throwable);
+            return handleError(throwable);
         });
+        result.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                sent.cancel(true);
+                // Cancelled or expired before the response arrived
+                recordMetrics(throwable);
+            }
+        });
+        return result;
     }
 
 
+    /**
+     * Handles an error of the exchange. Unless an interceptor recovers, the error is logged and the Factom response of the exchange (if any) is returned.
+     *
+     * @param throwable The error.
+     * @return The response for the caller.
+     */
+    protected FactomResponse<Result> handleError(Throwable throwable) {
+        if (interceptorChain != null) {
+            Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+            FactomResponse<Result> recovered = interceptorChain.onError(cause);
+            if (recovered != null) {
+                return recovered;
+            }
+        }
+        if (logErrors) {
+            if (throwable instanceof CompletionException && throwable.getCause() instanceof FactomException.RpcErrorException) {
+                RpcErrorResponse errorResponse = ((FactomException.RpcErrorException) throwable.getCause()).getRpcErrorResponse();
+                logger.error(errorResponse.toString());
+            }
+            logger.error(throwable.getMessage(), throwable);
+        }
+
+        return getFactomResponse();
+    }
+
     public FactomRequest getFactomRequest() {
         return factomRequest;
     }
@@ -104,102 +207,333 @@ public class Exchange<Result> {
         return factomResponse;
     }
 
-    protected HttpURLConnection connection() throws FactomException.ClientException {
-        if (connection == null) {
-            this.connection = createConnection(url);
+    /**
+     * Gets the measurements of this exchange.
+     *
+     * @return The metrics.
+     */
+    public RequestMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Gets the URL of the endpoint the request is sent to.
+     *
+     * @return The URL.
+     */
+    public URL getUrl() {
+        return url;
+    }
+
+
+    /**
+     * Sends the request using the transport. Depending on the transport no thread is blocked while waiting for the response.
+     * Unless the exchange is for a specific endpoint, the request is routed over the endpoints of the server and retried according to the
+     * retry policy of the client.
+     *
+     * @return The promise of the response, completing on a thread of the executor service.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    protected CompletableFuture<TransportResponse> sendRequest() {
+        if (routed) {
+            RpcMethod method = getRpcRequest() == null ? null : getRpcRequest().getMethod();
+            return new RequestDispatcher(client, method == null || method.isReadOnly(), client.getRetryPolicy().isRetryable(method), endpointUrl -> {
+                this.url = endpointUrl;
+                return createTransportRequest();
+            }).dispatch();
         }
-        return connection;
+        CompletableFuture<TransportResponse> result = new CompletableFuture<>();
+        TransportRequest request;
+        try {
+            request = createTransportRequest();
+        } catch (RuntimeException e) {
+            result.completeExceptionally(e);
+            return result;
+        }
+        CompletableFuture<TransportResponse> sent;
+        try {
+            sent = transport.sendAsync(request, getExecutorService());
+        } catch (RuntimeException e) {
+            result.completeExceptionally(new FactomException.ClientException(String.format("Could not send the request to %s: %s", url, e.getMessage()), e));
+            return result;
+        }
+        result.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                sent.cancel(true);
+            }
+        });
+        sent.whenComplete((response, throwable) -> {
+            if (throwable == null) {
+                if (!result.complete(response)) {
+                    closeResponse(response);
+                }
+            } else {
+                Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+                result.completeExceptionally(new FactomException.ClientException(String.format("Error while talking to %s: %s", url, cause.getMessage()), cause));
+            }
+        });
+        return result;
     }
 
+    protected TransportRequest createTransportRequest() throws FactomException.ClientException {
+        if (getFactomRequest().getRpcRequest() == null) {
+            throw new FactomException.ClientException(String.format("No Rpc request to send to %s", url));
+        }
+        // Serialize straight to UTF-8 bytes, without an intermediate json String
+        ByteArrayOutputStream body = new ByteArrayOutputStream(REQUEST_BUFFER_SIZE);
+        JsonConverter.Provider.getInstance().toRpcJson(getFactomRequest().getRpcRequest(), body);
+        byte[] json = body.toByteArray();
+        if (logger.isDebugEnabled()) {
+            logger.debug("request(%d): %s ", getFactomRequest().getRpcRequest().getId(), new String(json, StandardCharsets.UTF_8));
+        }
+        RpcMethod method = getFactomRequest().getRpcRequest().getMethod();
+        TransportRequest request = jsonRequest(settings.getServer(), url, json).setMetrics(metrics)
+                .setIdempotent(method != null && method.isReadOnly());
+        if (interceptorChain != null) {
+            interceptorChain.applyHeaders(request);
+        }
+        metrics.setRequestBytes(request.getBody().length);
+        return request;
+    }
 
-    protected void sendRequest() throws FactomException.ClientException {
-        if (getFactomRequest().getRpcRequest() != null) {
-            try (OutputStream outputStream = connection().getOutputStream(); OutputStreamWriter out = new OutputStreamWriter(outputStream, Charset.defaultCharset())) {
-                String json = JsonConverter.Provider.newInstance().toRpcJson(getFactomRequest().getRpcRequest());
-                logger.debug("request(%d): %s ", getFactomRequest().getRpcRequest().getId(), json);
-                out.write(json);
+    /**
+     * Creates the HTTP request for a json body. When compression is enabled for the server, compressed responses are accepted and
+     * requests from the configured size are compressed.
+     *
+     * @param server The server settings.
+     * @param url    The URL of the endpoint of the server.
+     * @param json   The UTF-8 encoded json.
+     * @return The request.
+     */
+    protected static TransportRequest jsonRequest(RpcSettings.Server server, URL url, byte[] json) {
+        ContentEncoding encoding = ContentEncoding.fromName(server.getCompression());
+        int threshold = server.getRequestCompressionThreshold();
+        TransportRequest request;
+        if (encoding != ContentEncoding.NONE && threshold >= 0 && json.length >= threshold) {
+            try {
+                request = new TransportRequest(url, encoding.encode(json))
+                        .setHeader("Content-Encoding", encoding.getName());
             } catch (IOException e) {
-                throw new FactomException.ClientException(String.format("Error while talking to %s: %s", url, e.getMessage()), e);
+                throw new FactomException.ClientException(String.format("Could not compress the request for %s: %s", url, e.getMessage()), e);
             }
+        } else {
+            request = new TransportRequest(url, json);
+        }
+        if (encoding != ContentEncoding.NONE) {
+            request.setHeader("Accept-Encoding", encoding.getName());
+        }
+        return request.setHeader("Content-Type", "application/json");
+    }
+
+    /**
+     * Creates a reader of the response body, decompressing it while reading when the server compressed it.
+     *
+     * @param response The response.
+     * @return The reader of the json.
+     * @throws IOException When the response uses an unsupported encoding.
+     */
+    protected static BufferedReader jsonReader(TransportResponse response) throws IOException {
+        return jsonReader(response, null);
+    }
+
+    /**
+     * Creates a reader of the response body, counting the bytes received in the metrics of the exchange.
+     *
+     * @param response The response.
+     * @param metrics  The metrics to add the size of the body to, or null.
+     * @return The reader of the json.
+     * @throws IOException When the response uses an unsupported encoding.
+     */
+    protected static BufferedReader jsonReader(TransportResponse response, RequestMetrics metrics) throws IOException {
+        return new BufferedReader(new InputStreamReader(jsonStream(response, metrics), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates a stream of the (decompressed) UTF-8 encoded response body, counting the bytes received in the metrics of the exchange.
+     *
+     * @param response The response.
+     * @param metrics  The metrics to add the size of the body to, or null.
+     * @return The stream of the json.
+     * @throws IOException When the response uses an unsupported encoding.
+     */
+    protected static InputStream jsonStream(TransportResponse response, RequestMetrics metrics) throws IOException {
+        InputStream received = metrics == null ? response.getBody() : new CountingInputStream(response.getBody(), metrics);
+        return ContentEncoding.decode(received, response.getHeader("Content-Encoding"));
+    }
+
+    /**
+     * Completes the metrics of this exchange and hands them to the metrics recorder of the client, once. This happens before the promise of the
+     * exchange completes, so callers see their own request in the metrics. A failing recorder never fails the exchange.
+     *
+     * @param throwable The error the exchange ended with, or null.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    protected void recordMetrics(Throwable throwable) {
+        if (!recorded.compareAndSet(false, true)) {
+            return;
+        }
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        Class<? extends Throwable> errorType = cause == null ? null : cause.getClass();
+        if (errorType == null && factomResponse != null && factomResponse.hasErrors()) {
+            errorType = FactomException.RpcErrorException.class;
+        }
+        RpcMethod method = getRpcRequest() == null ? null : getRpcRequest().getMethod();
+        metrics.completed(method == null ? "unknown" : method.toJsonValue(), String.valueOf(url),
+                transportResponse == null ? -1 : transportResponse.getStatusCode(), errorType);
+        try {
+            client.getMetricsRecorder().record(metrics);
+        } catch (RuntimeException e) {
+            logger.debug("Could not record the metrics of %s: %s", url, e.getMessage());
         }
     }
 
     @SuppressWarnings({"PMD.PreserveStackTrace", "PMD.AvoidCatchingGenericException"})
     protected FactomResponse<Result> retrieveResponse(Class<Result> rpcResultClass) throws FactomException.ClientException {
-        try (InputStream is = connection().getInputStream();
-             InputStreamReader streamReader = new InputStreamReader(is, Charset.defaultCharset());
-             BufferedReader reader = new BufferedReader(streamReader)) {
-
-            String json = reader.lines().collect(Collectors.joining());
-            logger.debug("response(%d): %s", getFactomRequest().getRpcRequest().getId(), JsonConverter.Provider.newInstance().prettyPrint(json));
-            RpcResponse<Result> rpcResult = JsonConverter.Provider.newInstance().responseFromJson(json, rpcResultClass);
-            if (rpcResult.getResult() == null) {
-                RpcErrorResponse errorResponse = JsonConverter.Provider.newInstance().errorFromJson(json);
-                if (errorResponse.getError() != null) {
-                    this.factomResponse = new FactomResponseImpl<>(this, errorResponse, connection().getResponseCode(), connection().getResponseMessage());
-                }
-            }
-            if (factomResponse == null) {
-                this.factomResponse = new FactomResponseImpl<>(this, rpcResult, connection().getResponseCode(), connection().getResponseMessage());
+        if (transportResponse == null) {
+            throw new FactomException.ClientException(String.format("No request has been sent to %s", url));
+        }
+        if (transportResponse.getStatusCode() >= 400) {
+            throw retrieveErrorResponse();
+        }
+        try (Reader reader = jsonReader(transportResponse, metrics)) {
+            JsonConverter converter = JsonConverter.Provider.getInstance();
+            RpcResponse<Result> rpcResponse;
+            if (logger.isDebugEnabled()) {
+                String json = JsonConverter.read(reader);
+                logger.debug("response(%d): %s", getFactomRequest().getRpcRequest().getId(), converter.prettyPrint(json));
+                rpcResponse = converter.responseFromJson(json, rpcResultClass);
+            } else {
+                // Deserialize while reading from the connection, so large responses are never held as a String
+                rpcResponse = converter.responseFromJson(reader, rpcResultClass);
             }
-            return factomResponse;
+            return handleRpcResponse(rpcResponse, transportResponse.getStatusCode(), transportResponse.getStatusMessage());
         } catch (SocketException se) {
             throw new FactomException.ClientException(se);
-        } catch (IOException e) {
-            String error = "<no error response>";
-            try (BufferedReader br = new BufferedReader(new InputStreamReader(connection().getErrorStream(), Charset.defaultCharset()))) {
-                error = br.lines().collect(Collectors.joining(System.lineSeparator()));
-
-                RpcErrorResponse errorResponse = JsonConverter.Provider.newInstance().errorFromJson(error);
-                this.factomResponse = new FactomResponseImpl<>(this, errorResponse, connection().getResponseCode(), connection().getResponseMessage());
-
-                // No you never log yourself and rethrow an exception. We are however a library so are reliant on the implementor
-                // to do proper logging on exception. Hence we bind to debug level to not upset everybody ;)
-                if (logger.isDebugEnabled()) {
-                    logger.error("RPC Server returned an error response. HTTP code: %s, message: %s", getFactomResponse().getHTTPResponseCode(), getFactomResponse().getHTTPResponseMessage());
-                    logger.error("error response(%d): %s", getFactomRequest().getRpcRequest().getId(), JsonConverter.Provider.newInstance().prettyPrint(error) + "\n");
-                }
-            } catch (RuntimeException | IOException e2) {
-                logger.error("Error after handling an error response of the server: %s. Error body: %s", e2, e2.getMessage(), error);
-                // Fallback to client exception when we could not retrieve the error response
-                throw new FactomException.ClientException(e);
-            }
-            throw new FactomException.RpcErrorException(e, factomResponse);
+        } catch (IOException | UncheckedIOException e) {
+            throw new FactomException.ClientException(String.format("Error while reading the response from %s: %s", url, e.getMessage()), e);
+        }
+    }
 
+    /**
+     * Converts the Rpc response of the server into the Factom response of this exchange.
+     *
+     * @param rpcResponse   The Rpc response, containing either a result or an error.
+     * @param statusCode    The HTTP status code.
+     * @param statusMessage The HTTP status message.
+     * @return The Factom response, containing the result or the Rpc error.
+     */
+    protected FactomResponse<Result> handleRpcResponse(RpcResponse<Result> rpcResponse, int statusCode, String statusMessage) {
+        if (rpcResponse.getResult() == null && rpcResponse.getError() != null) {
+            return handleRpcErrorResponse(rpcResponse.toErrorResponse(), statusCode, statusMessage);
         }
+        this.factomResponse = new FactomResponseImpl<>(this, rpcResponse, statusCode, statusMessage);
+        return factomResponse;
     }
 
+    /**
+     * Converts the Rpc error of the server into the Factom response of this exchange.
+     *
+     * @param errorResponse The Rpc error response.
+     * @param statusCode    The HTTP status code.
+     * @param statusMessage The HTTP status message.
+     * @return The Factom response, containing the Rpc error.
+     */
+    protected FactomResponse<Result> handleRpcErrorResponse(RpcErrorResponse errorResponse, int statusCode, String statusMessage) {
+        this.factomResponse = new FactomResponseImpl<>(this, errorResponse, statusCode, statusMessage);
+        return factomResponse;
+    }
 
-    protected HttpURLConnection createConnection(URL url) throws FactomException.RpcErrorException {
-        HttpURLConnection connection;
-        try {
-            if (settings.getProxy() == null) {
-                connection = (HttpURLConnection) url.openConnection();
-            } else {
-                RpcSettings.Proxy proxySettings = settings.getProxy();
-                connection = (HttpURLConnection) url.openConnection(new Proxy(Proxy.Type.HTTP, new InetSocketAddress(proxySettings.getHost(), proxySettings.getPort())));
+    @SuppressWarnings({"PMD.PreserveStackTrace", "PMD.AvoidCatchingGenericException"})
+    protected FactomException.ClientException retrieveErrorResponse() {
+        IOException httpError = new IOException(String.format("Server returned HTTP response code: %d for URL: %s", transportResponse.getStatusCode(), url));
+        String error = "<no error response>";
+        try (BufferedReader br = jsonReader(transportResponse, metrics)) {
+            error = br.lines().collect(Collectors.joining(System.lineSeparator()));
+
+            RpcErrorResponse errorResponse = JsonConverter.Provider.getInstance().errorFromJson(error);
+            this.factomResponse = new FactomResponseImpl<>(this, errorResponse, transportResponse.getStatusCode(), transportResponse.getStatusMessage());
+
+            // No you never log yourself and rethrow an exception. We are however a library so are reliant on the implementor
+            // to do proper logging on exception. Hence we bind to debug level to not upset everybody ;)
+            if (logger.isDebugEnabled()) {
+                logger.error("RPC Server returned an error response. HTTP code: %s, message: %s", getFactomResponse().getHTTPResponseCode(), getFactomResponse().getHTTPResponseMessage());
+                logger.error("error response(%d): %s", getFactomRequest().getRpcRequest().getId(), JsonConverter.Provider.getInstance().prettyPrint(error) + "\n");
             }
-            int timeout = Math.max(5000, settings.getServer().getTimeout() * 1000);
-            connection.setConnectTimeout(timeout);
-            connection.setReadTimeout(timeout);
-            connection.setInstanceFollowRedirects(false);
-            connection.setUseCaches(false);
-            connection.setDoOutput(true);
+        } catch (RuntimeException | IOException e2) {
+            logger.error("Error after handling an error response of the server: %s. Error body: %s", e2, e2.getMessage(), error);
+            // Fallback to client exception when we could not retrieve the error response
+            return new FactomException.ClientException(httpError);
+        }
+        return new FactomException.RpcErrorException(httpError, factomResponse);
+    }
 
-            connection.setRequestProperty("Content-Type", "application/json");
-            connection.setRequestMethod("POST");
+    /**
+     * Gets the response of the transport, once it arrived.
+     *
+     * @return The transport response, or null.
+     */
+    protected TransportResponse getTransportResponse() {
+        return transportResponse;
+    }
 
-            return connection;
-        } catch (IOException e) {
-            throw new FactomException.RpcErrorException(e, getFactomResponse());
-        }
+    protected void closeResponse() {
+        closeResponse(transportResponse);
+    }
 
+    private void closeResponse(TransportResponse response) {
+        if (response != null) {
+            try {
+                response.close();
+            } catch (IOException e) {
+                logger.debug("Could not close the response of %s: %s", url, e.getMessage());
+            }
+        }
+    }
 
+    protected Transport getTransport() {
+        return transport;
     }
 
     protected ExecutorService getExecutorService() {
         return executorService;
     }
 
+    /**
+     * Counts the bytes of the response body as they are read from the connection.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private final RequestMetrics metrics;
+
+        CountingInputStream(InputStream in, RequestMetrics metrics) {
+            super(in);
+            this.metrics = metrics;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                metrics.addResponseBytes(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                metrics.addResponseBytes(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            metrics.addResponseBytes(skipped);
+            return skipped;
+        }
+    }
+
 
 }
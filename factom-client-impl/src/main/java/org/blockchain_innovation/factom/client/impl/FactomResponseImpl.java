@@ -27,6 +27,7 @@ public class FactomResponseImpl<Result> implements FactomResponse<Result> {
     private final int responseCode;
     private final String responseMessage;
     private final RpcErrorResponse errorResponse;
+    private boolean shortCircuited;
 
     protected FactomResponseImpl(Exchange exchange, RpcResponse<Result> rpcResponse, int responseCode, String responseMessage) {
         this.exchange = exchange;
@@ -49,6 +50,20 @@ public class FactomResponseImpl<Result> implements FactomResponse<Result> {
         return exchange;
     }
 
+    /**
+     * Whether an interceptor answered the request, instead of the server. These responses are never cached.
+     *
+     * @return true for responses of interceptors.
+     */
+    protected boolean isShortCircuited() {
+        return shortCircuited;
+    }
+
+    protected FactomResponseImpl<Result> setShortCircuited(boolean shortCircuited) {
+        this.shortCircuited = shortCircuited;
+        return this;
+    }
+
     @Override
     public RpcResponse<Result> getRpcResponse() {
         return rpcResponse;
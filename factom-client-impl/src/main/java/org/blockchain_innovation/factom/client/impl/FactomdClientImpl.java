@@ -50,7 +50,9 @@ import org.blockchain_innovation.factom.client.api.model.types.AddressType;
 import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
 
 import javax.inject.Named;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 @Named
 @SuppressWarnings({"PMD.AvoidDuplicateLiterals", "PMD.TooManyMethods", "PMD.CouplingBetweenObjects", "PMD.ExcessiveImports"})
@@ -71,6 +73,13 @@ public class FactomdClientImpl extends AbstractClient implements FactomdClient {
         return exchange(RpcMethod.ACK_TRANSACTION.toRequestBuilder().param("hash", hash).param("chainid", chainId), rpcResultClass);
     }
 
+    @Override
+    public <T> List<CompletableFuture<FactomResponse<T>>> ackTransactions(List<String> hashes, String chainId, Class<T> rpcResultClass) {
+        return exchangeBatch(hashes.stream()
+                .map(hash -> RpcMethod.ACK_TRANSACTION.toRequestBuilder().param("hash", hash).param("chainid", chainId).build())
+                .collect(Collectors.toList()), rpcResultClass);
+    }
+
 /*
     public CompletableFuture<FactomResponse<Map> ackFullTransaction(String fullMarshalledTransaction, String chainId) {
         return exchange(RpcMethod.ACK_TRANSACTION.toRequestBuilder().param("fulltransaction", fullMarshalledTransaction).param("chainid", chainId), Map.class);
@@ -137,6 +146,13 @@ public class FactomdClientImpl extends AbstractClient implements FactomdClient {
         return exchange(RpcMethod.ENTRY.toRequestBuilder().param("hash", entryHash), EntryResponse.class);
     }
 
+    @Override
+    public List<CompletableFuture<FactomResponse<EntryResponse>>> entries(List<String> entryHashes) {
+        return exchangeBatch(entryHashes.stream()
+                .map(entryHash -> RpcMethod.ENTRY.toRequestBuilder().param("hash", entryHash).build())
+                .collect(Collectors.toList()), EntryResponse.class);
+    }
+
     @Override
     public CompletableFuture<FactomResponse<EntryBlockResponse>> entryBlockByKeyMerkleRoot(String keyMR) {
         return exchange(RpcMethod.ENTRY_BLOCK_BY_KEYMR.toRequestBuilder().param("keymr", keyMR), EntryBlockResponse.class);
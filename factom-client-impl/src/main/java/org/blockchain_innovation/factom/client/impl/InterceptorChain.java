@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.interceptors.RpcInterceptor;
+import org.blockchain_innovation.factom.client.api.rpc.RpcErrorResponse;
+import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
+import org.blockchain_innovation.factom.client.api.rpc.RpcResponse;
+import org.blockchain_innovation.factom.client.api.transport.TransportRequest;
+
+import java.net.URL;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Runs the interceptors of the client for a single exchange. Only created when the client has interceptors, and the headers and attributes
+ * are only allocated when an interceptor uses them.
+ *
+ * @param <Result> The result type of the exchange.
+ */
+class InterceptorChain<Result> implements RpcInterceptor.Invocation<Result> {
+    private final Exchange<Result> exchange;
+    private final RpcInterceptor[] interceptors;
+    private final Class<Result> resultClass;
+    private int passed;
+    private Map<String, String> headers;
+    private Map<String, Object> attributes;
+
+    InterceptorChain(Exchange<Result> exchange, RpcInterceptor[] interceptors, Class<Result> resultClass) {
+        this.exchange = exchange;
+        this.interceptors = interceptors;
+        this.resultClass = resultClass;
+    }
+
+    /**
+     * Calls the interceptors in order until one answers the request.
+     *
+     * @return The response of the interceptor that short-circuited the chain, already passed back through the interceptors before it. Null to send the request.
+     */
+    FactomResponse<Result> beforeSend() {
+        for (RpcInterceptor interceptor : interceptors) {
+            FactomResponse<Result> response = interceptor.beforeSend(this);
+            if (response != null) {
+                return afterReceive(response);
+            }
+            passed++;
+        }
+        return null;
+    }
+
+    /**
+     * Calls the interceptors that passed the request on, in reverse order.
+     *
+     * @param response The response.
+     * @return The response for the caller.
+     */
+    FactomResponse<Result> afterReceive(FactomResponse<Result> response) {
+        return afterReceive(response, passed);
+    }
+
+    /**
+     * Calls the interceptors that passed the request on, in reverse order, until one recovers from the error.
+     *
+     * @param error The error.
+     * @return The response of the interceptor that recovered, passed back through the interceptors before it. Null when none recovered.
+     */
+    FactomResponse<Result> onError(Throwable error) {
+        for (int i = passed - 1; i >= 0; i--) {
+            FactomResponse<Result> response = interceptors[i].onError(this, error);
+            if (response != null) {
+                return afterReceive(response, i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds the headers set by the interceptors to the HTTP request.
+     *
+     * @param request The request.
+     * @return The request.
+     */
+    TransportRequest applyHeaders(TransportRequest request) {
+        if (headers != null) {
+            headers.forEach(request::setHeader);
+        }
+        return request;
+    }
+
+    private FactomResponse<Result> afterReceive(FactomResponse<Result> response, int count) {
+        FactomResponse<Result> current = response;
+        for (int i = count - 1; i >= 0; i--) {
+            current = interceptors[i].afterReceive(this, current);
+        }
+        return current;
+    }
+
+    @Override
+    public RpcRequest getRpcRequest() {
+        return exchange.getRpcRequest();
+    }
+
+    @Override
+    public Class<Result> getResultClass() {
+        return resultClass;
+    }
+
+    @Override
+    public URL getUrl() {
+        return exchange.getUrl();
+    }
+
+    @Override
+    public RpcInterceptor.Invocation<Result> setHeader(String name, String value) {
+        if (headers == null) {
+            headers = new LinkedHashMap<>();
+        }
+        headers.put(name, value);
+        return this;
+    }
+
+    @Override
+    public RpcInterceptor.Invocation<Result> setAttribute(String name, Object value) {
+        if (attributes == null) {
+            attributes = new HashMap<>();
+        }
+        attributes.put(name, value);
+        return this;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T getAttribute(String name) {
+        return attributes == null ? null : (T) attributes.get(name);
+    }
+
+    @Override
+    public FactomResponse<Result> respond(Result result) {
+        return new FactomResponseImpl<>(exchange, new RpcResponse<>(result), 200, "OK").setShortCircuited(true);
+    }
+
+    @Override
+    public FactomResponse<Result> respondWithError(RpcErrorResponse errorResponse) {
+        return new FactomResponseImpl<Result>(exchange, errorResponse, 200, "OK").setShortCircuited(true);
+    }
+}
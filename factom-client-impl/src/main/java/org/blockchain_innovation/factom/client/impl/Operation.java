@@ -0,0 +1,128 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.Deadline;
+import org.blockchain_innovation.factom.client.impl.routing.ClientTimer;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * A multi step operation, like commit and reveal or walking the entry blocks of a chain, under a single deadline. The deadline is the one
+ * current when the operation is created, and every step is called within it, so the requests of the steps share the remaining budget.
+ * <p>
+ * The promise returned by {@link #start(Supplier)} controls the operation. When it is cancelled or the deadline passes, the step in flight is
+ * cancelled, which cancels its request, and no further steps are started. Delays between steps use the client timer, so an operation never
+ * occupies a thread while waiting.
+ * </p>
+ *
+ * @param <T> The type of the result of the operation.
+ */
+class Operation<T> {
+    private final Deadline deadline = Deadline.current();
+    private final String name;
+    private final CompletableFuture<T> result = new CompletableFuture<>();
+    private volatile CompletableFuture<?> current;
+
+    /**
+     * Creates an operation.
+     *
+     * @param name The name of the operation, for the error message when the deadline passes.
+     */
+    Operation(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Starts the operation.
+     *
+     * @param body Composes the steps of the operation.
+     * @return The promise of the result of the operation.
+     * @throws RuntimeException When composing the steps failed before any step started.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    CompletableFuture<T> start(Supplier<CompletableFuture<T>> body) {
+        ClientTimer.expireAt(result, deadline, name);
+        result.whenComplete((value, throwable) -> {
+            CompletableFuture<?> step = current;
+            if (throwable != null && step != null) {
+                step.cancel(true);
+            }
+        });
+        if (result.isDone()) {
+            return result;
+        }
+        try {
+            call(body).whenComplete((value, throwable) -> {
+                if (throwable == null) {
+                    result.complete(value);
+                } else {
+                    result.completeExceptionally(throwable);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Errors in composing the first step are thrown, like they would be without an operation
+            result.completeExceptionally(e);
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * Starts a step of the operation, unless the operation has been stopped.
+     *
+     * @param call Starts the step.
+     * @param <R>  The type of the result of the step.
+     * @return The promise of the result of the step. Fails with a cancellation exception when the operation has been stopped.
+     */
+    <R> CompletableFuture<R> step(Supplier<CompletableFuture<R>> call) {
+        if (result.isDone()) {
+            CompletableFuture<R> stopped = new CompletableFuture<>();
+            stopped.completeExceptionally(new CancellationException(String.format("%s has been stopped", name)));
+            return stopped;
+        }
+        CompletableFuture<R> step = call(call);
+        this.current = step;
+        if (result.isDone()) {
+            step.cancel(true);
+        }
+        return step;
+    }
+
+    /**
+     * Waits without occupying a thread.
+     *
+     * @param delay The delay in milliseconds.
+     * @return The promise completing after the delay, on the timer thread.
+     */
+    CompletableFuture<Void> delay(long delay) {
+        return step(() -> {
+            CompletableFuture<Void> delayed = new CompletableFuture<>();
+            ScheduledFuture<?> timer = ClientTimer.schedule(() -> delayed.complete(null), delay, TimeUnit.MILLISECONDS);
+            delayed.whenComplete((ignored, throwable) -> timer.cancel(false));
+            return delayed;
+        });
+    }
+
+    private <R> R call(Supplier<R> call) {
+        return deadline == null ? call.get() : deadline.call(call);
+    }
+}
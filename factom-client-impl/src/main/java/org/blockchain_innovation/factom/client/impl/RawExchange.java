@@ -0,0 +1,274 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.errors.FactomException;
+import org.blockchain_innovation.factom.client.api.json.JsonConverter;
+import org.blockchain_innovation.factom.client.api.log.LogFactory;
+import org.blockchain_innovation.factom.client.api.log.Logger;
+import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
+import org.blockchain_innovation.factom.client.api.rpc.RpcResponse;
+import org.blockchain_innovation.factom.client.api.transport.TransportResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * An exchange that hands out the raw json of the result, instead of binding it to the model classes. The response body is read into a
+ * single buffer and the result member is located by scanning the json, without building any objects for it.
+ * <p>
+ * The result of the Factom response is a read only buffer with the UTF-8 encoded json of the result, sharing the memory of the response body.
+ * Only error responses are deserialized.
+ * </p>
+ */
+public class RawExchange extends Exchange<ByteBuffer> {
+
+    private static final Logger logger = LogFactory.getLogger(RawExchange.class);
+    private static final int BUFFER_SIZE = 8192;
+    private static final byte[] RESULT = "result".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ERROR = "error".getBytes(StandardCharsets.US_ASCII);
+
+    protected RawExchange(AbstractClient client, RpcRequest rpcRequest, boolean logErrors) {
+        super(client, rpcRequest, ByteBuffer.class, logErrors);
+    }
+
+    @Override
+    @SuppressWarnings("PMD.PreserveStackTrace")
+    protected FactomResponse<ByteBuffer> retrieveResponse(Class<ByteBuffer> rpcResultClass) throws FactomException.ClientException {
+        TransportResponse transportResponse = getTransportResponse();
+        if (transportResponse == null) {
+            throw new FactomException.ClientException(String.format("No request has been sent to %s", getUrl()));
+        }
+        if (transportResponse.getStatusCode() >= 400) {
+            throw retrieveErrorResponse();
+        }
+        ResponseBuffer body = new ResponseBuffer(initialSize(transportResponse));
+        try (InputStream in = jsonStream(transportResponse, getMetrics())) {
+            body.readFrom(in);
+        } catch (SocketException se) {
+            throw new FactomException.ClientException(se);
+        } catch (IOException | UncheckedIOException e) {
+            throw new FactomException.ClientException(String.format("Error while reading the response from %s: %s", getUrl(), e.getMessage()), e);
+        }
+        logger.debug(() -> String.format("response(%d): %s", getRpcRequest().getId(), body.asString()));
+
+        Members members = new Members(body.array(), body.size());
+        members.scan();
+        if (members.error >= 0 && (members.result < 0 || members.isNull(members.result))) {
+            // Errors are rare, so only these are deserialized
+            return handleRpcErrorResponse(JsonConverter.Provider.getInstance().errorFromJson(body.asString()),
+                    transportResponse.getStatusCode(), transportResponse.getStatusMessage());
+        }
+        ByteBuffer result = members.result < 0 || members.isNull(members.result) ? null
+                : ByteBuffer.wrap(body.array(), members.result, members.resultEnd - members.result).slice().asReadOnlyBuffer();
+        return handleRpcResponse(new RpcResponse<>(result), transportResponse.getStatusCode(), transportResponse.getStatusMessage());
+    }
+
+    /**
+     * Sizes the buffer after the content length of uncompressed responses, so large results are read without growing the buffer.
+     */
+    private static int initialSize(TransportResponse response) {
+        String contentLength = response.getHeader("Content-Length");
+        if (contentLength == null || response.getHeader("Content-Encoding") != null) {
+            return BUFFER_SIZE;
+        }
+        try {
+            long length = Long.parseLong(contentLength.trim());
+            return length > 0 && length < Integer.MAX_VALUE - 8 ? (int) length : BUFFER_SIZE;
+        } catch (NumberFormatException e) {
+            return BUFFER_SIZE;
+        }
+    }
+
+
+    /**
+     * A byte array output stream that gives access to its array, so the response body is not copied once read.
+     */
+    private static class ResponseBuffer extends ByteArrayOutputStream {
+
+        ResponseBuffer(int size) {
+            super(size);
+        }
+
+        void readFrom(InputStream in) throws IOException {
+            byte[] chunk = new byte[BUFFER_SIZE];
+            int n;
+            while ((n = in.read(chunk)) != -1) {
+                write(chunk, 0, n);
+            }
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        String asString() {
+            return new String(buf, 0, count, StandardCharsets.UTF_8);
+        }
+    }
+
+
+    /**
+     * Locates the values of the result and error members of the top level json object, skipping over all other values.
+     */
+    private static class Members {
+        private final byte[] json;
+        private final int length;
+        private int position;
+        private int result = -1;
+        private int resultEnd = -1;
+        private int error = -1;
+
+        Members(byte[] json, int length) {
+            this.json = json;
+            this.length = length;
+        }
+
+        void scan() {
+            skipWhitespace();
+            expect('{');
+            skipWhitespace();
+            if (peek() == '}') {
+                return;
+            }
+            while (true) {
+                skipWhitespace();
+                int keyStart = position + 1;
+                skipString();
+                int keyEnd = position - 1;
+                skipWhitespace();
+                expect(':');
+                skipWhitespace();
+                int valueStart = position;
+                skipValue();
+                if (isKey(keyStart, keyEnd, RESULT)) {
+                    result = valueStart;
+                    resultEnd = position;
+                } else if (isKey(keyStart, keyEnd, ERROR)) {
+                    error = valueStart;
+                }
+                skipWhitespace();
+                if (peek() == '}') {
+                    return;
+                }
+                expect(',');
+            }
+        }
+
+        boolean isNull(int valueStart) {
+            return valueStart + 4 <= length && json[valueStart] == 'n' && json[valueStart + 1] == 'u' && json[valueStart + 2] == 'l' && json[valueStart + 3] == 'l';
+        }
+
+        private boolean isKey(int start, int end, byte[] key) {
+            if (end - start != key.length) {
+                return false;
+            }
+            for (int i = 0; i < key.length; i++) {
+                if (json[start + i] != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void skipValue() {
+            byte c = peek();
+            if (c == '"') {
+                skipString();
+            } else if (c == '{' || c == '[') {
+                skipNested();
+            } else {
+                int start = position;
+                while (position < length && !isDelimiter(json[position])) {
+                    position++;
+                }
+                if (position == start) {
+                    throw malformed();
+                }
+            }
+        }
+
+        private void skipNested() {
+            int depth = 0;
+            do {
+                byte c = peek();
+                if (c == '"') {
+                    skipString();
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+                position++;
+            } while (depth > 0);
+        }
+
+        private void skipString() {
+            expect('"');
+            while (true) {
+                byte c = peek();
+                position++;
+                if (c == '\\') {
+                    position++;
+                } else if (c == '"') {
+                    return;
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (position < length && isWhitespace(json[position])) {
+                position++;
+            }
+        }
+
+        private void expect(char c) {
+            if (peek() != c) {
+                throw malformed();
+            }
+            position++;
+        }
+
+        private byte peek() {
+            if (position >= length) {
+                throw malformed();
+            }
+            return json[position];
+        }
+
+        private FactomException.ClientException malformed() {
+            return new FactomException.ClientException(String.format("Malformed json response at offset %d", position));
+        }
+
+        private static boolean isWhitespace(byte c) {
+            return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+        }
+
+        private static boolean isDelimiter(byte c) {
+            return c == ',' || c == '}' || c == ']' || isWhitespace(c);
+        }
+    }
+}
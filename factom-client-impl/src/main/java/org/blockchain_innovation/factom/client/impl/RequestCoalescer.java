@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical requests that are in flight at the same time (single flight). A request that has the same method, params and result
+ * class as a request that has not completed yet is not sent, but gets the response of that request.
+ * <p>
+ * A request is forgotten the moment its response arrives, so a later request is always sent and never gets a stale response. Callers of
+ * coalesced requests share the same response object. Only use this for read only requests.
+ * </p>
+ */
+public class RequestCoalescer {
+    private final ConcurrentMap<RequestKey, Flight<?>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Executes the request, unless an identical request is in flight.
+     *
+     * @param rpcRequest     The request.
+     * @param rpcResultClass The result class of the request.
+     * @param execution      Executes the request when no identical request is in flight.
+     * @param <T>            The type of the response.
+     * @return The promise of the response. Every caller gets its own promise, so completing it does not affect the other callers. Once all
+     * callers cancelled (or otherwise completed) their promise before the response arrived, the request itself is cancelled.
+     */
+    @SuppressWarnings({"unchecked", "PMD.AvoidCatchingGenericException"})
+    public <T> CompletableFuture<T> execute(RpcRequest rpcRequest, Class<?> rpcResultClass, Supplier<CompletableFuture<T>> execution) {
+        RequestKey key = new RequestKey(rpcRequest, rpcResultClass);
+        Flight<T> flight = new Flight<>(key);
+        Flight<T> existing;
+        while ((existing = (Flight<T>) inFlight.putIfAbsent(key, flight)) != null) {
+            if (existing.subscribe()) {
+                coalesced.incrementAndGet();
+                return existing.subscriber();
+            }
+            // All callers of that request gave up on it, so send a new one
+            inFlight.remove(key, existing);
+        }
+        flight.subscribe();
+        CompletableFuture<T> subscriber = flight.subscriber();
+        try {
+            CompletableFuture<T> executed = execution.get();
+            flight.setExecution(executed);
+            executed.whenComplete((response, throwable) -> {
+                // Forget the request before completing, so callers arriving from here on send a new request
+                inFlight.remove(key, flight);
+                if (throwable == null) {
+                    flight.shared.complete(response);
+                } else {
+                    flight.shared.completeExceptionally(throwable);
+                }
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.shared.completeExceptionally(e);
+        }
+        return subscriber;
+    }
+
+    /**
+     * Gets the number of distinct requests currently in flight.
+     *
+     * @return The number of requests.
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Gets the number of requests that were not sent, because they got the response of an identical request in flight.
+     *
+     * @return The number of coalesced requests.
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+
+    /**
+     * A request in flight with the callers waiting for its response.
+     */
+    private class Flight<T> {
+        private final RequestKey key;
+        private final CompletableFuture<T> shared = new CompletableFuture<>();
+        private CompletableFuture<T> execution;
+        private int subscribers;
+        private boolean abandoned;
+
+        Flight(RequestKey key) {
+            this.key = key;
+        }
+
+        synchronized boolean subscribe() {
+            if (abandoned) {
+                return false;
+            }
+            subscribers++;
+            return true;
+        }
+
+        CompletableFuture<T> subscriber() {
+            CompletableFuture<T> subscriber = shared.thenApply(Function.identity());
+            subscriber.whenComplete((response, throwable) -> {
+                if (!shared.isDone()) {
+                    unsubscribe();
+                }
+            });
+            return subscriber;
+        }
+
+        void setExecution(CompletableFuture<T> execution) {
+            boolean cancel;
+            synchronized (this) {
+                this.execution = execution;
+                cancel = abandoned;
+            }
+            if (cancel) {
+                execution.cancel(true);
+            }
+        }
+
+        private void unsubscribe() {
+            CompletableFuture<T> toCancel;
+            synchronized (this) {
+                if (--subscribers > 0 || abandoned) {
+                    return;
+                }
+                this.abandoned = true;
+                toCancel = execution;
+            }
+            inFlight.remove(key, this);
+            if (toCancel != null) {
+                toCancel.cancel(true);
+            }
+            shared.cancel(false);
+        }
+    }
+}
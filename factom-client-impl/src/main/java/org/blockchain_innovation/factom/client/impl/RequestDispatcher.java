@@ -0,0 +1,216 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.errors.FactomException;
+import org.blockchain_innovation.factom.client.api.log.LogFactory;
+import org.blockchain_innovation.factom.client.api.log.Logger;
+import org.blockchain_innovation.factom.client.api.transport.TransportRequest;
+import org.blockchain_innovation.factom.client.api.transport.TransportResponse;
+import org.blockchain_innovation.factom.client.impl.routing.CircuitBreaker;
+import org.blockchain_innovation.factom.client.impl.routing.ClientTimer;
+import org.blockchain_innovation.factom.client.impl.routing.ConcurrencyLimiter;
+import org.blockchain_innovation.factom.client.impl.routing.EndpointGroup;
+import org.blockchain_innovation.factom.client.impl.routing.Node;
+import org.blockchain_innovation.factom.client.impl.routing.RetryPolicy;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Sends a request to a node of the endpoint group of a client. Every attempt waits for a permit of the concurrency limiter and consults the
+ * circuit breaker of the group. Requests that failed because the node could not be reached or was unavailable are retried on another node
+ * when the retry policy allows it.
+ * <p>
+ * Completing the returned promise early, by cancelling it or because a deadline passed, cancels the wait for a permit or the request in flight,
+ * and no further attempts are made.
+ * </p>
+ */
+class RequestDispatcher {
+    private static final Logger logger = LogFactory.getLogger(RequestDispatcher.class);
+
+    private final AbstractClient client;
+    private final EndpointGroup endpointGroup;
+    private final RetryPolicy retryPolicy;
+    private final boolean readOnly;
+    private final boolean retryable;
+    private final Function<URL, TransportRequest> requestFactory;
+    private final CompletableFuture<TransportResponse> result = new CompletableFuture<>();
+    private volatile CompletableFuture<?> pending;
+
+    /**
+     * Creates a dispatcher.
+     *
+     * @param client         The client.
+     * @param readOnly       Whether the request only reads data, so it can go to any node.
+     * @param retryable      Whether the request may be retried.
+     * @param requestFactory Creates the request for the URL of the selected node.
+     */
+    RequestDispatcher(AbstractClient client, boolean readOnly, boolean retryable, Function<URL, TransportRequest> requestFactory) {
+        this.client = client;
+        this.endpointGroup = client.getEndpointGroup();
+        this.retryPolicy = client.getRetryPolicy();
+        this.readOnly = readOnly;
+        this.retryable = retryable;
+        this.requestFactory = requestFactory;
+    }
+
+    /**
+     * Sends the request.
+     *
+     * @return The promise of the response, completing exceptionally with a client exception when no node could be reached.
+     */
+    CompletableFuture<TransportResponse> dispatch() {
+        result.whenComplete((response, throwable) -> {
+            CompletableFuture<?> current = pending;
+            if (throwable != null && current != null) {
+                current.cancel(true);
+            }
+        });
+        attempt(0, null);
+        return result;
+    }
+
+    private void attempt(int retry, Node previous) {
+        if (result.isDone()) {
+            return;
+        }
+        ConcurrencyLimiter limiter = endpointGroup.getConcurrencyLimiter();
+        if (limiter == null) {
+            send(retry, previous, null);
+            return;
+        }
+        CompletableFuture<ConcurrencyLimiter.Permit> acquired = limiter.acquire();
+        pending(acquired);
+        acquired.whenComplete((permit, throwable) -> {
+            if (throwable == null) {
+                send(retry, previous, permit);
+            } else {
+                result.completeExceptionally(throwable);
+            }
+        });
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private void send(int retry, Node previous, ConcurrencyLimiter.Permit permit) {
+        if (result.isDone()) {
+            release(permit);
+            return;
+        }
+        Node node;
+        TransportRequest request;
+        try {
+            node = endpointGroup.select(readOnly, previous);
+            request = requestFactory.apply(node.getURL());
+        } catch (RuntimeException e) {
+            release(permit);
+            result.completeExceptionally(e);
+            return;
+        }
+        CircuitBreaker circuitBreaker = endpointGroup.getCircuitBreaker();
+        if (!circuitBreaker.tryAcquire()) {
+            release(permit);
+            result.completeExceptionally(new FactomException.CircuitOpenException(String.format("Circuit breaker is open, not sending the request to %s", node.getURL())));
+            return;
+        }
+
+        CompletableFuture<TransportResponse> sent;
+        try {
+            sent = client.getTransport().sendAsync(request, client.getExecutorService());
+        } catch (RuntimeException e) {
+            // Typically a rejected execution, so the client is overloaded instead of the node, and the limit of the node stays as it is
+            circuitBreaker.release();
+            release(permit);
+            result.completeExceptionally(new FactomException.ClientException(String.format("Could not send the request to %s: %s", node.getURL(), e.getMessage()), e));
+            return;
+        }
+        node.start();
+        pending(sent);
+        sent.whenComplete((response, throwable) -> {
+            if (sent.isCancelled()) {
+                // Abandoned by the caller, which says nothing about the node
+                node.abandon();
+                circuitBreaker.release();
+                release(permit);
+                return;
+            }
+            boolean available = throwable == null && !Node.isUnavailable(response.getStatusCode());
+            node.complete(available);
+            circuitBreaker.record(available);
+            if (permit != null) {
+                permit.complete(!available);
+            }
+            if (!available && retryable && retry < retryPolicy.getMaxRetries() && !circuitBreaker.isOpen()) {
+                close(response);
+                long delay = retryPolicy.getDelay(retry);
+                logger.debug(() -> String.format("Retrying the request to %s in %d ms (retry %d): %s", node.getURL(), delay, retry + 1,
+                        throwable == null ? "HTTP " + response.getStatusCode() : throwable.getMessage()));
+                ClientTimer.schedule(() -> retry(retry + 1, node), delay, TimeUnit.MILLISECONDS);
+            } else if (throwable == null) {
+                if (!result.complete(response)) {
+                    close(response);
+                }
+            } else {
+                Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+                result.completeExceptionally(new FactomException.ClientException(String.format("Error while talking to %s: %s", node.getURL(), cause.getMessage()), cause));
+            }
+        });
+    }
+
+    /**
+     * Hands the next attempt from the timer thread to the executor of the client. When the executor is saturated the request fails, instead
+     * of sending it on the timer thread.
+     */
+    private void retry(int retry, Node previous) {
+        try {
+            client.getExecutorService().execute(() -> attempt(retry, previous));
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new FactomException.ClientException(String.format("Could not retry the request to %s: %s", previous.getURL(), e.getMessage()), e));
+        }
+    }
+
+    /**
+     * Tracks what the dispatcher is waiting for, so it can be cancelled when the result completes early.
+     */
+    private void pending(CompletableFuture<?> future) {
+        this.pending = future;
+        if (result.isDone()) {
+            future.cancel(true);
+        }
+    }
+
+    private static void release(ConcurrencyLimiter.Permit permit) {
+        if (permit != null) {
+            permit.release();
+        }
+    }
+
+    private static void close(TransportResponse response) {
+        if (response != null) {
+            try {
+                response.close();
+            } catch (IOException e) {
+                logger.debug("Could not close the response: %s", e.getMessage());
+            }
+        }
+    }
+}
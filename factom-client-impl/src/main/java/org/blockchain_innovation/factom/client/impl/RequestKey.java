@@ -0,0 +1,77 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
+import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Identifies a request by method, params and result class. The id of the request is ignored.
+ */
+final class RequestKey {
+    private final RpcMethod method;
+    private final Map<String, Object> params;
+    private final Class<?> rpcResultClass;
+    private final int hashCode;
+
+    RequestKey(RpcRequest rpcRequest, Class<?> rpcResultClass) {
+        this.method = rpcRequest.getMethod();
+        // Copy, since the params of a request can still be changed
+        this.params = rpcRequest.getParams() == null ? null : new HashMap<>(rpcRequest.getParams());
+        this.rpcResultClass = rpcResultClass;
+        this.hashCode = Objects.hash(method, params, rpcResultClass);
+    }
+
+    RpcMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * A key that does not depend on the order of the params, for storing responses across restarts.
+     */
+    String toStoreKey() {
+        return method == null ? "unknown" : method.toJsonValue() + (params == null ? "" : new TreeMap<>(params).toString());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RequestKey)) {
+            return false;
+        }
+        RequestKey key = (RequestKey) o;
+        return method == key.method && Objects.equals(params, key.params) && Objects.equals(rpcResultClass, key.rpcResultClass);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return method == null ? "unknown" : method.toJsonValue() + (params == null ? "" : params.toString());
+    }
+}
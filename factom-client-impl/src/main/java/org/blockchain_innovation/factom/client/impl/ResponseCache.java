@@ -0,0 +1,396 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.json.JsonConverter;
+import org.blockchain_innovation.factom.client.api.log.LogFactory;
+import org.blockchain_innovation.factom.client.api.log.Logger;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.ReceiptResponse;
+import org.blockchain_innovation.factom.client.api.ops.StringUtils;
+import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
+import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
+import org.blockchain_innovation.factom.client.api.rpc.RpcResponse;
+import org.blockchain_innovation.factom.client.impl.store.SegmentStore;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the responses of methods with immutable results, like blocks by key merkle root or height and entries by hash (see
+ * {@link RpcMethod#isImmutable()}). Mutable responses like chain heads and heights are never cached, nor are error responses and receipts
+ * that are not anchored yet.
+ * <p>
+ * The size of the cache is bounded by the bytes of the responses as received. It is a segmented LRU: new responses enter a probation segment and
+ * move to a protected segment, taking up most of the cache, when they are requested again. Reading a whole chain once only churns the probation
+ * segment, so it does not evict the responses that are requested often. Callers of a cached response share the same response object.
+ * </p>
+ * <p>
+ * Optionally the results are written through to a persistent {@link SegmentStore}, which is consulted when a response is not in memory, so
+ * blocks and entries are not downloaded again after a restart.
+ * </p>
+ */
+public class ResponseCache {
+    private static final Logger logger = LogFactory.getLogger(ResponseCache.class);
+    /**
+     * The weight of responses that did not pass the network, like responses of interceptors, and the overhead per cached response.
+     */
+    private static final long DEFAULT_WEIGHT = 1024;
+    private static final long ENTRY_OVERHEAD = 128;
+    private static final int PROTECTED_PERCENTAGE = 80;
+
+    private final long maxWeight;
+    private final long maxProtectedWeight;
+    private final Map<RequestKey, Cached> probation = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<RequestKey, Cached> protectedSegment = new LinkedHashMap<>(64, 0.75f, true);
+    private long probationWeight;
+    private long protectedWeight;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private volatile SegmentStore store;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxBytes The maximum size of the cached responses in bytes, 0 disables the cache.
+     */
+    public ResponseCache(long maxBytes) {
+        this.maxWeight = Math.max(0, maxBytes);
+        this.maxProtectedWeight = maxWeight * PROTECTED_PERCENTAGE / 100;
+    }
+
+    /**
+     * Whether responses are cached at all.
+     *
+     * @return false when the size of the cache is 0 and there is no store.
+     */
+    public boolean isEnabled() {
+        return maxWeight > 0 || store != null;
+    }
+
+    /**
+     * Gets the persistent store the results are written to.
+     *
+     * @return The store, or null when results are only cached in memory.
+     */
+    public SegmentStore getStore() {
+        return store;
+    }
+
+    /**
+     * Sets the persistent store the results are written to, and read from when they are not cached in memory.
+     *
+     * @param store The store, or null to only cache in memory.
+     * @return This cache.
+     */
+    public ResponseCache setStore(SegmentStore store) {
+        this.store = store;
+        return this;
+    }
+
+    /**
+     * Whether responses of the request can be cached.
+     *
+     * @param rpcRequest The request.
+     * @return true for enabled caches and requests of immutable methods.
+     */
+    public boolean isCacheable(RpcRequest rpcRequest) {
+        return isEnabled() && rpcRequest != null && rpcRequest.getMethod() != null && rpcRequest.getMethod().isImmutable();
+    }
+
+    /**
+     * Gets the cached response of the request.
+     *
+     * @param rpcRequest     The request.
+     * @param rpcResultClass The result class of the request.
+     * @param <Result>       The type of the result.
+     * @return The cached response, or null when the response is not cached or can not be cached.
+     */
+    @SuppressWarnings("unchecked")
+    public <Result> FactomResponse<Result> get(RpcRequest rpcRequest, Class<Result> rpcResultClass) {
+        if (!isCacheable(rpcRequest)) {
+            return null;
+        }
+        RequestKey key = new RequestKey(rpcRequest, rpcResultClass);
+        Cached cached = get(key);
+        if (cached == null) {
+            FactomResponse<Result> stored = load(key, rpcResultClass);
+            if (stored == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            hits.incrementAndGet();
+            return stored;
+        }
+        hits.incrementAndGet();
+        return (FactomResponse<Result>) cached.response;
+    }
+
+    /**
+     * Caches the response of the request, when it is final.
+     *
+     * @param rpcRequest     The request.
+     * @param rpcResultClass The result class of the request.
+     * @param response       The response from the server.
+     * @param <Result>       The type of the result.
+     */
+    public <Result> void put(RpcRequest rpcRequest, Class<Result> rpcResultClass, FactomResponse<Result> response) {
+        if (isCacheable(rpcRequest)) {
+            put(new RequestKey(rpcRequest, rpcResultClass), response);
+        }
+    }
+
+    /**
+     * Caches the response of the request once it arrives. The response is cached before the returned promise completes, so callers
+     * sending the request again right after get the cached response.
+     *
+     * @param rpcRequest     The request.
+     * @param rpcResultClass The result class of the request.
+     * @param response       The promise of the response.
+     * @param <Result>       The type of the result.
+     * @return The promise of the response. Cancelling it cancels the promise of the response as well.
+     */
+    public <Result> CompletableFuture<FactomResponse<Result>> putOnCompletion(RpcRequest rpcRequest, Class<Result> rpcResultClass,
+                                                                             CompletableFuture<FactomResponse<Result>> response) {
+        if (!isCacheable(rpcRequest)) {
+            return response;
+        }
+        RequestKey key = new RequestKey(rpcRequest, rpcResultClass);
+        CompletableFuture<FactomResponse<Result>> result = new CompletableFuture<>();
+        response.whenComplete((factomResponse, throwable) -> {
+            if (throwable != null) {
+                result.completeExceptionally(throwable);
+                return;
+            }
+            put(key, factomResponse);
+            result.complete(factomResponse);
+        });
+        result.whenComplete((factomResponse, throwable) -> {
+            if (!response.isDone()) {
+                response.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Removes all cached responses.
+     */
+    public synchronized void clear() {
+        probation.clear();
+        protectedSegment.clear();
+        probationWeight = 0;
+        protectedWeight = 0;
+    }
+
+    /**
+     * Gets the number of requests answered from the cache.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of cacheable requests that were not cached (yet).
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Gets the number of responses removed to stay within the size of the cache.
+     *
+     * @return The number of evictions.
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Gets the number of cached responses.
+     *
+     * @return The number of responses.
+     */
+    public synchronized int size() {
+        return probation.size() + protectedSegment.size();
+    }
+
+    /**
+     * Gets the size of the cached responses.
+     *
+     * @return The size in bytes.
+     */
+    public synchronized long getWeight() {
+        return probationWeight + protectedWeight;
+    }
+
+    /**
+     * Gets the maximum size of the cached responses.
+     *
+     * @return The maximum size in bytes.
+     */
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    private synchronized Cached get(RequestKey key) {
+        Cached cached = protectedSegment.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        cached = probation.remove(key);
+        if (cached == null) {
+            return null;
+        }
+        // Requested again, so it is promoted, demoting the least recently used protected responses when the segment is full
+        probationWeight -= cached.weight;
+        protectedSegment.put(key, cached);
+        protectedWeight += cached.weight;
+        Iterator<Map.Entry<RequestKey, Cached>> eldest = protectedSegment.entrySet().iterator();
+        while (protectedWeight > maxProtectedWeight && eldest.hasNext()) {
+            Map.Entry<RequestKey, Cached> demoted = eldest.next();
+            if (demoted.getValue() == cached) {
+                break;
+            }
+            eldest.remove();
+            protectedWeight -= demoted.getValue().weight;
+            probation.put(demoted.getKey(), demoted.getValue());
+            probationWeight += demoted.getValue().weight;
+        }
+        return cached;
+    }
+
+    private void put(RequestKey key, FactomResponse<?> response) {
+        if (!isFinal(key.getMethod(), response)) {
+            return;
+        }
+        SegmentStore current = store;
+        if (current != null) {
+            save(current, key, response.getResult());
+        }
+        putInMemory(key, response, weigh(response));
+    }
+
+    private void putInMemory(RequestKey key, FactomResponse<?> response, long weight) {
+        if (weight > maxWeight) {
+            return;
+        }
+        synchronized (this) {
+            if (protectedSegment.containsKey(key) || probation.containsKey(key)) {
+                return;
+            }
+            probation.put(key, new Cached(response, weight));
+            probationWeight += weight;
+            evict(probation, true);
+            evict(protectedSegment, false);
+        }
+    }
+
+    /**
+     * Reads the result from the store, and caches the response in memory.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private <Result> FactomResponse<Result> load(RequestKey key, Class<Result> rpcResultClass) {
+        SegmentStore current = store;
+        if (current == null) {
+            return null;
+        }
+        try {
+            byte[] json = current.get(key.toStoreKey());
+            if (json == null) {
+                return null;
+            }
+            Result result = JsonConverter.Provider.getInstance().fromJson(new String(json, StandardCharsets.UTF_8), rpcResultClass);
+            FactomResponse<Result> response = new FactomResponseImpl<>(null, new RpcResponse<>(result), 200, "OK");
+            putInMemory(key, response, json.length + ENTRY_OVERHEAD);
+            return response;
+        } catch (RuntimeException e) {
+            logger.warn("Could not read %s from the store: %s", key, e.getMessage());
+            return null;
+        }
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private static void save(SegmentStore store, RequestKey key, Object result) {
+        try {
+            store.put(key.toStoreKey(), JsonConverter.Provider.getInstance().toRpcJson(result).getBytes(StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            logger.warn("Could not write %s to the store: %s", key, e.getMessage());
+        }
+    }
+
+    private void evict(Map<RequestKey, Cached> segment, boolean fromProbation) {
+        Iterator<Cached> eldest = segment.values().iterator();
+        while (probationWeight + protectedWeight > maxWeight && eldest.hasNext()) {
+            Cached evicted = eldest.next();
+            eldest.remove();
+            if (fromProbation) {
+                probationWeight -= evicted.weight;
+            } else {
+                protectedWeight -= evicted.weight;
+            }
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Only successful responses are cached. Receipts gain the anchor in Bitcoin after the entry is in a directory block, so these are only final
+     * once anchored.
+     */
+    private static boolean isFinal(RpcMethod method, FactomResponse<?> response) {
+        if (response == null || response.hasErrors() || response.getResult() == null) {
+            return false;
+        }
+        // Responses that an interceptor made up, like mocks, did not come from the server
+        if (!(response instanceof FactomResponseImpl) || ((FactomResponseImpl<?>) response).isShortCircuited()) {
+            return false;
+        }
+        if (method == RpcMethod.RECEIPT) {
+            Object result = response.getResult();
+            return result instanceof ReceiptResponse && ((ReceiptResponse) result).getReceipt() != null
+                    && StringUtils.isNotEmpty(((ReceiptResponse) result).getReceipt().getBitcoinBlockHash());
+        }
+        return true;
+    }
+
+    private static long weigh(FactomResponse<?> response) {
+        long bytes = 0;
+        if (response instanceof FactomResponseImpl && ((FactomResponseImpl<?>) response).getExchange() != null) {
+            bytes = ((FactomResponseImpl<?>) response).getExchange().getMetrics().getResponseBytes();
+        }
+        return (bytes > 0 ? bytes : DEFAULT_WEIGHT) + ENTRY_OVERHEAD;
+    }
+
+    private static class Cached {
+        private final FactomResponse<?> response;
+        private final long weight;
+
+        Cached(FactomResponse<?> response, long weight) {
+            this.response = response;
+            this.weight = weight;
+        }
+    }
+}
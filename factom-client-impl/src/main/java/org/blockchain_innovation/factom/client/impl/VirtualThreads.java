@@ -0,0 +1,78 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.log.LogFactory;
+import org.blockchain_innovation.factom.client.api.log.Logger;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to a virtual thread per task executor on Java 21+. The library is compiled for Java 8, so the executor is created using reflection
+ * once, and is shared by all clients using virtual threads. Virtual threads are cheap to block, so waits and blocking I/O no longer limit the
+ * number of concurrent requests to the size of a thread pool.
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public final class VirtualThreads {
+    private static final Logger logger = LogFactory.getLogger(VirtualThreads.class);
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Whether the JVM supports virtual threads.
+     *
+     * @return true on Java 21+.
+     */
+    public static boolean isAvailable() {
+        return Holder.EXECUTOR != null;
+    }
+
+    /**
+     * Gets the shared virtual thread per task executor.
+     *
+     * @return The executor, or null when virtual threads are not available.
+     */
+    public static ExecutorService getExecutor() {
+        return Holder.EXECUTOR;
+    }
+
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    private static ExecutorService create() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, "Factom Client Virtual-", 1L);
+            ThreadFactory threadFactory = (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, threadFactory);
+        } catch (NoSuchMethodException | ClassNotFoundException e) {
+            logger.info("Virtual threads are not available on Java %s, using the default executor", System.getProperty("java.version"));
+            return null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.warn("Virtual threads could not be enabled, using the default executor: %s", e.getMessage());
+            return null;
+        }
+    }
+
+    private static final class Holder {
+        private static final ExecutorService EXECUTOR = create();
+    }
+}
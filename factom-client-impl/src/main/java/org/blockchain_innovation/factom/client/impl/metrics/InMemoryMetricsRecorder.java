@@ -0,0 +1,187 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl.metrics;
+
+import org.blockchain_innovation.factom.client.api.metrics.MetricsRecorder;
+import org.blockchain_innovation.factom.client.api.metrics.RequestMetrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The metrics recorder of the client itself, keeping the statistics per Rpc method and server in memory.
+ * Latencies are recorded in microseconds, payload sizes in bytes. Retrieve it using {@code MetricsRecorder.Provider.getInstance(InMemoryMetricsRecorder.NAME)}.
+ */
+public class InMemoryMetricsRecorder implements MetricsRecorder {
+    public static final String NAME = "in-memory";
+
+    private final ConcurrentMap<Key, Statistics> statistics = new ConcurrentHashMap<>();
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void record(RequestMetrics metrics) {
+        Key key = new Key(metrics.getMethod(), metrics.getServer());
+        Statistics stats = statistics.get(key);
+        if (stats == null) {
+            stats = statistics.computeIfAbsent(key, Statistics::new);
+        }
+        stats.record(metrics);
+    }
+
+    /**
+     * Gets the statistics of a method on a server.
+     *
+     * @param method The json name of the Rpc method.
+     * @param server The URL of the server node.
+     * @return The statistics or null when nothing has been recorded.
+     */
+    public Statistics getStatistics(String method, String server) {
+        return statistics.get(new Key(method, server));
+    }
+
+    /**
+     * Gets the statistics of all methods and servers.
+     *
+     * @return The statistics.
+     */
+    public Collection<Statistics> getStatistics() {
+        return Collections.unmodifiableCollection(new ArrayList<>(statistics.values()));
+    }
+
+    /**
+     * Discards all statistics.
+     */
+    public void reset() {
+        statistics.clear();
+    }
+
+    /**
+     * The statistics of a single Rpc method on a single server.
+     */
+    public static class Statistics {
+        private final String method;
+        private final String server;
+        private final LongAdder requests = new LongAdder();
+        private final ConcurrentMap<Class<? extends Throwable>, LongAdder> errors = new ConcurrentHashMap<>();
+        private final Map<RequestMetrics.Phase, Histogram> latencies = new EnumMap<>(RequestMetrics.Phase.class);
+        private final Histogram requestSizes = new Histogram();
+        private final Histogram responseSizes = new Histogram();
+
+        Statistics(Key key) {
+            this.method = key.method;
+            this.server = key.server;
+            for (RequestMetrics.Phase phase : RequestMetrics.Phase.values()) {
+                latencies.put(phase, new Histogram());
+            }
+        }
+
+        void record(RequestMetrics metrics) {
+            requests.increment();
+            if (!metrics.isSuccess()) {
+                errors.computeIfAbsent(metrics.getErrorType(), type -> new LongAdder()).increment();
+            }
+            latencies.forEach((phase, histogram) -> histogram.record(metrics.getDuration(phase, TimeUnit.MICROSECONDS)));
+            requestSizes.record(metrics.getRequestBytes());
+            responseSizes.record(metrics.getResponseBytes());
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public String getServer() {
+            return server;
+        }
+
+        public long getRequestCount() {
+            return requests.sum();
+        }
+
+        public long getErrorCount() {
+            return errors.values().stream().mapToLong(LongAdder::sum).sum();
+        }
+
+        /**
+         * Gets the number of errors by type, like {@link org.blockchain_innovation.factom.client.api.errors.FactomException.RpcErrorException}.
+         *
+         * @return The error counts.
+         */
+        public Map<Class<? extends Throwable>, Long> getErrorCounts() {
+            Map<Class<? extends Throwable>, Long> counts = new HashMap<>();
+            errors.forEach((type, count) -> counts.put(type, count.sum()));
+            return counts;
+        }
+
+        /**
+         * Gets the latency histogram of a phase, in microseconds.
+         *
+         * @param phase The phase.
+         * @return The histogram.
+         */
+        public Histogram getLatency(RequestMetrics.Phase phase) {
+            return latencies.get(phase);
+        }
+
+        public Histogram getRequestSizes() {
+            return requestSizes;
+        }
+
+        public Histogram getResponseSizes() {
+            return responseSizes;
+        }
+    }
+
+    private static final class Key {
+        private final String method;
+        private final String server;
+
+        Key(String method, String server) {
+            this.method = method;
+            this.server = server;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(method, key.method) && Objects.equals(server, key.server);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(method, server);
+        }
+    }
+}
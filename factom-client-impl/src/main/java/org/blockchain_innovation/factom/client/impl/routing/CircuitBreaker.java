@@ -0,0 +1,129 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl.routing;
+
+import org.blockchain_innovation.factom.client.api.log.LogFactory;
+import org.blockchain_innovation.factom.client.api.log.Logger;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker of a server. After consecutive failures the breaker opens and requests fail fast, without occupying connections and threads
+ * while the server is down. After the open time a single trial request is let through (half open): its success closes the breaker, its
+ * failure opens it again.
+ */
+public class CircuitBreaker {
+    private static final Logger logger = LogFactory.getLogger(CircuitBreaker.class);
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openUntil;
+    private boolean trialInFlight;
+
+    /**
+     * Creates a circuit breaker.
+     *
+     * @param name             The name of the server, used in logging.
+     * @param failureThreshold The number of consecutive failures that open the breaker. 0 disables the breaker.
+     * @param openTime         The time in seconds the breaker stays open.
+     */
+    public CircuitBreaker(String name, int failureThreshold, int openTime) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.SECONDS.toNanos(openTime);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Whether a request may be sent. Every permitted request should be followed by {@link #record(boolean)} or {@link #release()}.
+     *
+     * @return false when the breaker is open, or half open with the trial request in flight.
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openUntil < 0) {
+                    return false;
+                }
+                logger.info("Circuit breaker of %s is half open, sending a trial request", name);
+                this.state = State.HALF_OPEN;
+                this.trialInFlight = true;
+                return true;
+            default:
+                if (trialInFlight) {
+                    return false;
+                }
+                this.trialInFlight = true;
+                return true;
+        }
+    }
+
+    /**
+     * Records the outcome of a permitted request.
+     *
+     * @param success false when the server could not be reached or was unavailable.
+     */
+    public synchronized void record(boolean success) {
+        if (success) {
+            if (state != State.CLOSED) {
+                logger.info("Circuit breaker of %s is closed again", name);
+            }
+            this.state = State.CLOSED;
+            this.consecutiveFailures = 0;
+            this.trialInFlight = false;
+            return;
+        }
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failureThreshold > 0 && consecutiveFailures >= failureThreshold)) {
+            logger.warn("Opening the circuit breaker of %s for %d seconds after %d consecutive failures", name, TimeUnit.NANOSECONDS.toSeconds(openNanos), consecutiveFailures);
+            this.state = State.OPEN;
+            this.openUntil = System.nanoTime() + openNanos;
+            this.trialInFlight = false;
+        }
+    }
+
+    /**
+     * Releases a permitted request that has not been sent, without recording an outcome.
+     */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN) {
+            this.trialInFlight = false;
+        }
+    }
+
+    /**
+     * Whether requests currently fail fast.
+     *
+     * @return true when the breaker is open and the open time has not passed.
+     */
+    public synchronized boolean isOpen() {
+        return state == State.OPEN && System.nanoTime() - openUntil < 0;
+    }
+
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl.routing;
+
+import org.blockchain_innovation.factom.client.api.Deadline;
+import org.blockchain_innovation.factom.client.api.errors.FactomException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shared daemon timer for delays and timeouts of requests, like retry backoff and queue timeouts. Tasks should only hand off work, since they
+ * all run on the single timer thread.
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public final class ClientTimer {
+    private static volatile Thread timerThread;
+
+    private ClientTimer() {
+    }
+
+    /**
+     * Whether the current thread is the timer thread. Executors use this to never run or wait for work on the timer thread.
+     *
+     * @return true when called from a timer task.
+     */
+    public static boolean isTimerThread() {
+        return Thread.currentThread() == timerThread;
+    }
+
+    /**
+     * Runs the task after the delay.
+     *
+     * @param task  The task.
+     * @param delay The delay.
+     * @param unit  The unit of the delay.
+     * @return The scheduled task, to cancel it.
+     */
+    public static ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return LazyTimerHolder.INSTANCE.schedule(task, delay, unit);
+    }
+
+    /**
+     * Completes the promise exceptionally with a {@link FactomException.DeadlineExceededException} when it did not complete before the deadline.
+     * Whoever produces the promise is responsible for stopping the work once it completes early.
+     *
+     * @param future   The promise.
+     * @param deadline The deadline, or null for none.
+     * @param what     Description of the work, for the error message.
+     * @param <T>      The type of the result.
+     * @return The supplied promise.
+     */
+    public static <T> CompletableFuture<T> expireAt(CompletableFuture<T> future, Deadline deadline, String what) {
+        if (deadline == null || future.isDone()) {
+            return future;
+        }
+        if (deadline.isExpired()) {
+            future.completeExceptionally(new FactomException.DeadlineExceededException(String.format("Deadline passed before %s started", what)));
+            return future;
+        }
+        ScheduledFuture<?> expiry = schedule(() -> future.completeExceptionally(
+                new FactomException.DeadlineExceededException(String.format("Deadline passed before %s completed", what))),
+                deadline.timeRemaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        future.whenComplete((result, throwable) -> expiry.cancel(false));
+        return future;
+    }
+
+    /**
+     * Initialization-on-demand holder idiom to lazy-load the timer.
+     */
+    private static class LazyTimerHolder {
+        static final ScheduledThreadPoolExecutor INSTANCE = createTimer();
+
+        private static ScheduledThreadPoolExecutor createTimer() {
+            ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "Factom Client Timer");
+                thread.setDaemon(true);
+                timerThread = thread;
+                return thread;
+            });
+            // Deadlines are mostly cancelled long before they expire, so do not keep them around until then
+            timer.setRemoveOnCancelPolicy(true);
+            return timer;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl.routing;
+
+import org.blockchain_innovation.factom.client.api.errors.FactomException;
+import org.blockchain_innovation.factom.client.api.log.LogFactory;
+import org.blockchain_innovation.factom.client.api.log.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Adaptive limit of the number of concurrent requests to a server (AIMD).
+ * <p>
+ * The limit grows by one for every successful request while at least half of the limit is in use. It shrinks by 10% for every request that
+ * failed because the server could not be reached or was unavailable, and for every response that took more than twice the long term average
+ * round trip time, which means requests are queueing up at the server.
+ * </p>
+ * <p>
+ * Requests beyond the limit wait in a FIFO queue, without occupying a thread, until a permit is released or the maximum wait has passed.
+ * When the queue is full they fail fast.
+ * </p>
+ */
+public class ConcurrencyLimiter {
+    private static final Logger logger = LogFactory.getLogger(ConcurrencyLimiter.class);
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double RTT_TOLERANCE = 2.0;
+    private static final double BASELINE_SMOOTHING = 0.05;
+    private static final long MIN_RTT_INCREASE = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final String name;
+    private final int maxLimit;
+    private final int maxQueueSize;
+    private final long maxWait;
+    private final LongSupplier nanoClock;
+    private final Deque<CompletableFuture<Permit>> queue = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private double baselineRtt;
+
+    /**
+     * Creates a limiter.
+     *
+     * @param name         The name of the server, used in logging and errors.
+     * @param initialLimit The initial limit.
+     * @param maxLimit     The maximum limit.
+     * @param maxQueueSize The maximum number of waiting requests. 0 fails requests beyond the limit immediately.
+     * @param maxWait      The maximum time in milliseconds a request waits for a permit.
+     */
+    public ConcurrencyLimiter(String name, int initialLimit, int maxLimit, int maxQueueSize, long maxWait) {
+        this(name, initialLimit, maxLimit, maxQueueSize, maxWait, System::nanoTime);
+    }
+
+    /**
+     * Creates a limiter measuring the round trip times with the given clock.
+     *
+     * @param name         The name of the server, used in logging and errors.
+     * @param initialLimit The initial limit.
+     * @param maxLimit     The maximum limit.
+     * @param maxQueueSize The maximum number of waiting requests. 0 fails requests beyond the limit immediately.
+     * @param maxWait      The maximum time in milliseconds a request waits for a permit.
+     * @param nanoClock    The source of nanosecond timestamps, like {@link System#nanoTime()}.
+     */
+    public ConcurrencyLimiter(String name, int initialLimit, int maxLimit, int maxQueueSize, long maxWait, LongSupplier nanoClock) {
+        this.name = name;
+        this.maxLimit = Math.max(1, maxLimit);
+        this.limit = Math.max(1, Math.min(initialLimit, this.maxLimit));
+        this.maxQueueSize = Math.max(0, maxQueueSize);
+        this.maxWait = maxWait;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Acquires a permit to send a request.
+     *
+     * @return The promise of the permit. It completes exceptionally with a {@link FactomException.ConcurrencyLimitException} when the queue
+     * is full or the maximum wait passed.
+     */
+    public CompletableFuture<Permit> acquire() {
+        CompletableFuture<Permit> result = new CompletableFuture<>();
+        synchronized (this) {
+            if (inFlight < getLimit() && queue.isEmpty()) {
+                inFlight++;
+                result.complete(new Permit());
+                return result;
+            }
+            if (queue.size() >= maxQueueSize) {
+                result.completeExceptionally(new FactomException.ConcurrencyLimitException(String.format(
+                        "Concurrency limit of %d reached for %s with %d requests queued", getLimit(), name, queue.size())));
+                return result;
+            }
+            queue.addLast(result);
+        }
+        ScheduledFuture<?> timeout = ClientTimer.schedule(() -> {
+            synchronized (this) {
+                if (!queue.remove(result)) {
+                    return;
+                }
+            }
+            result.completeExceptionally(new FactomException.ConcurrencyLimitException(String.format(
+                    "No permit for %s within %d ms, concurrency limit is %d", name, maxWait, getLimit())));
+        }, maxWait, TimeUnit.MILLISECONDS);
+        result.whenComplete((permit, throwable) -> {
+            timeout.cancel(false);
+            if (result.isCancelled()) {
+                // The request was cancelled while waiting, so stop queueing it
+                synchronized (this) {
+                    queue.remove(result);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Gets the current limit.
+     *
+     * @return The limit.
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueueSize() {
+        return queue.size();
+    }
+
+    private void release(long rttNanos, boolean dropped, boolean sample) {
+        List<CompletableFuture<Permit>> granted = new ArrayList<>();
+        synchronized (this) {
+            if (sample) {
+                adjust(rttNanos, dropped);
+            }
+            inFlight--;
+            while (inFlight < getLimit() && !queue.isEmpty()) {
+                CompletableFuture<Permit> waiter = queue.pollFirst();
+                if (!waiter.isDone()) {
+                    inFlight++;
+                    granted.add(waiter);
+                }
+            }
+        }
+        // Complete outside of the lock, since the waiting requests continue on this thread
+        granted.forEach(waiter -> {
+            Permit permit = new Permit();
+            if (!waiter.complete(permit)) {
+                // Cancelled in the meantime
+                permit.release();
+            }
+        });
+    }
+
+    private void adjust(long rttNanos, boolean dropped) {
+        int previous = getLimit();
+        boolean congested = dropped;
+        if (!dropped) {
+            // Ignore jitter of sub millisecond round trips
+            congested = baselineRtt > 0 && rttNanos > RTT_TOLERANCE * baselineRtt && rttNanos - baselineRtt > MIN_RTT_INCREASE;
+            baselineRtt = baselineRtt == 0 ? rttNanos : baselineRtt + BASELINE_SMOOTHING * (rttNanos - baselineRtt);
+        }
+        if (congested) {
+            limit = Math.max(1, limit * BACKOFF_RATIO);
+        } else if (inFlight * 2 >= limit) {
+            // Only grow when the limit is actually used
+            limit = Math.min(maxLimit, limit + 1);
+        }
+        if (getLimit() != previous && logger.isDebugEnabled()) {
+            logger.debug("Concurrency limit of %s changed from %d to %d", name, previous, getLimit());
+        }
+    }
+
+
+    /**
+     * Permit to send a single request. Has to be completed or released exactly once.
+     */
+    public final class Permit {
+        private final long start = nanoClock.getAsLong();
+        private boolean done;
+
+        /**
+         * Releases the permit after the request completed, adjusting the limit using the round trip time.
+         *
+         * @param dropped true when the server could not be reached or was unavailable.
+         */
+        public void complete(boolean dropped) {
+            if (markDone()) {
+                ConcurrencyLimiter.this.release(nanoClock.getAsLong() - start, dropped, true);
+            }
+        }
+
+        /**
+         * Releases the permit of a request that has not been sent, without adjusting the limit.
+         */
+        public void release() {
+            if (markDone()) {
+                ConcurrencyLimiter.this.release(0, false, false);
+            }
+        }
+
+        private synchronized boolean markDone() {
+            if (done) {
+                return false;
+            }
+            this.done = true;
+            return true;
+        }
+    }
+}
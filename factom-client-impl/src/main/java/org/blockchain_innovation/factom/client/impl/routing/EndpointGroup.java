@@ -0,0 +1,281 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl.routing;
+
+import org.blockchain_innovation.factom.client.api.errors.FactomRuntimeException;
+import org.blockchain_innovation.factom.client.api.log.LogFactory;
+import org.blockchain_innovation.factom.client.api.log.Logger;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+
+import java.io.Closeable;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes the requests of a client over the endpoints (nodes) of a server.
+ * <p>
+ * Read requests go to the least loaded of two nodes picked at random in proportion to their weights (power of two choices), where the load is the
+ * number of outstanding requests relative to the weight. Requests that change state go to the first available node in the configured order, so
+ * submissions and wallet changes keep hitting the same node. Nodes are ejected for a while after consecutive failures, and nodes whose height lags
+ * behind the highest node are only used when no other node is available.
+ * </p>
+ * <p>
+ * The group has a {@link CircuitBreaker} for the server as a whole, so requests fail fast when all nodes keep failing, and a
+ * {@link ConcurrencyLimiter} that adapts the number of concurrent requests to the server.
+ * </p>
+ */
+@SuppressWarnings("PMD.DoNotUseThreads")
+public class EndpointGroup implements Closeable {
+    private static final Logger logger = LogFactory.getLogger(EndpointGroup.class);
+
+    private final List<Node> nodes;
+    private final int maxHeightLag;
+    private final int healthCheckInterval;
+    private final CircuitBreaker circuitBreaker;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private ScheduledExecutorService scheduler;
+
+    public EndpointGroup(RpcSettings.Server server) {
+        List<RpcSettings.Endpoint> endpoints = server.getEndpoints();
+        if (endpoints == null || endpoints.isEmpty()) {
+            throw new FactomRuntimeException.AssertionException("No endpoints configured for server " + server.getURL());
+        }
+        List<Node> result = new ArrayList<>(endpoints.size());
+        endpoints.forEach(endpoint -> result.add(new Node(endpoint, server.getEjectAfterFailures(), server.getEjectionTime())));
+        this.nodes = Collections.unmodifiableList(result);
+        this.maxHeightLag = server.getMaxHeightLag();
+        this.healthCheckInterval = server.getHealthCheckInterval();
+        this.circuitBreaker = new CircuitBreaker(String.valueOf(server.getURL()), server.getCircuitBreakerFailures(), server.getCircuitBreakerOpenTime());
+        this.concurrencyLimiter = server.getConcurrencyLimit() <= 0 ? null : new ConcurrencyLimiter(String.valueOf(server.getURL()),
+                server.getConcurrencyLimit(), server.getMaxConcurrencyLimit(), server.getConcurrencyQueueSize(), server.getConcurrencyMaxWait());
+    }
+
+    /**
+     * Gets the nodes in configured order.
+     *
+     * @return The nodes.
+     */
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Gets the limiter of concurrent requests to the server.
+     *
+     * @return The limiter or null when the concurrency limit is disabled.
+     */
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * Selects the node for the next request.
+     *
+     * @param readOnly Whether the request only reads data. Other requests always go to the first available node.
+     * @return The node. When all nodes are ejected, the node that is readmitted first.
+     */
+    public Node select(boolean readOnly) {
+        return select(readOnly, null);
+    }
+
+    /**
+     * Selects the node for the next request, avoiding a node if another one is available. Used to send a retry to another node.
+     *
+     * @param readOnly Whether the request only reads data. Other requests always go to the first available node.
+     * @param avoid    The node to avoid or null.
+     * @return The node. When all nodes are ejected, the node that is readmitted first.
+     */
+    public Node select(boolean readOnly, Node avoid) {
+        if (nodes.size() == 1) {
+            return nodes.get(0);
+        }
+        long now = System.nanoTime();
+        List<Node> candidates = available(now, true);
+        if (candidates.isEmpty()) {
+            candidates = available(now, false);
+        }
+        if (candidates.isEmpty()) {
+            return firstReadmitted();
+        }
+        if (avoid != null && candidates.size() > 1) {
+            candidates.remove(avoid);
+        }
+        if (!readOnly || candidates.size() == 1) {
+            return candidates.get(0);
+        }
+        Node first = pick(candidates, null);
+        Node second = pick(candidates, first);
+        // Compare outstanding/weight without dividing
+        return (long) second.getOutstanding() * first.getWeight() < (long) first.getOutstanding() * second.getWeight() ? second : first;
+    }
+
+    /**
+     * Whether the height of the node lags more than the allowed number of blocks behind the highest node.
+     *
+     * @param node The node.
+     * @return true when lagging. Nodes with an unknown height are not lagging.
+     */
+    public boolean isLagging(Node node) {
+        long height = node.getHeight();
+        return height >= 0 && getBestHeight() - height > maxHeightLag;
+    }
+
+    /**
+     * Gets the highest height reported by the health checks of the nodes.
+     *
+     * @return The highest height or -1 when unknown.
+     */
+    public long getBestHeight() {
+        long best = -1;
+        for (Node node : nodes) {
+            best = Math.max(best, node.getHeight());
+        }
+        return best;
+    }
+
+    /**
+     * Starts checking the heights of the nodes periodically. Only applies to groups of multiple nodes with a positive health check interval.
+     *
+     * @param healthCheck Retrieves the height of a node.
+     * @return This group.
+     */
+    public synchronized EndpointGroup startHealthChecks(HealthCheck healthCheck) {
+        if (scheduler != null || nodes.size() < 2 || healthCheckInterval <= 0) {
+            return this;
+        }
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Factom Client Health Check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> checkHealth(healthCheck).join(), 0, healthCheckInterval, TimeUnit.SECONDS);
+        return this;
+    }
+
+    /**
+     * Retrieves the heights of all nodes. A successful check readmits an ejected node, a failed check counts as a failure of the node.
+     *
+     * @param healthCheck Retrieves the height of a node.
+     * @return The promise that completes when all nodes have been checked.
+     */
+    @SuppressWarnings("PMD.AvoidCatchingGenericException")
+    public CompletableFuture<Void> checkHealth(HealthCheck healthCheck) {
+        List<CompletableFuture<?>> checks = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            CompletableFuture<Long> check;
+            try {
+                check = healthCheck.height(node.getURL());
+            } catch (RuntimeException e) {
+                // Never let an exception end the periodic health checks
+                check = new CompletableFuture<>();
+                check.completeExceptionally(e);
+            }
+            checks.add(check.handle((height, throwable) -> {
+                if (throwable == null && height != null) {
+                    node.setHeight(height);
+                    node.succeeded();
+                } else {
+                    logger.debug(() -> String.format("Health check of %s failed: %s", node.getURL(), throwable == null ? "no height" : throwable.getMessage()));
+                    node.failed();
+                }
+                return null;
+            }));
+        }
+        return CompletableFuture.allOf(checks.toArray(new CompletableFuture<?>[0])).thenRun(() -> {
+            for (Node node : nodes) {
+                if (isLagging(node)) {
+                    logger.info("Endpoint %s is lagging at height %d, the highest node is at %d", node.getURL(), node.getHeight(), getBestHeight());
+                }
+            }
+        });
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            this.scheduler = null;
+        }
+    }
+
+    private List<Node> available(long now, boolean skipLagging) {
+        List<Node> result = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            if (!node.isEjected(now) && !(skipLagging && isLagging(node))) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    private Node firstReadmitted() {
+        Node result = nodes.get(0);
+        for (Node node : nodes) {
+            if (node.getEjectedUntil() - result.getEjectedUntil() < 0) {
+                result = node;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Picks a random node in proportion to the weights, skipping the excluded node.
+     */
+    private static Node pick(List<Node> candidates, Node excluded) {
+        int total = 0;
+        for (Node node : candidates) {
+            total += node == excluded ? 0 : node.getWeight();
+        }
+        int value = ThreadLocalRandom.current().nextInt(total);
+        for (Node node : candidates) {
+            if (node == excluded) {
+                continue;
+            }
+            value -= node.getWeight();
+            if (value < 0) {
+                return node;
+            }
+        }
+        throw new IllegalStateException("No node to pick");
+    }
+
+
+    /**
+     * Retrieves the current height of a node.
+     */
+    @FunctionalInterface
+    public interface HealthCheck {
+        /**
+         * Retrieves the height of the node at the URL.
+         *
+         * @param url The URL of the node.
+         * @return The promise of the height, completing exceptionally when the node could not be reached.
+         */
+        CompletableFuture<Long> height(URL url);
+    }
+}
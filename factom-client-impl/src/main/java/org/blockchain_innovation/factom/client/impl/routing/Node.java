@@ -0,0 +1,159 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl.routing;
+
+import org.blockchain_innovation.factom.client.api.log.LogFactory;
+import org.blockchain_innovation.factom.client.api.log.Logger;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The runtime state of a single endpoint of an {@link EndpointGroup}: the requests in flight, consecutive failures, ejection and the last known height.
+ */
+public class Node {
+    private static final Logger logger = LogFactory.getLogger(Node.class);
+
+    private final RpcSettings.Endpoint endpoint;
+    private final int ejectAfterFailures;
+    private final long ejectionNanos;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile boolean ejected;
+    private volatile long ejectedUntil;
+    private volatile long height = -1;
+
+    protected Node(RpcSettings.Endpoint endpoint, int ejectAfterFailures, int ejectionTime) {
+        this.endpoint = endpoint;
+        this.ejectAfterFailures = ejectAfterFailures;
+        this.ejectionNanos = TimeUnit.SECONDS.toNanos(ejectionTime);
+    }
+
+    public URL getURL() {
+        return endpoint.getURL();
+    }
+
+    public int getWeight() {
+        return endpoint.getWeight();
+    }
+
+    /**
+     * Gets the number of requests that have been sent to this node and are not completed yet.
+     *
+     * @return The outstanding requests.
+     */
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public int getConsecutiveFailures() {
+        return consecutiveFailures.get();
+    }
+
+    /**
+     * Gets the height of the node as reported by the last health check.
+     *
+     * @return The height or -1 when unknown.
+     */
+    public long getHeight() {
+        return height;
+    }
+
+    /**
+     * Whether the node does not receive requests currently, because of consecutive failures.
+     *
+     * @return true when ejected.
+     */
+    public boolean isEjected() {
+        return isEjected(System.nanoTime());
+    }
+
+    /**
+     * Marks the start of a request to this node. Every start should be followed by a {@link #complete(boolean)}.
+     */
+    public void start() {
+        outstanding.incrementAndGet();
+    }
+
+    /**
+     * Marks a request to this node as no longer outstanding, without counting it as success or failure. Used for requests cancelled by the caller.
+     */
+    public void abandon() {
+        outstanding.decrementAndGet();
+    }
+
+    /**
+     * Marks the completion of a request to this node.
+     *
+     * @param success false when the node could not be reached or answered with a server error.
+     */
+    public void complete(boolean success) {
+        outstanding.decrementAndGet();
+        if (success) {
+            succeeded();
+        } else {
+            failed();
+        }
+    }
+
+    /**
+     * Whether an HTTP response means the node is unavailable. Other responses, including Rpc errors, are answers of a healthy node.
+     *
+     * @param statusCode The HTTP status code.
+     * @return true for bad gateway, service unavailable and gateway timeout.
+     */
+    public static boolean isUnavailable(int statusCode) {
+        return statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    protected boolean isEjected(long now) {
+        return ejected && now - ejectedUntil < 0;
+    }
+
+    protected long getEjectedUntil() {
+        return ejectedUntil;
+    }
+
+    protected void setHeight(long height) {
+        this.height = height;
+    }
+
+    protected void succeeded() {
+        consecutiveFailures.set(0);
+        if (ejected) {
+            logger.info("Endpoint %s is available again", getURL());
+            this.ejected = false;
+        }
+    }
+
+    protected void failed() {
+        // After the ejection time a single failure is enough to eject the node again
+        if (consecutiveFailures.incrementAndGet() >= ejectAfterFailures && ejectAfterFailures > 0 && !isEjected(System.nanoTime())) {
+            this.ejectedUntil = System.nanoTime() + ejectionNanos;
+            this.ejected = true;
+            logger.warn("Ejecting endpoint %s for %d seconds after %d consecutive failures", getURL(), TimeUnit.NANOSECONDS.toSeconds(ejectionNanos), consecutiveFailures.get());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Node{url=" + getURL() + ", weight=" + getWeight() + ", outstanding=" + getOutstanding() + ", failures=" + getConsecutiveFailures()
+                + ", ejected=" + isEjected() + ", height=" + height + '}';
+    }
+}
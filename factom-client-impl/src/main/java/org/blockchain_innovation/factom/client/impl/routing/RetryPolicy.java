@@ -0,0 +1,147 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl.routing;
+
+import org.blockchain_innovation.factom.client.api.errors.FactomRuntimeException;
+import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which requests are retried when the server could not be reached or was unavailable, and how long to wait in between.
+ * <p>
+ * Only idempotent requests are retried: by default all read only methods. Methods that change state, like commits and reveals, are never
+ * retried unless explicitly marked as safe, since the first attempt might have been processed by the server.
+ * The delay before a retry is a random value up to the backoff (full jitter), where the backoff doubles for every retry up to the maximum.
+ * </p>
+ */
+public class RetryPolicy {
+    private volatile Set<RpcMethod> retryableMethods;
+    private int maxRetries = 2;
+    private long backoff = 100;
+    private long maxBackoff = 2000;
+
+    public RetryPolicy() {
+        Set<RpcMethod> methods = EnumSet.noneOf(RpcMethod.class);
+        for (RpcMethod method : RpcMethod.values()) {
+            if (method.isReadOnly()) {
+                methods.add(method);
+            }
+        }
+        this.retryableMethods = methods;
+    }
+
+    public RetryPolicy(RpcSettings.Server server) {
+        this();
+        setMaxRetries(server.getMaxRetries());
+        setBackoff(server.getRetryBackoff());
+        setMaxBackoff(server.getRetryMaxBackoff());
+        markSafe(server.getRetrySafeMethods().toArray(new RpcMethod[0]));
+    }
+
+    /**
+     * A policy that never retries.
+     *
+     * @return The policy.
+     */
+    public static RetryPolicy none() {
+        return new RetryPolicy().setMaxRetries(0);
+    }
+
+    /**
+     * Whether a request of the method may be retried.
+     *
+     * @param method The method.
+     * @return true for read only methods and methods marked as safe.
+     */
+    public boolean isRetryable(RpcMethod method) {
+        return method != null && maxRetries > 0 && retryableMethods.contains(method);
+    }
+
+    /**
+     * Marks methods as safe to retry.
+     *
+     * @param methods The methods.
+     * @return This policy.
+     */
+    public synchronized RetryPolicy markSafe(RpcMethod... methods) {
+        Set<RpcMethod> result = EnumSet.noneOf(RpcMethod.class);
+        result.addAll(retryableMethods);
+        result.addAll(Arrays.asList(methods));
+        this.retryableMethods = result;
+        return this;
+    }
+
+    /**
+     * Marks methods as unsafe to retry, so they are never retried.
+     *
+     * @param methods The methods.
+     * @return This policy.
+     */
+    public synchronized RetryPolicy markUnsafe(RpcMethod... methods) {
+        Set<RpcMethod> result = EnumSet.noneOf(RpcMethod.class);
+        result.addAll(retryableMethods);
+        result.removeAll(Arrays.asList(methods));
+        this.retryableMethods = result;
+        return this;
+    }
+
+    /**
+     * Gets the delay before a retry.
+     *
+     * @param retry The number of the retry, starting at 0.
+     * @return The delay in milliseconds.
+     */
+    public long getDelay(int retry) {
+        long cap = Math.min(maxBackoff, backoff << Math.min(retry, 30));
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public RetryPolicy setMaxRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new FactomRuntimeException.AssertionException("The maximum number of retries cannot be negative");
+        }
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    public long getBackoff() {
+        return backoff;
+    }
+
+    public RetryPolicy setBackoff(long backoff) {
+        this.backoff = Math.max(0, backoff);
+        return this;
+    }
+
+    public long getMaxBackoff() {
+        return maxBackoff;
+    }
+
+    public RetryPolicy setMaxBackoff(long maxBackoff) {
+        this.maxBackoff = Math.max(0, maxBackoff);
+        return this;
+    }
+}
@@ -24,10 +24,18 @@ import org.blockchain_innovation.factom.client.api.log.Logger;
 import org.blockchain_innovation.factom.client.api.model.Address;
 import org.blockchain_innovation.factom.client.api.model.types.AddressType;
 import org.blockchain_innovation.factom.client.api.ops.StringUtils;
+import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
 import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.impl.DispatchExecutor;
+import org.blockchain_innovation.factom.client.impl.transport.ContentEncoding;
+import org.blockchain_innovation.factom.client.impl.transport.PooledHttpTransport;
+import org.blockchain_innovation.factom.client.impl.transport.UnixSockets;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
@@ -135,13 +143,49 @@ public class RpcSettingsImpl implements RpcSettings {
 
     @SuppressWarnings("PMD.ConstructorCallsOverridableMethod")
     public static class ServerImpl implements Server {
+        public static final String HTTP_1_1 = "http/1.1";
+        public static final String HTTP_2 = "h2";
+        public static final String HTTP_2_CLEARTEXT = "h2c";
 
         private Properties properties;
 
         private URL url;
+        private List<Endpoint> endpoints = Collections.emptyList();
+        private int healthCheckInterval = 30;
+        private int maxHeightLag = 2;
+        private int ejectAfterFailures = 3;
+        private int ejectionTime = 30;
+        private int maxRetries = 2;
+        private int retryBackoff = 100;
+        private int retryMaxBackoff = 2000;
+        private List<RpcMethod> retrySafeMethods = Collections.emptyList();
+        private int circuitBreakerFailures = 5;
+        private int circuitBreakerOpenTime = 10;
+        private boolean coalesceReads = true;
+        private int concurrencyLimit = 0;
+        private int maxConcurrencyLimit = 100;
+        private int concurrencyQueueSize = 100;
+        private int concurrencyMaxWait = 5000;
+        private int executorThreads = 10;
+        private int executorQueueSize = 1000;
+        private String executorSaturationPolicy = DispatchExecutor.SaturationPolicy.CALLER_RUNS.getName();
+        private int executorBlockTimeout = 5000;
+        private boolean virtualThreads;
+        private boolean metrics = true;
+        private long cacheMaxBytes;
+        private String storeDir;
+        private long storeMaxBytes = 1L << 30;
         private String username;
         private String password;
         private int timeout = 30;
+        private String transport = PooledHttpTransport.NAME;
+        private int maxConnections = 10;
+        private int idleTimeout = 60;
+        private int validateAfterInactivity = 2;
+        private String compression = ContentEncoding.NONE.getName();
+        private int requestCompressionThreshold = -1;
+        private String httpVersion = HTTP_1_1;
+        private int maxConcurrentStreams = 100;
         private Optional<String> networkName;
 
         @Deprecated
@@ -179,10 +223,46 @@ public class RpcSettingsImpl implements RpcSettings {
             this.properties = properties;
             // Defaults for URLs point to openAPI for factomd and a local walletd
             setURL(getFromPropertiesOrEnvironment(subSystem, "url", properties, subSystem == SubSystem.FACTOMD ? "https://api.factomd.net/v2" : "http://localhost:8089/v2", networkName));
+            // Multiple nodes take precedence over the single URL
+            setURLs(getFromPropertiesOrEnvironment(subSystem, "urls", properties, null, networkName),
+                    getFromPropertiesOrEnvironment(subSystem, "weights", properties, null, networkName));
+            setHealthCheckInterval(getFromPropertiesOrEnvironment(subSystem, "health-check-interval", properties, "30", networkName));
+            setMaxHeightLag(getFromPropertiesOrEnvironment(subSystem, "max-height-lag", properties, "2", networkName));
+            setEjectAfterFailures(getFromPropertiesOrEnvironment(subSystem, "eject-after-failures", properties, "3", networkName));
+            setEjectionTime(getFromPropertiesOrEnvironment(subSystem, "ejection-time", properties, "30", networkName));
+            setMaxRetries(getFromPropertiesOrEnvironment(subSystem, "max-retries", properties, "2", networkName));
+            setRetryBackoff(getFromPropertiesOrEnvironment(subSystem, "retry-backoff", properties, "100", networkName));
+            setRetryMaxBackoff(getFromPropertiesOrEnvironment(subSystem, "retry-max-backoff", properties, "2000", networkName));
+            setRetrySafeMethods(getFromPropertiesOrEnvironment(subSystem, "retry-safe-methods", properties, null, networkName));
+            setCircuitBreakerFailures(getFromPropertiesOrEnvironment(subSystem, "circuit-breaker-failures", properties, "5", networkName));
+            setCircuitBreakerOpenTime(getFromPropertiesOrEnvironment(subSystem, "circuit-breaker-open-time", properties, "10", networkName));
+            setCoalesceReads(getFromPropertiesOrEnvironment(subSystem, "coalesce-reads", properties, "true", networkName));
+            setConcurrencyLimit(getFromPropertiesOrEnvironment(subSystem, "concurrency-limit", properties, "0", networkName));
+            setMaxConcurrencyLimit(getFromPropertiesOrEnvironment(subSystem, "max-concurrency-limit", properties, "100", networkName));
+            setConcurrencyQueueSize(getFromPropertiesOrEnvironment(subSystem, "concurrency-queue-size", properties, "100", networkName));
+            setConcurrencyMaxWait(getFromPropertiesOrEnvironment(subSystem, "concurrency-max-wait", properties, "5000", networkName));
+            setExecutorThreads(getFromPropertiesOrEnvironment(subSystem, "executor-threads", properties, "10", networkName));
+            setExecutorQueueSize(getFromPropertiesOrEnvironment(subSystem, "executor-queue-size", properties, "1000", networkName));
+            setExecutorSaturationPolicy(getFromPropertiesOrEnvironment(subSystem, "executor-saturation-policy", properties,
+                    DispatchExecutor.SaturationPolicy.CALLER_RUNS.getName(), networkName));
+            setExecutorBlockTimeout(getFromPropertiesOrEnvironment(subSystem, "executor-block-timeout", properties, "5000", networkName));
+            setVirtualThreads(getFromPropertiesOrEnvironment(subSystem, "virtual-threads", properties, "false", networkName));
+            setMetrics(getFromPropertiesOrEnvironment(subSystem, "metrics", properties, "true", networkName));
+            setCacheMaxBytes(getFromPropertiesOrEnvironment(subSystem, "cache-max-bytes", properties, "0", networkName));
+            setStoreDir(getFromPropertiesOrEnvironment(subSystem, "store-dir", properties, null, networkName));
+            setStoreMaxBytes(getFromPropertiesOrEnvironment(subSystem, "store-max-bytes", properties, String.valueOf(1L << 30), networkName));
 
             setTimeout(getFromPropertiesOrEnvironment(subSystem, "timeout", properties, "30", networkName));
             setUsername(getFromPropertiesOrEnvironment(subSystem, "username", properties, null, networkName));
             setPassword(getFromPropertiesOrEnvironment(subSystem, "password", properties, null, networkName));
+            setTransport(getFromPropertiesOrEnvironment(subSystem, "transport", properties, PooledHttpTransport.NAME, networkName));
+            setMaxConnections(getFromPropertiesOrEnvironment(subSystem, "max-connections", properties, "10", networkName));
+            setIdleTimeout(getFromPropertiesOrEnvironment(subSystem, "idle-timeout", properties, "60", networkName));
+            setValidateAfterInactivity(getFromPropertiesOrEnvironment(subSystem, "validate-after-inactivity", properties, "2", networkName));
+            setCompression(getFromPropertiesOrEnvironment(subSystem, "compression", properties, ContentEncoding.NONE.getName(), networkName));
+            setRequestCompressionThreshold(getFromPropertiesOrEnvironment(subSystem, "request-compression-threshold", properties, "-1", networkName));
+            setHttpVersion(getFromPropertiesOrEnvironment(subSystem, "http-version", properties, HTTP_1_1, networkName));
+            setMaxConcurrentStreams(getFromPropertiesOrEnvironment(subSystem, "max-concurrent-streams", properties, "100", networkName));
             return properties;
         }
 
@@ -198,7 +278,7 @@ public class RpcSettingsImpl implements RpcSettings {
 
         public Server setURL(String url) {
             try {
-                setURL(new URL(url));
+                setURL(UnixSockets.toURL(url));
             } catch (MalformedURLException e) {
                 throw new FactomRuntimeException.AssertionException("Invalid URL supplied for connection: " + url, e);
             }
@@ -207,6 +287,350 @@ public class RpcSettingsImpl implements RpcSettings {
 
         public Server setURL(URL url) {
             this.url = url;
+            this.endpoints = url == null ? Collections.emptyList() : Collections.singletonList(new EndpointImpl(url, 1));
+            return this;
+        }
+
+        @Override
+        public List<Endpoint> getEndpoints() {
+            return endpoints;
+        }
+
+        /**
+         * Sets multiple endpoints (nodes) for this server. The first URL becomes the URL of the server.
+         *
+         * @param urls    Comma separated URLs.
+         * @param weights Comma separated weights, in the same order as the URLs. Missing weights default to 1.
+         * @return This server.
+         */
+        public Server setURLs(String urls, String weights) {
+            if (StringUtils.isEmpty(urls)) {
+                return this;
+            }
+            String[] urlValues = urls.split(",");
+            String[] weightValues = StringUtils.isEmpty(weights) ? new String[0] : weights.split(",");
+            List<Endpoint> result = new ArrayList<>(urlValues.length);
+            for (int i = 0; i < urlValues.length; i++) {
+                if (StringUtils.isEmpty(urlValues[i].trim())) {
+                    continue;
+                }
+                int weight = i < weightValues.length && StringUtils.isNotEmpty(weightValues[i].trim()) ? Integer.parseInt(weightValues[i].trim()) : 1;
+                try {
+                    result.add(new EndpointImpl(UnixSockets.toURL(urlValues[i].trim()), weight));
+                } catch (MalformedURLException e) {
+                    throw new FactomRuntimeException.AssertionException("Invalid URL supplied for connection: " + urlValues[i], e);
+                }
+            }
+            return setEndpoints(result);
+        }
+
+        public Server setEndpoints(List<Endpoint> endpoints) {
+            if (endpoints == null || endpoints.isEmpty()) {
+                throw new FactomRuntimeException.AssertionException("At least one endpoint is required");
+            }
+            this.url = endpoints.get(0).getURL();
+            this.endpoints = Collections.unmodifiableList(new ArrayList<>(endpoints));
+            return this;
+        }
+
+        @Override
+        public int getHealthCheckInterval() {
+            return healthCheckInterval;
+        }
+
+        public Server setHealthCheckInterval(String healthCheckInterval) {
+            if (StringUtils.isNotEmpty(healthCheckInterval)) {
+                this.healthCheckInterval = Integer.parseInt(healthCheckInterval);
+            }
+            return this;
+        }
+
+        @Override
+        public int getMaxHeightLag() {
+            return maxHeightLag;
+        }
+
+        public Server setMaxHeightLag(String maxHeightLag) {
+            if (StringUtils.isNotEmpty(maxHeightLag)) {
+                this.maxHeightLag = Integer.parseInt(maxHeightLag);
+            }
+            return this;
+        }
+
+        @Override
+        public int getEjectAfterFailures() {
+            return ejectAfterFailures;
+        }
+
+        public Server setEjectAfterFailures(String ejectAfterFailures) {
+            if (StringUtils.isNotEmpty(ejectAfterFailures)) {
+                this.ejectAfterFailures = Integer.parseInt(ejectAfterFailures);
+            }
+            return this;
+        }
+
+        @Override
+        public int getEjectionTime() {
+            return ejectionTime;
+        }
+
+        public Server setEjectionTime(String ejectionTime) {
+            if (StringUtils.isNotEmpty(ejectionTime)) {
+                this.ejectionTime = Integer.parseInt(ejectionTime);
+            }
+            return this;
+        }
+
+        @Override
+        public int getMaxRetries() {
+            return maxRetries;
+        }
+
+        public Server setMaxRetries(String maxRetries) {
+            if (StringUtils.isNotEmpty(maxRetries)) {
+                this.maxRetries = Integer.parseInt(maxRetries);
+            }
+            return this;
+        }
+
+        @Override
+        public int getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public Server setRetryBackoff(String retryBackoff) {
+            if (StringUtils.isNotEmpty(retryBackoff)) {
+                this.retryBackoff = Integer.parseInt(retryBackoff);
+            }
+            return this;
+        }
+
+        @Override
+        public int getRetryMaxBackoff() {
+            return retryMaxBackoff;
+        }
+
+        public Server setRetryMaxBackoff(String retryMaxBackoff) {
+            if (StringUtils.isNotEmpty(retryMaxBackoff)) {
+                this.retryMaxBackoff = Integer.parseInt(retryMaxBackoff);
+            }
+            return this;
+        }
+
+        @Override
+        public List<RpcMethod> getRetrySafeMethods() {
+            return retrySafeMethods;
+        }
+
+        /**
+         * Sets the methods that are safe to retry, next to the read only methods.
+         *
+         * @param retrySafeMethods Comma separated Rpc method names, like reveal-entry.
+         * @return This server.
+         */
+        public Server setRetrySafeMethods(String retrySafeMethods) {
+            if (StringUtils.isNotEmpty(retrySafeMethods)) {
+                List<RpcMethod> result = new ArrayList<>();
+                for (String method : retrySafeMethods.split(",")) {
+                    if (StringUtils.isNotEmpty(method.trim())) {
+                        result.add(RpcMethod.fromJsonValue(method.trim()));
+                    }
+                }
+                this.retrySafeMethods = Collections.unmodifiableList(result);
+            }
+            return this;
+        }
+
+        @Override
+        public int getCircuitBreakerFailures() {
+            return circuitBreakerFailures;
+        }
+
+        public Server setCircuitBreakerFailures(String circuitBreakerFailures) {
+            if (StringUtils.isNotEmpty(circuitBreakerFailures)) {
+                this.circuitBreakerFailures = Integer.parseInt(circuitBreakerFailures);
+            }
+            return this;
+        }
+
+        @Override
+        public int getCircuitBreakerOpenTime() {
+            return circuitBreakerOpenTime;
+        }
+
+        public Server setCircuitBreakerOpenTime(String circuitBreakerOpenTime) {
+            if (StringUtils.isNotEmpty(circuitBreakerOpenTime)) {
+                this.circuitBreakerOpenTime = Integer.parseInt(circuitBreakerOpenTime);
+            }
+            return this;
+        }
+
+        @Override
+        public boolean isCoalesceReads() {
+            return coalesceReads;
+        }
+
+        public Server setCoalesceReads(String coalesceReads) {
+            if (StringUtils.isNotEmpty(coalesceReads)) {
+                this.coalesceReads = Boolean.parseBoolean(coalesceReads.trim());
+            }
+            return this;
+        }
+
+        @Override
+        public int getConcurrencyLimit() {
+            return concurrencyLimit;
+        }
+
+        public Server setConcurrencyLimit(String concurrencyLimit) {
+            if (StringUtils.isNotEmpty(concurrencyLimit)) {
+                this.concurrencyLimit = Integer.parseInt(concurrencyLimit);
+            }
+            return this;
+        }
+
+        @Override
+        public int getMaxConcurrencyLimit() {
+            return maxConcurrencyLimit;
+        }
+
+        public Server setMaxConcurrencyLimit(String maxConcurrencyLimit) {
+            if (StringUtils.isNotEmpty(maxConcurrencyLimit)) {
+                this.maxConcurrencyLimit = Integer.parseInt(maxConcurrencyLimit);
+            }
+            return this;
+        }
+
+        @Override
+        public int getConcurrencyQueueSize() {
+            return concurrencyQueueSize;
+        }
+
+        public Server setConcurrencyQueueSize(String concurrencyQueueSize) {
+            if (StringUtils.isNotEmpty(concurrencyQueueSize)) {
+                this.concurrencyQueueSize = Integer.parseInt(concurrencyQueueSize);
+            }
+            return this;
+        }
+
+        @Override
+        public int getConcurrencyMaxWait() {
+            return concurrencyMaxWait;
+        }
+
+        public Server setConcurrencyMaxWait(String concurrencyMaxWait) {
+            if (StringUtils.isNotEmpty(concurrencyMaxWait)) {
+                this.concurrencyMaxWait = Integer.parseInt(concurrencyMaxWait);
+            }
+            return this;
+        }
+
+        @Override
+        public int getExecutorThreads() {
+            return executorThreads;
+        }
+
+        public Server setExecutorThreads(String executorThreads) {
+            if (StringUtils.isNotEmpty(executorThreads)) {
+                this.executorThreads = Integer.parseInt(executorThreads);
+            }
+            return this;
+        }
+
+        @Override
+        public int getExecutorQueueSize() {
+            return executorQueueSize;
+        }
+
+        public Server setExecutorQueueSize(String executorQueueSize) {
+            if (StringUtils.isNotEmpty(executorQueueSize)) {
+                this.executorQueueSize = Integer.parseInt(executorQueueSize);
+            }
+            return this;
+        }
+
+        @Override
+        public String getExecutorSaturationPolicy() {
+            return executorSaturationPolicy;
+        }
+
+        public Server setExecutorSaturationPolicy(String executorSaturationPolicy) {
+            if (StringUtils.isNotEmpty(executorSaturationPolicy)) {
+                // Fail early on typos, instead of on the first request
+                this.executorSaturationPolicy = DispatchExecutor.SaturationPolicy.fromName(executorSaturationPolicy).getName();
+            }
+            return this;
+        }
+
+        @Override
+        public int getExecutorBlockTimeout() {
+            return executorBlockTimeout;
+        }
+
+        public Server setExecutorBlockTimeout(String executorBlockTimeout) {
+            if (StringUtils.isNotEmpty(executorBlockTimeout)) {
+                this.executorBlockTimeout = Integer.parseInt(executorBlockTimeout);
+            }
+            return this;
+        }
+
+        @Override
+        public boolean isVirtualThreads() {
+            return virtualThreads;
+        }
+
+        public Server setVirtualThreads(String virtualThreads) {
+            if (StringUtils.isNotEmpty(virtualThreads)) {
+                this.virtualThreads = Boolean.parseBoolean(virtualThreads.trim());
+            }
+            return this;
+        }
+
+        @Override
+        public boolean isMetrics() {
+            return metrics;
+        }
+
+        public Server setMetrics(String metrics) {
+            if (StringUtils.isNotEmpty(metrics)) {
+                this.metrics = Boolean.parseBoolean(metrics.trim());
+            }
+            return this;
+        }
+
+        @Override
+        public long getCacheMaxBytes() {
+            return cacheMaxBytes;
+        }
+
+        public Server setCacheMaxBytes(String cacheMaxBytes) {
+            if (StringUtils.isNotEmpty(cacheMaxBytes)) {
+                this.cacheMaxBytes = Long.parseLong(cacheMaxBytes.trim());
+            }
+            return this;
+        }
+
+        @Override
+        public String getStoreDir() {
+            return storeDir;
+        }
+
+        public Server setStoreDir(String storeDir) {
+            if (StringUtils.isNotEmpty(storeDir)) {
+                this.storeDir = storeDir.trim();
+            }
+            return this;
+        }
+
+        @Override
+        public long getStoreMaxBytes() {
+            return storeMaxBytes;
+        }
+
+        public Server setStoreMaxBytes(String storeMaxBytes) {
+            if (StringUtils.isNotEmpty(storeMaxBytes)) {
+                this.storeMaxBytes = Long.parseLong(storeMaxBytes.trim());
+            }
             return this;
         }
 
@@ -242,6 +666,107 @@ public class RpcSettingsImpl implements RpcSettings {
             return this;
         }
 
+        @Override
+        public String getTransport() {
+            return transport;
+        }
+
+        public Server setTransport(String transport) {
+            if (StringUtils.isNotEmpty(transport)) {
+                this.transport = transport.trim();
+            }
+            return this;
+        }
+
+        @Override
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public Server setMaxConnections(String maxConnections) {
+            if (StringUtils.isNotEmpty(maxConnections)) {
+                this.maxConnections = Integer.parseInt(maxConnections);
+            }
+            return this;
+        }
+
+        @Override
+        public int getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public Server setIdleTimeout(String idleTimeout) {
+            if (StringUtils.isNotEmpty(idleTimeout)) {
+                this.idleTimeout = Integer.parseInt(idleTimeout);
+            }
+            return this;
+        }
+
+        @Override
+        public int getValidateAfterInactivity() {
+            return validateAfterInactivity;
+        }
+
+        public Server setValidateAfterInactivity(String validateAfterInactivity) {
+            if (StringUtils.isNotEmpty(validateAfterInactivity)) {
+                this.validateAfterInactivity = Integer.parseInt(validateAfterInactivity);
+            }
+            return this;
+        }
+
+        @Override
+        public String getCompression() {
+            return compression;
+        }
+
+        public Server setCompression(String compression) {
+            if (StringUtils.isNotEmpty(compression)) {
+                // Fail early on typos, instead of on the first request
+                this.compression = ContentEncoding.fromName(compression).getName();
+            }
+            return this;
+        }
+
+        @Override
+        public int getRequestCompressionThreshold() {
+            return requestCompressionThreshold;
+        }
+
+        public Server setRequestCompressionThreshold(String requestCompressionThreshold) {
+            if (StringUtils.isNotEmpty(requestCompressionThreshold)) {
+                this.requestCompressionThreshold = Integer.parseInt(requestCompressionThreshold);
+            }
+            return this;
+        }
+
+        @Override
+        public String getHttpVersion() {
+            return httpVersion;
+        }
+
+        public Server setHttpVersion(String httpVersion) {
+            if (StringUtils.isNotEmpty(httpVersion)) {
+                String version = httpVersion.trim().toLowerCase(Locale.ROOT);
+                if (!HTTP_1_1.equals(version) && !HTTP_2.equals(version) && !HTTP_2_CLEARTEXT.equals(version)) {
+                    throw new FactomRuntimeException.AssertionException("Unknown HTTP version " + httpVersion + ", use http/1.1, h2 or h2c");
+                }
+                this.httpVersion = version;
+            }
+            return this;
+        }
+
+        @Override
+        public int getMaxConcurrentStreams() {
+            return maxConcurrentStreams;
+        }
+
+        public Server setMaxConcurrentStreams(String maxConcurrentStreams) {
+            if (StringUtils.isNotEmpty(maxConcurrentStreams)) {
+                this.maxConcurrentStreams = Integer.parseInt(maxConcurrentStreams);
+            }
+            return this;
+        }
+
         @Override
         public Optional<String> getNetworkName() {
             return networkName;
@@ -254,6 +779,38 @@ public class RpcSettingsImpl implements RpcSettings {
     }
 
 
+    public static class EndpointImpl implements Endpoint {
+        private final URL url;
+        private final int weight;
+
+        public EndpointImpl(URL url, int weight) {
+            if (url == null) {
+                throw new FactomRuntimeException.AssertionException("An endpoint requires a URL");
+            }
+            if (weight < 1) {
+                throw new FactomRuntimeException.AssertionException("The weight of endpoint " + url + " should be at least 1");
+            }
+            this.url = url;
+            this.weight = weight;
+        }
+
+        @Override
+        public URL getURL() {
+            return url;
+        }
+
+        @Override
+        public int getWeight() {
+            return weight;
+        }
+
+        @Override
+        public String toString() {
+            return url + " (weight " + weight + ")";
+        }
+    }
+
+
     @Deprecated
     protected static String constructKey(SubSystem subSystem, String key) {
         return constructKey(subSystem, key, Optional.empty());
@@ -287,7 +844,7 @@ public class RpcSettingsImpl implements RpcSettings {
         if (StringUtils.isEmpty(value)) {
             value = defaultValue;
         }
-        logger.info(subSystem.configKey() + " (config): " + key + "=" + (key.contains("pass") ? "xxxx" : value));
+        logger.info("%s (config): %s=%s", subSystem.configKey(), key, key.contains("pass") ? "xxxx" : value);
         return value;
     }
 
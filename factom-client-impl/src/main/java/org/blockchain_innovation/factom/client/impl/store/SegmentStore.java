@@ -0,0 +1,563 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.blockchain_innovation.factom.client.impl.store;
+
+import org.blockchain_innovation.factom.client.api.errors.FactomException;
+import org.blockchain_innovation.factom.client.api.log.LogFactory;
+import org.blockchain_innovation.factom.client.api.log.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * A persistent key value store for values that never change, like blocks and entries. Values are appended to segment files and read
+ * using memory mapped buffers. The index from key to location is kept in memory and rebuilt from the segments when the store is opened.
+ * <p>
+ * Every record has a CRC32 checksum. Records with a wrong checksum are dropped, and a segment is truncated at a record that was not
+ * written completely, for instance after a crash. When the store grows beyond its maximum size the oldest segment is compacted: values
+ * that were read since they were written are appended again and the segment is deleted. Segments with few live records are compacted when
+ * the store is opened.
+ * </p>
+ * <p>
+ * The file of the active segment grows in chunks, so the mapping used to read it is only renewed once per chunk instead of after every
+ * append. Segments are written to disk when they are full, at most every second while values are added, and when the store is closed.
+ * </p>
+ */
+public class SegmentStore implements Closeable {
+    private static final Logger logger = LogFactory.getLogger(SegmentStore.class);
+    private static final Map<Path, SegmentStore> STORES = new HashMap<>();
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+    private static final String LOCK_FILE = "store.lock";
+    /**
+     * Key length, value length and checksum.
+     */
+    private static final int HEADER_BYTES = 12;
+    private static final long MAX_SEGMENT_BYTES = 64L << 20;
+    private static final long MIN_SEGMENT_BYTES = 64L << 10;
+    private static final long GROWTH_BYTES = 1L << 20;
+    private static final long FORCE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Path directory;
+    private final long maxBytes;
+    private final long segmentBytes;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+    private final Map<String, Location> index = new HashMap<>();
+    private Segment active;
+    private long bytes;
+    private boolean closed;
+    private int references = 1;
+    private long lastForce = System.nanoTime();
+
+    /**
+     * Opens the store in the directory, or returns the store that is already open for the directory. Every caller has to close the store,
+     * it is closed once the last of them did.
+     *
+     * @param directory The directory of the segments, which is created when needed.
+     * @param maxBytes  The maximum size of the store in bytes.
+     * @return The store.
+     */
+    public static SegmentStore open(Path directory, long maxBytes) {
+        Path path = directory.toAbsolutePath().normalize();
+        synchronized (STORES) {
+            SegmentStore store = STORES.get(path);
+            if (store == null) {
+                store = new SegmentStore(path, maxBytes, Math.max(MIN_SEGMENT_BYTES, Math.min(MAX_SEGMENT_BYTES, maxBytes / 8)));
+                STORES.put(path, store);
+            } else {
+                synchronized (store) {
+                    store.references++;
+                }
+            }
+            return store;
+        }
+    }
+
+    /**
+     * Opens a store. Only one store can be open per directory.
+     *
+     * @param directory    The directory of the segments, which is created when needed.
+     * @param maxBytes     The maximum size of the store in bytes.
+     * @param segmentBytes The maximum size of a segment in bytes, which is also the maximum size of a value.
+     */
+    public SegmentStore(Path directory, long maxBytes, long segmentBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.segmentBytes = Math.min(segmentBytes, Integer.MAX_VALUE);
+        try {
+            Files.createDirectories(directory);
+            this.lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            this.lock = tryLock(lockChannel);
+            if (lock == null) {
+                lockChannel.close();
+                throw new FactomException.ClientException(String.format("The store in %s is in use by another process", directory));
+            }
+            load();
+            compact();
+            enforceMaxBytes();
+        } catch (IOException e) {
+            throw new FactomException.ClientException(String.format("Could not open the store in %s: %s", directory, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Gets a value.
+     *
+     * @param key The key.
+     * @return The value, or null when it is not stored or could not be read.
+     */
+    public synchronized byte[] get(String key) {
+        Location location = index.get(key);
+        if (location == null || closed) {
+            return null;
+        }
+        try {
+            byte[] value = location.segment.read(location);
+            if (value == null) {
+                logger.warn("Dropping %s from the store in %s, since its checksum does not match", key, directory);
+                remove(key, location);
+                return null;
+            }
+            location.read = true;
+            return value;
+        } catch (IOException e) {
+            throw new FactomException.ClientException(String.format("Could not read %s from the store in %s: %s", key, directory, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Stores a value, unless the key is already stored. Since values never change, a stored value is not replaced.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return Whether the value was stored. Values that do not fit in a segment are not stored.
+     */
+    public synchronized boolean put(String key, byte[] value) {
+        if (closed || index.containsKey(key)) {
+            return false;
+        }
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (HEADER_BYTES + (long) keyBytes.length + value.length > segmentBytes) {
+            return false;
+        }
+        try {
+            append(key, keyBytes, value);
+            enforceMaxBytes();
+            if (System.nanoTime() - lastForce > FORCE_INTERVAL_NANOS) {
+                active.force();
+            }
+            return true;
+        } catch (IOException e) {
+            throw new FactomException.ClientException(String.format("Could not write %s to the store in %s: %s", key, directory, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Whether a value is stored.
+     *
+     * @param key The key.
+     * @return true when the key is stored.
+     */
+    public synchronized boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * Gets the number of stored values.
+     *
+     * @return The number of values.
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Gets the size of the segments, including records that are no longer used.
+     *
+     * @return The size in bytes.
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Gets the maximum size of the store.
+     *
+     * @return The maximum size in bytes.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Gets the number of segment files.
+     *
+     * @return The number of segments.
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Gets the directory of the store.
+     *
+     * @return The directory.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Rewrites the segments of which less than half the size is used by live records, and deletes them.
+     */
+    public synchronized void compact() {
+        try {
+            for (Segment segment : new ArrayList<>(segments.values())) {
+                if (segment != active && segment.liveBytes * 2 < segment.size) {
+                    rewrite(segment, true);
+                }
+            }
+        } catch (IOException e) {
+            throw new FactomException.ClientException(String.format("Could not compact the store in %s: %s", directory, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Writes the segments to disk and closes them. A store that was opened multiple times using {@link #open(Path, long)} is closed once
+     * every caller closed it.
+     */
+    @Override
+    public void close() {
+        // Closed while holding the registry, so opening the directory again waits until the lock of the directory is released
+        synchronized (STORES) {
+            synchronized (this) {
+                if (closed || --references > 0) {
+                    return;
+                }
+                closed = true;
+                STORES.remove(directory, this);
+                for (Segment segment : segments.values()) {
+                    try {
+                        segment.trim();
+                        segment.force();
+                        segment.channel.close();
+                    } catch (IOException e) {
+                        logger.warn("Could not close segment %s: %s", segment.path, e.getMessage());
+                    }
+                }
+                segments.clear();
+                index.clear();
+                try {
+                    lock.release();
+                    lockChannel.close();
+                } catch (IOException e) {
+                    logger.warn("Could not release the lock of the store in %s: %s", directory, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // Locked by this process
+            return null;
+        }
+    }
+
+    private void load() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    long number = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                    segments.put(number, new Segment(number, file));
+                } catch (NumberFormatException e) {
+                    logger.warn("Ignoring %s in the store in %s", name, directory);
+                }
+            }
+        }
+        for (Segment segment : segments.values()) {
+            segment.scan();
+            bytes += segment.size;
+        }
+        if (segments.isEmpty() || segments.lastEntry().getValue().size >= segmentBytes) {
+            roll();
+        } else {
+            active = segments.lastEntry().getValue();
+        }
+        logger.debug("Opened the store in %s with %d values in %d segments", directory, index.size(), segments.size());
+    }
+
+    private void roll() throws IOException {
+        if (active != null && segments.get(active.number) == active) {
+            // The full segment no longer changes, so it is written to disk without the room it grew for
+            active.trim();
+            active.force();
+        }
+        long number = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        Path file = directory.resolve(Paths.get(String.format("%s%016d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX)));
+        active = new Segment(number, file);
+        segments.put(number, active);
+    }
+
+    private void append(String key, byte[] keyBytes, byte[] value) throws IOException {
+        long recordBytes = HEADER_BYTES + (long) keyBytes.length + value.length;
+        if (active.size + recordBytes > segmentBytes) {
+            roll();
+        }
+        Location location = active.append(keyBytes, value);
+        Location previous = index.put(key, location);
+        if (previous != null) {
+            previous.segment.liveBytes -= previous.recordBytes();
+        }
+        bytes += recordBytes;
+    }
+
+    private void remove(String key, Location location) {
+        index.remove(key, location);
+        location.segment.liveBytes -= location.recordBytes();
+    }
+
+    /**
+     * Compacts the oldest segments until the store fits. Values that were read are kept, so often used values survive.
+     */
+    private void enforceMaxBytes() throws IOException {
+        while (bytes > maxBytes && segments.size() > 1) {
+            rewrite(segments.firstEntry().getValue(), false);
+        }
+    }
+
+    private void rewrite(Segment segment, boolean keepAll) throws IOException {
+        for (String key : segment.keys) {
+            Location location = index.get(key);
+            if (location == null || location.segment != segment) {
+                continue;
+            }
+            if (keepAll || location.read) {
+                byte[] value = segment.read(location);
+                if (value != null) {
+                    append(key, key.getBytes(StandardCharsets.UTF_8), value);
+                    continue;
+                }
+            }
+            index.remove(key);
+        }
+        segments.remove(segment.number);
+        bytes -= segment.size;
+        segment.channel.close();
+        Files.deleteIfExists(segment.path);
+    }
+
+    private static int checksum(ByteBuffer keyAndValue) {
+        CRC32 crc = new CRC32();
+        crc.update(keyAndValue);
+        return (int) crc.getValue();
+    }
+
+    private final class Segment {
+        private final long number;
+        private final Path path;
+        private final FileChannel channel;
+        private final List<String> keys = new ArrayList<>();
+        private MappedByteBuffer mapped;
+        /**
+         * The size of the records. The file can be larger, since it grows in chunks.
+         */
+        private long size;
+        private long capacity;
+        private long liveBytes;
+
+        Segment(long number, Path path) throws IOException {
+            this.number = number;
+            this.path = path;
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.size = channel.size();
+            this.capacity = size;
+        }
+
+        /**
+         * Indexes the records, truncating the segment at the first record that is not complete.
+         */
+        void scan() throws IOException {
+            ByteBuffer buffer = map(size);
+            long position = 0;
+            while (position + HEADER_BYTES <= size) {
+                int keyLength = buffer.getInt((int) position);
+                int valueLength = buffer.getInt((int) position + 4);
+                int checksum = buffer.getInt((int) position + 8);
+                long end = position + HEADER_BYTES + (long) keyLength + valueLength;
+                if (keyLength == 0 && valueLength == 0) {
+                    // The room the segment grew for, left when the store was not closed
+                    logger.debug("Truncating the unused end of %s at %d", path, position);
+                    truncate(position);
+                    return;
+                }
+                if (keyLength < 0 || valueLength < 0 || end > size) {
+                    break;
+                }
+                ByteBuffer keyAndValue = slice(buffer, position + HEADER_BYTES, keyLength + valueLength);
+                if (checksum(keyAndValue.duplicate()) == checksum) {
+                    byte[] keyBytes = new byte[keyLength];
+                    keyAndValue.get(keyBytes);
+                    String key = new String(keyBytes, StandardCharsets.UTF_8);
+                    Location location = new Location(this, position, keyLength, valueLength);
+                    Location previous = index.put(key, location);
+                    if (previous != null) {
+                        previous.segment.liveBytes -= previous.recordBytes();
+                    }
+                    keys.add(key);
+                    liveBytes += location.recordBytes();
+                } else {
+                    logger.warn("Skipping a record with a wrong checksum at %d in %s", position, path);
+                }
+                position = end;
+            }
+            if (position < size) {
+                logger.warn("Truncating %s at %d, since the last record is not complete", path, position);
+                truncate(position);
+            }
+        }
+
+        Location append(byte[] key, byte[] value) throws IOException {
+            ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + key.length + value.length);
+            record.putInt(key.length).putInt(value.length).putInt(0).put(key).put(value);
+            record.position(HEADER_BYTES);
+            record.putInt(8, checksum(record));
+            record.rewind();
+            long position = size;
+            grow(position + record.capacity());
+            while (record.hasRemaining()) {
+                channel.write(record, position + record.position());
+            }
+            size += record.capacity();
+            Location location = new Location(this, position, key.length, value.length);
+            keys.add(new String(key, StandardCharsets.UTF_8));
+            liveBytes += location.recordBytes();
+            return location;
+        }
+
+        /**
+         * Reads the value of a record.
+         *
+         * @return The value, or null when the checksum does not match.
+         */
+        byte[] read(Location location) throws IOException {
+            ByteBuffer buffer = map(location.position + location.recordBytes());
+            ByteBuffer keyAndValue = slice(buffer, location.position + HEADER_BYTES, location.keyLength + location.valueLength);
+            int checksum = buffer.getInt((int) location.position + 8);
+            if (checksum(keyAndValue.duplicate()) != checksum) {
+                return null;
+            }
+            byte[] value = new byte[location.valueLength];
+            keyAndValue.position(location.keyLength);
+            keyAndValue.get(value);
+            return value;
+        }
+
+        void force() throws IOException {
+            channel.force(false);
+            lastForce = System.nanoTime();
+        }
+
+        /**
+         * Shrinks the file to the records, removing the room it grew for.
+         */
+        void trim() throws IOException {
+            if (capacity > size) {
+                truncate(size);
+            }
+        }
+
+        /**
+         * Grows the file in chunks, so the mapping covers the next appends as well.
+         */
+        private void grow(long end) throws IOException {
+            if (end <= capacity) {
+                return;
+            }
+            long grown = Math.max(end, Math.min(segmentBytes, capacity + GROWTH_BYTES));
+            channel.write(ByteBuffer.allocate(1), grown - 1);
+            capacity = grown;
+        }
+
+        private void truncate(long position) throws IOException {
+            mapped = null;
+            channel.truncate(position);
+            size = position;
+            capacity = position;
+        }
+
+        /**
+         * Maps the segment, remapping when the file grew since.
+         */
+        private MappedByteBuffer map(long end) throws IOException {
+            if (mapped == null || mapped.capacity() < end) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, capacity);
+            }
+            return mapped;
+        }
+
+        private ByteBuffer slice(ByteBuffer buffer, long position, int length) {
+            ByteBuffer slice = buffer.duplicate();
+            slice.position((int) position);
+            slice.limit((int) position + length);
+            return slice.slice();
+        }
+    }
+
+    private static final class Location {
+        private final Segment segment;
+        private final long position;
+        private final int keyLength;
+        private final int valueLength;
+        private boolean read;
+
+        Location(Segment segment, long position, int keyLength, int valueLength) {
+            this.segment = segment;
+            this.position = position;
+            this.keyLength = keyLength;
+            this.valueLength = valueLength;
+        }
+
+        long recordBytes() {
+            return HEADER_BYTES + (long) keyLength + valueLength;
+        }
+    }
+}
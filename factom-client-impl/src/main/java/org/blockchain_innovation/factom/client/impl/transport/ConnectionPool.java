@@ -0,0 +1,165 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl.transport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bounded pool of persistent connections per route. Idle connections are reused most recently used first,
+ * evicted when idle for longer than the idle timeout and checked for being closed by the server before reuse.
+ */
+class ConnectionPool implements Closeable {
+
+    /**
+     * Opens new connections for the pool.
+     */
+    interface Connector {
+        HttpConnection connect(Route route) throws IOException;
+    }
+
+    private final int maxPerRoute;
+    private final long idleTimeoutMillis;
+    private final long validateAfterInactivityMillis;
+    private final Connector connector;
+    private final ConcurrentMap<Route, RoutePool> routePools = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    ConnectionPool(int maxPerRoute, long idleTimeoutMillis, long validateAfterInactivityMillis, Connector connector) {
+        this.maxPerRoute = Math.max(1, maxPerRoute);
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.validateAfterInactivityMillis = validateAfterInactivityMillis;
+        this.connector = connector;
+    }
+
+    /**
+     * Leases a connection for the route, reusing an idle one when possible. Blocks when the maximum number of connections for the route is in use.
+     *
+     * @param route         The route.
+     * @param timeoutMillis The maximum time to wait for a connection to become available.
+     * @return The leased connection, which needs to be handed back using {@link #release(HttpConnection, boolean)}.
+     * @throws IOException When no connection became available in time or connecting failed.
+     */
+    HttpConnection lease(Route route, long timeoutMillis) throws IOException {
+        if (closed) {
+            throw new IOException("Connection pool has been closed");
+        }
+        RoutePool routePool = routePools.computeIfAbsent(route, key -> new RoutePool(maxPerRoute));
+        try {
+            if (!routePool.permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IOException(String.format("Timeout waiting for a connection to %s, all %d connections are in use", route, maxPerRoute));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a connection to " + route);
+        }
+
+        try {
+            long now = System.currentTimeMillis();
+            HttpConnection connection;
+            while ((connection = routePool.idle.pollFirst()) != null) {
+                long idleMillis = now - connection.getLastUsed();
+                if (idleMillis > idleTimeoutMillis || (idleMillis >= validateAfterInactivityMillis && connection.isStale())) {
+                    connection.close();
+                    continue;
+                }
+                connection.markReused();
+                return connection;
+            }
+            return connector.connect(route);
+        } catch (IOException | RuntimeException e) {
+            routePool.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Hands a leased connection back to the pool.
+     *
+     * @param connection The connection.
+     * @param reusable   Whether the connection is positioned at the start of the next response and can be reused.
+     */
+    void release(HttpConnection connection, boolean reusable) {
+        RoutePool routePool = routePools.get(connection.getRoute());
+        try {
+            if (reusable && !closed && routePool != null) {
+                long now = System.currentTimeMillis();
+                connection.setLastUsed(now);
+                routePool.idle.offerFirst(connection);
+                evictExpired(routePool, now);
+            } else {
+                connection.close();
+            }
+        } finally {
+            if (routePool != null) {
+                routePool.permits.release();
+            }
+        }
+    }
+
+    /**
+     * The number of idle connections for a route.
+     *
+     * @param route The route.
+     * @return The idle connection count.
+     */
+    int idleCount(Route route) {
+        RoutePool routePool = routePools.get(route);
+        return routePool == null ? 0 : routePool.idle.size();
+    }
+
+    @Override
+    public void close() {
+        this.closed = true;
+        routePools.values().forEach(routePool -> {
+            HttpConnection connection;
+            while ((connection = routePool.idle.pollFirst()) != null) {
+                connection.close();
+            }
+        });
+    }
+
+    private void evictExpired(RoutePool routePool, long now) {
+        // The oldest connections are at the end of the deque
+        Iterator<HttpConnection> iterator = routePool.idle.descendingIterator();
+        while (iterator.hasNext()) {
+            HttpConnection connection = iterator.next();
+            if (now - connection.getLastUsed() <= idleTimeoutMillis) {
+                break;
+            }
+            if (routePool.idle.removeLastOccurrence(connection)) {
+                connection.close();
+            }
+        }
+    }
+
+    private static class RoutePool {
+        private final Semaphore permits;
+        private final LinkedBlockingDeque<HttpConnection> idle = new LinkedBlockingDeque<>();
+
+        RoutePool(int maxConnections) {
+            this.permits = new Semaphore(maxConnections, true);
+        }
+    }
+}
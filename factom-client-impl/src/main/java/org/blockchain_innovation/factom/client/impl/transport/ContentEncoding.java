@@ -0,0 +1,139 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl.transport;
+
+import org.blockchain_innovation.factom.client.api.errors.FactomRuntimeException;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * The HTTP content encodings used to compress requests and responses. Bodies are compressed and decompressed as streams, so a response is never
+ * held in memory as a whole.
+ */
+public enum ContentEncoding {
+    NONE("none"), GZIP("gzip"), DEFLATE("deflate");
+
+    private static final int BUFFER_SIZE = 8192;
+    private final String name;
+
+    ContentEncoding(String name) {
+        this.name = name;
+    }
+
+    /**
+     * The name as used in the compression setting and the Accept-Encoding and Content-Encoding headers.
+     *
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the content encoding for a compression setting.
+     *
+     * @param name The name of the compression, like "gzip".
+     * @return The content encoding.
+     */
+    public static ContentEncoding fromName(String name) {
+        for (ContentEncoding contentEncoding : values()) {
+            if (contentEncoding.name.equalsIgnoreCase(name.trim())) {
+                return contentEncoding;
+            }
+        }
+        throw new FactomRuntimeException.AssertionException(String.format("Unsupported compression '%s', use none, gzip or deflate", name));
+    }
+
+    /**
+     * Compresses a request body.
+     *
+     * @param body The uncompressed body.
+     * @return The compressed body.
+     * @throws IOException When compression fails.
+     */
+    public byte[] encode(byte[] body) throws IOException {
+        if (this == NONE) {
+            return body;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (OutputStream compressed = this == GZIP ? new GZIPOutputStream(out, BUFFER_SIZE) : new DeflaterOutputStream(out)) {
+            compressed.write(body);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Wraps a response body, so it is decompressed while it is read.
+     *
+     * @param body            The body as received.
+     * @param contentEncoding The Content-Encoding header of the response, which may be null.
+     * @return The decompressed body.
+     * @throws IOException When the encoding is not supported or the compressed data is invalid.
+     */
+    public static InputStream decode(InputStream body, String contentEncoding) throws IOException {
+        if (contentEncoding == null) {
+            return body;
+        }
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        switch (encoding) {
+            case "":
+            case "identity":
+                return body;
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(body, BUFFER_SIZE);
+            case "deflate":
+                return inflate(body);
+            default:
+                throw new IOException("Unsupported Content-Encoding of response: " + contentEncoding);
+        }
+    }
+
+    /**
+     * HTTP deflate is zlib wrapped, but some servers send raw deflate data. The zlib header tells them apart.
+     */
+    private static InputStream inflate(InputStream body) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(body, BUFFER_SIZE);
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        boolean zlib = first != -1 && second != -1 && (first & 0x0f) == 8 && ((first << 8) | second) % 31 == 0;
+        Inflater inflater = new Inflater(!zlib);
+        return new InflaterInputStream(in, inflater, BUFFER_SIZE) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    // Our own inflater is not ended by the stream, release its native memory right away
+                    inflater.end();
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,400 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl.transport;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A persistent HTTP/1.1 connection to a single route. Not thread safe; a connection is used by one exchange at a time.
+ */
+class HttpConnection implements Closeable {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int MAX_LINE_LENGTH = 8192;
+
+    private final Route route;
+    private final Socket socket;
+    private final InputStream in;
+    private final OutputStream out;
+    private long lastUsed = System.currentTimeMillis();
+    private boolean reused;
+
+    HttpConnection(Route route, Socket socket) throws IOException {
+        this.route = route;
+        this.socket = socket;
+        this.in = new BufferedInputStream(socket.getInputStream(), BUFFER_SIZE);
+        this.out = new BufferedOutputStream(socket.getOutputStream(), BUFFER_SIZE);
+    }
+
+    Route getRoute() {
+        return route;
+    }
+
+    long getLastUsed() {
+        return lastUsed;
+    }
+
+    void setLastUsed(long lastUsed) {
+        this.lastUsed = lastUsed;
+    }
+
+    boolean isReused() {
+        return reused;
+    }
+
+    void markReused() {
+        this.reused = true;
+    }
+
+    /**
+     * Writes a request. When a body is supplied its length is sent as Content-Length.
+     *
+     * @param method  The HTTP method.
+     * @param target  The request target (path or absolute url when talking to a proxy).
+     * @param headers Additional request headers.
+     * @param body    The body or null.
+     * @throws IOException When writing fails.
+     */
+    void writeRequest(String method, String target, Map<String, String> headers, byte[] body) throws IOException {
+        StringBuilder head = new StringBuilder(256);
+        head.append(method).append(' ').append(target).append(" HTTP/1.1\r\n");
+        head.append("Host: ").append(route.authority()).append("\r\n");
+        headers.forEach((name, value) -> head.append(name).append(": ").append(value).append("\r\n"));
+        if (body != null) {
+            head.append("Content-Length: ").append(body.length).append("\r\n");
+        }
+        head.append("\r\n");
+        out.write(head.toString().getBytes(StandardCharsets.ISO_8859_1));
+        if (body != null) {
+            out.write(body);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads the status line and headers of the next response, skipping interim 1xx responses.
+     *
+     * @return The response head.
+     * @throws IOException When reading fails. A {@link NoResponseException} means the server closed the connection without responding.
+     */
+    ResponseHead readResponseHead() throws IOException {
+        ResponseHead head;
+        do {
+            String statusLine = readLine();
+            if (statusLine == null) {
+                throw new NoResponseException("Server " + route + " closed the connection without a response");
+            }
+            head = new ResponseHead(statusLine);
+            String line;
+            while ((line = readLine()) != null && !line.isEmpty()) {
+                head.addHeader(line);
+            }
+        } while (head.getStatusCode() >= 100 && head.getStatusCode() < 200);
+        return head;
+    }
+
+    /**
+     * Creates the body stream of the response, framed by Content-Length, chunked encoding or the end of the connection.
+     *
+     * @param head The response head.
+     * @return The body stream that reports EOF at the end of the message.
+     */
+    InputStream body(ResponseHead head) {
+        int code = head.getStatusCode();
+        if (code == 204 || code == 304) {
+            return new FixedLengthInputStream(in, 0);
+        }
+        String transferEncoding = head.getHeader("transfer-encoding");
+        if (transferEncoding != null && transferEncoding.toLowerCase(Locale.ROOT).contains("chunked")) {
+            return new ChunkedInputStream(in);
+        }
+        String contentLength = head.getHeader("content-length");
+        if (contentLength != null) {
+            return new FixedLengthInputStream(in, Long.parseLong(contentLength.trim()));
+        }
+        head.setKeepAlive(false);
+        return in;
+    }
+
+    /**
+     * Checks whether the server closed this idle connection, by doing a read that should time out immediately.
+     *
+     * @return true when the connection can not be used anymore.
+     */
+    boolean isStale() {
+        if (socket.isClosed() || socket.isInputShutdown() || socket.isOutputShutdown()) {
+            return true;
+        }
+        try {
+            if (in.available() > 0) {
+                // Unexpected bytes on an idle connection, so we are out of sync with the server
+                return true;
+            }
+            int timeout = socket.getSoTimeout();
+            try {
+                socket.setSoTimeout(1);
+                // Either EOF or unexpected data; only a timeout means the connection is still healthy
+                in.read();
+                return true;
+            } finally {
+                socket.setSoTimeout(timeout);
+            }
+        } catch (SocketTimeoutException e) {
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Nothing to do, we are discarding the connection anyway
+        }
+    }
+
+    private String readLine() throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                return stripCR(line);
+            }
+            if (line.size() >= MAX_LINE_LENGTH) {
+                throw new IOException("HTTP header line from " + route + " exceeds " + MAX_LINE_LENGTH + " bytes");
+            }
+            line.write(b);
+        }
+        return line.size() == 0 ? null : stripCR(line);
+    }
+
+    private static String stripCR(ByteArrayOutputStream line) {
+        String value = new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+        return value.endsWith("\r") ? value.substring(0, value.length() - 1) : value;
+    }
+
+
+    /**
+     * Thrown when the server closed the connection before sending a status line. On a reused connection this typically means the server
+     * timed out the idle connection, so the request was not processed.
+     */
+    static class NoResponseException extends EOFException {
+        NoResponseException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Status line and headers of a response.
+     */
+    static class ResponseHead {
+        private final int statusCode;
+        private final String statusMessage;
+        private final Map<String, String> headers = new HashMap<>();
+        private boolean keepAlive;
+
+        ResponseHead(String statusLine) throws IOException {
+            String[] parts = statusLine.split(" ", 3);
+            if (parts.length < 2 || !parts[0].startsWith("HTTP/")) {
+                throw new IOException("Invalid HTTP status line: " + statusLine);
+            }
+            try {
+                this.statusCode = Integer.parseInt(parts[1].trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid HTTP status line: " + statusLine, e);
+            }
+            this.statusMessage = parts.length > 2 ? parts[2] : null;
+            this.keepAlive = "HTTP/1.1".equals(parts[0]);
+        }
+
+        void addHeader(String line) {
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                return;
+            }
+            String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+            headers.merge(name, value, (current, extra) -> current + ", " + extra);
+            if ("connection".equals(name)) {
+                if ("close".equalsIgnoreCase(value)) {
+                    keepAlive = false;
+                } else if ("keep-alive".equalsIgnoreCase(value)) {
+                    keepAlive = true;
+                }
+            }
+        }
+
+        int getStatusCode() {
+            return statusCode;
+        }
+
+        String getStatusMessage() {
+            return statusMessage;
+        }
+
+        String getHeader(String name) {
+            return headers.get(name.toLowerCase(Locale.ROOT));
+        }
+
+        boolean isKeepAlive() {
+            return keepAlive;
+        }
+
+        void setKeepAlive(boolean keepAlive) {
+            this.keepAlive = keepAlive;
+        }
+    }
+
+
+    /**
+     * Body framed by a Content-Length header. Never reads beyond the message, so the connection stays usable.
+     */
+    static class FixedLengthInputStream extends FilterInputStream {
+        private long remaining;
+
+        FixedLengthInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b == -1) {
+                throw new EOFException("Connection closed before the end of the response body");
+            }
+            remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = super.read(b, off, (int) Math.min(len, remaining));
+            if (read == -1) {
+                throw new EOFException("Connection closed before the end of the response body");
+            }
+            remaining -= read;
+            return read;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public void close() {
+            // The underlying connection is managed by the pool
+        }
+    }
+
+
+    /**
+     * Body using chunked transfer encoding.
+     */
+    class ChunkedInputStream extends FilterInputStream {
+        private long chunkRemaining;
+        private boolean chunkStarted;
+        private boolean eof;
+
+        ChunkedInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (eof || !nextChunk()) {
+                return -1;
+            }
+            int read = super.read(b, off, (int) Math.min(len, chunkRemaining));
+            if (read == -1) {
+                throw new EOFException("Connection closed in the middle of a chunk");
+            }
+            chunkRemaining -= read;
+            return read;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return eof ? 0 : (int) Math.min(super.available(), chunkRemaining);
+        }
+
+        @Override
+        public void close() {
+            // The underlying connection is managed by the pool
+        }
+
+        private boolean nextChunk() throws IOException {
+            if (chunkRemaining > 0) {
+                return true;
+            }
+            if (chunkRemaining == 0 && chunkStarted) {
+                // CRLF after the previous chunk data
+                readLine();
+            }
+            String sizeLine = readLine();
+            if (sizeLine == null) {
+                throw new EOFException("Connection closed before the last chunk");
+            }
+            int extension = sizeLine.indexOf(';');
+            String size = (extension >= 0 ? sizeLine.substring(0, extension) : sizeLine).trim();
+            try {
+                chunkRemaining = Long.parseLong(size, 16);
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid chunk size: " + sizeLine, e);
+            }
+            chunkStarted = true;
+            if (chunkRemaining == 0) {
+                // Skip the optional trailers
+                String trailer;
+                while ((trailer = readLine()) != null && !trailer.isEmpty()) {
+                    continue;
+                }
+                eof = true;
+                return false;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl.transport;
+
+import org.blockchain_innovation.factom.client.api.errors.FactomRuntimeException;
+import org.blockchain_innovation.factom.client.api.log.LogFactory;
+import org.blockchain_innovation.factom.client.api.log.Logger;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.api.transport.Transport;
+import org.blockchain_innovation.factom.client.api.transport.TransportRequest;
+import org.blockchain_innovation.factom.client.api.transport.TransportResponse;
+import org.blockchain_innovation.factom.client.impl.settings.RpcSettingsImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+
+/**
+ * Transport using a new {@link HttpURLConnection} per request, which was the behaviour of the client before transports were pluggable.
+ * Whether connections are kept alive is left to the JDK (http.keepAlive system property).
+ */
+public class HttpURLConnectionTransport implements Transport {
+    public static final String NAME = "legacy";
+
+    private static final Logger logger = LogFactory.getLogger(HttpURLConnectionTransport.class);
+
+    private RpcSettings settings;
+
+    @Override
+    public Transport configure(RpcSettings settings) {
+        this.settings = settings;
+        if (!RpcSettingsImpl.ServerImpl.HTTP_1_1.equals(settings.getServer().getHttpVersion())) {
+            logger.warn("The %s transport only supports HTTP/1.1, ignoring http-version %s. Use the httpclient transport for HTTP/2", NAME, settings.getServer().getHttpVersion());
+        }
+        return this;
+    }
+
+    @Override
+    public TransportResponse send(TransportRequest request) throws IOException {
+        if (settings == null) {
+            throw new FactomRuntimeException("Transport has not been configured");
+        }
+        HttpURLConnection connection = createConnection(request);
+        request.setAbortHandler(connection::disconnect);
+        try {
+            connection.connect();
+            request.getMetrics().connected();
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(request.getBody());
+            }
+            // Forces reading the status line, so connection problems surface here
+            connection.getResponseCode();
+            request.getMetrics().responded();
+        } finally {
+            request.setAbortHandler(null);
+        }
+        return new Response(connection);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void close() {
+        // Connections are managed by the JDK
+    }
+
+    protected HttpURLConnection createConnection(TransportRequest request) throws IOException {
+        HttpURLConnection connection;
+        if (settings.getProxy() == null) {
+            connection = (HttpURLConnection) request.getUrl().openConnection();
+        } else {
+            RpcSettings.Proxy proxySettings = settings.getProxy();
+            connection = (HttpURLConnection) request.getUrl().openConnection(new Proxy(Proxy.Type.HTTP, new InetSocketAddress(proxySettings.getHost(), proxySettings.getPort())));
+        }
+        int timeout = Math.max(5000, settings.getServer().getTimeout() * 1000);
+        connection.setConnectTimeout(timeout);
+        connection.setReadTimeout(timeout);
+        connection.setInstanceFollowRedirects(false);
+        connection.setUseCaches(false);
+        connection.setDoOutput(true);
+        connection.setRequestMethod("POST");
+        request.getHeaders().forEach(connection::setRequestProperty);
+        return connection;
+    }
+
+
+    private static class Response implements TransportResponse {
+        private final HttpURLConnection connection;
+        private InputStream body;
+
+        Response(HttpURLConnection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public int getStatusCode() {
+            try {
+                return connection.getResponseCode();
+            } catch (IOException e) {
+                return -1;
+            }
+        }
+
+        @Override
+        public String getStatusMessage() {
+            try {
+                return connection.getResponseMessage();
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return connection.getHeaderField(name);
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                if (getStatusCode() >= 400) {
+                    InputStream errorStream = connection.getErrorStream();
+                    body = errorStream == null ? new ByteArrayInputStream(new byte[0]) : errorStream;
+                } else {
+                    body = connection.getInputStream();
+                }
+            }
+            return body;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Closing (instead of disconnecting) lets the JDK keep the connection alive
+            getBody().close();
+        }
+    }
+}
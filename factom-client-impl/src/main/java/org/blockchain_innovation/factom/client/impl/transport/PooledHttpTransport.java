@@ -0,0 +1,316 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl.transport;
+
+import org.blockchain_innovation.factom.client.api.errors.FactomRuntimeException;
+import org.blockchain_innovation.factom.client.api.log.LogFactory;
+import org.blockchain_innovation.factom.client.api.log.Logger;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.api.transport.Transport;
+import org.blockchain_innovation.factom.client.api.transport.TransportRequest;
+import org.blockchain_innovation.factom.client.api.transport.TransportResponse;
+import org.blockchain_innovation.factom.client.impl.settings.RpcSettingsImpl;
+
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.util.Collections;
+
+/**
+ * Transport that keeps HTTP/1.1 connections to factomd/walletd open between requests, so subsequent requests skip the TCP (and TLS) handshake.
+ * The number of connections, the idle timeout and the validation of idle connections are configured per server.
+ */
+public class PooledHttpTransport implements Transport {
+    public static final String NAME = "pooled";
+
+    private static final Logger logger = LogFactory.getLogger(PooledHttpTransport.class);
+
+    /**
+     * Bytes we are willing to skip of an unread response body to keep the connection reusable.
+     */
+    private static final int MAX_DRAIN = 64 * 1024;
+
+    private ConnectionPool pool;
+    private RpcSettings.Proxy proxy;
+    private int timeout;
+
+    @Override
+    public Transport configure(RpcSettings settings) {
+        RpcSettings.Server server = settings.getServer();
+        this.proxy = settings.getProxy();
+        if (!RpcSettingsImpl.ServerImpl.HTTP_1_1.equals(server.getHttpVersion())) {
+            logger.warn("The %s transport only supports HTTP/1.1, ignoring http-version %s. Use the httpclient transport for HTTP/2", getName(), server.getHttpVersion());
+        }
+        this.timeout = Math.max(5000, server.getTimeout() * 1000);
+        this.pool = new ConnectionPool(server.getMaxConnections(), server.getIdleTimeout() * 1000L,
+                server.getValidateAfterInactivity() * 1000L, this::connect);
+        return this;
+    }
+
+    @Override
+    public TransportResponse send(TransportRequest request) throws IOException {
+        if (pool == null) {
+            throw new FactomRuntimeException("Transport has not been configured");
+        }
+        URL url = request.getUrl();
+        Route route = Route.of(url, proxy);
+        String target = requestTarget(url, route);
+
+        HttpConnection connection = pool.lease(route, timeout);
+        while (true) {
+            boolean written = false;
+            request.getMetrics().connected();
+            try {
+                // Closing the connection is the only way to stop a blocked read when the request is aborted
+                request.setAbortHandler(connection);
+                connection.writeRequest("POST", target, request.getHeaders(), request.getBody());
+                written = true;
+                HttpConnection.ResponseHead head = connection.readResponseHead();
+                request.getMetrics().responded();
+                request.setAbortHandler(null);
+                return new PooledResponse(connection, head);
+            } catch (IOException | RuntimeException e) {
+                request.setAbortHandler(null);
+                pool.release(connection, false);
+                if (request.isAborted() || !connection.isReused()
+                        || written && !(request.isIdempotent() && e instanceof HttpConnection.NoResponseException)) {
+                    throw e;
+                }
+                // The server closed the idle connection before it processed our request. Once written, only requests that merely read are
+                // sent again, since a commit or reveal could have been processed already; the retry policy decides about those.
+                connection = pool.lease(route, timeout);
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    /**
+     * Opens a new connection for the route, tunneling through the proxy for https.
+     *
+     * @param route The route.
+     * @return The connection.
+     * @throws IOException When connecting fails.
+     */
+    HttpConnection connect(Route route) throws IOException {
+        if (route.isUnixSocket()) {
+            return new HttpConnection(route, connectUnixSocket(route.getHost(), timeout));
+        }
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.setKeepAlive(true);
+            socket.setSoTimeout(timeout);
+            if (route.isProxied()) {
+                socket.connect(new InetSocketAddress(route.getProxyHost(), route.getProxyPort()), timeout);
+            } else {
+                socket.connect(new InetSocketAddress(route.getHost(), route.getPort()), timeout);
+            }
+            if (!route.isSecure()) {
+                return new HttpConnection(route, socket);
+            }
+            if (route.isProxied()) {
+                tunnel(route, socket);
+            }
+            SSLSocket sslSocket = (SSLSocket) ((SSLSocketFactory) SSLSocketFactory.getDefault()).createSocket(socket, route.getHost(), route.getPort(), true);
+            SSLParameters parameters = sslSocket.getSSLParameters();
+            parameters.setEndpointIdentificationAlgorithm("HTTPS");
+            sslSocket.setSSLParameters(parameters);
+            sslSocket.startHandshake();
+            return new HttpConnection(route, sslSocket);
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Connects to a Unix domain socket. These need Java 16+, so this transport only connects over TCP and the unix transport
+     * (module transport-unixsocket) overrides this.
+     *
+     * @param path    The path of the socket file.
+     * @param timeout The read timeout in milliseconds.
+     * @return The connected socket.
+     * @throws IOException When connecting fails.
+     */
+    protected Socket connectUnixSocket(String path, int timeout) throws IOException {
+        throw new IOException(String.format("The %s transport can not connect to Unix domain socket %s, use the unix transport", getName(), path));
+    }
+
+    private void tunnel(Route route, Socket socket) throws IOException {
+        HttpConnection proxyConnection = new HttpConnection(route, socket);
+        String authority = route.getHost() + ':' + route.getPort();
+        proxyConnection.writeRequest("CONNECT", authority, Collections.emptyMap(), null);
+        HttpConnection.ResponseHead head = proxyConnection.readResponseHead();
+        if (head.getStatusCode() != 200) {
+            throw new IOException(String.format("Proxy %s:%d refused to tunnel to %s: %d %s", route.getProxyHost(), route.getProxyPort(), authority,
+                    head.getStatusCode(), head.getStatusMessage()));
+        }
+    }
+
+    private static String requestTarget(URL url, Route route) {
+        if (route.isUnixSocket()) {
+            return UnixSockets.requestTarget(url);
+        }
+        if (route.isProxied() && !route.isSecure()) {
+            return url.toExternalForm();
+        }
+        String file = url.getFile();
+        return file == null || file.isEmpty() ? "/" : file;
+    }
+
+
+    /**
+     * A response backed by a pooled connection. The connection is handed back to the pool once the body has been read or the response is closed.
+     */
+    private class PooledResponse implements TransportResponse {
+        private final HttpConnection connection;
+        private final HttpConnection.ResponseHead head;
+        private final InputStream body;
+        private boolean released;
+
+        PooledResponse(HttpConnection connection, HttpConnection.ResponseHead head) {
+            this.connection = connection;
+            this.head = head;
+            this.body = new ReleasingInputStream(connection.body(head));
+        }
+
+        @Override
+        public int getStatusCode() {
+            return head.getStatusCode();
+        }
+
+        @Override
+        public String getStatusMessage() {
+            return head.getStatusMessage();
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return head.getHeader(name);
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (released) {
+                return;
+            }
+            boolean reusable = head.isKeepAlive() && drain();
+            release(reusable);
+        }
+
+        private boolean drain() {
+            try {
+                byte[] buffer = new byte[1024];
+                long drained = 0;
+                int read;
+                while ((read = body.read(buffer)) != -1) {
+                    drained += read;
+                    if (drained > MAX_DRAIN) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        }
+
+        private void release(boolean reusable) {
+            if (!released) {
+                released = true;
+                pool.release(connection, reusable);
+            }
+        }
+
+
+        /**
+         * Releases the connection as soon as the end of the body has been reached, so callers that do not close the response do not leak connections.
+         */
+        private class ReleasingInputStream extends FilterInputStream {
+
+            ReleasingInputStream(InputStream in) {
+                super(in);
+            }
+
+            @Override
+            public int read() throws IOException {
+                if (released) {
+                    return -1;
+                }
+                try {
+                    int b = super.read();
+                    if (b == -1) {
+                        release(head.isKeepAlive());
+                    }
+                    return b;
+                } catch (IOException e) {
+                    release(false);
+                    throw e;
+                }
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (released) {
+                    return -1;
+                }
+                try {
+                    int read = super.read(b, off, len);
+                    if (read == -1) {
+                        release(head.isKeepAlive());
+                    }
+                    return read;
+                } catch (IOException e) {
+                    release(false);
+                    throw e;
+                }
+            }
+
+            @Override
+            public int available() throws IOException {
+                return released ? 0 : super.available();
+            }
+
+            @Override
+            public void close() {
+                PooledResponse.this.close();
+            }
+        }
+    }
+}
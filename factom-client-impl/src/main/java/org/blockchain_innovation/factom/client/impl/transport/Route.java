@@ -0,0 +1,119 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl.transport;
+
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+
+import java.net.URL;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * The target of pooled connections: scheme, host and port of the server, plus the optional proxy in between. For Unix domain sockets the host is
+ * the path of the socket file.
+ */
+final class Route {
+    private final String scheme;
+    private final String host;
+    private final int port;
+    private final String proxyHost;
+    private final int proxyPort;
+
+    private Route(String scheme, String host, int port, String proxyHost, int proxyPort) {
+        this.scheme = scheme;
+        this.host = host;
+        this.port = port;
+        this.proxyHost = proxyHost;
+        this.proxyPort = proxyPort;
+    }
+
+    static Route of(URL url, RpcSettings.Proxy proxy) {
+        if (UnixSockets.isUnixSocket(url)) {
+            return new Route(UnixSockets.SCHEME, url.getPath(), -1, null, -1);
+        }
+        String scheme = url.getProtocol().toLowerCase(Locale.ROOT);
+        int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+        return new Route(scheme, url.getHost(), port, proxy == null ? null : proxy.getHost(), proxy == null ? -1 : proxy.getPort());
+    }
+
+    String getHost() {
+        return host;
+    }
+
+    int getPort() {
+        return port;
+    }
+
+    boolean isSecure() {
+        return "https".equals(scheme);
+    }
+
+    boolean isUnixSocket() {
+        return UnixSockets.SCHEME.equals(scheme);
+    }
+
+    boolean isProxied() {
+        return proxyHost != null;
+    }
+
+    String getProxyHost() {
+        return proxyHost;
+    }
+
+    int getProxyPort() {
+        return proxyPort;
+    }
+
+    /**
+     * The value of the Host header, which leaves out default ports.
+     *
+     * @return host[:port]
+     */
+    String authority() {
+        if (isUnixSocket()) {
+            return "localhost";
+        }
+        boolean defaultPort = isSecure() ? port == 443 : port == 80;
+        return defaultPort ? host : host + ':' + port;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Route route = (Route) o;
+        return port == route.port && proxyPort == route.proxyPort && scheme.equals(route.scheme) && host.equalsIgnoreCase(route.host)
+                && Objects.equals(proxyHost, route.proxyHost);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(scheme, host.toLowerCase(Locale.ROOT), port, proxyHost, proxyPort);
+    }
+
+    @Override
+    public String toString() {
+        if (isUnixSocket()) {
+            return scheme + "://" + host;
+        }
+        return scheme + "://" + authority() + (isProxied() ? " via " + proxyHost + ':' + proxyPort : "");
+    }
+}
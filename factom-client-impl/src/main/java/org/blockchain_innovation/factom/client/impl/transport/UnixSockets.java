@@ -0,0 +1,107 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.blockchain_innovation.factom.client.impl.transport;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.util.Locale;
+
+/**
+ * Support for server URLs pointing to a Unix domain socket, like unix:///var/run/factomd.sock. The path of the URL is the socket file.
+ * The HTTP requests go to /v2, unless another path is given as query, like unix:///var/run/walletd.sock?path=/v2.
+ * <p>
+ * The JDK has no URL handler for the unix scheme, so these URLs are created with a handler that can not open connections itself. Only the unix
+ * transport (module transport-unixsocket, Java 16+) sends requests to them.
+ * </p>
+ */
+public final class UnixSockets {
+    public static final String SCHEME = "unix";
+    private static final String DEFAULT_PATH = "/v2";
+    private static final URLStreamHandler HANDLER = new Handler();
+
+    private UnixSockets() {
+    }
+
+    /**
+     * Creates the URL of a server, supporting the unix scheme next to the schemes of the JDK.
+     *
+     * @param spec The URL.
+     * @return The URL.
+     * @throws MalformedURLException When the URL is invalid.
+     */
+    public static URL toURL(String spec) throws MalformedURLException {
+        if (spec != null && spec.trim().toLowerCase(Locale.ROOT).startsWith(SCHEME + ':')) {
+            URL url = new URL(null, spec.trim(), HANDLER);
+            if (url.getPath() == null || url.getPath().isEmpty()) {
+                throw new MalformedURLException("No socket file in " + spec);
+            }
+            return url;
+        }
+        return new URL(spec);
+    }
+
+    /**
+     * Checks whether the URL points to a Unix domain socket.
+     *
+     * @param url The URL.
+     * @return true for unix URLs.
+     */
+    public static boolean isUnixSocket(URL url) {
+        return url != null && SCHEME.equalsIgnoreCase(url.getProtocol());
+    }
+
+    /**
+     * Gets the HTTP path to send requests to over the socket.
+     *
+     * @param url The unix URL.
+     * @return The path, /v2 by default.
+     */
+    public static String requestTarget(URL url) {
+        String query = url.getQuery();
+        if (query != null) {
+            for (String param : query.split("&")) {
+                if (param.startsWith("path=") && param.length() > "path=".length()) {
+                    return param.substring("path=".length());
+                }
+            }
+        }
+        return DEFAULT_PATH;
+    }
+
+
+    private static class Handler extends URLStreamHandler {
+        @Override
+        protected URLConnection openConnection(URL url) throws IOException {
+            throw new IOException("Unix domain socket " + url.getPath() + " can only be reached using the unix transport");
+        }
+
+        @Override
+        protected int hashCode(URL url) {
+            // The default resolves the host, which unix URLs do not have
+            return url.toExternalForm().hashCode();
+        }
+
+        @Override
+        protected boolean equals(URL url1, URL url2) {
+            return url1.toExternalForm().equals(url2.toExternalForm());
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.EntryResponse;
+import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
+import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class BatchExchangeTest {
+
+    private static final List<String> HASHES = Arrays.asList("hash1", "hash2", "hash3");
+    private static final String NOT_SUPPORTED = "{\"jsonrpc\":\"2.0\",\"id\":null,\"error\":{\"code\":-32700,\"message\":\"Parse error\"}}";
+
+    private StubRpcServer server;
+    private FactomdClientImpl client;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new StubRpcServer().respond(BatchExchangeTest::entries);
+        client = new FactomdClientImpl();
+        client.setSettings(server.settings(RpcSettings.SubSystem.FACTOMD));
+    }
+
+    @After
+    public void stopServer() {
+        client.getTransport().close();
+        server.close();
+    }
+
+    @Test
+    public void demultiplexesBatchResponse() {
+        List<CompletableFuture<FactomResponse<EntryResponse>>> responses = client.entries(HASHES);
+
+        Assert.assertEquals(3, responses.size());
+        for (int i = 0; i < HASHES.size(); i++) {
+            Assert.assertEquals("content of " + HASHES.get(i), responses.get(i).join().getResult().getContent());
+        }
+        Assert.assertEquals(1, server.getRequests().size());
+        Assert.assertTrue(client.isBatchSupported());
+    }
+
+    @Test
+    public void leavesRequestIdsUnchanged() {
+        List<RpcRequest> requests = Arrays.asList(
+                new RpcRequest.Builder(RpcMethod.ENTRY).id(7).param("hash", "hash1").build(),
+                new RpcRequest.Builder(RpcMethod.ENTRY).id(7).param("hash", "hash2").build());
+        List<CompletableFuture<FactomResponse<EntryResponse>>> responses = client.exchangeBatch(requests, EntryResponse.class);
+
+        Assert.assertEquals("content of hash2", responses.get(1).join().getResult().getContent());
+        Assert.assertEquals(7, requests.get(0).getId());
+        Assert.assertEquals(7, requests.get(1).getId());
+    }
+
+    @Test
+    public void splitsLargeBatches() {
+        client.setMaxBatchSize(2);
+        List<CompletableFuture<FactomResponse<EntryResponse>>> responses = client.entries(Arrays.asList("a", "b", "c", "d", "e"));
+
+        Assert.assertEquals("content of e", responses.get(4).join().getResult().getContent());
+        Assert.assertEquals(3, server.getRequests().size());
+    }
+
+    @Test
+    public void rpcErrorsArePerRequest() {
+        server.respond(request -> {
+            JsonArray responses = new JsonArray();
+            for (JsonElement element : new JsonParser().parse(request).getAsJsonArray()) {
+                int id = element.getAsJsonObject().get("id").getAsInt();
+                responses.add(new JsonParser().parse(id == 2
+                        ? "{\"jsonrpc\":\"2.0\",\"id\":2,\"error\":{\"code\":-32009,\"message\":\"Missing Chain Head\"}}"
+                        : entry(element.getAsJsonObject()).toString()));
+            }
+            return responses.toString();
+        });
+        List<CompletableFuture<FactomResponse<EntryResponse>>> responses = client.entries(HASHES);
+
+        Assert.assertFalse(responses.get(0).join().hasErrors());
+        Assert.assertTrue(responses.get(1).join().hasErrors());
+        Assert.assertEquals(-32009, responses.get(1).join().getRpcErrorResponse().getError().getCode());
+        Assert.assertFalse(responses.get(2).join().hasErrors());
+    }
+
+    @Test
+    public void missingResponseCompletesExceptionally() {
+        server.respond(request -> {
+            JsonArray responses = new JsonArray();
+            responses.add(entry(new JsonParser().parse(request).getAsJsonArray().get(0).getAsJsonObject()));
+            return responses.toString();
+        });
+        List<CompletableFuture<FactomResponse<EntryResponse>>> responses = client.entries(HASHES);
+
+        Assert.assertEquals("content of hash1", responses.get(0).join().getResult().getContent());
+        try {
+            responses.get(1).join();
+            Assert.fail("Expected an exception for the missing response");
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getMessage().contains("did not return a response"));
+        }
+    }
+
+    @Test
+    public void fallsBackWhenBatchesAreNotSupported() {
+        server.setRejectBatches(true).respond(request -> entry(new JsonParser().parse(request).getAsJsonObject()).toString());
+        List<CompletableFuture<FactomResponse<EntryResponse>>> responses = client.entries(HASHES);
+
+        for (int i = 0; i < HASHES.size(); i++) {
+            Assert.assertEquals("content of " + HASHES.get(i), responses.get(i).join().getResult().getContent());
+        }
+        Assert.assertFalse(client.isBatchSupported());
+        Assert.assertEquals(4, server.getRequests().size());
+
+        // No batch attempt anymore
+        client.entries(HASHES).forEach(CompletableFuture::join);
+        Assert.assertEquals(7, server.getRequests().size());
+    }
+
+    @Test
+    public void fallsBackOnSuccessfulErrorObject() {
+        server.respond(request -> {
+            JsonElement json = new JsonParser().parse(request);
+            return json.isJsonArray() ? NOT_SUPPORTED : entry(json.getAsJsonObject()).toString();
+        });
+        List<CompletableFuture<FactomResponse<EntryResponse>>> responses = client.entries(HASHES);
+
+        Assert.assertEquals("content of hash3", responses.get(2).join().getResult().getContent());
+        Assert.assertFalse(client.isBatchSupported());
+    }
+
+    @Test
+    public void httpErrorFailsTheBatch() {
+        server.setStatusCode(401).respond("Unauthorized");
+        List<CompletableFuture<FactomResponse<EntryResponse>>> responses = client.entries(HASHES);
+
+        for (CompletableFuture<FactomResponse<EntryResponse>> response : responses) {
+            try {
+                response.join();
+                Assert.fail("Expected an exception for the HTTP error");
+            } catch (CompletionException e) {
+                Assert.assertTrue(e.getMessage().contains("401"));
+            }
+        }
+        // Not mistaken for missing batch support, so nothing was resent individually
+        Assert.assertTrue(client.isBatchSupported());
+        Assert.assertEquals(1, server.getRequests().size());
+    }
+
+    @Test
+    public void triesBatchesAgainAfterReset() {
+        server.respond(request -> {
+            JsonElement json = new JsonParser().parse(request);
+            return json.isJsonArray() ? entries(request) : entry(json.getAsJsonObject()).toString();
+        });
+        client.setBatchSupported(false);
+        client.entries(HASHES).forEach(CompletableFuture::join);
+        Assert.assertEquals(3, server.getRequests().size());
+
+        client.setBatchSupported(true);
+        client.entries(Arrays.asList("a", "b", "c")).forEach(CompletableFuture::join);
+        Assert.assertEquals(4, server.getRequests().size());
+    }
+
+    private static String entries(String request) {
+        JsonArray responses = new JsonArray();
+        JsonArray requests = new JsonParser().parse(request).getAsJsonArray();
+        // Answer in reverse order, as the JSON-RPC spec allows
+        for (int i = requests.size() - 1; i >= 0; i--) {
+            responses.add(entry(requests.get(i).getAsJsonObject()));
+        }
+        return responses.toString();
+    }
+
+    private static JsonObject entry(JsonObject request) {
+        JsonObject result = new JsonObject();
+        result.addProperty("chainid", "chain");
+        result.addProperty("content", "content of " + request.getAsJsonObject("params").get("hash").getAsString());
+        result.add("extids", new JsonArray());
+        JsonObject response = new JsonObject();
+        response.addProperty("jsonrpc", "2.0");
+        response.add("id", request.get("id"));
+        response.add("result", result);
+        return response;
+    }
+}
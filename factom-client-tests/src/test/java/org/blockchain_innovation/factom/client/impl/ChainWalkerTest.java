@@ -0,0 +1,277 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.errors.FactomException;
+import org.blockchain_innovation.factom.client.api.model.response.EntriesSinceResponse;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.EntryBlockResponse;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.EntryResponse;
+import org.blockchain_innovation.factom.client.api.ops.Encoding;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class ChainWalkerTest {
+
+    private static final int BLOCKS = 10;
+    private static final Pattern KEYMR = Pattern.compile("\"keymr\"\\s*:\\s*\"k(\\d+)\"");
+    private static final Pattern ENTRY_REQUEST = Pattern.compile("\"id\"\\s*:\\s*(\\d+)[^}]*?\"hash\"\\s*:\\s*\"(\\w+)\"|\"hash\"\\s*:\\s*\"(\\w+)\"[^{]*?\"id\"\\s*:\\s*(\\d+)");
+
+    private StubRpcServer server;
+    private FactomdClientImpl client;
+    private EntryApiImpl entryApi;
+    private volatile int failingBlock = -1;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new StubRpcServer();
+        server.respond(this::respond);
+        Properties properties = new Properties();
+        properties.setProperty("factomd.health-check-interval", "0");
+        properties.setProperty("factomd.max-retries", "0");
+        client = new FactomdClientImpl();
+        client.setSettings(server.settings(RpcSettings.SubSystem.FACTOMD, properties));
+        entryApi = new EntryApiImpl();
+        entryApi.setFactomdClient(client);
+    }
+
+    @After
+    public void stopServer() {
+        client.getTransport().close();
+        server.close();
+    }
+
+    @Test
+    public void returnsEntriesNewestBlockFirst() {
+        List<String> contents = entryApi.entriesUpTilKeyMR("k" + BLOCKS).join().stream().map(EntryResponse::getContent).collect(Collectors.toList());
+        Assert.assertEquals(expected(false), contents);
+    }
+
+    @Test
+    public void retrievesEntriesWhileWalking() {
+        entryApi.setEntryPrefetchDepth(4).setEntryConcurrency(2).entriesUpTilKeyMR("k" + BLOCKS).join();
+
+        List<String> requests = server.getRequests();
+        int firstEntries = -1;
+        int lastBlock = -1;
+        for (int i = 0; i < requests.size(); i++) {
+            if (requests.get(i).contains("entry-block")) {
+                lastBlock = i;
+            } else if (firstEntries < 0) {
+                firstEntries = i;
+            }
+        }
+        Assert.assertEquals(BLOCKS * 2, requests.size());
+        Assert.assertTrue("Entries were only requested after walking the chain", firstEntries < lastBlock);
+    }
+
+    @Test
+    public void prefetchDepthOfOneDoesNotWalkAhead() {
+        entryApi.setEntryPrefetchDepth(1).entriesUpTilKeyMR("k" + BLOCKS).join();
+
+        List<String> requests = server.getRequests();
+        for (int i = 0; i < requests.size(); i++) {
+            Assert.assertEquals(i % 2 == 0, requests.get(i).contains("entry-block"));
+        }
+    }
+
+    @Test
+    public void walksChainWhenBatchesAreRejected() {
+        server.setRejectBatches(true);
+
+        Assert.assertEquals(expected(false), contents(entryApi.entriesUpTilKeyMR("k" + BLOCKS).join()));
+        Assert.assertEquals(expected(false), contents(entryApi.allEntries("cafe").join()));
+        Assert.assertFalse(client.isBatchSupported());
+    }
+
+    @Test
+    public void failsWhenBlockIsMissing() {
+        failingBlock = 5;
+        try {
+            entryApi.entriesUpTilKeyMR("k" + BLOCKS).join();
+            Assert.fail("Walked a chain with a missing block");
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof FactomException.RpcErrorException);
+        }
+    }
+
+    @Test
+    public void streamsEntriesNewestBlockFirst() {
+        try (Stream<EntryResponse> entries = entryApi.streamAllEntries("cafe")) {
+            Assert.assertEquals(expected(false), entries.map(EntryResponse::getContent).collect(Collectors.toList()));
+        }
+        try (Stream<EntryBlockResponse> blocks = entryApi.streamAllEntryBlocks("cafe")) {
+            Assert.assertEquals(BLOCKS, blocks.count());
+        }
+        try (Stream<EntryBlockResponse.Entry> blockEntries = entryApi.streamAllEntryBlocksEntries("cafe")) {
+            Assert.assertEquals(expected(false), blockEntries.map(EntryBlockResponse.Entry::getEntryHash).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void streamsEntriesOldestBlockFirst() {
+        try (Stream<EntryResponse> entries = entryApi.streamAllEntries("cafe", Encoding.HEX, true)) {
+            Assert.assertEquals(expected(true), entries.map(EntryResponse::getContent).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void streamsAndReadsSinceWhenBatchesAreRejected() {
+        server.setRejectBatches(true);
+
+        try (Stream<EntryResponse> entries = entryApi.streamAllEntries("cafe")) {
+            Assert.assertEquals(expected(false), contents(entries.collect(Collectors.toList())));
+        }
+        // Every read runs into the rejected batch itself
+        client.setBatchSupported(true);
+        try (Stream<EntryResponse> entries = entryApi.latestEntries("cafe", 3)) {
+            Assert.assertEquals(Arrays.asList("e10b", "e10a", "e9b"), contents(entries.collect(Collectors.toList())));
+        }
+        client.setBatchSupported(true);
+        Assert.assertEquals(expected(true).subList(14, 20), contents(entryApi.entriesSince("cafe", "k7").join().getEntries()));
+    }
+
+    @Test
+    public void streamRetrievesLazilyAndBounded() {
+        Stream<EntryResponse> entries = entryApi.setEntryPrefetchDepth(2).streamAllEntries("cafe");
+        Assert.assertTrue(server.getRequests().isEmpty());
+
+        Iterator<EntryResponse> iterator = entries.iterator();
+        Assert.assertEquals("e10a", iterator.next().getContent());
+        Assert.assertEquals("e10b", iterator.next().getContent());
+        entries.close();
+        Assert.assertFalse(iterator.hasNext());
+        // The chain head, and at most the blocks in the prefetch window plus the one consumed
+        Assert.assertTrue(server.getRequests().size() <= 1 + 3 * 2);
+    }
+
+    @Test
+    public void streamThrowsWhenBlockIsMissing() {
+        failingBlock = 5;
+        try (Stream<EntryResponse> entries = entryApi.streamAllEntries("cafe")) {
+            entries.forEach(entry -> Assert.assertFalse(entry.getContent().startsWith("e5")));
+            Assert.fail("Streamed a chain with a missing block");
+        } catch (FactomException.RpcErrorException expected) {
+            Assert.assertTrue(expected.getMessage().contains("k5"));
+        }
+    }
+
+    @Test
+    public void readsEntriesSinceCheckpoint() {
+        EntriesSinceResponse all = entryApi.entriesSince("cafe", null).join();
+        Assert.assertEquals(expected(true), contents(all.getEntries()));
+        Assert.assertEquals("k" + BLOCKS, all.getCheckpoint());
+
+        server.getRequests().clear();
+        EntriesSinceResponse since = entryApi.entriesSince("cafe", "k7").join();
+        Assert.assertEquals(expected(true).subList(14, 20), contents(since.getEntries()));
+        Assert.assertEquals("k" + BLOCKS, since.getCheckpoint());
+        Assert.assertFalse(server.getRequests().stream().anyMatch(request -> request.contains("\"k7\"")));
+
+        EntriesSinceResponse partial = entryApi.entriesSince("cafe", "k7/e7a").join();
+        Assert.assertEquals(expected(true).subList(13, 20), contents(partial.getEntries()));
+    }
+
+    @Test
+    public void noNewBlocksTakesSingleRequest() {
+        EntriesSinceResponse since = entryApi.entriesSince("cafe", "k" + BLOCKS).join();
+
+        Assert.assertTrue(since.getEntries().isEmpty());
+        Assert.assertEquals("k" + BLOCKS, since.getCheckpoint());
+        Assert.assertEquals(1, server.getRequests().size());
+    }
+
+    @Test
+    public void unknownCheckpointFails() {
+        try {
+            entryApi.entriesSince("cafe", "k99").join();
+            Assert.fail("Read entries since a checkpoint of another chain");
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof FactomException.ClientException);
+        }
+    }
+
+    @Test
+    public void readsOnlyLatestEntries() {
+        try (Stream<EntryResponse> entries = entryApi.latestEntries("cafe", 3)) {
+            Assert.assertEquals(Arrays.asList("e10b", "e10a", "e9b"), contents(entries.collect(Collectors.toList())));
+        }
+        Assert.assertFalse(server.getRequests().stream().anyMatch(request -> request.contains("\"k8\"") || request.contains("e9a")));
+
+        try (Stream<EntryBlockResponse> blocks = entryApi.latestEntryBlocks("cafe", 2)) {
+            Assert.assertEquals(Arrays.asList(9L, 8L), blocks.map(block -> block.getHeader().getBlockSequenceNumber()).collect(Collectors.toList()));
+        }
+        Assert.assertFalse(server.getRequests().stream().anyMatch(request -> request.contains("\"k8\"")));
+
+        server.getRequests().clear();
+        Assert.assertEquals(0, entryApi.latestEntries("cafe", 0).count());
+        Assert.assertEquals(BLOCKS * 2, entryApi.latestEntries("cafe", 100).count());
+    }
+
+    private static List<String> contents(List<EntryResponse> entries) {
+        return entries.stream().map(EntryResponse::getContent).collect(Collectors.toList());
+    }
+
+    private static List<String> expected(boolean oldestFirst) {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < BLOCKS; i++) {
+            int block = oldestFirst ? i + 1 : BLOCKS - i;
+            expected.add("e" + block + "a");
+            expected.add("e" + block + "b");
+        }
+        return expected;
+    }
+
+    private String respond(String request) {
+        if (request.contains("chain-head")) {
+            return "{\"jsonrpc\":\"2.0\",\"id\":0,\"result\":{\"chainhead\":\"k" + BLOCKS + "\",\"chaininprocesslist\":false}}";
+        }
+        Matcher keyMR = KEYMR.matcher(request);
+        if (request.contains("entry-block") && keyMR.find()) {
+            int block = Integer.parseInt(keyMR.group(1));
+            if (block == failingBlock) {
+                return "{\"jsonrpc\":\"2.0\",\"id\":0,\"error\":{\"code\":-32008,\"message\":\"Block not found\"}}";
+            }
+            String previous = block == 1 ? EntryApiImpl.NO_PREVIOUS_KEY_MERKLE_ROOT : "k" + (block - 1);
+            return String.format("{\"jsonrpc\":\"2.0\",\"id\":0,\"result\":{\"header\":{\"blocksequencenumber\":%d,\"chainid\":\"cafe\",\"prevkeymr\":\"%s\"},"
+                    + "\"entrylist\":[{\"entryhash\":\"e%da\"},{\"entryhash\":\"e%db\"}]}}", block - 1, previous, block, block);
+        }
+        List<String> responses = new ArrayList<>();
+        Matcher entries = ENTRY_REQUEST.matcher(request);
+        while (entries.find()) {
+            String id = entries.group(1) != null ? entries.group(1) : entries.group(4);
+            String hash = entries.group(2) != null ? entries.group(2) : entries.group(3);
+            responses.add(String.format("{\"jsonrpc\":\"2.0\",\"id\":%s,\"result\":{\"chainid\":\"cafe\",\"content\":\"%s\",\"extids\":[]}}", id, hash));
+        }
+        return request.trim().startsWith("[") ? "[" + String.join(",", responses) + "]" : responses.get(0);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.errors.FactomRuntimeException;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.HeightsResponse;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.impl.transport.HttpURLConnectionTransport;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Properties;
+
+public class CompressionTest {
+
+    private static final String HEIGHTS = "{\"jsonrpc\":\"2.0\",\"id\":0,\"result\":{\"directoryblockheight\":1000,\"leaderheight\":1001,\"entryblockheight\":1000,\"entryheight\":999}}";
+    private static final String REVEAL = "{\"jsonrpc\":\"2.0\",\"id\":0,\"result\":{\"message\":\"Entry Reveal Success\",\"entryhash\":\"abcd\",\"chainid\":\"1234\"}}";
+
+    private StubRpcServer server;
+    private FactomdClientImpl client;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new StubRpcServer().respond(HEIGHTS);
+        client = new FactomdClientImpl();
+        client.setSettings(server.settings(RpcSettings.SubSystem.FACTOMD));
+    }
+
+    @After
+    public void stopServer() {
+        client.getTransport().close();
+        server.close();
+    }
+
+    @Test
+    public void compressionIsOffByDefault() {
+        assertHeights(client.heights().join());
+        Assert.assertNull(server.getRequestHeaders().get(0).getFirst("Accept-Encoding"));
+        Assert.assertEquals("none", client.getSettings().getServer().getCompression());
+    }
+
+    @Test
+    public void decompressesGzipResponses() {
+        client.setSettings(settings("gzip", null));
+        server.setContentEncoding("gzip");
+        for (int i = 0; i < 3; i++) {
+            assertHeights(client.heights().join());
+        }
+        Assert.assertEquals("gzip", server.getRequestHeaders().get(0).getFirst("Accept-Encoding"));
+        // The pooled connection is still reused after reading compressed bodies
+        Assert.assertEquals(1, new HashSet<>(server.getRemotePorts()).size());
+    }
+
+    @Test
+    public void decompressesDeflateResponses() {
+        client.setSettings(settings("deflate", null));
+        server.setContentEncoding("deflate");
+        assertHeights(client.heights().join());
+        Assert.assertEquals("deflate", server.getRequestHeaders().get(0).getFirst("Accept-Encoding"));
+    }
+
+    @Test
+    public void decompressesWithLegacyTransport() {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.compression", "gzip");
+        properties.setProperty("factomd.transport", HttpURLConnectionTransport.NAME);
+        client.setSettings(server.settings(RpcSettings.SubSystem.FACTOMD, properties));
+        server.setContentEncoding("gzip");
+        assertHeights(client.heights().join());
+    }
+
+    @Test
+    public void compressesLargeRequests() {
+        client.setSettings(settings("gzip", "1024"));
+        server.respond(REVEAL);
+        char[] entry = new char[20 * 1024];
+        Arrays.fill(entry, 'a');
+        Assert.assertFalse(client.revealEntry(new String(entry)).join().hasErrors());
+        client.heights().join();
+
+        Assert.assertEquals("gzip", server.getRequestHeaders().get(0).getFirst("Content-Encoding"));
+        Assert.assertTrue(server.getRequests().get(0).contains(new String(entry)));
+        // Small requests are sent as is
+        Assert.assertNull(server.getRequestHeaders().get(1).getFirst("Content-Encoding"));
+    }
+
+    @Test
+    public void requestsAreNotCompressedByDefault() {
+        client.setSettings(settings("gzip", null));
+        server.respond(REVEAL);
+        char[] entry = new char[20 * 1024];
+        Arrays.fill(entry, 'a');
+        client.revealEntry(new String(entry)).join();
+        Assert.assertNull(server.getRequestHeaders().get(0).getFirst("Content-Encoding"));
+    }
+
+    @Test(expected = FactomRuntimeException.class)
+    public void unsupportedCompression() {
+        settings("brotli", null);
+    }
+
+    private RpcSettings settings(String compression, String requestCompressionThreshold) {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.compression", compression);
+        if (requestCompressionThreshold != null) {
+            properties.setProperty("factomd.request-compression-threshold", requestCompressionThreshold);
+        }
+        return server.settings(RpcSettings.SubSystem.FACTOMD, properties);
+    }
+
+    private static void assertHeights(FactomResponse<HeightsResponse> response) {
+        Assert.assertFalse(response.hasErrors());
+        Assert.assertEquals(1001, response.getResult().getLeaderHeight());
+    }
+}
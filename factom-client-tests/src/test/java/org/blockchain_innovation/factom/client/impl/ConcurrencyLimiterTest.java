@@ -0,0 +1,184 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.errors.FactomException;
+import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
+import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.impl.routing.ConcurrencyLimiter;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class ConcurrencyLimiterTest {
+
+    private StubRpcServer server;
+    private FactomdClientImpl client;
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+    @Before
+    public void startServer() throws IOException {
+        server = new StubRpcServer().respond(request -> {
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(200);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+            return "{\"jsonrpc\":\"2.0\",\"id\":0,\"result\":{}}";
+        });
+        client = new FactomdClientImpl();
+        client.setSettings(server.settings(RpcSettings.SubSystem.FACTOMD));
+    }
+
+    @After
+    public void stopServer() {
+        client.getTransport().close();
+        server.close();
+    }
+
+    @Test
+    public void queuesRequestsBeyondLimit() {
+        client.setSettings(settings("2", "10"));
+        List<CompletableFuture<FactomResponse<Object>>> responses = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            responses.add(client.exchange(new RpcRequest(RpcMethod.COMMIT_ENTRY), Object.class));
+        }
+        responses.forEach(response -> Assert.assertEquals(200, response.join().getHTTPResponseCode()));
+
+        Assert.assertEquals(6, server.getRequests().size());
+        Assert.assertTrue("Concurrent requests: " + maxConcurrent.get(), maxConcurrent.get() <= 3);
+    }
+
+    @Test
+    public void failsFastWhenQueueIsFull() {
+        client.setSettings(settings("2", "0"));
+        List<CompletableFuture<FactomResponse<Object>>> responses = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            responses.add(client.exchange(new RpcRequest(RpcMethod.COMMIT_ENTRY), Object.class, false));
+        }
+
+        Assert.assertNull(responses.get(2).join());
+        Assert.assertNotNull(responses.get(0).join());
+        Assert.assertNotNull(responses.get(1).join());
+        Assert.assertEquals(2, server.getRequests().size());
+    }
+
+    @Test
+    public void localRejectionKeepsLimit() {
+        client.setSettings(settings("10", "10"));
+        ExecutorService rejecting = Executors.newSingleThreadExecutor();
+        rejecting.shutdown();
+        client.setExecutorService(rejecting);
+
+        Assert.assertNull(client.exchange(new RpcRequest(RpcMethod.COMMIT_ENTRY), Object.class, false).join());
+        ConcurrencyLimiter limiter = client.getEndpointGroup().getConcurrencyLimiter();
+        Assert.assertEquals(10, limiter.getLimit());
+        Assert.assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void permitsInOrder() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 1, 1, 10, 5000);
+        ConcurrencyLimiter.Permit first = limiter.acquire().join();
+        CompletableFuture<ConcurrencyLimiter.Permit> second = limiter.acquire();
+        CompletableFuture<ConcurrencyLimiter.Permit> third = limiter.acquire();
+
+        Assert.assertFalse(second.isDone());
+        Assert.assertEquals(2, limiter.getQueueSize());
+        first.release();
+        Assert.assertTrue(second.isDone());
+        Assert.assertFalse(third.isDone());
+        // Releasing twice has no effect
+        first.release();
+        Assert.assertFalse(third.isDone());
+        second.join().complete(false);
+        Assert.assertTrue(third.isDone());
+        Assert.assertEquals(1, limiter.getInFlight());
+    }
+
+    @Test
+    public void failsAfterMaxWait() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 1, 1, 10, 50);
+        limiter.acquire().join();
+        CompletableFuture<ConcurrencyLimiter.Permit> waiting = limiter.acquire();
+        try {
+            waiting.get(2, TimeUnit.SECONDS);
+            Assert.fail("Expected a concurrency limit exception");
+        } catch (Exception e) {
+            Assert.assertTrue(e.getCause() instanceof FactomException.ConcurrencyLimitException);
+        }
+        Assert.assertEquals(0, limiter.getQueueSize());
+    }
+
+    @Test
+    public void adaptsLimit() {
+        AtomicLong now = new AtomicLong();
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter("test", 10, 20, 0, 100, now::get);
+        List<ConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            permits.add(limiter.acquire().join());
+        }
+        try {
+            limiter.acquire().join();
+            Assert.fail("Expected the limit to be reached");
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause() instanceof FactomException.ConcurrencyLimitException);
+        }
+
+        // Successes while the limit is in use increase it
+        now.set(TimeUnit.MILLISECONDS.toNanos(10));
+        permits.get(0).complete(false);
+        permits.get(1).complete(false);
+        Assert.assertEquals(12, limiter.getLimit());
+
+        // Failures decrease it
+        permits.get(2).complete(true);
+        Assert.assertEquals(10, limiter.getLimit());
+
+        // So do round trips of more than twice the baseline of 10 ms
+        now.set(TimeUnit.MILLISECONDS.toNanos(100));
+        permits.get(3).complete(false);
+        Assert.assertEquals(9, limiter.getLimit());
+    }
+
+    private RpcSettings settings(String limit, String queueSize) {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.concurrency-limit", limit);
+        properties.setProperty("factomd.max-concurrency-limit", limit);
+        properties.setProperty("factomd.concurrency-queue-size", queueSize);
+        return server.settings(RpcSettings.SubSystem.FACTOMD, properties);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.Deadline;
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.errors.FactomException;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.EntryBlockResponse;
+import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
+import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+public class DeadlineTest {
+    private static final String ENTRY_BLOCK = "{\"jsonrpc\":\"2.0\",\"id\":0,\"result\":{\"header\":{\"blocksequencenumber\":1,\"chainid\":\"cafe\","
+            + "\"prevkeymr\":\"beef\",\"dbheight\":1,\"timestamp\":1},\"entrylist\":[]}}";
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private StubRpcServer server;
+    private FactomdClientImpl client;
+    private ThreadPoolExecutor executor;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new StubRpcServer().respond(request -> {
+            try {
+                if (request.contains(RpcMethod.ENTRY_BLOCK_BY_KEYMR.toJsonValue())) {
+                    // An endless chain of entry blocks
+                    Thread.sleep(20);
+                    return ENTRY_BLOCK;
+                }
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "{\"jsonrpc\":\"2.0\",\"id\":0,\"result\":{}}";
+        });
+        Properties properties = new Properties();
+        properties.setProperty("factomd.health-check-interval", "0");
+        properties.setProperty("factomd.concurrency-limit", "10");
+        client = new FactomdClientImpl();
+        client.setSettings(server.settings(RpcSettings.SubSystem.FACTOMD, properties));
+        executor = new ThreadPoolExecutor(4, 4, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<>());
+        client.setExecutorService(executor);
+    }
+
+    @After
+    public void stopServer() {
+        release.countDown();
+        client.getTransport().close();
+        server.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void deadlineCancelsRequestInFlight() {
+        long start = System.nanoTime();
+        CompletableFuture<FactomResponse<Object>> response = Deadline.after(200, TimeUnit.MILLISECONDS)
+                .call(() -> client.exchange(new RpcRequest(RpcMethod.COMMIT_ENTRY), Object.class));
+        try {
+            response.join();
+            Assert.fail("Expected the deadline to pass");
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause().toString(), e.getCause() instanceof FactomException.DeadlineExceededException);
+        }
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+        assertFreed();
+    }
+
+    @Test
+    public void cancelAbortsRequestInFlight() {
+        CompletableFuture<FactomResponse<Object>> response = client.exchange(new RpcRequest(RpcMethod.COMMIT_ENTRY), Object.class);
+        await(() -> server.getRequests().size() == 1);
+        Assert.assertTrue(response.cancel(true));
+        assertFreed();
+
+        release.countDown();
+        Assert.assertEquals(200, client.exchange(new RpcRequest(RpcMethod.COMMIT_ENTRY), Object.class).join().getHTTPResponseCode());
+    }
+
+    @Test
+    public void expiredDeadlineDoesNotSend() {
+        Deadline deadline = Deadline.after(0, TimeUnit.MILLISECONDS);
+        CompletableFuture<FactomResponse<Object>> response = deadline.call(() -> client.exchange(new RpcRequest(RpcMethod.COMMIT_ENTRY), Object.class));
+
+        Assert.assertTrue(response.isCompletedExceptionally());
+        Assert.assertTrue(server.getRequests().isEmpty());
+    }
+
+    @Test
+    public void deadlineStopsMultiStepOperation() {
+        EntryApiImpl entryApi = new EntryApiImpl();
+        entryApi.setFactomdClient(client);
+
+        CompletableFuture<List<EntryBlockResponse>> entryBlocks = Deadline.after(300, TimeUnit.MILLISECONDS)
+                .call(() -> entryApi.entryBlocksUpTilKeyMR("cafe"));
+        try {
+            entryBlocks.join();
+            Assert.fail("Expected the deadline to pass");
+        } catch (CompletionException e) {
+            Assert.assertTrue(e.getCause().toString(), e.getCause() instanceof FactomException.DeadlineExceededException);
+        }
+        assertNoMoreRequests();
+    }
+
+    @Test
+    public void cancelStopsMultiStepOperation() {
+        EntryApiImpl entryApi = new EntryApiImpl();
+        entryApi.setFactomdClient(client);
+
+        CompletableFuture<List<EntryBlockResponse>> entryBlocks = entryApi.entryBlocksUpTilKeyMR("cafe");
+        await(() -> server.getRequests().size() >= 3);
+        Assert.assertTrue(entryBlocks.cancel(true));
+        try {
+            entryBlocks.join();
+            Assert.fail("Expected the operation to be cancelled");
+        } catch (CancellationException e) {
+            assertNoMoreRequests();
+        }
+    }
+
+    private void assertFreed() {
+        await(() -> client.getEndpointGroup().getConcurrencyLimiter().getInFlight() == 0);
+        await(() -> executor.getActiveCount() == 0);
+        Assert.assertEquals(0, client.getEndpointGroup().getNodes().get(0).getOutstanding());
+    }
+
+    private void assertNoMoreRequests() {
+        sleep(100);
+        int requests = server.getRequests().size();
+        sleep(300);
+        Assert.assertEquals(requests, server.getRequests().size());
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue("Condition not met within 2 seconds", System.currentTimeMillis() < deadline);
+            sleep(10);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.errors.FactomRuntimeException;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.impl.routing.ClientTimer;
+import org.blockchain_innovation.factom.client.impl.settings.RpcSettingsImpl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class DispatchExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private DispatchExecutor executor;
+
+    @After
+    public void shutdown() {
+        release.countDown();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failFastRejects() {
+        executor = saturated(DispatchExecutor.SaturationPolicy.FAIL_FAST, 0);
+        try {
+            executor.execute(() -> {
+            });
+            Assert.fail("Expected a rejection");
+        } catch (RejectedExecutionException e) {
+            Assert.assertEquals(1, executor.getRejectedCount());
+        }
+    }
+
+    @Test
+    public void callerRunsOnSubmittingThread() {
+        executor = saturated(DispatchExecutor.SaturationPolicy.CALLER_RUNS, 0);
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        executor.execute(() -> thread.set(Thread.currentThread()));
+
+        Assert.assertSame(Thread.currentThread(), thread.get());
+        Assert.assertEquals(1, executor.getCallerRunsCount());
+        Assert.assertEquals(0, executor.getRejectedCount());
+    }
+
+    @Test
+    public void neverRunsOnTimerThread() throws Exception {
+        executor = saturated(DispatchExecutor.SaturationPolicy.CALLER_RUNS, 0);
+        CompletableFuture<Throwable> submitted = new CompletableFuture<>();
+        ClientTimer.schedule(() -> {
+            try {
+                executor.execute(() -> {
+                });
+                submitted.complete(null);
+            } catch (RejectedExecutionException e) {
+                submitted.complete(e);
+            }
+        }, 0, TimeUnit.MILLISECONDS);
+
+        Assert.assertTrue(submitted.get(5, TimeUnit.SECONDS) instanceof RejectedExecutionException);
+        Assert.assertEquals(0, executor.getCallerRunsCount());
+        Assert.assertEquals(1, executor.getRejectedCount());
+    }
+
+    @Test
+    public void blockWaitsForRoom() throws InterruptedException {
+        executor = saturated(DispatchExecutor.SaturationPolicy.BLOCK, 5000);
+        CountDownLatch done = new CountDownLatch(1);
+        new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        }).start();
+        executor.execute(done::countDown);
+
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, executor.getBlockedCount());
+        Assert.assertEquals(0, executor.getRejectedCount());
+    }
+
+    @Test
+    public void blockRejectsAfterTimeout() {
+        executor = saturated(DispatchExecutor.SaturationPolicy.BLOCK, 50);
+        try {
+            executor.execute(() -> {
+            });
+            Assert.fail("Expected a rejection");
+        } catch (RejectedExecutionException e) {
+            Assert.assertEquals(1, executor.getBlockedCount());
+            Assert.assertEquals(1, executor.getRejectedCount());
+        }
+    }
+
+    @Test
+    public void sharedPerSettings() {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.executor-threads", "3");
+        properties.setProperty("factomd.executor-saturation-policy", "fail-fast");
+        RpcSettings.Server server = new RpcSettingsImpl(RpcSettings.SubSystem.FACTOMD, properties, Optional.empty()).getServer();
+        RpcSettings.Server other = new RpcSettingsImpl(RpcSettings.SubSystem.FACTOMD, properties, Optional.empty()).getServer();
+
+        DispatchExecutor shared = DispatchExecutor.shared(server);
+        Assert.assertSame(shared, DispatchExecutor.shared(other));
+        Assert.assertNotSame(shared, DispatchExecutor.shared());
+        Assert.assertEquals(3, shared.getMaximumPoolSize());
+        Assert.assertEquals(DispatchExecutor.SaturationPolicy.FAIL_FAST, shared.getSaturationPolicy());
+        Assert.assertEquals(DispatchExecutor.SaturationPolicy.CALLER_RUNS, DispatchExecutor.shared().getSaturationPolicy());
+    }
+
+    @Test
+    public void clientUsesSharedExecutorOfSettings() {
+        FactomdClientImpl client = new FactomdClientImpl();
+        Assert.assertSame(DispatchExecutor.shared(), client.getExecutorService());
+
+        Properties properties = new Properties();
+        properties.setProperty("factomd.executor-threads", "4");
+        RpcSettingsImpl settings = new RpcSettingsImpl(RpcSettings.SubSystem.FACTOMD, properties, Optional.empty());
+        client.setSettings(settings);
+        Assert.assertSame(DispatchExecutor.shared(settings.getServer()), client.getExecutorService());
+    }
+
+    @Test
+    public void virtualThreadsWhenAvailable() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.virtual-threads", "true");
+        RpcSettingsImpl settings = new RpcSettingsImpl(RpcSettings.SubSystem.FACTOMD, properties, Optional.empty());
+        FactomdClientImpl client = new FactomdClientImpl();
+        client.setSettings(settings);
+
+        boolean java21 = isJava21OrNewer();
+        Assert.assertEquals(java21, VirtualThreads.isAvailable());
+        if (!java21) {
+            Assert.assertNull(VirtualThreads.getExecutor());
+            Assert.assertSame(DispatchExecutor.shared(settings.getServer()), client.getExecutorService());
+            return;
+        }
+        Assert.assertSame(VirtualThreads.getExecutor(), client.getExecutorService());
+        Thread thread = client.getExecutorService().submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+        Assert.assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+    }
+
+    @Test
+    public void entryApiFollowsFactomdClient() {
+        FactomdClientImpl factomdClient = new FactomdClientImpl();
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            factomdClient.setExecutorService(executorService);
+            EntryApiImpl entryApi = new EntryApiImpl();
+            Assert.assertSame(DispatchExecutor.shared(), entryApi.getExecutorService());
+
+            entryApi.setFactomdClient(factomdClient);
+            Assert.assertSame(executorService, entryApi.getExecutorService());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test(expected = FactomRuntimeException.AssertionException.class)
+    public void unsupportedPolicy() {
+        DispatchExecutor.SaturationPolicy.fromName("discard");
+    }
+
+    private static boolean isJava21OrNewer() {
+        String version = System.getProperty("java.specification.version");
+        return !version.startsWith("1.") && Integer.parseInt(version) >= 21;
+    }
+
+    /**
+     * An executor with its single thread busy and its single queue slot taken.
+     */
+    private DispatchExecutor saturated(DispatchExecutor.SaturationPolicy policy, long blockTimeout) {
+        DispatchExecutor result = new DispatchExecutor(1, 1, policy, blockTimeout);
+        Runnable blocking = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        result.execute(blocking);
+        result.execute(blocking);
+        Assert.assertEquals(1, result.getPeakQueueSize());
+        return result;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.HeightsResponse;
+import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
+import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.impl.routing.EndpointGroup;
+import org.blockchain_innovation.factom.client.impl.routing.Node;
+import org.blockchain_innovation.factom.client.impl.settings.RpcSettingsImpl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+public class EndpointRoutingTest {
+
+    private StubRpcServer first;
+    private StubRpcServer second;
+    private FactomdClientImpl client;
+
+    @Before
+    public void startServers() throws IOException {
+        first = new StubRpcServer().respond(heights(100));
+        second = new StubRpcServer().respond(heights(100));
+        client = new FactomdClientImpl();
+        client.setSettings(settings(new Properties()));
+    }
+
+    @After
+    public void stopServers() {
+        client.getEndpointGroup().close();
+        client.getTransport().close();
+        first.close();
+        second.close();
+    }
+
+    @Test
+    public void parsesUrlsAndWeights() {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.urls", "http://node1:8088/v2, http://node2:8088/v2,http://node3:8088/v2");
+        properties.setProperty("factomd.weights", "1,3");
+        RpcSettings.Server server = new RpcSettingsImpl(RpcSettings.SubSystem.FACTOMD, properties, Optional.empty()).getServer();
+
+        Assert.assertEquals(3, server.getEndpoints().size());
+        Assert.assertEquals("http://node1:8088/v2", server.getURL().toString());
+        Assert.assertEquals("http://node2:8088/v2", server.getEndpoints().get(1).getURL().toString());
+        Assert.assertEquals(3, server.getEndpoints().get(1).getWeight());
+        Assert.assertEquals(1, server.getEndpoints().get(2).getWeight());
+    }
+
+    @Test
+    public void singleUrlIsSingleEndpoint() {
+        RpcSettings.Server server = first.settings(RpcSettings.SubSystem.FACTOMD).getServer();
+
+        Assert.assertEquals(1, server.getEndpoints().size());
+        Assert.assertEquals(server.getURL(), server.getEndpoints().get(0).getURL());
+    }
+
+    @Test
+    public void spreadsReadsOverNodes() {
+        for (int i = 0; i < 40; i++) {
+            Assert.assertFalse(client.heights().join().hasErrors());
+        }
+
+        Assert.assertEquals(40, first.getRequests().size() + second.getRequests().size());
+        Assert.assertFalse(first.getRequests().isEmpty());
+        Assert.assertFalse(second.getRequests().isEmpty());
+    }
+
+    @Test
+    public void selectsInProportionToWeights() {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.weights", "1,3");
+        EndpointGroup group = new EndpointGroup(settings(properties).getServer());
+
+        int second = 0;
+        for (int i = 0; i < 4000; i++) {
+            if (group.select(true) == group.getNodes().get(1)) {
+                second++;
+            }
+        }
+        Assert.assertTrue("Share of the heavier node: " + second, second > 2600 && second < 3400);
+    }
+
+    @Test
+    public void prefersLeastOutstanding() {
+        EndpointGroup group = client.getEndpointGroup();
+        Node busy = group.getNodes().get(0);
+        busy.start();
+
+        for (int i = 0; i < 20; i++) {
+            Assert.assertSame(group.getNodes().get(1), group.select(true));
+        }
+        busy.complete(true);
+    }
+
+    @Test
+    public void writesGoToFirstNode() {
+        for (int i = 0; i < 10; i++) {
+            client.exchange(new RpcRequest(RpcMethod.COMMIT_ENTRY), Object.class).join();
+        }
+
+        Assert.assertEquals(10, first.getRequests().size());
+        Assert.assertTrue(second.getRequests().isEmpty());
+    }
+
+    @Test
+    public void ejectsFailingNode() {
+        second.setStatusCode(503);
+        for (int i = 0; i < 30; i++) {
+            client.heights().join();
+        }
+
+        Assert.assertEquals(2, second.getRequests().size());
+        Assert.assertTrue(client.getEndpointGroup().getNodes().get(1).isEjected());
+        Assert.assertFalse(client.getEndpointGroup().getNodes().get(0).isEjected());
+
+        // Once the other node fails as well, all nodes are ejected
+        first.setStatusCode(503);
+        client.heights().join();
+        client.heights().join();
+        Assert.assertTrue(client.getEndpointGroup().getNodes().get(0).isEjected());
+        Assert.assertSame("All nodes ejected: the node readmitted first", client.getEndpointGroup().getNodes().get(1), client.getEndpointGroup().select(false));
+    }
+
+    @Test
+    public void avoidsLaggingNode() {
+        second.respond(heights(90));
+        EndpointGroup group = client.getEndpointGroup();
+        group.checkHealth(client::nodeHeight).join();
+
+        Assert.assertEquals(100, group.getBestHeight());
+        Assert.assertEquals(90, group.getNodes().get(1).getHeight());
+        Assert.assertTrue(group.isLagging(group.getNodes().get(1)));
+        Assert.assertFalse(group.isLagging(group.getNodes().get(0)));
+
+        first.getRequests().clear();
+        second.getRequests().clear();
+        for (int i = 0; i < 20; i++) {
+            FactomResponse<HeightsResponse> response = client.heights().join();
+            Assert.assertEquals(100, response.getResult().getDirectoryBlockHeight());
+        }
+        Assert.assertEquals(20, first.getRequests().size());
+        Assert.assertTrue(second.getRequests().isEmpty());
+
+        // Within the allowed lag the node is used again
+        second.respond(heights(99));
+        group.checkHealth(client::nodeHeight).join();
+        Assert.assertFalse(group.isLagging(group.getNodes().get(1)));
+    }
+
+    @Test
+    public void healthCheckReadmitsEjectedNode() {
+        second.setStatusCode(503);
+        for (int i = 0; i < 30; i++) {
+            client.heights().join();
+        }
+        Node node = client.getEndpointGroup().getNodes().get(1);
+        Assert.assertTrue(node.isEjected());
+
+        second.setStatusCode(200);
+        client.getEndpointGroup().checkHealth(url -> CompletableFuture.completedFuture(100L)).join();
+        Assert.assertFalse(node.isEjected());
+        Assert.assertEquals(0, node.getConsecutiveFailures());
+    }
+
+    private RpcSettings settings(Properties extraProperties) {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.urls", first.getURL() + "," + second.getURL());
+        // Health checks are triggered by the tests
+        properties.setProperty("factomd.health-check-interval", "0");
+        properties.setProperty("factomd.eject-after-failures", "2");
+        properties.putAll(extraProperties);
+        return new RpcSettingsImpl(RpcSettings.SubSystem.FACTOMD, properties, Optional.empty());
+    }
+
+    private static String heights(long height) {
+        return String.format("{\"jsonrpc\":\"2.0\",\"id\":0,\"result\":{\"directoryblockheight\":%d,\"leaderheight\":%d,\"entryblockheight\":%d,\"entryheight\":%d}}",
+                height, height, height, height);
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.errors.FactomException;
+import org.blockchain_innovation.factom.client.api.interceptors.RpcInterceptor;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.HeightsResponse;
+import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
+import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+public class InterceptorTest {
+
+    private static final String HEIGHTS = "{\"jsonrpc\":\"2.0\",\"id\":0,\"result\":{\"directoryblockheight\":1000,\"leaderheight\":1001,\"entryblockheight\":1000,\"entryheight\":999}}";
+    private static final String ERROR = "{\"jsonrpc\":\"2.0\",\"id\":0,\"error\":{\"code\":-32601,\"message\":\"Method not found\"}}";
+
+    private StubRpcServer server;
+    private FactomdClientImpl client;
+    private final List<String> calls = new ArrayList<>();
+
+    @Before
+    public void startServer() throws IOException {
+        server = new StubRpcServer().respond(HEIGHTS);
+        Properties properties = new Properties();
+        properties.setProperty("factomd.health-check-interval", "0");
+        properties.setProperty("factomd.max-retries", "0");
+        client = new FactomdClientImpl();
+        client.setSettings(server.settings(RpcSettings.SubSystem.FACTOMD, properties));
+    }
+
+    @After
+    public void stopServer() {
+        client.getTransport().close();
+        server.close();
+    }
+
+    @Test
+    public void callsInterceptorsInOrderAndReverse() {
+        client.addInterceptor(new Recording("first")).addInterceptor(new Recording("second"));
+
+        Assert.assertEquals(1000, client.heights().join().getResult().getDirectoryBlockHeight());
+        Assert.assertEquals(Arrays.asList("first:before", "second:before", "second:after", "first:after"), calls);
+    }
+
+    @Test
+    public void addsHeaders() {
+        client.addInterceptor(new RpcInterceptor() {
+            @Override
+            public <Result> FactomResponse<Result> beforeSend(Invocation<Result> invocation) {
+                invocation.setHeader("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01");
+                return null;
+            }
+        });
+
+        client.heights().join();
+        Assert.assertEquals("00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01", server.getRequestHeaders().get(0).getFirst("traceparent"));
+    }
+
+    @Test
+    public void shortCircuitsWithoutSending() {
+        HeightsResponse cached = new HeightsResponse();
+        client.addInterceptor(new Recording("outer")).addInterceptor(new RpcInterceptor() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <Result> FactomResponse<Result> beforeSend(Invocation<Result> invocation) {
+                calls.add("cache:before");
+                return invocation.getResultClass() == HeightsResponse.class ? invocation.respond((Result) cached) : null;
+            }
+        }).addInterceptor(new Recording("inner"));
+
+        FactomResponse<HeightsResponse> response = client.heights().join();
+        Assert.assertSame(cached, response.getResult());
+        Assert.assertFalse(response.hasErrors());
+        Assert.assertTrue(server.getRequests().isEmpty());
+        Assert.assertEquals(Arrays.asList("outer:before", "cache:before", "outer:after"), calls);
+    }
+
+    @Test
+    public void recoversFromErrors() {
+        server.setStatusCode(500).respond(ERROR);
+        List<Throwable> errors = new ArrayList<>();
+        client.addInterceptor(new Recording("outer")).addInterceptor(new RpcInterceptor() {
+            @Override
+            public <Result> FactomResponse<Result> onError(Invocation<Result> invocation, Throwable error) {
+                errors.add(error);
+                return invocation.respond(null);
+            }
+        });
+
+        FactomResponse<HeightsResponse> response = client.heights().join();
+        Assert.assertNotNull(response);
+        Assert.assertNull(response.getResult());
+        Assert.assertTrue(errors.get(0) instanceof FactomException.RpcErrorException);
+        Assert.assertEquals(Arrays.asList("outer:before", "outer:after"), calls);
+    }
+
+    @Test
+    public void interceptsEveryRequestOfABatch() {
+        client.addInterceptor(new Recording("batch"));
+
+        List<RpcRequest> requests = Arrays.asList(new RpcRequest(RpcMethod.HEIGHTS), new RpcRequest(RpcMethod.CURRENT_MINUTE));
+        client.exchangeBatch(requests, HeightsResponse.class).forEach(future -> Assert.assertFalse(future.join().hasErrors()));
+        Assert.assertEquals(4, calls.size());
+        Assert.assertEquals(2, server.getRequests().size());
+    }
+
+    @Test
+    public void removesInterceptors() {
+        Recording recording = new Recording("removed");
+        client.addInterceptor(recording);
+        client.removeInterceptor(recording);
+
+        client.heights().join();
+        Assert.assertTrue(client.getInterceptors().isEmpty());
+        Assert.assertTrue(calls.isEmpty());
+    }
+
+    private class Recording implements RpcInterceptor {
+        private final String name;
+
+        Recording(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public <Result> FactomResponse<Result> beforeSend(Invocation<Result> invocation) {
+            calls.add(name + ":before");
+            return null;
+        }
+
+        @Override
+        public <Result> FactomResponse<Result> afterReceive(Invocation<Result> invocation, FactomResponse<Result> response) {
+            calls.add(name + ":after");
+            return response;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.log.LogFactory;
+import org.blockchain_innovation.factom.client.api.log.Logger;
+import org.blockchain_innovation.factom.client.impl.log.slf4j.AsyncLogger;
+import org.blockchain_innovation.factom.client.impl.log.slf4j.SLF4JLoggerImpl;
+import org.junit.Assert;
+import org.junit.Test;
+import org.slf4j.helpers.NOPLogger;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class LoggerTest {
+
+    private final Logger logger = LogFactory.getLogger(LoggerTest.class);
+    // Every level is disabled for the NOP logger
+    private final Logger disabled = new SLF4JLoggerImpl(NOPLogger.NOP_LOGGER);
+
+    @Test
+    public void disabledLevelDoesNotBuildMessage() {
+        AtomicInteger built = new AtomicInteger();
+
+        disabled.debug(() -> "expensive " + built.incrementAndGet());
+        disabled.debug(() -> "expensive " + built.incrementAndGet(), new IllegalStateException());
+        disabled.error(() -> "expensive " + built.incrementAndGet());
+        Assert.assertEquals(0, built.get());
+
+        logger.info(() -> "built " + built.incrementAndGet());
+        Assert.assertEquals(1, built.get());
+    }
+
+    @Test
+    public void disabledLevelDoesNotFormat() {
+        Object argument = new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("Formatted a disabled level");
+            }
+        };
+        disabled.debug("argument: %s", argument);
+        disabled.warn("argument: %s", new IllegalStateException(), argument);
+    }
+
+    @Test
+    public void asyncLoggerWritesOnBackgroundThread() throws InterruptedException {
+        Logger async = new AsyncLogger(logger);
+        CountDownLatch written = new CountDownLatch(1);
+        String caller = Thread.currentThread().getName();
+        String[] writer = new String[1];
+
+        async.info(() -> {
+            writer[0] = Thread.currentThread().getName();
+            written.countDown();
+            return "written asynchronously";
+        });
+        Assert.assertTrue(written.await(5, TimeUnit.SECONDS));
+        Assert.assertNotEquals(caller, writer[0]);
+
+        new AsyncLogger(disabled).debug(() -> {
+            throw new AssertionError("Built a disabled level");
+        });
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.errors.FactomException;
+import org.blockchain_innovation.factom.client.api.metrics.MetricsRecorder;
+import org.blockchain_innovation.factom.client.api.metrics.RequestMetrics;
+import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.impl.metrics.Histogram;
+import org.blockchain_innovation.factom.client.impl.metrics.InMemoryMetricsRecorder;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Properties;
+
+public class MetricsTest {
+
+    private static final String HEIGHTS = "{\"jsonrpc\":\"2.0\",\"id\":0,\"result\":{\"directoryblockheight\":1000,\"leaderheight\":1001,\"entryblockheight\":1000,\"entryheight\":999}}";
+    private static final String ERROR = "{\"jsonrpc\":\"2.0\",\"id\":0,\"error\":{\"code\":-32601,\"message\":\"Method not found\"}}";
+
+    private StubRpcServer server;
+    private FactomdClientImpl client;
+    private final InMemoryMetricsRecorder recorder = new InMemoryMetricsRecorder();
+
+    @Before
+    public void startServer() throws IOException {
+        server = new StubRpcServer().respond(HEIGHTS);
+        Properties properties = new Properties();
+        properties.setProperty("factomd.health-check-interval", "0");
+        client = new FactomdClientImpl();
+        client.setSettings(server.settings(RpcSettings.SubSystem.FACTOMD, properties));
+        client.setMetricsRecorder(recorder);
+    }
+
+    @After
+    public void stopServer() {
+        client.getTransport().close();
+        server.close();
+    }
+
+    @Test
+    public void inMemoryRecorderIsRegistered() {
+        Assert.assertNotNull(MetricsRecorder.Provider.getInstance(InMemoryMetricsRecorder.NAME));
+    }
+
+    @Test
+    public void recordsRequestsPerMethodAndServer() {
+        for (int i = 0; i < 3; i++) {
+            client.heights().join();
+        }
+
+        InMemoryMetricsRecorder.Statistics statistics = recorder.getStatistics(RpcMethod.HEIGHTS.toJsonValue(), server.getURL());
+        Assert.assertNotNull(statistics);
+        Assert.assertEquals(3, statistics.getRequestCount());
+        Assert.assertEquals(0, statistics.getErrorCount());
+        for (RequestMetrics.Phase phase : RequestMetrics.Phase.values()) {
+            Assert.assertEquals(phase.name(), 3, statistics.getLatency(phase).getCount());
+        }
+        Histogram total = statistics.getLatency(RequestMetrics.Phase.TOTAL);
+        Assert.assertTrue(total.getValueAtPercentile(50) <= total.getMax());
+        Assert.assertTrue(statistics.getRequestSizes().getMean() > 0);
+        Assert.assertEquals(HEIGHTS.length(), statistics.getResponseSizes().getMax());
+    }
+
+    @Test
+    public void recordsErrorsByType() {
+        server.setStatusCode(404).respond(ERROR);
+        Assert.assertTrue(client.heights().join().hasErrors());
+
+        InMemoryMetricsRecorder.Statistics statistics = recorder.getStatistics(RpcMethod.HEIGHTS.toJsonValue(), server.getURL());
+        Assert.assertEquals(1, statistics.getErrorCount());
+        Assert.assertEquals(Long.valueOf(1), statistics.getErrorCounts().get(FactomException.RpcErrorException.class));
+    }
+
+    @Test
+    public void disabledMetrics() {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.metrics", "false");
+        client.setSettings(server.settings(RpcSettings.SubSystem.FACTOMD, properties));
+        client.setMetricsRecorder(null);
+
+        Assert.assertSame(MetricsRecorder.NOOP, client.getMetricsRecorder());
+    }
+
+    @Test
+    public void histogramPercentiles() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 100_000; i++) {
+            histogram.record(i);
+        }
+        Assert.assertEquals(100_000, histogram.getCount());
+        Assert.assertEquals(100_000, histogram.getMax());
+        Assert.assertEquals(50_000.5, histogram.getMean(), 0.001);
+        assertWithinPercent(50_000, histogram.getValueAtPercentile(50));
+        assertWithinPercent(99_000, histogram.getValueAtPercentile(99));
+        Assert.assertEquals(100_000, histogram.getValueAtPercentile(100));
+        Assert.assertEquals(1, histogram.getValueAtPercentile(0));
+    }
+
+    private static void assertWithinPercent(long expected, long actual) {
+        Assert.assertTrue(actual + " is not within 4% of " + expected, Math.abs(actual - expected) <= expected * 0.04);
+    }
+}
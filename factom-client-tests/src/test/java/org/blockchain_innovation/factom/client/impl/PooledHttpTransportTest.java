@@ -0,0 +1,126 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.HeightsResponse;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.impl.transport.HttpURLConnectionTransport;
+import org.blockchain_innovation.factom.client.impl.transport.PooledHttpTransport;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Properties;
+
+public class PooledHttpTransportTest {
+
+    private static final String HEIGHTS = "{\"jsonrpc\":\"2.0\",\"id\":0,\"result\":{\"directoryblockheight\":1000,\"leaderheight\":1001,\"entryblockheight\":1000,\"entryheight\":999}}";
+    private static final String ERROR = "{\"jsonrpc\":\"2.0\",\"id\":0,\"error\":{\"code\":-32601,\"message\":\"Method not found\"}}";
+
+    private StubRpcServer server;
+    private FactomdClientImpl client;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new StubRpcServer().respond(HEIGHTS);
+        client = new FactomdClientImpl();
+        client.setSettings(server.settings(RpcSettings.SubSystem.FACTOMD));
+    }
+
+    @After
+    public void stopServer() {
+        client.getTransport().close();
+        server.close();
+    }
+
+    @Test
+    public void pooledTransportIsTheDefault() {
+        Assert.assertEquals(PooledHttpTransport.NAME, client.getTransport().getName());
+    }
+
+    @Test
+    public void reusesConnections() {
+        for (int i = 0; i < 5; i++) {
+            assertHeights(client.heights().join());
+        }
+        Assert.assertEquals(5, server.getRequests().size());
+        Assert.assertEquals(1, new HashSet<>(server.getRemotePorts()).size());
+    }
+
+    @Test
+    public void reusesConnectionsWithChunkedResponses() {
+        server.setChunked(true);
+        for (int i = 0; i < 3; i++) {
+            assertHeights(client.heights().join());
+        }
+        Assert.assertEquals(1, new HashSet<>(server.getRemotePorts()).size());
+    }
+
+    @Test
+    public void sendsJsonRpcRequest() {
+        client.heights().join();
+        Assert.assertTrue(server.getRequests().get(0).contains("heights"));
+    }
+
+    @Test
+    public void httpErrorResultsInErrorResponse() {
+        server.setStatusCode(500).respond(ERROR);
+        FactomResponse<HeightsResponse> response = client.heights().join();
+        Assert.assertTrue(response.hasErrors());
+        Assert.assertEquals(500, response.getHTTPResponseCode());
+        Assert.assertEquals(-32601, response.getRpcErrorResponse().getError().getCode());
+
+        // The connection stays usable after an error response
+        server.setStatusCode(200).respond(HEIGHTS);
+        assertHeights(client.heights().join());
+        Assert.assertEquals(1, new HashSet<>(server.getRemotePorts()).size());
+    }
+
+    @Test
+    public void legacyTransportIsSelectable() {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.transport", HttpURLConnectionTransport.NAME);
+        client.setSettings(server.settings(RpcSettings.SubSystem.FACTOMD, properties));
+
+        Assert.assertEquals(HttpURLConnectionTransport.NAME, client.getTransport().getName());
+        assertHeights(client.heights().join());
+    }
+
+    @Test
+    public void transportSettings() {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.max-connections", "3");
+        properties.setProperty("factomd.idle-timeout", "15");
+        properties.setProperty("factomd.validate-after-inactivity", "0");
+        RpcSettings.Server settings = server.settings(RpcSettings.SubSystem.FACTOMD, properties).getServer();
+
+        Assert.assertEquals(PooledHttpTransport.NAME, settings.getTransport());
+        Assert.assertEquals(3, settings.getMaxConnections());
+        Assert.assertEquals(15, settings.getIdleTimeout());
+        Assert.assertEquals(0, settings.getValidateAfterInactivity());
+    }
+
+    private static void assertHeights(FactomResponse<HeightsResponse> response) {
+        Assert.assertFalse(response.hasErrors());
+        Assert.assertEquals(200, response.getHTTPResponseCode());
+        Assert.assertEquals(1001, response.getResult().getLeaderHeight());
+    }
+}
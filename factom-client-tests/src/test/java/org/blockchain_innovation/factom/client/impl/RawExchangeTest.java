@@ -0,0 +1,98 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
+import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+public class RawExchangeTest {
+
+    private static final String RESULT = "{\"dblock\": {\"header\": {\"chainid\": \"000000000000000000000000000000000000000000000000000000000000000d\", \"note\": \"a \\\"quoted\\\" } brace\"}, \"dbentries\": [{\"keymr\": \"abc\"}, []]}, \"rawdata\": \"00\"}";
+
+    private StubRpcServer server;
+    private FactomdClientImpl client;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new StubRpcServer();
+        Properties properties = new Properties();
+        properties.setProperty("factomd.health-check-interval", "0");
+        properties.setProperty("factomd.max-retries", "0");
+        client = new FactomdClientImpl();
+        client.setSettings(server.settings(RpcSettings.SubSystem.FACTOMD, properties));
+    }
+
+    @After
+    public void stopServer() {
+        client.getTransport().close();
+        server.close();
+    }
+
+    @Test
+    public void returnsRawResult() {
+        server.respond("{\"jsonrpc\": \"2.0\", \"id\": 0, \"result\": " + RESULT + "}");
+
+        FactomResponse<ByteBuffer> response = client.exchangeRaw(new RpcRequest.Builder(RpcMethod.DIRECTORY_BLOCK_BY_HEIGHT).param("height", 10).build()).join();
+        Assert.assertFalse(response.hasErrors());
+        Assert.assertEquals(RESULT, toString(response.getResult()));
+        Assert.assertTrue(response.getResult().isReadOnly());
+    }
+
+    @Test
+    public void locatesResultBeforeOtherMembers() {
+        server.respond("{\n  \"result\": [1, 2.5e3, true, null],\n  \"id\": 0,\n  \"jsonrpc\": \"2.0\"\n}");
+
+        FactomResponse<ByteBuffer> response = client.exchangeRaw(new RpcRequest(RpcMethod.HEIGHTS)).join();
+        Assert.assertEquals("[1, 2.5e3, true, null]", toString(response.getResult()));
+    }
+
+    @Test
+    public void deserializesErrors() {
+        server.respond("{\"jsonrpc\":\"2.0\",\"id\":0,\"error\":{\"code\":-32009,\"message\":\"Missing Chain Head\"}}");
+
+        FactomResponse<ByteBuffer> response = client.exchangeRaw(new RpcRequest(RpcMethod.HEIGHTS), false).join();
+        Assert.assertTrue(response.hasErrors());
+        Assert.assertNull(response.getResult());
+        Assert.assertEquals(-32009, response.getRpcErrorResponse().getError().getCode());
+    }
+
+    @Test
+    public void malformedResponseIsAnError() {
+        server.respond("{\"jsonrpc\":\"2.0\",\"id\":0,\"result\":{\"unterminated\": [");
+
+        FactomResponse<ByteBuffer> response = client.exchangeRaw(new RpcRequest(RpcMethod.HEIGHTS), false).join();
+        Assert.assertNull(response);
+    }
+
+    private static String toString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
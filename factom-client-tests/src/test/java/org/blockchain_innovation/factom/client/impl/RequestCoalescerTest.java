@@ -0,0 +1,123 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.HeightsResponse;
+import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
+import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+public class RequestCoalescerTest {
+    private static final String HEIGHTS = "{\"jsonrpc\":\"2.0\",\"id\":0,\"result\":{\"directoryblockheight\":100,\"leaderheight\":100,\"entryblockheight\":100,\"entryheight\":100}}";
+
+    private StubRpcServer server;
+    private FactomdClientImpl client;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new StubRpcServer().respond(request -> {
+            try {
+                // Keep the requests in flight long enough to overlap
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return HEIGHTS;
+        });
+        client = new FactomdClientImpl();
+        client.setSettings(server.settings(RpcSettings.SubSystem.FACTOMD));
+    }
+
+    @After
+    public void stopServer() {
+        client.getTransport().close();
+        server.close();
+    }
+
+    @Test
+    public void coalescesIdenticalReads() {
+        List<CompletableFuture<FactomResponse<HeightsResponse>>> responses = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            responses.add(client.heights());
+        }
+        responses.forEach(response -> Assert.assertEquals(100, response.join().getResult().getDirectoryBlockHeight()));
+
+        Assert.assertEquals(1, server.getRequests().size());
+        Assert.assertEquals(4, client.getRequestCoalescer().getCoalesced());
+        Assert.assertEquals(0, client.getRequestCoalescer().getInFlight());
+
+        // Completed requests are forgotten, so the next read goes to the server
+        client.heights().join();
+        Assert.assertEquals(2, server.getRequests().size());
+    }
+
+    @Test
+    public void callersHaveTheirOwnPromise() {
+        CompletableFuture<FactomResponse<HeightsResponse>> first = client.heights();
+        CompletableFuture<FactomResponse<HeightsResponse>> second = client.heights();
+        first.cancel(false);
+
+        Assert.assertEquals(100, second.join().getResult().getDirectoryBlockHeight());
+        Assert.assertEquals(1, server.getRequests().size());
+    }
+
+    @Test
+    public void distinguishesParams() {
+        CompletableFuture<?> first = client.chainHead("chain1");
+        CompletableFuture<?> second = client.chainHead("chain2");
+        CompletableFuture<?> third = client.chainHead("chain1");
+        CompletableFuture.allOf(first, second, third).join();
+
+        Assert.assertEquals(2, server.getRequests().size());
+    }
+
+    @Test
+    public void doesNotCoalesceStateChanges() {
+        List<CompletableFuture<FactomResponse<Object>>> responses = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            responses.add(client.exchange(new RpcRequest(RpcMethod.COMMIT_ENTRY), Object.class));
+        }
+        responses.forEach(CompletableFuture::join);
+
+        Assert.assertEquals(3, server.getRequests().size());
+    }
+
+    @Test
+    public void canBeDisabled() {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.coalesce-reads", "false");
+        client.setSettings(server.settings(RpcSettings.SubSystem.FACTOMD, properties));
+        List<CompletableFuture<FactomResponse<HeightsResponse>>> responses = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            responses.add(client.heights());
+        }
+        responses.forEach(CompletableFuture::join);
+
+        Assert.assertEquals(3, server.getRequests().size());
+    }
+}
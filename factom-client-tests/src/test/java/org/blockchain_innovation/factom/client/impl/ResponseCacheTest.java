@@ -0,0 +1,209 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.interceptors.RpcInterceptor;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.EntryResponse;
+import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
+import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
+import org.blockchain_innovation.factom.client.api.rpc.RpcResponse;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+
+public class ResponseCacheTest {
+
+    private static final String ENTRY = "{\"jsonrpc\": \"2.0\", \"id\": %d, \"result\": {\"chainid\": \"cafe\", \"content\": \"%s\", \"extids\": []}}";
+    // Responses without an exchange weigh 1024 bytes plus the overhead of 128 bytes
+    private static final long WEIGHT = 1152;
+
+    private StubRpcServer server;
+    private FactomdClientImpl client;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new StubRpcServer();
+        Properties properties = new Properties();
+        properties.setProperty("factomd.health-check-interval", "0");
+        properties.setProperty("factomd.max-retries", "0");
+        properties.setProperty("factomd.coalesce-reads", "false");
+        properties.setProperty("factomd.cache-max-bytes", "1000000");
+        client = new FactomdClientImpl();
+        client.setSettings(server.settings(RpcSettings.SubSystem.FACTOMD, properties));
+    }
+
+    @After
+    public void stopServer() {
+        client.getTransport().close();
+        server.close();
+    }
+
+    @Test
+    public void cachesImmutableResponses() {
+        server.respond(String.format(ENTRY, 0, "first"));
+
+        FactomResponse<EntryResponse> response = client.entry("abc").join();
+        Assert.assertEquals("first", response.getResult().getContent());
+        Assert.assertSame(response, client.entry("abc").join());
+        Assert.assertEquals(1, server.getRequests().size());
+        Assert.assertEquals(1, client.getResponseCache().getHits());
+        Assert.assertEquals(1, client.getResponseCache().getMisses());
+        Assert.assertTrue(client.getResponseCache().getWeight() > 128);
+
+        client.entry("def").join();
+        Assert.assertEquals(2, server.getRequests().size());
+    }
+
+    @Test
+    public void interceptorsSeeCachedResponses() {
+        server.respond(String.format(ENTRY, 0, "first"));
+        List<String> calls = new ArrayList<>();
+        client.addInterceptor(new RpcInterceptor() {
+            @Override
+            public <Result> FactomResponse<Result> beforeSend(Invocation<Result> invocation) {
+                calls.add("before");
+                return null;
+            }
+
+            @Override
+            public <Result> FactomResponse<Result> afterReceive(Invocation<Result> invocation, FactomResponse<Result> response) {
+                calls.add("after");
+                return response;
+            }
+        });
+
+        client.entry("abc").join();
+        Assert.assertEquals("first", client.entry("abc").join().getResult().getContent());
+        Assert.assertEquals(1, server.getRequests().size());
+        Assert.assertEquals(1, client.getResponseCache().getHits());
+        Assert.assertEquals(Arrays.asList("before", "after", "before", "after"), calls);
+    }
+
+    @Test
+    public void doesNotCacheInterceptedResponses() {
+        EntryResponse mock = new EntryResponse("cafe", null, "mock");
+        client.addInterceptor(new RpcInterceptor() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <Result> FactomResponse<Result> beforeSend(Invocation<Result> invocation) {
+                return invocation.getRpcRequest().getMethod() == RpcMethod.ENTRY ? invocation.respond((Result) mock) : null;
+            }
+        });
+
+        Assert.assertSame(mock, client.entry("abc").join().getResult());
+        Assert.assertTrue(server.getRequests().isEmpty());
+        Assert.assertEquals(0, client.getResponseCache().size());
+
+        // Also rejected when handed to the cache directly, as batch responses are
+        FactomResponse<EntryResponse> intercepted = client.entry("def").join();
+        client.getResponseCache().putOnCompletion(request("def"), EntryResponse.class, CompletableFuture.completedFuture(intercepted)).join();
+        Assert.assertEquals(0, client.getResponseCache().size());
+    }
+
+    @Test
+    public void doesNotCacheMutableOrErrorResponses() {
+        server.respond("{\"jsonrpc\": \"2.0\", \"id\": 0, \"result\": {\"directoryblockheight\": 10}}");
+        client.heights().join();
+        client.heights().join();
+        Assert.assertEquals(2, server.getRequests().size());
+
+        server.respond("{\"jsonrpc\":\"2.0\",\"id\":0,\"error\":{\"code\":-32008,\"message\":\"Entry not found\"}}");
+        client.exchange(new RpcRequest.Builder(RpcMethod.ENTRY).param("hash", "abc").build(), EntryResponse.class, false).join();
+        client.exchange(new RpcRequest.Builder(RpcMethod.ENTRY).param("hash", "abc").build(), EntryResponse.class, false).join();
+        Assert.assertEquals(4, server.getRequests().size());
+        Assert.assertEquals(0, client.getResponseCache().size());
+    }
+
+    @Test
+    public void batchSendsOnlyMisses() {
+        server.respond(String.format(ENTRY, 0, "cached"));
+        client.entry("abc").join();
+
+        server.respond("[" + String.format(ENTRY, 1, "sent") + "]");
+        List<CompletableFuture<FactomResponse<EntryResponse>>> responses = client.entries(Arrays.asList("abc", "def"));
+        Assert.assertEquals("cached", responses.get(0).join().getResult().getContent());
+        Assert.assertEquals("sent", responses.get(1).join().getResult().getContent());
+        Assert.assertEquals(2, server.getRequests().size());
+        Assert.assertTrue(server.getRequests().get(1).contains("def"));
+        Assert.assertFalse(server.getRequests().get(1).contains("abc"));
+        Assert.assertEquals(2, client.getResponseCache().size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        ResponseCache cache = new ResponseCache(3 * WEIGHT);
+        put(cache, "a");
+        put(cache, "b");
+        put(cache, "c");
+        put(cache, "d");
+
+        Assert.assertEquals(3, cache.size());
+        Assert.assertEquals(1, cache.getEvictions());
+        Assert.assertNull(get(cache, "a"));
+        Assert.assertNotNull(get(cache, "d"));
+    }
+
+    @Test
+    public void scanDoesNotEvictFrequentlyUsedResponses() {
+        ResponseCache cache = new ResponseCache(5 * WEIGHT);
+        put(cache, "hot");
+        Assert.assertNotNull(get(cache, "hot"));
+
+        for (int i = 0; i < 20; i++) {
+            put(cache, "scan" + i);
+        }
+        Assert.assertNotNull(get(cache, "hot"));
+        Assert.assertEquals(5, cache.size());
+        Assert.assertTrue(cache.getWeight() <= cache.getMaxWeight());
+    }
+
+    @Test
+    public void disabledCacheDoesNotCache() {
+        ResponseCache cache = new ResponseCache(0);
+        Assert.assertFalse(cache.isEnabled());
+        put(cache, "a");
+        Assert.assertNull(get(cache, "a"));
+        Assert.assertEquals(0, cache.getMisses());
+        Assert.assertFalse(new ResponseCache(WEIGHT).isCacheable(new RpcRequest(RpcMethod.HEIGHTS)));
+        Assert.assertFalse(RpcMethod.HEIGHTS.isImmutable());
+        Assert.assertTrue(RpcMethod.ENTRY.isImmutable());
+    }
+
+    private static RpcRequest request(String hash) {
+        return new RpcRequest.Builder(RpcMethod.ENTRY).param("hash", hash).build();
+    }
+
+    private static void put(ResponseCache cache, String hash) {
+        FactomResponse<EntryResponse> response = new FactomResponseImpl<>(null, new RpcResponse<>(new EntryResponse("cafe", null, hash)), 200, "OK");
+        cache.putOnCompletion(request(hash), EntryResponse.class, CompletableFuture.completedFuture(response)).join();
+    }
+
+    private static FactomResponse<EntryResponse> get(ResponseCache cache, String hash) {
+        return cache.get(request(hash), EntryResponse.class);
+    }
+}
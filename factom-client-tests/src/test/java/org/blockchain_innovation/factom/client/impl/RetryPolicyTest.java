@@ -0,0 +1,192 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.HeightsResponse;
+import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
+import org.blockchain_innovation.factom.client.api.rpc.RpcRequest;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.impl.routing.CircuitBreaker;
+import org.blockchain_innovation.factom.client.impl.routing.RetryPolicy;
+import org.blockchain_innovation.factom.client.impl.settings.RpcSettingsImpl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.Properties;
+
+public class RetryPolicyTest {
+    private static final String HEIGHTS = "{\"jsonrpc\":\"2.0\",\"id\":0,\"result\":{\"directoryblockheight\":100,\"leaderheight\":100,\"entryblockheight\":100,\"entryheight\":100}}";
+
+    private StubRpcServer server;
+    private FactomdClientImpl client;
+
+    @Before
+    public void startServer() throws IOException {
+        server = new StubRpcServer().respond(HEIGHTS);
+        client = new FactomdClientImpl();
+        client.setSettings(settings(server.getURL(), new Properties()));
+    }
+
+    @After
+    public void stopServer() {
+        client.getEndpointGroup().close();
+        client.getTransport().close();
+        server.close();
+    }
+
+    @Test
+    public void retriesUnavailableReads() {
+        server.failNext(2, 503);
+        FactomResponse<HeightsResponse> response = client.heights().join();
+
+        Assert.assertFalse(response.hasErrors());
+        Assert.assertEquals(100, response.getResult().getDirectoryBlockHeight());
+        Assert.assertEquals(3, server.getRequests().size());
+    }
+
+    @Test
+    public void givesUpAfterMaxRetries() {
+        server.failNext(3, 503);
+        FactomResponse<HeightsResponse> response = client.heights().join();
+
+        Assert.assertEquals(503, response.getHTTPResponseCode());
+        Assert.assertEquals(3, server.getRequests().size());
+    }
+
+    @Test
+    public void doesNotRetryRpcErrors() {
+        server.failNext(1, 500);
+        FactomResponse<HeightsResponse> response = client.heights().join();
+
+        Assert.assertEquals(500, response.getHTTPResponseCode());
+        Assert.assertEquals(1, server.getRequests().size());
+    }
+
+    @Test
+    public void doesNotRetryStateChanges() {
+        server.failNext(1, 503);
+        FactomResponse<Object> response = client.exchange(new RpcRequest(RpcMethod.COMMIT_ENTRY), Object.class, false).join();
+
+        Assert.assertEquals(503, response.getHTTPResponseCode());
+        Assert.assertEquals(1, server.getRequests().size());
+    }
+
+    @Test
+    public void retriesMethodsMarkedSafe() {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.retry-safe-methods", "reveal-entry, reveal-chain");
+        client.setSettings(settings(server.getURL(), properties));
+        Assert.assertTrue(client.getRetryPolicy().isRetryable(RpcMethod.REVEAL_CHAIN));
+
+        server.failNext(1, 503);
+        FactomResponse<Object> response = client.exchange(new RpcRequest(RpcMethod.REVEAL_ENTRY), Object.class, false).join();
+
+        Assert.assertEquals(200, response.getHTTPResponseCode());
+        Assert.assertEquals(2, server.getRequests().size());
+    }
+
+    @Test
+    public void retriesOnAnotherNode() throws IOException {
+        StubRpcServer down = new StubRpcServer();
+        String downUrl = down.getURL();
+        down.close();
+        Properties properties = new Properties();
+        properties.setProperty("factomd.urls", downUrl + "," + server.getURL());
+        properties.setProperty("factomd.eject-after-failures", "0");
+        properties.setProperty("factomd.circuit-breaker-failures", "0");
+        client.setSettings(settings(server.getURL(), properties));
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertFalse(client.heights().join().hasErrors());
+        }
+        Assert.assertEquals(10, server.getRequests().size());
+    }
+
+    @Test
+    public void openCircuitFailsFast() {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.max-retries", "0");
+        properties.setProperty("factomd.circuit-breaker-failures", "3");
+        client.setSettings(settings(server.getURL(), properties));
+        server.setStatusCode(503);
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals(503, client.heights().join().getHTTPResponseCode());
+        }
+        Assert.assertEquals(CircuitBreaker.State.OPEN, client.getEndpointGroup().getCircuitBreaker().getState());
+
+        Assert.assertNull(client.heights().join());
+        Assert.assertEquals(3, server.getRequests().size());
+    }
+
+    @Test
+    public void halfOpenTrial() {
+        CircuitBreaker breaker = new CircuitBreaker("test", 2, 0);
+        Assert.assertTrue(breaker.tryAcquire());
+        breaker.record(false);
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.record(false);
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        // The open time has passed: a single trial is allowed
+        Assert.assertTrue(breaker.tryAcquire());
+        Assert.assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        Assert.assertFalse(breaker.tryAcquire());
+        breaker.record(false);
+        Assert.assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        Assert.assertTrue(breaker.tryAcquire());
+        breaker.record(true);
+        Assert.assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        Assert.assertTrue(breaker.tryAcquire());
+    }
+
+    @Test
+    public void retryableMethodsAndBackoff() {
+        RetryPolicy policy = new RetryPolicy().setBackoff(100).setMaxBackoff(1000);
+
+        Assert.assertTrue(policy.isRetryable(RpcMethod.ENTRY));
+        Assert.assertTrue(policy.isRetryable(RpcMethod.CHAIN_HEAD));
+        Assert.assertTrue(policy.isRetryable(RpcMethod.DIRECTORY_BLOCK_BY_HEIGHT));
+        Assert.assertFalse(policy.isRetryable(RpcMethod.COMMIT_CHAIN));
+        Assert.assertFalse(policy.isRetryable(RpcMethod.REVEAL_ENTRY));
+        Assert.assertFalse(policy.isRetryable(RpcMethod.SIGN_TRANSACTION));
+        Assert.assertTrue(policy.markSafe(RpcMethod.REVEAL_ENTRY).isRetryable(RpcMethod.REVEAL_ENTRY));
+        Assert.assertFalse(policy.markUnsafe(RpcMethod.ENTRY).isRetryable(RpcMethod.ENTRY));
+        Assert.assertFalse(RetryPolicy.none().isRetryable(RpcMethod.CHAIN_HEAD));
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(policy.getDelay(0) <= 100);
+            Assert.assertTrue(policy.getDelay(2) <= 400);
+            Assert.assertTrue(policy.getDelay(40) <= 1000);
+        }
+    }
+
+    private static RpcSettings settings(String url, Properties extraProperties) {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.url", url);
+        properties.setProperty("factomd.retry-backoff", "10");
+        properties.setProperty("factomd.health-check-interval", "0");
+        properties.putAll(extraProperties);
+        return new RpcSettingsImpl(RpcSettings.SubSystem.FACTOMD, properties, Optional.empty());
+    }
+}
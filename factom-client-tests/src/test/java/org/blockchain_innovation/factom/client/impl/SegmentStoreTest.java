@@ -0,0 +1,190 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.blockchain_innovation.factom.client.impl;
+
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.errors.FactomException;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.EntryResponse;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.impl.store.SegmentStore;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+public class SegmentStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void survivesReopening() throws IOException {
+        Path directory = folder.newFolder().toPath();
+        try (SegmentStore store = new SegmentStore(directory, 1 << 20, 1024)) {
+            for (int i = 0; i < 50; i++) {
+                Assert.assertTrue(store.put("key" + i, bytes("value" + i)));
+            }
+            Assert.assertFalse(store.put("key1", bytes("other")));
+            Assert.assertEquals("value1", string(store.get("key1")));
+            Assert.assertTrue(store.getSegmentCount() > 1);
+        }
+        try (SegmentStore store = new SegmentStore(directory, 1 << 20, 1024)) {
+            Assert.assertEquals(50, store.size());
+            for (int i = 0; i < 50; i++) {
+                Assert.assertEquals("value" + i, string(store.get("key" + i)));
+            }
+            Assert.assertNull(store.get("unknown"));
+        }
+    }
+
+    @Test
+    public void onlyOneStorePerDirectory() throws IOException {
+        Path directory = folder.newFolder().toPath();
+        SegmentStore store = SegmentStore.open(directory, 1 << 20);
+        SegmentStore shared = SegmentStore.open(directory, 1 << 20);
+        Assert.assertSame(store, shared);
+        try {
+            new SegmentStore(directory, 1 << 20, 1024).close();
+            Assert.fail("Opened a store that is in use");
+        } catch (FactomException.ClientException expected) {
+            Assert.assertTrue(expected.getMessage().contains("in use"));
+        }
+
+        // Closed once every user closed it
+        shared.close();
+        Assert.assertTrue(store.put("key", bytes("value")));
+        store.close();
+        Assert.assertFalse(store.put("other", bytes("value")));
+        new SegmentStore(directory, 1 << 20, 1024).close();
+    }
+
+    @Test
+    public void growsSegmentsInChunks() throws IOException {
+        Path directory = folder.newFolder().toPath();
+        try (SegmentStore store = new SegmentStore(directory, 1 << 24, 1 << 22)) {
+            store.put("first", bytes("value1"));
+            // The file has room for the next appends, which are read without mapping the segment again
+            Assert.assertTrue(Files.size(segment(directory)) > store.getBytes());
+            for (int i = 0; i < 1000; i++) {
+                store.put("key" + i, bytes("value" + i));
+                Assert.assertEquals("value" + i, string(store.get("key" + i)));
+            }
+        }
+        try (SegmentStore store = new SegmentStore(directory, 1 << 24, 1 << 22)) {
+            Assert.assertEquals(1001, store.size());
+            Assert.assertEquals(Files.size(segment(directory)), store.getBytes());
+            Assert.assertEquals("value999", string(store.get("key999")));
+        }
+    }
+
+    @Test
+    public void dropsCorruptAndIncompleteRecords() throws IOException {
+        Path directory = folder.newFolder().toPath();
+        try (SegmentStore store = new SegmentStore(directory, 1 << 20, 1 << 16)) {
+            store.put("first", bytes("value1"));
+            store.put("second", bytes("value2"));
+        }
+        Path segment = segment(directory);
+        long size = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // Flip the last byte of the first value, and write half a record at the end
+            channel.write(ByteBuffer.wrap(bytes("X")), 12 + "first".length() + "value1".length() - 1);
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 5, 0, 0}), size);
+        }
+        try (SegmentStore store = new SegmentStore(directory, 1 << 20, 1 << 16)) {
+            Assert.assertNull(store.get("first"));
+            Assert.assertEquals("value2", string(store.get("second")));
+            Assert.assertTrue(store.put("third", bytes("value3")));
+        }
+        try (SegmentStore store = new SegmentStore(directory, 1 << 20, 1 << 16)) {
+            Assert.assertEquals("value3", string(store.get("third")));
+        }
+    }
+
+    @Test
+    public void staysWithinMaxBytesKeepingReadValues() throws IOException {
+        Path directory = folder.newFolder().toPath();
+        try (SegmentStore store = new SegmentStore(directory, 4096, 1024)) {
+            store.put("hot", new byte[100]);
+            for (int i = 0; i < 100; i++) {
+                store.get("hot");
+                store.put("cold" + i, new byte[100]);
+            }
+            Assert.assertTrue(store.getBytes() <= store.getMaxBytes());
+            Assert.assertNotNull(store.get("hot"));
+            Assert.assertNull(store.get("cold0"));
+            Assert.assertNotNull(store.get("cold99"));
+            Assert.assertFalse(store.put("too large", new byte[2048]));
+        }
+    }
+
+    @Test
+    public void clientReadsFromStoreAfterRestart() throws IOException {
+        Path directory = folder.newFolder().toPath();
+        try (StubRpcServer server = new StubRpcServer()) {
+            Properties properties = new Properties();
+            properties.setProperty("factomd.health-check-interval", "0");
+            properties.setProperty("factomd.store-dir", directory.toString());
+            RpcSettings settings = server.settings(RpcSettings.SubSystem.FACTOMD, properties);
+            server.respond("{\"jsonrpc\": \"2.0\", \"id\": 0, \"result\": {\"chainid\": \"cafe\", \"content\": \"stored\", \"extids\": [\"01\"]}}");
+
+            FactomdClientImpl client = new FactomdClientImpl();
+            client.setSettings(settings);
+            Assert.assertEquals("stored", client.entry("abc").join().getResult().getContent());
+            SegmentStore store = client.getResponseCache().getStore();
+            properties.remove("factomd.store-dir");
+            // Changing the settings closes the store of the client
+            client.setSettings(server.settings(RpcSettings.SubSystem.FACTOMD, properties));
+            Assert.assertFalse(store.put("other", bytes("value")));
+            client.getTransport().close();
+
+            FactomdClientImpl restarted = new FactomdClientImpl();
+            restarted.setSettings(settings);
+            FactomResponse<EntryResponse> response = restarted.entry("abc").join();
+            Assert.assertEquals("stored", response.getResult().getContent());
+            Assert.assertEquals("01", response.getResult().getExtIds().get(0));
+            Assert.assertEquals(1, server.getRequests().size());
+            restarted.getResponseCache().getStore().close();
+            restarted.getTransport().close();
+        }
+    }
+
+    private static Path segment(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("segment-")).findFirst().orElseThrow(IllegalStateException::new);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] value) {
+        return value == null ? null : new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.impl.settings.RpcSettingsImpl;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Minimal JSON-RPC server on localhost for tests that should not depend on a live factomd/walletd.
+ */
+public class StubRpcServer implements AutoCloseable {
+    private static final String BATCH_ERROR = "{\"jsonrpc\":\"2.0\",\"id\":null,\"error\":{\"code\":-32600,\"message\":\"Invalid Request\"}}";
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private final List<Integer> remotePorts = new CopyOnWriteArrayList<>();
+    private volatile Function<String, String> responder = request -> "{\"jsonrpc\":\"2.0\",\"id\":0,\"result\":{}}";
+    private volatile int statusCode = 200;
+    private final AtomicInteger failures = new AtomicInteger();
+    private volatile int failureStatusCode;
+    private volatile boolean chunked;
+    private volatile boolean rejectBatches;
+    private volatile String contentEncoding;
+    private final List<Headers> requestHeaders = new CopyOnWriteArrayList<>();
+
+    public StubRpcServer() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public StubRpcServer respond(Function<String, String> responder) {
+        this.responder = responder;
+        return this;
+    }
+
+    public StubRpcServer respond(String json) {
+        return respond(request -> json);
+    }
+
+    public StubRpcServer setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+        return this;
+    }
+
+    /**
+     * Answers the next requests with an error status, before returning to the normal status code.
+     *
+     * @param count      The number of requests to fail.
+     * @param statusCode The status code of the failed requests.
+     * @return This server.
+     */
+    public StubRpcServer failNext(int count, int statusCode) {
+        this.failureStatusCode = statusCode;
+        failures.set(count);
+        return this;
+    }
+
+    /**
+     * Answers JSON-RPC batches like factomd and walletd do: with HTTP 400 and a single JSON-RPC error.
+     *
+     * @param rejectBatches Whether to reject batches.
+     * @return This server.
+     */
+    public StubRpcServer setRejectBatches(boolean rejectBatches) {
+        this.rejectBatches = rejectBatches;
+        return this;
+    }
+
+    public StubRpcServer setChunked(boolean chunked) {
+        this.chunked = chunked;
+        return this;
+    }
+
+    /**
+     * Compresses the responses using the content encoding, "gzip" or "deflate".
+     *
+     * @param contentEncoding The content encoding or null for uncompressed responses.
+     * @return This server.
+     */
+    public StubRpcServer setContentEncoding(String contentEncoding) {
+        this.contentEncoding = contentEncoding;
+        return this;
+    }
+
+    public String getURL() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v2";
+    }
+
+    public RpcSettings settings(RpcSettings.SubSystem subSystem, Properties extraProperties) {
+        Properties properties = new Properties();
+        properties.setProperty(subSystem.configKey() + ".url", getURL());
+        properties.putAll(extraProperties);
+        return new RpcSettingsImpl(subSystem, properties, Optional.empty());
+    }
+
+    public RpcSettings settings(RpcSettings.SubSystem subSystem) {
+        return settings(subSystem, new Properties());
+    }
+
+    public List<String> getRequests() {
+        return requests;
+    }
+
+    /**
+     * The client ports of the received requests. The same port for multiple requests means the connection was reused.
+     *
+     * @return The remote ports in order of arrival.
+     */
+    public List<Integer> getRemotePorts() {
+        return remotePorts;
+    }
+
+    public List<Headers> getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestHeaders.add(exchange.getRequestHeaders());
+        boolean gzippedRequest = "gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"));
+        String request = read(gzippedRequest ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody());
+        requests.add(request);
+        remotePorts.add(exchange.getRemoteAddress().getPort());
+        boolean rejected = rejectBatches && request.trim().startsWith("[");
+        byte[] response = compress((rejected ? BATCH_ERROR : responder.apply(request)).getBytes(StandardCharsets.UTF_8));
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        if (contentEncoding != null) {
+            exchange.getResponseHeaders().set("Content-Encoding", contentEncoding);
+        }
+        int status = failures.getAndUpdate(count -> Math.max(0, count - 1)) > 0 ? failureStatusCode : statusCode;
+        exchange.sendResponseHeaders(rejected ? 400 : status, chunked ? 0 : response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private byte[] compress(byte[] response) throws IOException {
+        if (contentEncoding == null) {
+            return response;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (OutputStream compressed = "gzip".equals(contentEncoding) ? new GZIPOutputStream(out) : new DeflaterOutputStream(out)) {
+            compressed.write(response);
+        }
+        return out.toByteArray();
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
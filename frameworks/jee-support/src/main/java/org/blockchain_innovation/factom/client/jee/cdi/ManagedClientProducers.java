@@ -1,19 +1,27 @@
 package org.blockchain_innovation.factom.client.jee.cdi;
 
 import org.blockchain_innovation.factom.client.api.FactomdClient;
+import org.blockchain_innovation.factom.client.api.LowLevelClient;
 import org.blockchain_innovation.factom.client.api.WalletdClient;
+import org.blockchain_innovation.factom.client.api.interceptors.RpcInterceptor;
 import org.blockchain_innovation.factom.client.api.json.JsonConverter;
 import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
 import org.blockchain_innovation.factom.client.impl.EntryApiImpl;
 import org.blockchain_innovation.factom.client.impl.FactomdClientImpl;
 import org.blockchain_innovation.factom.client.impl.WalletdClientImpl;
 
+import javax.annotation.Priority;
 import javax.annotation.Resource;
 import javax.enterprise.concurrent.ManagedExecutorService;
 import javax.enterprise.context.RequestScoped;
+import javax.enterprise.inject.Any;
+import javax.enterprise.inject.Instance;
 import javax.enterprise.inject.Produces;
 import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RequestScoped
@@ -28,6 +36,10 @@ public class ManagedClientProducers {
     @Inject
     private JsonConverter jsonConverter;
 
+    @Inject
+    @Any
+    private Instance<RpcInterceptor> interceptors;
+
     private final Map<RpcSettings.SubSystem, RpcSettings> settings = new HashMap<>();
     private FactomdClientImpl factomdClient;
     private WalletdClientImpl walletdClient;
@@ -64,6 +76,7 @@ public class ManagedClientProducers {
             this.factomdClient = new FactomdClientImpl();
             factomdClient.setSettings(getSettings(RpcSettings.SubSystem.FACTOMD));
             factomdClient.setExecutorService(managedExecutorService);
+            addInterceptors(factomdClient);
         }
         return factomdClient;
     }
@@ -75,6 +88,7 @@ public class ManagedClientProducers {
             this.walletdClient = new WalletdClientImpl();
             walletdClient.setSettings(getSettings(RpcSettings.SubSystem.WALLETD));
             walletdClient.setExecutorService(managedExecutorService);
+            addInterceptors(walletdClient);
         }
         return walletdClient;
     }
@@ -94,6 +108,30 @@ public class ManagedClientProducers {
         return entryApi;
     }
 
+    /**
+     * Adds the interceptor beans to the client, ordered by their {@link Priority} (lowest first). Interceptors without a priority come last.
+     */
+    private void addInterceptors(LowLevelClient client) {
+        if (interceptors == null) {
+            return;
+        }
+        List<RpcInterceptor> ordered = new ArrayList<>();
+        interceptors.forEach(ordered::add);
+        ordered.sort(Comparator.comparingInt(ManagedClientProducers::priority));
+        ordered.forEach(client::addInterceptor);
+    }
+
+    private static int priority(RpcInterceptor interceptor) {
+        // Normal scoped beans are proxies extending the bean class
+        for (Class<?> type = interceptor.getClass(); type != null; type = type.getSuperclass()) {
+            Priority priority = type.getAnnotation(Priority.class);
+            if (priority != null) {
+                return priority.value();
+            }
+        }
+        return Integer.MAX_VALUE;
+    }
+
     public JsonConverter getJsonConverter() {
         return jsonConverter;
     }
@@ -3,6 +3,7 @@ package org.blockchain_innovation.factom.client.spring;
 import org.blockchain_innovation.factom.client.api.EntryApi;
 import org.blockchain_innovation.factom.client.api.FactomdClient;
 import org.blockchain_innovation.factom.client.api.WalletdClient;
+import org.blockchain_innovation.factom.client.api.interceptors.RpcInterceptor;
 import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
 import org.blockchain_innovation.factom.client.impl.EntryApiImpl;
 import org.blockchain_innovation.factom.client.impl.FactomdClientImpl;
@@ -10,6 +11,7 @@ import org.blockchain_innovation.factom.client.impl.OfflineWalletdClientImpl;
 import org.blockchain_innovation.factom.client.impl.WalletdClientImpl;
 import org.blockchain_innovation.factom.client.impl.settings.RpcSettingsImpl;
 import org.blockchain_innovation.factom.client.spring.settings.SpringRpcSettings;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -30,32 +32,35 @@ public class FactomConfiguration {
 
     @Bean
     @Scope("prototype")
-    public FactomdClient factomdClient(SpringRpcSettings specificSettings) {
+    public FactomdClient factomdClient(SpringRpcSettings specificSettings, ObjectProvider<RpcInterceptor> interceptors) {
         FactomdClientImpl factomdClient = new FactomdClientImpl();
         RpcSettingsImpl settings = new RpcSettingsImpl(RpcSettings.SubSystem.FACTOMD, specificSettings.getFactomd());
         settings.setDefaultECAddress(specificSettings.getEcAddress());
         factomdClient.setSettings(settings);
         factomdClient.setExecutorService(Executors.newFixedThreadPool(specificSettings.getFactomd().getThreads()));
+        // Interceptor beans are added in the order of their @Order or Ordered
+        interceptors.orderedStream().forEach(factomdClient::addInterceptor);
         return factomdClient;
     }
 
     @Bean
     @Scope("prototype")
-    public WalletdClient onlineWalletdClient(SpringRpcSettings specificSettings) {
-        return walletdClient(specificSettings, new WalletdClientImpl());
+    public WalletdClient onlineWalletdClient(SpringRpcSettings specificSettings, ObjectProvider<RpcInterceptor> interceptors) {
+        return walletdClient(specificSettings, interceptors, new WalletdClientImpl());
     }
 
     @Bean
     @Scope("prototype")
-    public WalletdClient offlineWalletdClient(SpringRpcSettings specificSettings) {
-        return walletdClient(specificSettings, new OfflineWalletdClientImpl());
+    public WalletdClient offlineWalletdClient(SpringRpcSettings specificSettings, ObjectProvider<RpcInterceptor> interceptors) {
+        return walletdClient(specificSettings, interceptors, new OfflineWalletdClientImpl());
     }
 
-    private WalletdClient walletdClient(SpringRpcSettings specificSettings, WalletdClientImpl walletdClient) {
+    private WalletdClient walletdClient(SpringRpcSettings specificSettings, ObjectProvider<RpcInterceptor> interceptors, WalletdClientImpl walletdClient) {
         RpcSettingsImpl settings = new RpcSettingsImpl(RpcSettings.SubSystem.WALLETD, specificSettings.getWalletd());
         settings.setDefaultECAddress(specificSettings.getEcAddress());
         walletdClient.setSettings(settings);
         walletdClient.setExecutorService(Executors.newFixedThreadPool(specificSettings.getWalletd().getThreads()));
+        interceptors.orderedStream().forEach(walletdClient::addInterceptor);
         return walletdClient;
     }
 }
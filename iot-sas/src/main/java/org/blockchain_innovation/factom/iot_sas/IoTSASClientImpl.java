@@ -41,21 +41,21 @@ public class IoTSASClientImpl implements SignatureProvider {
     @Override
     public Address getPublicAddress() {
         port().clearInBuffer();
-        logger.info(String.format("Getting public EC address from %s", port()));
+        logger.info("Getting public EC address from %s", port());
 
         // Sending data
-        logger.debug(String.format("Sending public EC address retrieval header to %s", port()));
+        logger.debug("Sending public EC address retrieval header to %s", port());
         byte[] eCHeader = Encoding.HEX.decode(EC_ADDRESS_HEADER);
         final int bytesWritten = port().get().writeBytes(eCHeader, eCHeader.length);
         if (bytesWritten != eCHeader.length) {
             throw new IoTSASPort.IoTSASPortException(String.format("Could not write public EC header to IoT-SAS device serial port. Bytes written: %d", bytesWritten));
         }
-        logger.debug(String.format("Public EC address retrieval header with length %d sent to %s", bytesWritten, port()));
+        logger.debug("Public EC address retrieval header with length %d sent to %s", bytesWritten, port());
 
 
         //Read the IOT-SAS reply, which should be a 52 byte key
 
-        logger.debug(String.format("Retrieving public EC address from %s", port()));
+        logger.debug("Retrieving public EC address from %s", port());
         byte[] key = new byte[52];
 
         int count = port().get().readBytes(key, key.length);
@@ -64,7 +64,7 @@ public class IoTSASClientImpl implements SignatureProvider {
         }
 
         Address address = Address.fromBytes(key);
-        logger.info(String.format("Retrieved public EC address %s from %s", address, port()));
+        logger.info("Retrieved public EC address %s from %s", address, port());
         return address;
 
     }
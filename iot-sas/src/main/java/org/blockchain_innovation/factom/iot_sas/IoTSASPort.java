@@ -108,7 +108,9 @@ public class IoTSASPort implements Closeable {
 
         if (buffer.length() > 0 && !buffer.toString().equals("-1120")) {
             logger.warn("IoT-SAS port had %d bytes in it's input buffer that are discarded. Enable debug logging to shows buffer", buffer.length());
-            logger.info("Buffer: %s", buffer.toString());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Buffer: %s", buffer.toString());
+            }
         }
         return port;
     }
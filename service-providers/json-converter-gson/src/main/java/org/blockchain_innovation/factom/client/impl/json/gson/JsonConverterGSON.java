@@ -18,6 +18,8 @@ package org.blockchain_innovation.factom.client.impl.json.gson;
 
 import com.google.gson.*;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import org.blockchain_innovation.factom.client.api.json.JsonConverter;
 import org.blockchain_innovation.factom.client.api.model.response.walletd.AddressResponse;
 import org.blockchain_innovation.factom.client.api.rpc.RpcErrorResponse;
@@ -25,16 +27,25 @@ import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
 import org.blockchain_innovation.factom.client.api.rpc.RpcResponse;
 
 import javax.inject.Named;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 @Named
 public class JsonConverterGSON implements JsonConverter {
 
     public static final String NAME = "GSON";
-    private Gson gson;
+    private volatile Codecs codecs;
     private final Map<Type, Object> adapters = new HashMap<>();
 
     @Override
@@ -59,19 +70,42 @@ public class JsonConverterGSON implements JsonConverter {
         }
         adapters.forEach((type, adapter) -> builder.registerTypeAdapter(type, adapter));
 
-        this.gson = builder.create();
+        this.codecs = new Codecs(builder.create(), builder().setLenient().setPrettyPrinting().create());
         return this;
     }
 
     @Override
     public RpcErrorResponse errorFromJson(String json) {
-        return gson().fromJson(json, RpcErrorResponse.class);
+        return json == null ? null : errorFromJson(new StringReader(json));
+    }
+
+    @Override
+    public RpcErrorResponse errorFromJson(Reader reader) {
+        return read(reader, codecs().errorAdapter);
     }
 
 
     @Override
     public <T> RpcResponse<T> responseFromJson(String json, Class<T> resultClass) {
-        return gson().fromJson(json, TypeToken.getParameterized(RpcResponse.class, resultClass).getType());
+        return json == null ? null : responseFromJson(new StringReader(json), resultClass);
+    }
+
+    @Override
+    public <T> RpcResponse<T> responseFromJson(Reader reader, Class<T> resultClass) {
+        return read(reader, codecs().responseAdapter(resultClass));
+    }
+
+    @Override
+    public List<String> batchFromJson(String json) {
+        JsonArray responses = new JsonParser().parse(json).getAsJsonArray();
+        List<String> result = new ArrayList<>(responses.size());
+        responses.forEach(response -> result.add(response.toString()));
+        return result;
+    }
+
+    @Override
+    public <T> List<RpcResponse<T>> batchFromJson(Reader reader, Class<T> resultClass) {
+        return read(reader, codecs().batchAdapter(resultClass));
     }
 
     @Override
@@ -81,8 +115,8 @@ public class JsonConverterGSON implements JsonConverter {
 
     @Override
     public String prettyPrint(String json) {
-        // New builder since we will always pretty print. The parser is necesary to force pretty printing the sting input
-        return builder().setLenient().setPrettyPrinting().create().toJson(new JsonParser().parse(json));
+        // Separate Gson since we will always pretty print. The parser is necesary to force pretty printing the sting input
+        return codecs().prettyGson.toJson(new JsonParser().parse(json));
     }
 
     @Override
@@ -90,6 +124,22 @@ public class JsonConverterGSON implements JsonConverter {
         return gson().toJson(input);
     }
 
+    @Override
+    public void toRpcJson(Object input, Writer writer) {
+        try {
+            JsonWriter jsonWriter = gson().newJsonWriter(writer);
+            if (input == null) {
+                gson().toJson(JsonNull.INSTANCE, jsonWriter);
+            } else {
+                gson().toJson(input, input.getClass(), jsonWriter);
+            }
+            // Only flush, since the writer belongs to the caller
+            jsonWriter.flush();
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+
     @Override
     public String toGenericJson(Object object, Type runtimeType) {
         return gson().toJson(object, runtimeType);
@@ -114,12 +164,75 @@ public class JsonConverterGSON implements JsonConverter {
         registerTypeAdapter(RpcMethod.class, new RpcMethodSerializer());
     }
 
+    /**
+     * Deserializes directly from the stream, without buffering the json. Like {@link Gson#fromJson(Reader, Type)} an empty document results in null.
+     */
+    @SuppressWarnings("PMD.PreserveStackTrace")
+    private <T> T read(Reader reader, TypeAdapter<T> adapter) {
+        JsonReader jsonReader = gson().newJsonReader(reader);
+        boolean empty = true;
+        try {
+            jsonReader.peek();
+            empty = false;
+            return adapter.read(jsonReader);
+        } catch (EOFException e) {
+            if (empty) {
+                return null;
+            }
+            throw new JsonSyntaxException(e);
+        } catch (IllegalStateException e) {
+            throw new JsonSyntaxException(e);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+
     private Gson gson() {
-        if (gson == null) {
-            configure(null);
+        return codecs().gson;
+    }
+
+    private Codecs codecs() {
+        Codecs current = codecs;
+        if (current == null) {
+            synchronized (this) {
+                if (codecs == null) {
+                    configure(null);
+                }
+                current = codecs;
+            }
+        }
+        return current;
+    }
+
+
+    /**
+     * The configured Gson instances, with the type adapters of the Rpc responses per result class resolved once.
+     * Configuring the converter replaces all of them at once.
+     */
+    private static class Codecs {
+        private final Gson gson;
+        private final Gson prettyGson;
+        private final TypeAdapter<RpcErrorResponse> errorAdapter;
+        private final ConcurrentMap<Class<?>, TypeAdapter<?>> responseAdapters = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Class<?>, TypeAdapter<?>> batchAdapters = new ConcurrentHashMap<>();
+
+        Codecs(Gson gson, Gson prettyGson) {
+            this.gson = gson;
+            this.prettyGson = prettyGson;
+            this.errorAdapter = gson.getAdapter(RpcErrorResponse.class);
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> TypeAdapter<RpcResponse<T>> responseAdapter(Class<T> resultClass) {
+            return (TypeAdapter<RpcResponse<T>>) responseAdapters.computeIfAbsent(resultClass,
+                    key -> gson.getAdapter(TypeToken.getParameterized(RpcResponse.class, key)));
+        }
 
+        @SuppressWarnings("unchecked")
+        <T> TypeAdapter<List<RpcResponse<T>>> batchAdapter(Class<T> resultClass) {
+            return (TypeAdapter<List<RpcResponse<T>>>) batchAdapters.computeIfAbsent(resultClass,
+                    key -> gson.getAdapter(TypeToken.getParameterized(List.class, TypeToken.getParameterized(RpcResponse.class, key).getType())));
         }
-        return gson;
     }
 
 
@@ -23,7 +23,9 @@ import org.blockchain_innovation.factom.client.api.rpc.RpcMethod;
 import org.blockchain_innovation.factom.client.api.rpc.RpcResponse;
 
 import javax.inject.Named;
+import javax.json.Json;
 import javax.json.JsonArray;
+import javax.json.JsonReader;
 import javax.json.JsonValue;
 import javax.json.bind.Jsonb;
 import javax.json.bind.JsonbBuilder;
@@ -38,9 +40,17 @@ import javax.json.bind.serializer.JsonbSerializer;
 import javax.json.bind.serializer.SerializationContext;
 import javax.json.stream.JsonGenerator;
 import javax.json.stream.JsonParser;
+import java.io.FilterReader;
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
 import java.lang.reflect.*;
 import java.nio.CharBuffer;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static javax.json.bind.config.PropertyOrderStrategy.LEXICOGRAPHICAL;
 
@@ -50,8 +60,13 @@ import static javax.json.bind.config.PropertyOrderStrategy.LEXICOGRAPHICAL;
 public class JsonConverterJEE implements JsonConverter {
     public static final String NAME = "JEE";
     protected static final String RPC_METHOD = "method";
-    private Jsonb jsonb;
-    private Jsonb genericJsonb;
+    /**
+     * The Rpc response types per result class, resolved once so Jsonb can reuse the class model it caches per type.
+     */
+    private static final ConcurrentMap<Class<?>, ParameterizedType> RESPONSE_TYPES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, ParameterizedType> BATCH_TYPES = new ConcurrentHashMap<>();
+    private volatile Jsonb jsonb;
+    private volatile Jsonb genericJsonb;
     private final Map<Type, JsonbAdapter> adapters = new HashMap<>();
 
     @Override
@@ -94,17 +109,29 @@ public class JsonConverterJEE implements JsonConverter {
 
 
     private Jsonb jsonb() {
-        if (jsonb == null) {
-            configure(null);
+        Jsonb current = jsonb;
+        if (current == null) {
+            synchronized (this) {
+                if (jsonb == null) {
+                    configure(null);
+                }
+                current = jsonb;
+            }
         }
-        return jsonb;
+        return current;
     }
 
     private Jsonb genericJsonb() {
-        if (genericJsonb == null) {
-            this.genericJsonb = JsonbBuilder.create(genericConfig());
+        Jsonb current = genericJsonb;
+        if (current == null) {
+            synchronized (this) {
+                if (genericJsonb == null) {
+                    this.genericJsonb = JsonbBuilder.create(genericConfig());
+                }
+                current = genericJsonb;
+            }
         }
-        return genericJsonb;
+        return current;
     }
 
     @Override
@@ -112,11 +139,37 @@ public class JsonConverterJEE implements JsonConverter {
         return jsonb().fromJson(json, RpcErrorResponse.class);
     }
 
+    @Override
+    public RpcErrorResponse errorFromJson(Reader reader) {
+        return jsonb().fromJson(new UnclosableReader(reader), RpcErrorResponse.class);
+    }
+
 
     @Override
     public <T> RpcResponse<T> responseFromJson(String json, Class<T> resultClass) {
-        ParameterizedType parameterizedType = new ResolvedParameterizedType(RpcResponse.class, new Type[]{resultClass});
-        return jsonb().fromJson(json, parameterizedType);
+        return jsonb().fromJson(json, responseType(resultClass));
+    }
+
+    @Override
+    public <T> RpcResponse<T> responseFromJson(Reader reader, Class<T> resultClass) {
+        // The Jsonb parser reads the json from the stream while binding, without buffering it
+        return jsonb().fromJson(new UnclosableReader(reader), responseType(resultClass));
+    }
+
+    @Override
+    public List<String> batchFromJson(String json) {
+        try (JsonReader reader = Json.createReader(new StringReader(json))) {
+            JsonArray responses = reader.readArray();
+            List<String> result = new ArrayList<>(responses.size());
+            responses.forEach(response -> result.add(response.toString()));
+            return result;
+        }
+    }
+
+    @Override
+    public <T> List<RpcResponse<T>> batchFromJson(Reader reader, Class<T> resultClass) {
+        return jsonb().fromJson(new UnclosableReader(reader), BATCH_TYPES.computeIfAbsent(resultClass,
+                key -> new ResolvedParameterizedType(List.class, responseType(key))));
     }
 
     @Override
@@ -134,6 +187,11 @@ public class JsonConverterJEE implements JsonConverter {
         return jsonb().toJson(input);
     }
 
+    @Override
+    public void toRpcJson(Object input, Writer writer) {
+        jsonb().toJson(input, new UnclosableWriter(writer));
+    }
+
     @Override
     public String toGenericJson(Object object, Type runtimeType) {
         return genericJsonb().toJson(object, runtimeType);
@@ -145,6 +203,11 @@ public class JsonConverterJEE implements JsonConverter {
     }
 
 
+    private static ParameterizedType responseType(Class<?> resultClass) {
+        return RESPONSE_TYPES.computeIfAbsent(resultClass, key -> new ResolvedParameterizedType(RpcResponse.class, new Type[]{key}));
+    }
+
+
     /**
      * add naming strategy to handle response with reserved keywords and dashes.
      * Examples are: TmpTransaction#Transaction tx-name and WalletBackupResponse wallet-seed
@@ -200,6 +263,34 @@ public class JsonConverterJEE implements JsonConverter {
     }
 
 
+    /**
+     * Jsonb closes the reader once it is done, but the reader belongs to the caller.
+     */
+    private static class UnclosableReader extends FilterReader {
+        UnclosableReader(Reader in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+            // The caller closes the reader
+        }
+    }
+
+    /**
+     * Jsonb closes the writer once it is done, but the writer belongs to the caller. It is flushed instead.
+     */
+    private static class UnclosableWriter extends FilterWriter {
+        UnclosableWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
     private static class RpcMethodSerializer implements JsonbSerializer<RpcMethod> {
         public void serialize(RpcMethod rpcMethod, JsonGenerator jsonGenerator, SerializationContext serializationContext) {
             if (rpcMethod != null) {
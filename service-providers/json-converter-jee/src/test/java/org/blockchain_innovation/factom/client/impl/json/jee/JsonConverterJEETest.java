@@ -12,8 +12,15 @@ import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
+import java.util.stream.IntStream;
 
 public class JsonConverterJEETest {
 
@@ -116,6 +123,24 @@ public class JsonConverterJEETest {
         Assert.assertEquals(CONV.getClass(), JsonConverter.Provider.newInstance().getClass());
     }
 
+    @Test
+    public void testSharedInstance() {
+        Assert.assertSame(JsonConverter.Provider.getInstance(), JsonConverter.Provider.getInstance());
+        Assert.assertSame(JsonConverter.Provider.getInstance(JsonConverterJEE.NAME), JsonConverter.Provider.getInstance(JsonConverterJEE.NAME.toLowerCase()));
+        Assert.assertEquals(JsonConverterJEE.class, JsonConverter.Provider.getInstance().getClass());
+    }
+
+    @Test
+    public void testSharedInstanceConcurrently() {
+        JsonConverter converter = JsonConverter.Provider.getInstance();
+        long mismatches = IntStream.range(0, 200).parallel()
+                .filter(i -> i % 2 == 0
+                        ? converter.responseFromJson(DIRECTORY_BLOCK_RESP, DirectoryBlockResponse.class).getResult().getHeader().getSequenceNumber() != 72497
+                        : !converter.responseFromJson(WALLET_BACKUP_RESP, WalletBackupResponse.class).getResult().getWalletSeed().startsWith("yellow"))
+                .count();
+        Assert.assertEquals(0, mismatches);
+    }
+
     @Test
     public void testPropertiesReqToJson() {
         String json = CONV.toRpcJson(RpcMethod.PROPERTIES.toRequest());
@@ -180,6 +205,68 @@ public class JsonConverterJEETest {
         Assert.assertEquals("Method not found", errorResponse.getError().getMessage());
     }
 
+    @Test
+    public void testBatchFromJson() {
+        List<String> responses = CONV.batchFromJson("[" + METHOD_NOT_FOUND_RESP + "," + DIRECTORY_BLOCK_RESP + "]");
+
+        Assert.assertEquals(2, responses.size());
+        Assert.assertEquals(51, CONV.errorFromJson(responses.get(0)).getId());
+        RpcResponse<DirectoryBlockResponse> directoryBlock = CONV.responseFromJson(responses.get(1), DirectoryBlockResponse.class);
+        Assert.assertEquals(3, directoryBlock.getId());
+        Assert.assertEquals(72497, directoryBlock.getResult().getHeader().getSequenceNumber());
+    }
+
+    @Test
+    public void testBatchReqToJson() {
+        RpcRequest chainHead = RpcMethod.CHAIN_HEAD.toRequestBuilder().id(1).param("chainid", "TEST").build();
+        RpcRequest properties = RpcMethod.PROPERTIES.toRequestBuilder().id(2).build();
+        String json = CONV.toRpcJson(Arrays.asList(chainHead, properties)).trim();
+
+        Assert.assertTrue(json.startsWith("["));
+        Assert.assertTrue(json.contains("chain-head"));
+        Assert.assertTrue(json.contains("properties"));
+        Assert.assertEquals(2, CONV.batchFromJson(json).size());
+    }
+
+    @Test
+    public void testRespFromReader() {
+        RpcResponse<DirectoryBlockResponse> response = CONV.responseFromJson(new StringReader(DIRECTORY_BLOCK_RESP), DirectoryBlockResponse.class);
+        Assert.assertEquals(3, response.getId());
+        Assert.assertNull(response.getError());
+        Assert.assertEquals(72497, response.getResult().getHeader().getSequenceNumber());
+    }
+
+    @Test
+    public void testErrorRespFromStream() {
+        RpcResponse<DirectoryBlockResponse> response = CONV.responseFromJson(
+                new ByteArrayInputStream(METHOD_NOT_FOUND_RESP.getBytes(StandardCharsets.UTF_8)), DirectoryBlockResponse.class);
+        Assert.assertNull(response.getResult());
+        Assert.assertEquals(-32601, response.getError().getCode());
+        RpcErrorResponse errorResponse = response.toErrorResponse();
+        Assert.assertEquals(51, errorResponse.getId());
+        Assert.assertEquals("Method not found", errorResponse.getError().getMessage());
+    }
+
+    @Test
+    public void testBatchFromReader() {
+        List<RpcResponse<DirectoryBlockResponse>> responses = CONV.batchFromJson(
+                new StringReader("[" + METHOD_NOT_FOUND_RESP + "," + DIRECTORY_BLOCK_RESP + "]"), DirectoryBlockResponse.class);
+
+        Assert.assertEquals(2, responses.size());
+        Assert.assertEquals(51, responses.get(0).getId());
+        Assert.assertEquals(-32601, responses.get(0).getError().getCode());
+        Assert.assertEquals(72497, responses.get(1).getResult().getHeader().getSequenceNumber());
+    }
+
+    @Test
+    public void testReqToStream() throws IOException {
+        RpcRequest rpcRequest = RpcMethod.CHAIN_HEAD.toRequestBuilder().id(5).param("chainid", "TEST").build();
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            CONV.toRpcJson(rpcRequest, out);
+            Assert.assertEquals(CONV.toRpcJson(rpcRequest), new String(out.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
     @Test
     public void testRespFromJson() {
         RpcResponse<DirectoryBlockResponse> response = CONV.responseFromJson(DIRECTORY_BLOCK_RESP, DirectoryBlockResponse.class);
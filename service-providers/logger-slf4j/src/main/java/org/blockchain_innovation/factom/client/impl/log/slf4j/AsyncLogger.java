@@ -0,0 +1,273 @@
+package org.blockchain_innovation.factom.client.impl.log.slf4j;
+
+import org.blockchain_innovation.factom.client.api.log.Logger;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A logger that formats and writes enabled messages on a background thread, like an asynchronous appender, so the threads of the client
+ * do not wait for formatting and I/O. Enable it by setting the system property {@value #ASYNC_PROPERTY} to true.
+ * <p>
+ * The level is checked on the calling thread, so disabled levels cost nothing. The arguments are formatted and message suppliers are called
+ * later, so they should not depend on state that changes after logging. Thread names and the MDC in the log output are those of the background thread. When the queue
+ * ({@value #QUEUE_SIZE_PROPERTY}, default 8192) is full, the calling thread waits briefly for room. When the queue is still full the message is
+ * logged on the calling thread, so no messages are lost, but it is written before the messages still queued.
+ * When the JVM shuts down the writer thread is stopped, after which the queued messages are written by the shutdown hook.
+ * </p>
+ */
+public class AsyncLogger implements Logger {
+    public static final String ASYNC_PROPERTY = "factom.logger.async";
+    public static final String QUEUE_SIZE_PROPERTY = "factom.logger.async.queue-size";
+
+    private final Logger delegate;
+
+    public AsyncLogger(Logger delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Whether asynchronous logging has been enabled using the system property.
+     *
+     * @return true when enabled.
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(ASYNC_PROPERTY);
+    }
+
+    /**
+     * Gets the number of messages that were logged on the calling thread because the queue was full.
+     *
+     * @return The number of messages.
+     */
+    public static long getOverflowCount() {
+        return Writer.INSTANCE.overflows.get();
+    }
+
+    /**
+     * Gets the number of messages that could not be written because the delegate logger threw an exception.
+     *
+     * @return The number of messages.
+     */
+    public static long getFailureCount() {
+        return Writer.INSTANCE.failures.get();
+    }
+
+    @Override
+    public void debug(String message, Object... args) {
+        if (delegate.isDebugEnabled()) {
+            Writer.INSTANCE.submit(() -> delegate.debug(message, args));
+        }
+    }
+
+    @Override
+    public void debug(String message, Throwable throwable, Object... args) {
+        if (delegate.isDebugEnabled()) {
+            Writer.INSTANCE.submit(() -> delegate.debug(message, throwable, args));
+        }
+    }
+
+    @Override
+    public void debug(Supplier<String> message) {
+        if (delegate.isDebugEnabled()) {
+            Writer.INSTANCE.submit(() -> delegate.debug(message));
+        }
+    }
+
+    @Override
+    public void debug(Supplier<String> message, Throwable throwable) {
+        if (delegate.isDebugEnabled()) {
+            Writer.INSTANCE.submit(() -> delegate.debug(message, throwable));
+        }
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return delegate.isDebugEnabled();
+    }
+
+    @Override
+    public void info(String message, Object... args) {
+        if (delegate.isInfoEnabled()) {
+            Writer.INSTANCE.submit(() -> delegate.info(message, args));
+        }
+    }
+
+    @Override
+    public void info(String message, Throwable throwable, Object... args) {
+        if (delegate.isInfoEnabled()) {
+            Writer.INSTANCE.submit(() -> delegate.info(message, throwable, args));
+        }
+    }
+
+    @Override
+    public void info(Supplier<String> message) {
+        if (delegate.isInfoEnabled()) {
+            Writer.INSTANCE.submit(() -> delegate.info(message));
+        }
+    }
+
+    @Override
+    public void info(Supplier<String> message, Throwable throwable) {
+        if (delegate.isInfoEnabled()) {
+            Writer.INSTANCE.submit(() -> delegate.info(message, throwable));
+        }
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return delegate.isInfoEnabled();
+    }
+
+    @Override
+    public void warn(String message, Object... args) {
+        if (delegate.isWarnEnabled()) {
+            Writer.INSTANCE.submit(() -> delegate.warn(message, args));
+        }
+    }
+
+    @Override
+    public void warn(String message, Throwable throwable, Object... args) {
+        if (delegate.isWarnEnabled()) {
+            Writer.INSTANCE.submit(() -> delegate.warn(message, throwable, args));
+        }
+    }
+
+    @Override
+    public void warn(Supplier<String> message) {
+        if (delegate.isWarnEnabled()) {
+            Writer.INSTANCE.submit(() -> delegate.warn(message));
+        }
+    }
+
+    @Override
+    public void warn(Supplier<String> message, Throwable throwable) {
+        if (delegate.isWarnEnabled()) {
+            Writer.INSTANCE.submit(() -> delegate.warn(message, throwable));
+        }
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return delegate.isWarnEnabled();
+    }
+
+    @Override
+    public void error(String message, Object... args) {
+        if (delegate.isErrorEnabled()) {
+            Writer.INSTANCE.submit(() -> delegate.error(message, args));
+        }
+    }
+
+    @Override
+    public void error(String message, Throwable throwable, Object... args) {
+        if (delegate.isErrorEnabled()) {
+            Writer.INSTANCE.submit(() -> delegate.error(message, throwable, args));
+        }
+    }
+
+    @Override
+    public void error(Supplier<String> message) {
+        if (delegate.isErrorEnabled()) {
+            Writer.INSTANCE.submit(() -> delegate.error(message));
+        }
+    }
+
+    @Override
+    public void error(Supplier<String> message, Throwable throwable) {
+        if (delegate.isErrorEnabled()) {
+            Writer.INSTANCE.submit(() -> delegate.error(message, throwable));
+        }
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return delegate.isErrorEnabled();
+    }
+
+    /**
+     * The single background thread writing the messages of all asynchronous loggers, in the order they were logged.
+     */
+    private static final class Writer implements Runnable {
+        private static final Writer INSTANCE = new Writer(Integer.getInteger(QUEUE_SIZE_PROPERTY, 8192));
+        private static final long OVERFLOW_WAIT_MILLIS = 10;
+        private static final long POLL_MILLIS = 100;
+        private static final long SHUTDOWN_WAIT_MILLIS = 1000;
+
+        private final BlockingQueue<Runnable> queue;
+        private final AtomicLong overflows = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final Thread thread;
+        private volatile boolean stopped;
+
+        private Writer(int queueSize) {
+            this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+            this.thread = new Thread(this, "Factom Client Logger");
+            thread.setDaemon(true);
+            thread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "Factom Client Logger Shutdown"));
+        }
+
+        void submit(Runnable message) {
+            if (stopped) {
+                write(message);
+                return;
+            }
+            try {
+                // Waiting briefly for the writer keeps the order of the messages during short bursts
+                if (queue.offer(message, OVERFLOW_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            overflows.incrementAndGet();
+            write(message);
+        }
+
+        @Override
+        public void run() {
+            while (!stopped) {
+                try {
+                    Runnable message = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (message != null) {
+                        write(message);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+
+        @SuppressWarnings("PMD.AvoidCatchingGenericException")
+        private void write(Runnable message) {
+            try {
+                message.run();
+            } catch (RuntimeException e) {
+                // A failing message should not stop the logging of the others. Logging the failure could fail as well, so it is counted
+                failures.incrementAndGet();
+            }
+        }
+
+        /**
+         * Stops the writer thread and writes the queued messages on the shutdown hook thread, so they are not written concurrently.
+         */
+        private void shutdown() {
+            stopped = true;
+            try {
+                thread.join(SHUTDOWN_WAIT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // When the writer is stuck in a message, the queued messages are still written rather than lost
+            Runnable message;
+            while ((message = queue.poll()) != null) {
+                write(message);
+            }
+        }
+    }
+}
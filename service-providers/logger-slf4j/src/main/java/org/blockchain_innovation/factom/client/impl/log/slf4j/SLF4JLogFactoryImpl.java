@@ -5,7 +5,7 @@ import org.blockchain_innovation.factom.client.api.log.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * SLF4J Log Factory.
+ * SLF4J Log Factory. Logs asynchronously when the system property factom.logger.async is true, see {@link AsyncLogger}.
  */
 public class SLF4JLogFactoryImpl implements LogFactory {
 
@@ -13,16 +13,20 @@ public class SLF4JLogFactoryImpl implements LogFactory {
 
     @Override
     public Logger newInstance(String name) {
-        return new SLF4JLoggerImpl(LoggerFactory.getLogger(name));
+        return wrap(new SLF4JLoggerImpl(LoggerFactory.getLogger(name)));
     }
 
     @Override
     public Logger newInstance(Class<?> clazz) {
-        return new SLF4JLoggerImpl(LoggerFactory.getLogger(clazz));
+        return wrap(new SLF4JLoggerImpl(LoggerFactory.getLogger(clazz)));
     }
 
     @Override
     public String getEngine() {
         return NAME;
     }
+
+    private static Logger wrap(Logger logger) {
+        return AsyncLogger.isEnabled() ? new AsyncLogger(logger) : logger;
+    }
 }
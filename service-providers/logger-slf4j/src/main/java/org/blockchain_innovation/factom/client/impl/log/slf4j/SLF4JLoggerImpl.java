@@ -12,12 +12,16 @@ public class SLF4JLoggerImpl implements Logger {
 
     @Override
     public void debug(String message, Object... args) {
-        impl.debug(String.format(message, args));
+        if (impl.isDebugEnabled()) {
+            impl.debug(format(message, args));
+        }
     }
 
     @Override
     public void debug(String message, Throwable throwable, Object... args) {
-        impl.debug(String.format(message, args), throwable);
+        if (impl.isDebugEnabled()) {
+            impl.debug(format(message, args), throwable);
+        }
     }
 
     @Override
@@ -27,12 +31,16 @@ public class SLF4JLoggerImpl implements Logger {
 
     @Override
     public void info(String message, Object... args) {
-        impl.info(String.format(message, args));
+        if (impl.isInfoEnabled()) {
+            impl.info(format(message, args));
+        }
     }
 
     @Override
     public void info(String message, Throwable throwable, Object... args) {
-        impl.info(String.format(message, args), throwable);
+        if (impl.isInfoEnabled()) {
+            impl.info(format(message, args), throwable);
+        }
     }
 
     @Override
@@ -42,12 +50,16 @@ public class SLF4JLoggerImpl implements Logger {
 
     @Override
     public void warn(String message, Object... args) {
-        impl.warn(String.format(message, args));
+        if (impl.isWarnEnabled()) {
+            impl.warn(format(message, args));
+        }
     }
 
     @Override
     public void warn(String message, Throwable throwable, Object... args) {
-        impl.warn(String.format(message, args), throwable);
+        if (impl.isWarnEnabled()) {
+            impl.warn(format(message, args), throwable);
+        }
     }
 
     @Override
@@ -57,16 +69,27 @@ public class SLF4JLoggerImpl implements Logger {
 
     @Override
     public void error(String message, Object... args) {
-        impl.error(String.format(message, args));
+        if (impl.isErrorEnabled()) {
+            impl.error(format(message, args));
+        }
     }
 
     @Override
     public void error(String message, Throwable throwable, Object... args) {
-        impl.error(String.format(message, args), throwable);
+        if (impl.isErrorEnabled()) {
+            impl.error(format(message, args), throwable);
+        }
     }
 
     @Override
     public boolean isErrorEnabled() {
         return impl.isErrorEnabled();
     }
-}
\ No newline at end of file
+
+    /**
+     * Formats the message, only when there are arguments.
+     */
+    private static String format(String message, Object... args) {
+        return args == null || args.length == 0 ? message : String.format(message, args);
+    }
+}
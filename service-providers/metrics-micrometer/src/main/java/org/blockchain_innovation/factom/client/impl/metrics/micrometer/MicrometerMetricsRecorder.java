@@ -0,0 +1,116 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl.metrics.micrometer;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.blockchain_innovation.factom.client.api.metrics.MetricsRecorder;
+import org.blockchain_innovation.factom.client.api.metrics.RequestMetrics;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the metrics of the client in a Micrometer registry, by default the global registry. Spring Boot adds its registry to the global registry,
+ * so the metrics show up in the actuator without further configuration.
+ * <ul>
+ * <li>{@code factom.client.requests}: timer of whole exchanges, tagged with method, server, outcome and exception</li>
+ * <li>{@code factom.client.requests.phase}: timers of the queue, connect, server and decode phases, tagged with method, server and phase</li>
+ * <li>{@code factom.client.requests.size} and {@code factom.client.responses.size}: payload sizes in bytes, tagged with method and server</li>
+ * <li>{@code factom.client.errors}: errors, tagged with method, server and exception</li>
+ * </ul>
+ * The timers publish percentile histograms, so percentiles can be aggregated by the monitoring system.
+ */
+public class MicrometerMetricsRecorder implements MetricsRecorder {
+    public static final String NAME = "micrometer";
+
+    private static final RequestMetrics.Phase[] PHASES = {RequestMetrics.Phase.QUEUE, RequestMetrics.Phase.CONNECT, RequestMetrics.Phase.SERVER, RequestMetrics.Phase.DECODE};
+
+    private final MeterRegistry registry;
+
+    /**
+     * Creates a recorder for the global registry. Used by the service loader.
+     */
+    public MicrometerMetricsRecorder() {
+        this(Metrics.globalRegistry);
+    }
+
+    /**
+     * Creates a recorder for a specific registry, for use with {@code AbstractClient.setMetricsRecorder}.
+     *
+     * @param registry The registry.
+     */
+    public MicrometerMetricsRecorder(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void record(RequestMetrics metrics) {
+        Tags tags = Tags.of("method", metrics.getMethod(), "server", metrics.getServer());
+        String exception = metrics.isSuccess() ? "none" : metrics.getErrorType().getSimpleName();
+
+        Timer.builder("factom.client.requests")
+                .description("Exchanges with factomd and walletd")
+                .tags(tags)
+                .tag("outcome", metrics.isSuccess() ? "success" : "error")
+                .tag("exception", exception)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(metrics.getDuration(RequestMetrics.Phase.TOTAL, TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+
+        for (RequestMetrics.Phase phase : PHASES) {
+            long nanos = metrics.getDuration(phase, TimeUnit.NANOSECONDS);
+            if (nanos >= 0) {
+                Timer.builder("factom.client.requests.phase")
+                        .description("The phases of exchanges with factomd and walletd")
+                        .tags(tags)
+                        .tag("phase", phase.name().toLowerCase(Locale.ROOT))
+                        .publishPercentileHistogram()
+                        .register(registry)
+                        .record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        DistributionSummary.builder("factom.client.requests.size")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(registry)
+                .record(metrics.getRequestBytes());
+        DistributionSummary.builder("factom.client.responses.size")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(registry)
+                .record(metrics.getResponseBytes());
+
+        if (!metrics.isSuccess()) {
+            Counter.builder("factom.client.errors")
+                    .tags(tags)
+                    .tag("exception", exception)
+                    .register(registry)
+                    .increment();
+        }
+    }
+}
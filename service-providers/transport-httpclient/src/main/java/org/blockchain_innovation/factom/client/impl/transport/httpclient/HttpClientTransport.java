@@ -0,0 +1,316 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl.transport.httpclient;
+
+import org.blockchain_innovation.factom.client.api.errors.FactomRuntimeException;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.api.transport.Transport;
+import org.blockchain_innovation.factom.client.api.transport.TransportRequest;
+import org.blockchain_innovation.factom.client.api.transport.TransportResponse;
+import org.blockchain_innovation.factom.client.impl.settings.RpcSettingsImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.ProxySelector;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Non-blocking transport using the JDK 11+ {@link HttpClient}. Requests are sent and responses are received by the selector thread of the HTTP client,
+ * so no executor thread is occupied while a request is in flight. Only the handling of a complete response runs on the executor of the Factom client.
+ * <p>
+ * Connections are pooled by the HTTP client itself. The size of its pool is a JVM wide setting (jdk.httpclient.connectionPoolSize), so the
+ * max-connections server setting does not apply to this transport.
+ * </p>
+ * <p>
+ * With the h2 http-version, https endpoints negotiate HTTP/2 using ALPN and all requests to a node are multiplexed over a single connection,
+ * falling back to HTTP/1.1 when the node does not support it. With h2c, plain http endpoints are upgraded to HTTP/2 as well. The number of
+ * requests in flight over HTTP/2 is limited by max-concurrent-streams. The flow control windows are JVM wide settings of the HTTP client
+ * (jdk.httpclient.windowsize and jdk.httpclient.connectionWindowSize).
+ * </p>
+ */
+public class HttpClientTransport implements Transport {
+    public static final String NAME = "httpclient";
+    private static final CompletableFuture<Void> COMPLETED = CompletableFuture.completedFuture(null);
+
+    private HttpClient httpClient;
+    private Duration timeout;
+    private String httpVersion;
+    private StreamLimiter streamLimiter;
+    private final ConcurrentMap<String, CompletableFuture<Void>> upgrades = new ConcurrentHashMap<>();
+
+    @Override
+    public Transport configure(RpcSettings settings) {
+        RpcSettings.Server server = settings.getServer();
+        this.timeout = Duration.ofMillis(Math.max(5000, server.getTimeout() * 1000L));
+        this.httpVersion = server.getHttpVersion() == null ? RpcSettingsImpl.ServerImpl.HTTP_1_1 : server.getHttpVersion();
+        boolean http2 = !RpcSettingsImpl.ServerImpl.HTTP_1_1.equals(httpVersion);
+        this.streamLimiter = http2 ? new StreamLimiter(server.getMaxConcurrentStreams()) : null;
+        upgrades.clear();
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NEVER);
+        RpcSettings.Proxy proxy = settings.getProxy();
+        if (proxy != null) {
+            builder.proxy(ProxySelector.of(new InetSocketAddress(proxy.getHost(), proxy.getPort())));
+        }
+        this.httpClient = builder.build();
+        return this;
+    }
+
+    /**
+     * Sends the request using {@link #sendAsync(TransportRequest, Executor)} and waits for the response, so blocking callers respect the
+     * stream limit and the h2c upgrade as well. Aborting the request stops waiting for it.
+     */
+    @Override
+    public TransportResponse send(TransportRequest request) throws IOException {
+        CompletableFuture<TransportResponse> response = sendAsync(request, Runnable::run);
+        request.setAbortHandler(() -> response.cancel(true));
+        try {
+            return response.get();
+        } catch (InterruptedException e) {
+            response.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + request.getUrl());
+        } catch (CancellationException e) {
+            throw new InterruptedIOException("Aborted while waiting for " + request.getUrl());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Could not send the request to " + request.getUrl(), cause);
+        } finally {
+            request.setAbortHandler(null);
+        }
+    }
+
+    @Override
+    public CompletableFuture<TransportResponse> sendAsync(TransportRequest request, Executor executor) {
+        HttpRequest httpRequest;
+        try {
+            httpRequest = httpRequest(request);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<TransportResponse> result = new CompletableFuture<>();
+        if (streamLimiter == null) {
+            send(request, httpRequest, executor, result, null);
+        } else {
+            // Waiting for a stream is part of the queue phase
+            StreamLimiter limiter = streamLimiter;
+            upgraded(request).thenRun(() -> limiter.acquire(() -> send(request, httpRequest, executor, result, limiter)));
+        }
+        return result;
+    }
+
+    /**
+     * Sends the request, completing the result on the executor. The body is collected without blocking, so handling the response on the
+     * executor never waits for the network.
+     *
+     * @return false when the request was cancelled while waiting for a stream, so it was not sent.
+     */
+    private boolean send(TransportRequest request, HttpRequest httpRequest, Executor executor, CompletableFuture<TransportResponse> result, StreamLimiter limiter) {
+        if (result.isDone()) {
+            // Cancelled while waiting for a stream, the limiter hands the stream to the next request
+            return false;
+        }
+        // The HTTP client does not expose connecting, so the connect phase is part of the server phase
+        request.getMetrics().sending();
+        CompletableFuture<HttpResponse<byte[]>> sent;
+        try {
+            sent = httpClient().sendAsync(httpRequest, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.thenRun(() -> request.getMetrics().responded());
+        if (limiter != null) {
+            sent.whenComplete((response, throwable) -> limiter.release());
+        }
+        sent.thenApplyAsync(response -> new Response(response.statusCode(), response.headers(),
+                new ByteArrayInputStream(response.body())), executor)
+                .whenComplete((response, throwable) -> {
+                    if (throwable != null) {
+                        result.completeExceptionally(throwable);
+                    } else if (!result.complete(response)) {
+                        closeQuietly(response);
+                    }
+                });
+        // Cancelling the exchange of the HTTP client aborts the request on Java 16+. Older versions only stop waiting for it
+        CompletableFuture<HttpResponse<byte[]>> exchange = sent;
+        result.whenComplete((response, throwable) -> {
+            if (result.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Every request to a node without an HTTP/2 connection yet is sent over HTTP/1.1 with an upgrade to h2c. So the first request to a node
+     * is an upgrade without a body, and the requests arriving meanwhile wait for it. Afterwards they all share the upgraded connection,
+     * instead of each opening an HTTP/1.1 connection. Nodes that do not support h2c keep being served over HTTP/1.1.
+     */
+    private CompletableFuture<Void> upgraded(TransportRequest request) {
+        URL url = request.getUrl();
+        if (!RpcSettingsImpl.ServerImpl.HTTP_2_CLEARTEXT.equals(httpVersion) || !"http".equalsIgnoreCase(url.getProtocol())) {
+            return COMPLETED;
+        }
+        String node = url.getProtocol() + "://" + url.getAuthority();
+        CompletableFuture<Void> upgrade = new CompletableFuture<>();
+        CompletableFuture<Void> existing = upgrades.putIfAbsent(node, upgrade);
+        if (existing != null) {
+            return existing;
+        }
+        CompletableFuture<HttpResponse<Void>> sent;
+        try {
+            sent = httpClient().sendAsync(HttpRequest.newBuilder(url.toURI())
+                    .timeout(timeout)
+                    .method("OPTIONS", HttpRequest.BodyPublishers.noBody())
+                    .build(), HttpResponse.BodyHandlers.discarding());
+        } catch (URISyntaxException | RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.whenComplete((response, throwable) -> {
+            if (throwable != null) {
+                // Try again with the next request, the node might be down
+                upgrades.remove(node, upgrade);
+            }
+            upgrade.complete(null);
+        });
+        return upgrade;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void close() {
+        // The HTTP client releases its connections and selector thread once it is no longer referenced
+        this.httpClient = null;
+    }
+
+    /**
+     * Gets the number of requests in flight over HTTP/2.
+     *
+     * @return The number of active streams, or 0 when not using HTTP/2.
+     */
+    public int getActiveStreams() {
+        StreamLimiter limiter = streamLimiter;
+        return limiter == null ? 0 : limiter.getActive();
+    }
+
+    /**
+     * Gets the number of requests waiting for an HTTP/2 stream to become available.
+     *
+     * @return The number of waiting requests.
+     */
+    public int getWaitingStreams() {
+        StreamLimiter limiter = streamLimiter;
+        return limiter == null ? 0 : limiter.getWaiting();
+    }
+
+    private static void closeQuietly(TransportResponse response) {
+        try {
+            response.close();
+        } catch (IOException e) {
+            // Nothing to release for a response body held in memory
+        }
+    }
+
+    private HttpClient httpClient() {
+        if (httpClient == null) {
+            throw new FactomRuntimeException("Transport has not been configured");
+        }
+        return httpClient;
+    }
+
+    private HttpRequest httpRequest(TransportRequest request) throws IOException {
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(request.getUrl().toURI())
+                    .timeout(timeout)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(request.getBody()));
+            if (RpcSettingsImpl.ServerImpl.HTTP_2.equals(httpVersion) && !"https".equalsIgnoreCase(request.getUrl().getProtocol())) {
+                // Plain http endpoints are only upgraded with h2c
+                builder.version(HttpClient.Version.HTTP_1_1);
+            }
+            request.getHeaders().forEach(builder::header);
+            return builder.build();
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid URL " + request.getUrl(), e);
+        }
+    }
+
+
+    private static class Response implements TransportResponse {
+        private final int statusCode;
+        private final HttpHeaders headers;
+        private final InputStream body;
+
+        Response(int statusCode, HttpHeaders headers, InputStream body) {
+            this.statusCode = statusCode;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        @Override
+        public String getStatusMessage() {
+            // HTTP/2 has no reason phrase and the HTTP client does not expose the HTTP/1.1 one
+            return StatusMessages.of(statusCode);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return headers.firstValue(name).orElse(null);
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() throws IOException {
+            body.close();
+        }
+    }
+}
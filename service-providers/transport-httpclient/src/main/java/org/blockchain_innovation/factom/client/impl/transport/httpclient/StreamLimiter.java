@@ -0,0 +1,84 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.blockchain_innovation.factom.client.impl.transport.httpclient;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Limits the number of requests in flight over HTTP/2. Requests beyond the limit wait in order, without occupying a thread, and are started
+ * once a request in flight completes. The HTTP client fails requests that exceed the concurrent streams the server allows on its connection,
+ * so the limit should not exceed the SETTINGS_MAX_CONCURRENT_STREAMS of the server (commonly 100 or more).
+ */
+final class StreamLimiter {
+    private final int maxStreams;
+    private final Deque<BooleanSupplier> waiting = new ArrayDeque<>();
+    private int active;
+
+    StreamLimiter(int maxStreams) {
+        this.maxStreams = Math.max(1, maxStreams);
+    }
+
+    /**
+     * Starts the request now when a stream is available, or once one is released. A request that started has to call {@link #release()}
+     * when done.
+     *
+     * @param request Starts the request, returning false when it no longer needs the stream, for instance because it was cancelled.
+     */
+    void acquire(BooleanSupplier request) {
+        synchronized (this) {
+            if (active >= maxStreams) {
+                waiting.add(request);
+                return;
+            }
+            active++;
+        }
+        if (!request.getAsBoolean()) {
+            release();
+        }
+    }
+
+    /**
+     * Releases the stream of a completed request, handing it to the first waiting request that still needs it. Waiting requests that were
+     * cancelled are skipped in a loop, so many of them expiring together do not deepen the stack.
+     */
+    void release() {
+        while (true) {
+            BooleanSupplier next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    active--;
+                    return;
+                }
+            }
+            if (next.getAsBoolean()) {
+                return;
+            }
+        }
+    }
+
+    synchronized int getActive() {
+        return active;
+    }
+
+    synchronized int getWaiting() {
+        return waiting.size();
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.blockchain_innovation.factom.client.impl.transport.httpclient;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.errors.FactomRuntimeException;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.HeightsResponse;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.api.transport.Transport;
+import org.blockchain_innovation.factom.client.api.transport.TransportRequest;
+import org.blockchain_innovation.factom.client.api.transport.TransportResponse;
+import org.blockchain_innovation.factom.client.impl.FactomdClientImpl;
+import org.blockchain_innovation.factom.client.impl.settings.RpcSettingsImpl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HttpClientTransportTest {
+
+    private static final String HEIGHTS = "{\"jsonrpc\":\"2.0\",\"id\":0,\"result\":{\"directoryblockheight\":1000,\"leaderheight\":1001,\"entryblockheight\":1000,\"entryheight\":999}}";
+    private static final String ERROR = "{\"jsonrpc\":\"2.0\",\"id\":0,\"error\":{\"code\":-32601,\"message\":\"Method not found\"}}";
+    private static final long SERVER_DELAY = 300;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private ExecutorService clientExecutor;
+    private FactomdClientImpl client;
+    private volatile int statusCode = 200;
+    private volatile String response = HEIGHTS;
+    private volatile long delay;
+    private final List<String> methods = new CopyOnWriteArrayList<>();
+    private final List<String> upgrades = new CopyOnWriteArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @Before
+    public void setup() throws IOException {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        clientExecutor = Executors.newFixedThreadPool(2);
+        client = new FactomdClientImpl();
+        client.setSettings(settings(new Properties()));
+        client.setExecutorService(clientExecutor);
+    }
+
+    private RpcSettings settings(Properties properties) {
+        properties.setProperty("factomd.url", "http://127.0.0.1:" + server.getAddress().getPort() + "/v2");
+        properties.setProperty("factomd.transport", HttpClientTransport.NAME);
+        return new RpcSettingsImpl(RpcSettings.SubSystem.FACTOMD, properties, Optional.empty());
+    }
+
+    @After
+    public void teardown() {
+        client.getTransport().close();
+        clientExecutor.shutdownNow();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    public void transportIsSelectedByName() {
+        Assert.assertEquals(HttpClientTransport.NAME, client.getTransport().getName());
+        Assert.assertEquals(HttpClientTransport.NAME, Transport.Provider.newInstance(HttpClientTransport.NAME).getName());
+    }
+
+    @Test
+    public void retrievesResponse() {
+        FactomResponse<HeightsResponse> heights = client.heights().join();
+        Assert.assertFalse(heights.hasErrors());
+        Assert.assertEquals(200, heights.getHTTPResponseCode());
+        Assert.assertEquals(1001, heights.getResult().getLeaderHeight());
+    }
+
+    @Test
+    public void httpErrorResultsInErrorResponse() {
+        statusCode = 500;
+        response = ERROR;
+        FactomResponse<HeightsResponse> heights = client.heights().join();
+        Assert.assertTrue(heights.hasErrors());
+        Assert.assertEquals(500, heights.getHTTPResponseCode());
+        Assert.assertEquals("Internal Server Error", heights.getHTTPResponseMessage());
+        Assert.assertEquals(-32601, heights.getRpcErrorResponse().getError().getCode());
+    }
+
+    @Test
+    public void requestsInFlightDoNotOccupyExecutorThreads() {
+        delay = SERVER_DELAY;
+        int requests = 20;
+        long start = System.nanoTime();
+        List<CompletableFuture<FactomResponse<HeightsResponse>>> futures = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            futures.add(client.heights());
+        }
+        futures.forEach(future -> Assert.assertFalse(future.join().hasErrors()));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Blocking on 2 executor threads would take at least 10 rounds of the server delay
+        Assert.assertTrue("Took " + elapsed + " ms", elapsed < requests / 2 * SERVER_DELAY / 2);
+    }
+
+    @Test
+    public void h2cUpgradesBeforeSendingRequests() {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.http-version", "h2c");
+        client.setSettings(settings(properties));
+
+        // The test server only speaks HTTP/1.1, so the requests fall back after the upgrade
+        Assert.assertEquals(1001, client.heights().join().getResult().getLeaderHeight());
+        Assert.assertEquals(1001, client.heights().join().getResult().getLeaderHeight());
+        Assert.assertEquals("OPTIONS", methods.get(0));
+        Assert.assertEquals("h2c", upgrades.get(0));
+        Assert.assertEquals(3, methods.size());
+        Assert.assertEquals(1, methods.stream().filter("OPTIONS"::equals).count());
+    }
+
+    @Test
+    public void h2KeepsPlainEndpointsOnHttp11() {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.http-version", "h2");
+        client.setSettings(settings(properties));
+
+        Assert.assertEquals(1001, client.heights().join().getResult().getLeaderHeight());
+        Assert.assertEquals(Collections.singletonList("POST"), methods);
+        Assert.assertNull(upgrades.get(0));
+    }
+
+    @Test
+    public void limitsConcurrentStreams() {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.http-version", "h2");
+        properties.setProperty("factomd.max-concurrent-streams", "2");
+        properties.setProperty("factomd.coalesce-reads", "false");
+        client.setSettings(settings(properties));
+        delay = 100;
+
+        List<CompletableFuture<FactomResponse<HeightsResponse>>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(client.heights());
+        }
+        futures.forEach(future -> Assert.assertFalse(future.join().hasErrors()));
+        Assert.assertEquals(6, methods.size());
+        Assert.assertEquals(2, maxInFlight.get());
+        HttpClientTransport transport = (HttpClientTransport) client.getTransport();
+        Assert.assertEquals(0, transport.getActiveStreams());
+        Assert.assertEquals(0, transport.getWaitingStreams());
+    }
+
+    @Test
+    public void blockingSendUpgradesAndLimitsStreams() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.http-version", "h2c");
+        HttpClientTransport transport = new HttpClientTransport();
+        transport.configure(settings(properties));
+
+        TransportRequest request = new TransportRequest(new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/v2"),
+                "{}".getBytes(StandardCharsets.UTF_8));
+        try (TransportResponse response = transport.send(request)) {
+            Assert.assertEquals(200, response.getStatusCode());
+        }
+        Assert.assertEquals(Arrays.asList("OPTIONS", "POST"), methods);
+        Assert.assertEquals(0, transport.getActiveStreams());
+    }
+
+    @Test
+    public void skipsCancelledWaitersWithoutRecursion() {
+        StreamLimiter limiter = new StreamLimiter(1);
+        limiter.acquire(() -> true);
+        for (int i = 0; i < 100_000; i++) {
+            limiter.acquire(() -> false);
+        }
+        AtomicInteger started = new AtomicInteger();
+        limiter.acquire(() -> started.incrementAndGet() > 0);
+
+        limiter.release();
+        Assert.assertEquals(1, started.get());
+        Assert.assertEquals(1, limiter.getActive());
+        Assert.assertEquals(0, limiter.getWaiting());
+        limiter.release();
+        Assert.assertEquals(0, limiter.getActive());
+    }
+
+    @Test
+    public void unknownHttpVersionFailsEarly() {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.http-version", "http/3");
+        try {
+            settings(properties);
+            Assert.fail("Expected the unknown version to be rejected");
+        } catch (FactomRuntimeException.AssertionException e) {
+            Assert.assertTrue(e.getMessage().contains("http/3"));
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        methods.add(exchange.getRequestMethod());
+        upgrades.add(exchange.getRequestHeaders().getFirst("Upgrade"));
+        exchange.getRequestBody().readAllBytes();
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        if (delay > 0) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        inFlight.decrementAndGet();
+        byte[] body = response.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(statusCode, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.blockchain_innovation.factom.client.impl.transport.unixsocket;
+
+import org.blockchain_innovation.factom.client.impl.transport.PooledHttpTransport;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Transport that sends the JSON-RPC requests over HTTP/1.1 through a Unix domain socket, for factomd/walletd running on the same host. Skips the
+ * TCP stack of the loopback interface. Use a server URL like unix:///var/run/factomd.sock, optionally with the HTTP path as query
+ * (unix:///var/run/walletd.sock?path=/v2).
+ * <p>
+ * Connections are pooled like the pooled transport does, using the max-connections, idle-timeout and validate-after-inactivity settings.
+ * Servers with http(s) URLs are reached over TCP as usual.
+ * </p>
+ */
+public class UnixSocketTransport extends PooledHttpTransport {
+    public static final String NAME = "unix";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected Socket connectUnixSocket(String path, int timeout) throws IOException {
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.connect(UnixDomainSocketAddress.of(path));
+            UnixSocket socket = new UnixSocket(channel, path);
+            socket.setSoTimeout(timeout);
+            return socket;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+}
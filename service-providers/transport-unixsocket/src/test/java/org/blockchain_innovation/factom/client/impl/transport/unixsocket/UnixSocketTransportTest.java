@@ -0,0 +1,189 @@
+/*
+ * Copyright 2018 Blockchain Innovation Foundation <https://blockchain-innovation.org>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.blockchain_innovation.factom.client.impl.transport.unixsocket;
+
+import org.blockchain_innovation.factom.client.api.FactomResponse;
+import org.blockchain_innovation.factom.client.api.model.response.factomd.HeightsResponse;
+import org.blockchain_innovation.factom.client.api.settings.RpcSettings;
+import org.blockchain_innovation.factom.client.api.transport.Transport;
+import org.blockchain_innovation.factom.client.impl.FactomdClientImpl;
+import org.blockchain_innovation.factom.client.impl.settings.RpcSettingsImpl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class UnixSocketTransportTest {
+
+    private static final String HEIGHTS = "{\"jsonrpc\":\"2.0\",\"id\":0,\"result\":{\"directoryblockheight\":1000,\"leaderheight\":1001,\"entryblockheight\":1000,\"entryheight\":999}}";
+
+    private Path directory;
+    private Path socket;
+    private ServerSocketChannel server;
+    private ExecutorService serverExecutor;
+    private FactomdClientImpl client;
+    private final List<String> requestLines = new CopyOnWriteArrayList<>();
+    private final List<String> hosts = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final CountDownLatch received = new CountDownLatch(1);
+    private final CountDownLatch closedByClient = new CountDownLatch(1);
+    private volatile long delay;
+
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("factom");
+        socket = directory.resolve("factomd.sock");
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socket));
+        serverExecutor = Executors.newCachedThreadPool();
+        serverExecutor.execute(this::accept);
+        client = new FactomdClientImpl();
+        client.setSettings(settings("unix://" + socket));
+    }
+
+    @After
+    public void teardown() throws IOException {
+        client.getTransport().close();
+        server.close();
+        serverExecutor.shutdownNow();
+        Files.deleteIfExists(socket);
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void transportIsSelectedByName() {
+        Assert.assertEquals(UnixSocketTransport.NAME, client.getTransport().getName());
+        Assert.assertEquals(UnixSocketTransport.NAME, Transport.Provider.newInstance(UnixSocketTransport.NAME).getName());
+    }
+
+    @Test
+    public void retrievesResponseOverSocket() {
+        FactomResponse<HeightsResponse> heights = client.heights().join();
+        Assert.assertFalse(heights.hasErrors());
+        Assert.assertEquals(1001, heights.getResult().getLeaderHeight());
+        Assert.assertEquals("POST /v2 HTTP/1.1", requestLines.get(0));
+        Assert.assertEquals("localhost", hosts.get(0));
+    }
+
+    @Test
+    public void reusesConnection() {
+        client.heights().join();
+        client.heights().join();
+        Assert.assertEquals(2, requestLines.size());
+        Assert.assertEquals(1, connections.get());
+    }
+
+    @Test
+    public void sendsToPathFromQuery() {
+        client.setSettings(settings("unix://" + socket + "?path=/v2/debug"));
+        client.heights().join();
+        Assert.assertEquals("POST /v2/debug HTTP/1.1", requestLines.get(0));
+    }
+
+    @Test
+    public void cancelClosesConnection() throws InterruptedException {
+        delay = 5000;
+        CompletableFuture<FactomResponse<HeightsResponse>> heights = client.heights();
+        Assert.assertTrue(received.await(5, TimeUnit.SECONDS));
+
+        heights.cancel(true);
+        Assert.assertTrue(closedByClient.await(5, TimeUnit.SECONDS));
+    }
+
+    private RpcSettings settings(String url) {
+        Properties properties = new Properties();
+        properties.setProperty("factomd.url", url);
+        properties.setProperty("factomd.transport", UnixSocketTransport.NAME);
+        properties.setProperty("factomd.health-check-interval", "0");
+        properties.setProperty("factomd.max-retries", "0");
+        return new RpcSettingsImpl(RpcSettings.SubSystem.FACTOMD, properties, Optional.empty());
+    }
+
+    private void accept() {
+        try {
+            while (server.isOpen()) {
+                SocketChannel channel = server.accept();
+                connections.incrementAndGet();
+                serverExecutor.execute(() -> handle(channel));
+            }
+        } catch (IOException e) {
+            // Server closed
+        }
+    }
+
+    /**
+     * A minimal HTTP/1.1 server that answers every request with the heights and keeps the connection open.
+     */
+    private void handle(SocketChannel channel) {
+        try (channel) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.ISO_8859_1));
+            OutputStream out = Channels.newOutputStream(channel);
+            String requestLine;
+            while ((requestLine = reader.readLine()) != null) {
+                requestLines.add(requestLine);
+                int contentLength = 0;
+                String header;
+                while ((header = reader.readLine()) != null && !header.isEmpty()) {
+                    String name = header.substring(0, header.indexOf(':')).trim();
+                    String value = header.substring(header.indexOf(':') + 1).trim();
+                    if ("Content-Length".equalsIgnoreCase(name)) {
+                        contentLength = Integer.parseInt(value);
+                    } else if ("Host".equalsIgnoreCase(name)) {
+                        hosts.add(value);
+                    }
+                }
+                reader.skip(contentLength);
+                received.countDown();
+                if (delay > 0 && reader.read() == -1) {
+                    // The client closed the connection while waiting for the response
+                    closedByClient.countDown();
+                    return;
+                }
+                byte[] body = HEIGHTS.getBytes(StandardCharsets.UTF_8);
+                out.write(("HTTP/1.1 200 OK\r\nContent-Type: application/json\r\nContent-Length: " + body.length + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+                out.write(body);
+                out.flush();
+            }
+        } catch (IOException e) {
+            closedByClient.countDown();
+        }
+    }
+}